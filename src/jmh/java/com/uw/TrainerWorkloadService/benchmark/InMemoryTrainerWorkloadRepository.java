@@ -0,0 +1,78 @@
+package com.uw.TrainerWorkloadService.benchmark;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map backed stand-in for {@link TrainerWorkloadRepository}, so benchmarks measure the service code and not Mongo.
+ * Only the counter updates and the lookups by username are supported.
+ */
+final class InMemoryTrainerWorkloadRepository implements InvocationHandler {
+
+      private final Map<String, TrainerWorkload> trainerWorkloads = new ConcurrentHashMap<>();
+
+      private InMemoryTrainerWorkloadRepository() {
+      }
+
+      /**
+       * @return an empty repository
+       */
+      static TrainerWorkloadRepository create() {
+            return (TrainerWorkloadRepository) Proxy.newProxyInstance(TrainerWorkloadRepository.class.getClassLoader(),
+                    new Class<?>[]{TrainerWorkloadRepository.class}, new InMemoryTrainerWorkloadRepository());
+      }
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                  case "addMonthlyHours" -> {
+                        addMonthlyHours((String) args[0], (String) args[1], (String) args[2], (boolean) args[3],
+                                (int) args[4], (Month) args[5], (int) args[6]);
+                        yield null;
+                  }
+                  case "subtractMonthlyHours" -> subtractMonthlyHours((String) args[0], (int) args[1], (Month) args[2], (int) args[3]);
+                  case "findByTrainerUsername" -> Optional.ofNullable(trainerWorkloads.get((String) args[0]));
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "equals" -> proxy == args[0];
+                  case "toString" -> "InMemoryTrainerWorkloadRepository";
+                  default -> throw new UnsupportedOperationException(method.getName());
+            };
+      }
+
+      private void addMonthlyHours(String username, String firstName, String lastName, boolean isActive,
+                                   int year, Month month, int hours) {
+            trainerWorkloads.compute(username, (key, trainerWorkload) -> {
+                  if (trainerWorkload == null) {
+                        trainerWorkload = new TrainerWorkload();
+                        trainerWorkload.setTrainerUsername(username);
+                        trainerWorkload.setTrainerFirstName(firstName);
+                        trainerWorkload.setTrainerLastName(lastName);
+                        trainerWorkload.setTrainerStatus(isActive);
+                  }
+                  trainerWorkload.getOrCreateYearSummary(year).addHours(month, hours);
+                  return trainerWorkload;
+            });
+      }
+
+      private boolean subtractMonthlyHours(String username, int year, Month month, int hours) {
+            boolean[] found = new boolean[1];
+            trainerWorkloads.computeIfPresent(username, (key, trainerWorkload) -> {
+                  YearSummary yearSummary = trainerWorkload.getYearSummary(year);
+                  if (yearSummary != null) {
+                        yearSummary.deleteHours(month, hours);
+                        found[0] = true;
+                  }
+                  return trainerWorkload;
+            });
+            return found[0];
+      }
+}
@@ -0,0 +1,74 @@
+package com.uw.TrainerWorkloadService.benchmark;
+
+import com.uw.TrainerWorkloadService.config.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification done by the JWT filter on every request, with and without the verified claims cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+      private static final String SECRET = "signatureSecret183827374628384628274628364627836482738";
+
+      private String token;
+      private JwtUtil cachingJwtUtil;
+      private JwtUtil verifyingJwtUtil;
+
+      @Setup
+      public void setUp() {
+            token = Jwts.builder()
+                    .setSubject("trainer1")
+                    .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                    .signWith(SignatureAlgorithm.HS256, SECRET)
+                    .compact();
+            cachingJwtUtil = new JwtUtil(SECRET, 10_000, 300, new SimpleMeterRegistry());
+            // A TTL of 0 keeps nothing, so every call parses and verifies the signature
+            verifyingJwtUtil = new JwtUtil(SECRET, 10_000, 0, new SimpleMeterRegistry());
+      }
+
+      /**
+       * @return the claims of a token seen before
+       */
+      @Benchmark
+      public Claims extractAllClaimsCached() {
+            return cachingJwtUtil.extractAllClaims(token);
+      }
+
+      /**
+       * @return the claims of a token parsed and verified from scratch
+       */
+      @Benchmark
+      public Claims extractAllClaimsUncached() {
+            return verifyingJwtUtil.extractAllClaims(token);
+      }
+
+      /**
+       * @return whether a token seen before is valid
+       */
+      @Benchmark
+      public boolean validateTokenCached() {
+            return cachingJwtUtil.validateToken(token);
+      }
+}
@@ -0,0 +1,81 @@
+package com.uw.TrainerWorkloadService.benchmark;
+
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.service.TrainerWorkloadManagementService;
+import com.uw.TrainerWorkloadService.service.TrainerLeaderboard;
+import com.uw.TrainerWorkloadService.service.TrainerWorkloadNearCache;
+import com.uw.TrainerWorkloadService.service.TrainerWorkloadService;
+import com.uw.TrainerWorkloadService.service.TrainingPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TrainerWorkloadManagementService#addTraining(TrainingRequest)} against an in-memory repository:
+ * validation, month lookup and the counter update, without the database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagementServiceBenchmark {
+
+      private static final int REQUESTS = 1024;
+
+      /**
+       * Number of distinct trainers the requests are spread over.
+       */
+      @Param({"10", "1000"})
+      public int trainers;
+
+      private TrainerWorkloadManagementService trainerWorkloadManagementService;
+      private TrainingRequest[] trainingRequests;
+      private int next;
+
+      @Setup(Level.Trial)
+      public void setUp() {
+            trainerWorkloadManagementService = new TrainerWorkloadManagementService(
+                    new TrainerWorkloadService(InMemoryTrainerWorkloadRepository.create(),
+                            new TrainerWorkloadNearCache(new NoOpCacheManager(), 60000, 100000), new TrainerLeaderboard(),
+                            Optional.empty(), Optional.empty()),
+                    new TrainingPipelineMetrics(new SimpleMeterRegistry()));
+            trainingRequests = new TrainingRequest[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                  TrainingRequest trainingRequest = new TrainingRequest();
+                  trainingRequest.setTrainerUsername("trainer" + (i % trainers));
+                  trainingRequest.setFirstName("John");
+                  trainingRequest.setLastName("Doe");
+                  trainingRequest.setActive(true);
+                  trainingRequest.setTrainingDate(LocalDate.of(2020 + i % 5, 1 + i % 12, 1));
+                  trainingRequest.setTrainingDuration(1 + i % 8);
+                  trainingRequest.setActionType("add");
+                  trainingRequests[i] = trainingRequest;
+            }
+      }
+
+      /**
+       * @return the result message of the service
+       */
+      @Benchmark
+      public String addTraining() {
+            next = (next + 1) & (REQUESTS - 1);
+            return trainerWorkloadManagementService.addTraining(trainingRequests[next]);
+      }
+}
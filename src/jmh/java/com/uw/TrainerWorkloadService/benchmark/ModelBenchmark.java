@@ -0,0 +1,70 @@
+package com.uw.TrainerWorkloadService.benchmark;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Month counter operations of {@link YearSummary} and the month lookup done for every training request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+      private static final Month[] MONTHS = Month.values();
+
+      private YearSummary yearSummary;
+      private int next;
+
+      @Setup
+      public void setUp() {
+            yearSummary = new YearSummary(2024);
+      }
+
+      /**
+       * @return the hours of the month after adding to it
+       */
+      @Benchmark
+      public int addHours() {
+            Month month = MONTHS[nextMonthIndex()];
+            yearSummary.addHours(month, 1);
+            return yearSummary.getHours(month);
+      }
+
+      /**
+       * @return the hours of the month
+       */
+      @Benchmark
+      public int getHours() {
+            return yearSummary.getHours(MONTHS[nextMonthIndex()]);
+      }
+
+      /**
+       * @return the month of a 1-based month number
+       */
+      @Benchmark
+      public Month monthFromNumber() {
+            return Month.fromNumber(nextMonthIndex() + 1);
+      }
+
+      // Cycles over the months so the JIT cannot fold the lookups into constants
+      private int nextMonthIndex() {
+            next = next == YearSummary.MONTHS - 1 ? 0 : next + 1;
+            return next;
+      }
+}
@@ -0,0 +1,58 @@
+package com.uw.TrainerWorkloadService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uw.TrainerWorkloadService.config.AppConfig;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a training.queue message into a {@link TrainingRequest} with the application's {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+      private static final String MESSAGE = "{\"trainerUsername\": \"trainer1\", \"firstName\": \"John\", \"lastName\": \"Doe\", "
+              + "\"active\": true, \"trainingDate\": \"2024-10-24\", \"trainingDuration\": 2, \"actionType\": \"add\"}";
+
+      private ObjectMapper objectMapper;
+      private ObjectReader trainingRequestReader;
+
+      @Setup
+      public void setUp() {
+            objectMapper = new AppConfig().objectMapper();
+            trainingRequestReader = objectMapper.readerFor(TrainingRequest.class);
+      }
+
+      /**
+       * @return the message read the way the JMS listeners do
+       */
+      @Benchmark
+      public TrainingRequest readValue() throws Exception {
+            return objectMapper.readValue(MESSAGE, TrainingRequest.class);
+      }
+
+      /**
+       * @return the message read with a reader bound to the type once, for comparison
+       */
+      @Benchmark
+      public TrainingRequest objectReader() throws Exception {
+            return trainingRequestReader.readValue(MESSAGE);
+      }
+}
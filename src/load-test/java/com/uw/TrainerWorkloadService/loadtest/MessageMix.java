@@ -0,0 +1,108 @@
+package com.uw.TrainerWorkloadService.loadtest;
+
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Generates training requests with a configurable add/delete ratio and trainer popularity,
+ * and keeps the month counters the service is expected to end up with once every request is applied in order.
+ * <p>
+ * Trainers are picked with a Zipf distribution: with a skew of 0 every trainer is equally likely,
+ * with a skew of 1 the most popular trainer gets about as many events as the next ten together.
+ */
+final class MessageMix {
+
+      private static final int FIRST_YEAR = 2020;
+      private static final int MAX_DURATION = 8;
+
+      private final double addRatio;
+      private final int years;
+      private final double[] cumulativeWeights;
+      private final Random random;
+
+      // trainer -> year -> hours indexed by Month.ordinal()
+      private final Map<String, Map<Integer, int[]>> expected = new HashMap<>();
+
+      /**
+       * Constructor for MessageMix.
+       *
+       * @param trainers the number of distinct trainers
+       * @param addRatio the share of add requests, the rest are deletes
+       * @param skew the Zipf exponent of the trainer popularity, 0 for uniform
+       * @param years the number of distinct years the training dates are spread over
+       * @param seed the seed of the random sequence, so runs can be repeated
+       */
+      MessageMix(int trainers, double addRatio, double skew, int years, long seed) {
+            this.addRatio = addRatio;
+            this.years = years;
+            this.random = new Random(seed);
+            this.cumulativeWeights = new double[trainers];
+            double total = 0;
+            for (int rank = 0; rank < trainers; rank++) {
+                  total += 1 / Math.pow(rank + 1, skew);
+                  cumulativeWeights[rank] = total;
+            }
+      }
+
+      /**
+       * Generates the next request and applies it to the expected counters.
+       *
+       * @return the next request to send
+       */
+      TrainingRequest next() {
+            String username = "load-trainer-" + nextTrainer();
+            int year = FIRST_YEAR + random.nextInt(years);
+            int month = 1 + random.nextInt(YearSummary.MONTHS);
+            int duration = 1 + random.nextInt(MAX_DURATION);
+            boolean add = random.nextDouble() < addRatio;
+
+            TrainingRequest trainingRequest = new TrainingRequest();
+            trainingRequest.setTrainerUsername(username);
+            trainingRequest.setFirstName("First " + username);
+            trainingRequest.setLastName("Last " + username);
+            trainingRequest.setActive(true);
+            trainingRequest.setTrainingDate(LocalDate.of(year, month, 1));
+            trainingRequest.setTrainingDuration(duration);
+            trainingRequest.setActionType(add ? "add" : "delete");
+
+            if (add) {
+                  expected.computeIfAbsent(username, key -> new TreeMap<>())
+                          .computeIfAbsent(year, key -> new int[YearSummary.MONTHS])[month - 1] += duration;
+            } else {
+                  // Deleting from a year that was never added to is rejected by the service and changes nothing
+                  int[] monthlyHours = expected.getOrDefault(username, Map.of()).get(year);
+                  if (monthlyHours != null) {
+                        monthlyHours[month - 1] = Math.max(0, monthlyHours[month - 1] - duration);
+                  }
+            }
+            return trainingRequest;
+      }
+
+      /**
+       * @return the expected hours per trainer and year, indexed by {@code Month.ordinal()}
+       */
+      Map<String, Map<Integer, int[]>> getExpected() {
+            return expected;
+      }
+
+      private int nextTrainer() {
+            double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            int low = 0;
+            int high = cumulativeWeights.length - 1;
+            while (low < high) {
+                  int middle = (low + high) >>> 1;
+                  if (cumulativeWeights[middle] < target) {
+                        low = middle + 1;
+                  } else {
+                        high = middle;
+                  }
+            }
+            return low;
+      }
+}
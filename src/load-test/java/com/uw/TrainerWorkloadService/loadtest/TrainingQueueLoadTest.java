@@ -0,0 +1,188 @@
+package com.uw.TrainerWorkloadService.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures how many training.queue messages one instance sustains, end to end: an embedded ActiveMQ broker
+ * feeds {@code TrainingRequestListener}, which writes to an embedded mongod. Once every message is processed,
+ * the stored counters are compared with the ones expected from the generated messages.
+ * <p>
+ * Run with {@code mvn -Pload-test test}; the workload is set with system properties, see src/load-test/README.md.
+ * Messages carry the trainer as JMSXGroupID so the broker hands all events of a trainer to the same consumer,
+ * which keeps them in order and makes the final counters deterministic.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.activemq.broker-url=vm://load-test?broker.persistent=false&broker.useJmx=false&jms.useAsyncSend=true",
+        "eureka.client.enabled=false",
+        "trainer-workload.jms.batch.enabled=false",
+        "management.metrics.distribution.percentiles.trainer.workload=0.5,0.95,0.99",
+        "management.metrics.distribution.expiry.trainer.workload=1h",
+        "management.metrics.distribution.buffer-length.trainer.workload=1",
+        // Every message is logged at INFO, which would be measured instead of the pipeline
+        "logging.level.com.uw.TrainerWorkloadService=WARN",
+        "logging.level.org.springframework.data.mongodb.core=WARN"
+})
+public class TrainingQueueLoadTest {
+
+      private static final String DESTINATION = "training.queue";
+
+      private static final int MESSAGES = Integer.getInteger("loadtest.messages", 50_000);
+      private static final int TRAINERS = Integer.getInteger("loadtest.trainers", 1_000);
+      private static final double ADD_RATIO = Double.parseDouble(System.getProperty("loadtest.add-ratio", "0.8"));
+      private static final double SKEW = Double.parseDouble(System.getProperty("loadtest.skew", "0"));
+      private static final int YEARS = Integer.getInteger("loadtest.years", 3);
+      private static final long SEED = Long.getLong("loadtest.seed", 42);
+      private static final long TIMEOUT_SECONDS = Long.getLong("loadtest.timeout-seconds", 600);
+      // An external mongod can be used instead of the embedded one, e.g. where the binaries cannot be downloaded
+      private static final String MONGO_URI = System.getProperty("loadtest.mongo.uri");
+
+      private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+      @Autowired
+      private JmsTemplate jmsTemplate;
+
+      @Autowired
+      private ObjectMapper objectMapper;
+
+      @Autowired
+      private MeterRegistry meterRegistry;
+
+      @Autowired
+      private TrainerWorkloadRepository trainerWorkloadRepository;
+
+      @DynamicPropertySource
+      static void mongoProperties(DynamicPropertyRegistry registry) {
+            if (MONGO_URI != null) {
+                  registry.add("spring.data.mongodb.uri", () -> MONGO_URI);
+                  return;
+            }
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            registry.add("spring.data.mongodb.uri",
+                    () -> "mongodb://" + address.getHost() + ":" + address.getPort() + "/trainer-workload-load-test");
+      }
+
+      @AfterAll
+      static void stopMongod() {
+            if (mongod != null) {
+                  mongod.close();
+            }
+      }
+
+      @BeforeEach
+      public void setUp() {
+            trainerWorkloadRepository.deleteAll();
+      }
+
+      /**
+       * Sends the configured message mix, waits until every message is processed and reports
+       * throughput and latency percentiles, then checks the stored counters.
+       */
+      @Test
+      public void sustainedThroughput() throws Exception {
+            MessageMix messageMix = new MessageMix(TRAINERS, ADD_RATIO, SKEW, YEARS, SEED);
+            long processedBefore = processed();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                  TrainingRequest trainingRequest = messageMix.next();
+                  String message = objectMapper.writeValueAsString(trainingRequest);
+                  jmsTemplate.convertAndSend(DESTINATION, message, jmsMessage -> {
+                        jmsMessage.setStringProperty("JMSXGroupID", trainingRequest.getTrainerUsername());
+                        return jmsMessage;
+                  });
+            }
+            long sent = System.nanoTime();
+
+            long deadline = sent + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (processed() - processedBefore < MESSAGES && System.nanoTime() < deadline) {
+                  Thread.sleep(10);
+            }
+            long done = System.nanoTime();
+            long processed = processed() - processedBefore;
+
+            System.out.printf("%n%-34s %s%n", "workload", String.format("%d messages, %d trainers, add ratio %.2f, skew %.2f, %d years",
+                    MESSAGES, TRAINERS, ADD_RATIO, SKEW, YEARS));
+            System.out.printf("%-34s %.0f msg/s%n", "send rate", MESSAGES / seconds(sent - start));
+            System.out.printf("%-34s %.0f msg/s (%d processed in %.1f s)%n", "sustained throughput",
+                    processed / seconds(done - start), processed, seconds(done - start));
+            printPercentiles("end to end (send -> applied)", "trainer.workload.jms.end.to.end");
+            printPercentiles("message age (send -> consumed)", "trainer.workload.jms.message.age");
+            printPercentiles("processing (Mongo update)", "trainer.workload.processing");
+
+            assertEquals(MESSAGES, processed, "Not every message was processed within " + TIMEOUT_SECONDS + " s");
+            int mismatches = verifyAggregates(messageMix.getExpected());
+            System.out.printf("%-34s %d trainers checked, %d mismatches%n%n", "aggregates", messageMix.getExpected().size(), mismatches);
+            assertEquals(0, mismatches, "Stored counters differ from the expected ones");
+      }
+
+      // Every processed message is recorded by the processing timer, whatever its outcome
+      private long processed() {
+            return meterRegistry.find("trainer.workload.processing").timers().stream().mapToLong(Timer::count).sum();
+      }
+
+      private void printPercentiles(String label, String timerName) {
+            StringBuilder line = new StringBuilder();
+            for (Timer timer : meterRegistry.find(timerName).timers()) {
+                  if (timer.count() == 0) {
+                        continue;
+                  }
+                  for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                        line.append(String.format(" p%.0f %.1f ms", percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS)));
+                  }
+                  if (timer.getId().getTag("action") != null) {
+                        line.append(String.format(" [%s %s]", timer.getId().getTag("action"), timer.getId().getTag("outcome")));
+                  }
+                  line.append(';');
+            }
+            System.out.printf("%-34s%s%n", label, line);
+      }
+
+      private int verifyAggregates(Map<String, Map<Integer, int[]>> expected) {
+            int mismatches = 0;
+            for (Map.Entry<String, Map<Integer, int[]>> trainer : expected.entrySet()) {
+                  Optional<TrainerWorkload> stored = trainerWorkloadRepository.findByTrainerUsername(trainer.getKey());
+                  for (Map.Entry<Integer, int[]> year : trainer.getValue().entrySet()) {
+                        YearSummary yearSummary = stored.map(trainerWorkload -> trainerWorkload.getYearSummary(year.getKey())).orElse(null);
+                        int[] actual = yearSummary == null ? null : yearSummary.getMonthlyHours();
+                        if (!Arrays.equals(year.getValue(), actual)) {
+                              mismatches++;
+                              System.out.printf("mismatch %s %d: expected %s, stored %s%n", trainer.getKey(), year.getKey(),
+                                      Arrays.toString(year.getValue()), Arrays.toString(actual));
+                        }
+                  }
+            }
+            return mismatches;
+      }
+
+      private static double seconds(long nanos) {
+            return nanos / 1e9;
+      }
+}
@@ -0,0 +1,48 @@
+package com.uw.TrainerWorkloadService.config;
+
+import jakarta.jms.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+
+/**
+ * Cache configuration for the Trainer Workload Service.
+ * The caches themselves are Caffeine caches configured through the {@code spring.cache} properties,
+ * their hit, miss and eviction counts are published by the actuator as {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+      /**
+       * Cache of TrainerWorkload documents keyed by trainer username.
+       */
+      public static final String TRAINER_WORKLOADS = "trainerWorkloads";
+
+      /**
+       * Listener container factory of the topic the TrainerWorkload cache invalidations are published on.
+       */
+      public static final String INVALIDATION_LISTENER_FACTORY = "trainerWorkloadInvalidationListenerFactory";
+
+      /**
+       * Listener container factory subscribing to the invalidation topic with a single consumer,
+       * so every instance receives every invalidation once and in the order it was published.
+       *
+       * @param configurer the configurer applying the {@code spring.jms.listener} properties
+       * @param connectionFactory the JMS connection factory
+       * @return the listener container factory
+       */
+      @Bean(INVALIDATION_LISTENER_FACTORY)
+      @ConditionalOnProperty(name = "trainer-workload.near-cache.invalidation.enabled", havingValue = "true")
+      public DefaultJmsListenerContainerFactory trainerWorkloadInvalidationListenerFactory(
+              DefaultJmsListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+            DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+            configurer.configure(factory, connectionFactory);
+            factory.setPubSubDomain(true);
+            factory.setConcurrency("1");
+            return factory;
+      }
+}
@@ -0,0 +1,43 @@
+package com.uw.TrainerWorkloadService.config;
+
+import jakarta.jms.ConnectionFactory;
+import org.apache.activemq.ActiveMQSession;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+
+/**
+ * JMS configuration of the training.queue listener.
+ */
+@Configuration
+public class JmsConfig {
+
+      /**
+       * Listener container factory of training.queue when it is consumed one message at a time.
+       */
+      public static final String TRAINING_LISTENER_FACTORY = "trainingRequestListenerFactory";
+
+      /**
+       * Listener container factory with a single consumer, so messages are handed to the dispatch lanes in the order
+       * the broker delivers them. The session acknowledges each message on its own, in ActiveMQ's individual
+       * acknowledge mode, so a lane acknowledges a message once it is applied without acknowledging the messages
+       * other lanes are still working on.
+       *
+       * @param configurer the configurer applying the {@code spring.jms.listener} properties
+       * @param connectionFactory the JMS connection factory
+       * @return the listener container factory
+       */
+      @Bean(TRAINING_LISTENER_FACTORY)
+      @ConditionalOnProperty(name = "trainer-workload.jms.batch.enabled", havingValue = "false", matchIfMissing = true)
+      public DefaultJmsListenerContainerFactory trainingRequestListenerFactory(
+              DefaultJmsListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+            DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+            configurer.configure(factory, connectionFactory);
+            factory.setSessionTransacted(false);
+            factory.setSessionAcknowledgeMode(ActiveMQSession.INDIVIDUAL_ACKNOWLEDGE);
+            factory.setConcurrency("1");
+            return factory;
+      }
+}
@@ -0,0 +1,31 @@
+package com.uw.TrainerWorkloadService.config;
+
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadingConverter;
+import com.uw.TrainerWorkloadService.config.mongo.YearSummaryReadingConverter;
+import com.uw.TrainerWorkloadService.config.mongo.YearSummaryWritingConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+/**
+ * MongoDB mapping configuration for the Trainer Workload Service.
+ */
+@Configuration
+public class MongoConfig {
+
+      /**
+       * Registers the converters that store year summaries as compact month arrays
+       * and read trainer workloads in both the keyed and the older array shape of their years.
+       *
+       * @return the custom conversions
+       */
+      @Bean
+      public MongoCustomConversions mongoCustomConversions() {
+            return new MongoCustomConversions(List.of(
+                    new YearSummaryWritingConverter(),
+                    new YearSummaryReadingConverter(),
+                    new TrainerWorkloadReadingConverter()));
+      }
+}
@@ -0,0 +1,35 @@
+package com.uw.TrainerWorkloadService.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Threading configuration for the Trainer Workload Service.
+ * <p>
+ * The virtual thread mode is opt-in: build with the {@code virtual-threads} Maven profile (Java 21)
+ * and run with the {@code virtual-threads} Spring profile. Spring Boot then runs Tomcat requests,
+ * the JMS listener containers and async tasks on virtual threads, and {@link WorkerThreads} does the same
+ * for the service's own workers.
+ */
+@Configuration
+public class ThreadingConfig {
+
+      private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+      /**
+       * Creates the thread factory of the background workers for the active threading mode.
+       *
+       * @param environment the environment holding {@code spring.threads.virtual.enabled}
+       * @return the worker threads
+       */
+      @Bean
+      public WorkerThreads workerThreads(Environment environment) {
+            boolean virtual = Threading.VIRTUAL.isActive(environment);
+            logger.info("Background workers run on {} threads", virtual ? "virtual" : "platform");
+            return new WorkerThreads(virtual);
+      }
+}
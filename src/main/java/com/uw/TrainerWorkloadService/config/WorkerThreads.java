@@ -0,0 +1,51 @@
+package com.uw.TrainerWorkloadService.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the service's own background workers: the dispatch lanes, the batch consumer
+ * and the migrations. In the virtual thread mode ({@code spring.threads.virtual.enabled} on Java 21)
+ * they are virtual threads, like the Tomcat and JMS listener threads managed by Spring Boot.
+ */
+public final class WorkerThreads {
+
+      private static final WorkerThreads PLATFORM = new WorkerThreads(false);
+
+      private final boolean virtual;
+
+      /**
+       * Constructor for WorkerThreads.
+       *
+       * @param virtual true to create virtual threads, which requires Java 21
+       */
+      public WorkerThreads(boolean virtual) {
+            this.virtual = virtual;
+      }
+
+      /**
+       * @return a factory for platform threads
+       */
+      public static WorkerThreads platform() {
+            return PLATFORM;
+      }
+
+      /**
+       * @return true if the workers run on virtual threads
+       */
+      public boolean isVirtual() {
+            return virtual;
+      }
+
+      /**
+       * @param name the name of the threads, virtual threads get a sequence number appended
+       * @return a factory for the threads of one worker
+       */
+      public ThreadFactory factory(String name) {
+            if (virtual) {
+                  return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+            }
+            return runnable -> new Thread(runnable, name);
+      }
+}
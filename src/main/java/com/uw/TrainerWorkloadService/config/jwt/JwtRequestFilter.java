@@ -1,9 +1,13 @@
 package com.uw.TrainerWorkloadService.config.jwt;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +20,8 @@ import java.io.IOException;
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+      private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
+
       private JwtUtil jwtUtil;
 
       @Autowired
@@ -30,17 +36,23 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             final String authorizationHeader = request.getHeader("Authorization");
 
             String username = null;
-            String jwt = null;
+            Claims claims = null;
 
-            // Extract the token from the header
+            // Extract the token from the header, its signature is verified once per token by JwtUtil
             if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-                  jwt = authorizationHeader.substring(7);
-                  username = jwtUtil.extractUsername(jwt);  // Extract username from the JWT
+                  String jwt = authorizationHeader.substring(7);
+                  try {
+                        claims = jwtUtil.extractAllClaims(jwt);
+                        username = claims.getSubject();  // Extract username from the JWT
+                  } catch (JwtException | IllegalArgumentException e) {
+                        // Leave the request unauthenticated, the security chain rejects it
+                        logger.debug("Rejected JWT: {}", e.getMessage());
+                  }
             }
 
             // Validate the token and set the authentication if it's valid
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                  if (jwtUtil.validateToken(jwt)) {
+                  if (jwtUtil.validateClaims(claims)) {
                         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                                 username, null, null);  // No authorities are being set here
                         // Set the authentication in the context
@@ -1,19 +1,62 @@
 package com.uw.TrainerWorkloadService.config.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Parses and validates the JWTs of incoming requests.
+ * <p>
+ * Signatures are verified by a single immutable parser shared by all threads. Verified claims are cached
+ * by the SHA-256 digest of the token, so a token reused across requests is verified once; an entry never
+ * outlives the expiration of its token nor {@code jwt.claims-cache.max-ttl-seconds}.
+ * The cache is reported as the {@code jwtClaims} cache in the {@code cache.*} metrics.
+ */
 @Component
 public class JwtUtil {
 
-      @Value("${jwt.secret}")
-      private String secret;
+      public static final String CLAIMS_CACHE = "jwtClaims";
+
+      private final JwtParser jwtParser;
+      private final Cache<String, Claims> claimsCache;
+
+      /**
+       * Constructor for JwtUtil.
+       *
+       * @param secret the base64 encoded HMAC key of the tokens
+       * @param maximumSize the maximum number of cached tokens
+       * @param maxTtlSeconds the maximum time a token stays cached
+       * @param meterRegistry the registry for the cache metrics
+       */
+      @Autowired
+      public JwtUtil(@Value("${jwt.secret}") String secret,
+                     @Value("${jwt.claims-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${jwt.claims-cache.max-ttl-seconds:300}") long maxTtlSeconds,
+                     MeterRegistry meterRegistry) {
+            this.jwtParser = Jwts.parserBuilder().setSigningKey(secret).build();
+            this.claimsCache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfter(new ExpireAtTokenExpiration(TimeUnit.SECONDS.toNanos(maxTtlSeconds)))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, CLAIMS_CACHE);
+      }
 
       public String extractUsername(String token) {
             return extractClaim(token, Claims::getSubject);
@@ -28,16 +71,75 @@ public class JwtUtil {
             return claimsResolver.apply(claims);
       }
 
-      private Claims extractAllClaims(String token) {
-            return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
-      }
-
-      private boolean isTokenExpired(String token) {
-            return extractExpiration(token).before(new Date());
+      /**
+       * Returns the verified claims of a token, from the cache when the token was verified before.
+       *
+       * @param token the compact JWT
+       * @return the claims of the token
+       * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or its signature does not match
+       */
+      public Claims extractAllClaims(String token) {
+            String key = digest(token);
+            Claims claims = claimsCache.get(key, k -> jwtParser.parseClaimsJws(token).getBody());
+            if (isExpired(claims)) {
+                  // Only possible within the clock granularity of the cache, parse again to fail like an uncached token
+                  claimsCache.invalidate(key);
+                  return jwtParser.parseClaimsJws(token).getBody();
+            }
+            return claims;
       }
 
       // Only validate the token's signature and expiration
       public boolean validateToken(String token) {
-            return !isTokenExpired(token);
+            return validateClaims(extractAllClaims(token));
+      }
+
+      /**
+       * Checks the expiration of claims that were already verified.
+       *
+       * @param claims the claims returned by {@link #extractAllClaims(String)}
+       * @return true if the token has an expiration and it is in the future
+       */
+      public boolean validateClaims(Claims claims) {
+            return claims.getExpiration() != null && !isExpired(claims);
+      }
+
+      private static boolean isExpired(Claims claims) {
+            return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+      }
+
+      private static String digest(String token) {
+            try {
+                  byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+                  return Base64.getEncoder().encodeToString(hash);
+            } catch (NoSuchAlgorithmException e) {
+                  throw new IllegalStateException("SHA-256 is not available", e);
+            }
+      }
+
+      /**
+       * Expires cached claims at the expiration of their token, or after the maximum TTL if it comes first.
+       * Tokens without an expiration are not kept.
+       */
+      private record ExpireAtTokenExpiration(long maxTtlNanos) implements Expiry<String, Claims> {
+
+            @Override
+            public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                  if (claims.getExpiration() == null) {
+                        return 0;
+                  }
+                  long untilExpiration = TimeUnit.MILLISECONDS.toNanos(claims.getExpiration().getTime() - System.currentTimeMillis());
+                  return Math.max(0, Math.min(maxTtlNanos, untilExpiration));
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                  return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                  return currentDuration;
+            }
       }
 }
@@ -0,0 +1,105 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stored shape of a {@link TrainerWorkload}.
+ * <p>
+ * Year summaries are kept in a sub-document keyed by year, {@code years: {"2024": {year: 2024, months: [...]}}},
+ * so a single year can be read and updated by path. Older documents keep them in an array,
+ * {@code years: [{year: 2024, ...}]}; those are converted by {@link #normalizeYearsStage()}.
+ */
+public final class TrainerWorkloadDocument {
+
+      public static final String TRAINER_USERNAME = "trainerUsername";
+      public static final String TRAINER_FIRST_NAME = "trainerFirstName";
+      public static final String TRAINER_LAST_NAME = "trainerLastName";
+      public static final String TRAINER_STATUS = "trainerStatus";
+      public static final String YEARS = "years";
+      public static final String VERSION = "version";
+
+      private TrainerWorkloadDocument() {
+      }
+
+      /**
+       * @param year the year of the summary
+       * @return the path of a year summary, e.g. {@code years.2024}
+       */
+      public static String yearPath(int year) {
+            return YEARS + "." + year;
+      }
+
+      /**
+       * @param trainerWorkload a stored trainer workload, possibly projected
+       * @return its version, 0 if it was stored before the version counter existed
+       */
+      public static long readVersion(Document trainerWorkload) {
+            return trainerWorkload.get(VERSION) instanceof Number version ? version.longValue() : 0;
+      }
+
+      /**
+       * Update pipeline expression that increments the version of the document being updated.
+       *
+       * @return the expression
+       */
+      public static Document nextVersionExpression() {
+            return new Document("$add", List.of(new Document("$ifNull", List.of("$" + VERSION, 0L)), 1L));
+      }
+
+      /**
+       * @param trainerWorkload a stored trainer workload, possibly projected
+       * @return true if its years are still stored in the older array shape
+       */
+      public static boolean hasYearsArray(Document trainerWorkload) {
+            return trainerWorkload.get(YEARS) instanceof List;
+      }
+
+      /**
+       * Reads the month counters of one year from a trainer workload with keyed years,
+       * typically projected on {@link #yearPath(int)}.
+       *
+       * @param trainerWorkload the stored trainer workload
+       * @param year the year to read
+       * @return the counters indexed by month ordinal, all 0 if the year has no summary
+       */
+      public static int[] readYearMonths(Document trainerWorkload, int year) {
+            Document yearSummary = trainerWorkload.get(YEARS) instanceof Document keyed ? keyed.get(String.valueOf(year), Document.class) : null;
+            return yearSummary == null ? new int[YearSummary.MONTHS] : YearSummaryDocument.readMonths(yearSummary);
+      }
+
+      /**
+       * Reads the month counters from a trainer workload with a years array projected by {@code $elemMatch} on one year.
+       *
+       * @param trainerWorkload the projected trainer workload
+       * @return the counters indexed by month ordinal, all 0 if no summary matched the year
+       */
+      public static int[] readMatchedYearMonths(Document trainerWorkload) {
+            // The projection leaves out "years" entirely when no summary matches the year
+            List<Document> years = trainerWorkload.getList(YEARS, Document.class, List.of());
+            return years.isEmpty() ? new int[YearSummary.MONTHS] : YearSummaryDocument.readMonths(years.get(0));
+      }
+
+      /**
+       * Update pipeline stage that converts the years array of an older document into the keyed shape,
+       * month name maps included. Documents already in the keyed shape are left as they are,
+       * and a missing {@code years} field becomes an empty sub-document.
+       *
+       * @return the stage
+       */
+      public static Document normalizeYearsStage() {
+            Document keyedYears = new Document("$arrayToObject", new Document("$map", new Document("input", "$" + YEARS)
+                    .append("as", "y")
+                    .append("in", new Document("k", new Document("$toString", "$$y." + YearSummaryDocument.YEAR))
+                            .append("v", new Document(YearSummaryDocument.YEAR, "$$y." + YearSummaryDocument.YEAR)
+                                    .append(YearSummaryDocument.MONTHS, YearSummaryDocument.monthsExpression("$$y"))))));
+            return new Document("$set", new Document(YEARS, new Document("$cond", List.of(
+                    new Document("$isArray", "$" + YEARS),
+                    keyedYears,
+                    new Document("$ifNull", List.of("$" + YEARS, new Document()))))));
+      }
+}
@@ -0,0 +1,145 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks at startup that the indexes declared on {@link TrainerWorkload} exist in the database with the same
+ * fields, in the same order, and the same uniqueness. The atomic upserts rely on the unique username index
+ * and the name searches on the compound name indexes, so a missing one either breaks writes or turns
+ * searches into collection scans.
+ * <p>
+ * A mismatch fails the startup unless {@code trainer-workload.indexes.fail-on-mismatch} is false, in which case
+ * it is only logged. Leftover indexes that are a prefix of a declared one are logged as redundant,
+ * they cost writes without serving any query.
+ */
+@Component
+public class TrainerWorkloadIndexVerifier {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainerWorkloadIndexVerifier.class);
+
+      private static final String KEY = "key";
+      private static final String NAME = "name";
+      private static final String UNIQUE = "unique";
+
+      private final MongoTemplate mongoTemplate;
+      private final boolean failOnMismatch;
+
+      /**
+       * Constructor for TrainerWorkloadIndexVerifier.
+       *
+       * @param mongoTemplate the template used to read the indexes
+       * @param failOnMismatch whether a missing index fails the startup
+       */
+      @Autowired
+      public TrainerWorkloadIndexVerifier(MongoTemplate mongoTemplate,
+                                          @Value("${trainer-workload.indexes.fail-on-mismatch:true}") boolean failOnMismatch) {
+            this.mongoTemplate = mongoTemplate;
+            this.failOnMismatch = failOnMismatch;
+      }
+
+      /**
+       * Compares the declared indexes with the ones in the database once the application is ready.
+       *
+       * @throws IllegalStateException if a declared index is missing and mismatches fail the startup
+       */
+      @EventListener(ApplicationReadyEvent.class)
+      public void verify() {
+            List<Document> declared = declaredIndexes();
+            List<Document> existing = mongoTemplate.getCollection(mongoTemplate.getCollectionName(TrainerWorkload.class))
+                    .listIndexes().into(new ArrayList<>());
+
+            List<String> redundant = redundantIndexes(declared, existing);
+            if (!redundant.isEmpty()) {
+                  logger.warn("Redundant TrainerWorkload indexes, covered by a declared index: {}", redundant);
+            }
+            List<String> missing = missingIndexes(declared, existing);
+            if (missing.isEmpty()) {
+                  logger.info("Verified {} TrainerWorkload indexes", declared.size());
+                  return;
+            }
+            String message = "TrainerWorkload indexes missing or defined differently: " + missing;
+            if (failOnMismatch) {
+                  throw new IllegalStateException(message);
+            }
+            logger.error(message);
+      }
+
+      /**
+       * @return the indexes declared by the annotations of {@link TrainerWorkload}, as {@code {key, name, unique}}
+       */
+      List<Document> declaredIndexes() {
+            List<Document> declared = new ArrayList<>();
+            for (IndexDefinition index : IndexResolver.create(mongoTemplate.getConverter().getMappingContext()).resolveIndexFor(TrainerWorkload.class)) {
+                  Document options = index.getIndexOptions();
+                  declared.add(new Document(KEY, index.getIndexKeys())
+                          .append(NAME, options.getString(NAME))
+                          .append(UNIQUE, options.getBoolean(UNIQUE, false)));
+            }
+            return declared;
+      }
+
+      /**
+       * @param declared the declared indexes
+       * @param existing the indexes listed by the database
+       * @return the names of the declared indexes without an existing index of the same fields and uniqueness
+       */
+      static List<String> missingIndexes(List<Document> declared, List<Document> existing) {
+            List<String> missing = new ArrayList<>();
+            for (Document index : declared) {
+                  boolean found = existing.stream().anyMatch(candidate -> keyOf(candidate).equals(keyOf(index))
+                          && candidate.getBoolean(UNIQUE, false) == index.getBoolean(UNIQUE, false));
+                  if (!found) {
+                        missing.add(index.getString(NAME));
+                  }
+            }
+            return missing;
+      }
+
+      /**
+       * @param declared the declared indexes
+       * @param existing the indexes listed by the database
+       * @return the names of the existing non-unique indexes whose fields are a strict prefix of a declared index
+       */
+      static List<String> redundantIndexes(List<Document> declared, List<Document> existing) {
+            List<String> redundant = new ArrayList<>();
+            for (Document index : existing) {
+                  if (index.getBoolean(UNIQUE, false)) {
+                        continue;
+                  }
+                  List<String> key = keyOf(index);
+                  boolean covered = declared.stream().map(TrainerWorkloadIndexVerifier::keyOf)
+                          .anyMatch(declaredKey -> declaredKey.size() > key.size() && declaredKey.subList(0, key.size()).equals(key));
+                  if (covered) {
+                        redundant.add(index.getString(NAME));
+                  }
+            }
+            return redundant;
+      }
+
+      /**
+       * Fields and directions in index order. Directions are compared as integers, shells may store them as doubles.
+       */
+      private static List<String> keyOf(Document index) {
+            List<String> key = new ArrayList<>();
+            for (Map.Entry<String, Object> field : index.get(KEY, Document.class).entrySet()) {
+                  Object direction = field.getValue() instanceof Number number ? number.intValue() : field.getValue();
+                  key.add(field.getKey() + ":" + direction);
+            }
+            return key;
+      }
+}
@@ -0,0 +1,147 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Online migration of trainer workloads from the array shape of their years to the keyed shape
+ * described in {@link TrainerWorkloadDocument}, enabled with {@code trainer-workload.migration.years-by-key.enabled}.
+ * <p>
+ * Documents are migrated in small batches of one bulk write each, walking the collection by {@code _id}
+ * in a background thread after startup, with a pause between batches to limit the load on the database.
+ * Every update is guarded by the array shape, so it is safe to run on several instances at once,
+ * to restart it at any time and to run it while the service keeps writing.
+ */
+@Component
+@ConditionalOnProperty(name = "trainer-workload.migration.years-by-key.enabled", havingValue = "true")
+public class TrainerWorkloadLayoutMigration {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainerWorkloadLayoutMigration.class);
+
+      private static final Criteria ARRAY_SHAPE = Criteria.where(TrainerWorkloadDocument.YEARS).type(JsonSchemaObject.Type.arrayType());
+
+      private final MongoTemplate mongoTemplate;
+      private final int batchSize;
+      private final long pauseMillis;
+      private final Counter migratedDocuments;
+      private final WorkerThreads workerThreads;
+
+      /**
+       * Constructor for TrainerWorkloadLayoutMigration.
+       *
+       * @param mongoTemplate the template used to read and update the documents
+       * @param meterRegistry the registry for the migration metrics
+       * @param batchSize the number of documents migrated per bulk write
+       * @param pauseMillis the pause between two batches
+       * @param workerThreads the factory of the migration thread
+       */
+      @Autowired
+      public TrainerWorkloadLayoutMigration(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                            @Value("${trainer-workload.migration.years-by-key.batch-size:500}") int batchSize,
+                                            @Value("${trainer-workload.migration.years-by-key.pause-ms:100}") long pauseMillis,
+                                            WorkerThreads workerThreads) {
+            this.mongoTemplate = mongoTemplate;
+            this.workerThreads = workerThreads;
+            this.batchSize = batchSize;
+            this.pauseMillis = pauseMillis;
+            this.migratedDocuments = Counter.builder("trainer.workload.migration.years.migrated")
+                    .description("Trainer workloads converted to years keyed by year")
+                    .register(meterRegistry);
+      }
+
+      /**
+       * Starts the migration in a background thread once the application is ready.
+       */
+      @EventListener(ApplicationReadyEvent.class)
+      public void start() {
+            Thread thread = workerThreads.factory("trainer-workload-layout-migration").newThread(this::migrateAll);
+            thread.setDaemon(true);
+            thread.start();
+      }
+
+      /**
+       * Migrates every document still in the array shape.
+       *
+       * @return the number of documents migrated
+       */
+      public long migrateAll() {
+            logger.info("Migrating TrainerWorkload years to the keyed shape, batch size: {}", batchSize);
+            long migrated = 0;
+            Object lastId = null;
+            try {
+                  while (true) {
+                        List<Object> ids = findBatch(lastId);
+                        if (ids.isEmpty()) {
+                              break;
+                        }
+                        migrated += migrateBatch(ids);
+                        lastId = ids.get(ids.size() - 1);
+                        if (pauseMillis > 0) {
+                              Thread.sleep(pauseMillis);
+                        }
+                  }
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  logger.warn("TrainerWorkload migration interrupted after {} documents", migrated);
+                  return migrated;
+            } catch (RuntimeException e) {
+                  // Safe to resume on the next start, migrated documents are skipped by the query
+                  logger.error("TrainerWorkload migration failed after {} documents", migrated, e);
+                  return migrated;
+            }
+            logger.info("TrainerWorkload migration finished, {} documents migrated", migrated);
+            return migrated;
+      }
+
+      private List<Object> findBatch(Object lastId) {
+            Criteria criteria = lastId == null ? ARRAY_SHAPE : new Criteria().andOperator(ARRAY_SHAPE, Criteria.where("_id").gt(lastId));
+            Query query = new Query(criteria).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include("_id");
+            List<Object> ids = new ArrayList<>();
+            for (Document document : mongoTemplate.find(query, Document.class, collectionName())) {
+                  ids.add(document.get("_id"));
+            }
+            return ids;
+      }
+
+      private long migrateBatch(List<Object> ids) {
+            List<WriteModel<Document>> operations = new ArrayList<>(ids.size());
+            for (Object id : ids) {
+                  // The shape guard makes the update a no-op for documents migrated since they were read
+                  operations.add(new UpdateOneModel<>(
+                          new Document("_id", id).append(TrainerWorkloadDocument.YEARS, new Document("$type", "array")),
+                          List.of(TrainerWorkloadDocument.normalizeYearsStage())));
+            }
+            long modified = mongoTemplate.getCollection(collectionName())
+                    .bulkWrite(operations, new BulkWriteOptions().ordered(false))
+                    .getModifiedCount();
+            migratedDocuments.increment(modified);
+            return modified;
+      }
+
+      private String collectionName() {
+            return mongoTemplate.getCollectionName(TrainerWorkload.class);
+      }
+}
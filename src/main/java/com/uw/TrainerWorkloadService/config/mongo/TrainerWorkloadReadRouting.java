@@ -0,0 +1,124 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read preferences of the trainer workload reads, by route.
+ * <p>
+ * Dashboard reads (hours of a trainer and their version) and list reads (exports, searches, leaderboard rebuilds)
+ * can be sent to secondaries with {@code trainer-workload.read-routing.dashboard} and {@code .list}, taking load off
+ * the primary that applies the training requests. Their staleness is bounded by
+ * {@code trainer-workload.read-routing.max-staleness-seconds}. Reads of the organization totals repair always use the primary.
+ * <p>
+ * Every routed read is timed in {@code trainer.workload.mongo.reads}, tagged with its route and read preference.
+ * Streams are timed up to the first batch, the rest depends on how fast the caller consumes it.
+ */
+@Component
+public class TrainerWorkloadReadRouting {
+
+      /**
+       * Kinds of reads that can be routed separately.
+       */
+      public enum Route {
+            /**
+             * Reads of the organization totals repair, always on the primary.
+             */
+            PRIMARY,
+            /**
+             * Hours and versions of single trainers or small batches of them.
+             */
+            DASHBOARD,
+            /**
+             * Reads walking many trainers.
+             */
+            LIST;
+
+            String tag() {
+                  return name().toLowerCase(Locale.ROOT);
+            }
+      }
+
+      // The driver rejects smaller bounds, a secondary's lag is only known to the nearest heartbeat
+      private static final long MIN_MAX_STALENESS_SECONDS = 90;
+
+      private final Map<Route, ReadPreference> readPreferences = new EnumMap<>(Route.class);
+      private final Map<Route, Timer> readTimers = new EnumMap<>(Route.class);
+
+      /**
+       * Constructor for TrainerWorkloadReadRouting.
+       *
+       * @param meterRegistry the registry for the read latency timers
+       * @param dashboardMode the read preference mode of dashboard reads, e.g. {@code secondaryPreferred}
+       * @param listMode the read preference mode of list reads
+       * @param maxStalenessSeconds the maximum replication lag of a secondary used by a non-primary mode, 0 for no bound
+       * @throws IllegalArgumentException if a mode is unknown or the staleness bound is below 90 seconds
+       */
+      @Autowired
+      public TrainerWorkloadReadRouting(MeterRegistry meterRegistry,
+                                        @Value("${trainer-workload.read-routing.dashboard:primary}") String dashboardMode,
+                                        @Value("${trainer-workload.read-routing.list:primary}") String listMode,
+                                        @Value("${trainer-workload.read-routing.max-staleness-seconds:90}") long maxStalenessSeconds) {
+            if (maxStalenessSeconds != 0 && maxStalenessSeconds < MIN_MAX_STALENESS_SECONDS) {
+                  throw new IllegalArgumentException("Max staleness must be 0 or at least " + MIN_MAX_STALENESS_SECONDS + " seconds");
+            }
+            readPreferences.put(Route.PRIMARY, ReadPreference.primary());
+            readPreferences.put(Route.DASHBOARD, readPreference(dashboardMode, maxStalenessSeconds));
+            readPreferences.put(Route.LIST, readPreference(listMode, maxStalenessSeconds));
+            readPreferences.forEach((route, readPreference) -> readTimers.put(route, Timer.builder("trainer.workload.mongo.reads")
+                    .description("Latency of trainer workload reads by route")
+                    .tag("route", route.tag())
+                    .tag("read.preference", readPreference.getName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)));
+      }
+
+      /**
+       * @param route the route of a read
+       * @return the read preference the read is sent with
+       */
+      public ReadPreference getReadPreference(Route route) {
+            return readPreferences.get(route);
+      }
+
+      /**
+       * @param route the route of the query
+       * @param query a query about to be run
+       * @return the query, sent with the read preference of the route
+       */
+      public Query route(Route route, Query query) {
+            return query.withReadPreference(readPreferences.get(route));
+      }
+
+      /**
+       * Runs a read and records its latency under its route.
+       *
+       * @param route the route of the read
+       * @param read the read
+       * @param <T> the result type
+       * @return the result of the read
+       */
+      public <T> T time(Route route, Supplier<T> read) {
+            return readTimers.get(route).record(read);
+      }
+
+      private static ReadPreference readPreference(String mode, long maxStalenessSeconds) {
+            ReadPreference readPreference = ReadPreference.valueOf(mode);
+            if (readPreference.equals(ReadPreference.primary()) || maxStalenessSeconds == 0) {
+                  return readPreference;
+            }
+            return ReadPreference.valueOf(mode, List.of(), maxStalenessSeconds, TimeUnit.SECONDS);
+      }
+}
@@ -0,0 +1,54 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads a {@link TrainerWorkload} whose years are stored either keyed by year or in the older list shape.
+ * Documents still in the list shape are rewritten by {@link TrainerWorkloadLayoutMigration}
+ * or by the next counter update.
+ */
+@ReadingConverter
+public class TrainerWorkloadReadingConverter implements Converter<Document, TrainerWorkload> {
+
+      @Override
+      public TrainerWorkload convert(Document source) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            Object id = source.get("_id");
+            trainerWorkload.setId(id == null ? null : id.toString());
+            trainerWorkload.setTrainerUsername(source.getString("trainerUsername"));
+            trainerWorkload.setTrainerFirstName(source.getString("trainerFirstName"));
+            trainerWorkload.setTrainerLastName(source.getString("trainerLastName"));
+            trainerWorkload.setTrainerStatus(source.getBoolean("trainerStatus", false));
+            trainerWorkload.setVersion(TrainerWorkloadDocument.readVersion(source));
+            trainerWorkload.setYears(readYears(source.get(TrainerWorkloadDocument.YEARS)));
+            return trainerWorkload;
+      }
+
+      private static Map<Integer, YearSummary> readYears(Object years) {
+            Map<Integer, YearSummary> result = new TreeMap<>();
+            if (years instanceof Document keyed) {
+                  keyed.forEach((year, yearSummary) -> {
+                        if (yearSummary instanceof Document document) {
+                              int[] months = YearSummaryDocument.readMonths(document);
+                              result.put(Integer.parseInt(year), new YearSummary(Integer.parseInt(year), months));
+                        }
+                  });
+            } else if (years instanceof List<?> list) {
+                  for (Object yearSummary : list) {
+                        if (yearSummary instanceof Document document) {
+                              YearSummary read = YearSummaryDocument.fromDocument(document);
+                              result.put(read.getYear(), read);
+                        }
+                  }
+            }
+            return result;
+      }
+}
@@ -0,0 +1,75 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stored shape of a {@link YearSummary}: {@code {year: 2024, months: [h1, ..., h12]}}.
+ * <p>
+ * Older documents store the counters as {@code monthlyHours: {JANUARY: h1, ...}}. They are still read,
+ * and a year summary is rewritten in the array shape the next time one of its counters is updated.
+ */
+public final class YearSummaryDocument {
+
+      public static final String YEAR = "year";
+      public static final String MONTHS = "months";
+      public static final String LEGACY_MONTHLY_HOURS = "monthlyHours";
+
+      private YearSummaryDocument() {
+      }
+
+      public static Document toDocument(YearSummary yearSummary) {
+            List<Integer> months = new ArrayList<>(YearSummary.MONTHS);
+            for (int hours : yearSummary.getMonthlyHours()) {
+                  months.add(hours);
+            }
+            return new Document(YEAR, yearSummary.getYear()).append(MONTHS, months);
+      }
+
+      public static YearSummary fromDocument(Document document) {
+            return new YearSummary(document.getInteger(YEAR, 0), readMonths(document));
+      }
+
+      /**
+       * Reads the month counters of a stored year summary in either shape.
+       *
+       * @param document the stored year summary
+       * @return the counters indexed by {@link Month#ordinal()}
+       */
+      public static int[] readMonths(Document document) {
+            int[] monthlyHours = new int[YearSummary.MONTHS];
+            List<Number> months = document.getList(MONTHS, Number.class);
+            if (months != null) {
+                  for (int i = 0; i < Math.min(months.size(), monthlyHours.length); i++) {
+                        monthlyHours[i] = months.get(i) == null ? 0 : months.get(i).intValue();
+                  }
+                  return monthlyHours;
+            }
+            Document legacy = document.get(LEGACY_MONTHLY_HOURS, Document.class);
+            if (legacy != null) {
+                  for (Month month : Month.values()) {
+                        Number hours = legacy.get(month.name(), Number.class);
+                        monthlyHours[month.ordinal()] = hours == null ? 0 : hours.intValue();
+                  }
+            }
+            return monthlyHours;
+      }
+
+      /**
+       * Aggregation expression for the month counter array of a stored year summary in either shape.
+       *
+       * @param yearSummary the field path or variable of the year summary, e.g. {@code "$$y"}
+       * @return the expression
+       */
+      public static Document monthsExpression(String yearSummary) {
+            List<Object> legacyMonths = new ArrayList<>(YearSummary.MONTHS);
+            for (Month month : Month.values()) {
+                  legacyMonths.add(new Document("$ifNull", List.of(yearSummary + "." + LEGACY_MONTHLY_HOURS + "." + month.name(), 0)));
+            }
+            return new Document("$ifNull", List.of(yearSummary + "." + MONTHS, legacyMonths));
+      }
+}
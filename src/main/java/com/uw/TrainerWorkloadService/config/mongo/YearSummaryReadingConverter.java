@@ -0,0 +1,18 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Reads a {@link YearSummary} stored either as a month counter array or in the older month name map shape.
+ */
+@ReadingConverter
+public class YearSummaryReadingConverter implements Converter<Document, YearSummary> {
+
+      @Override
+      public YearSummary convert(Document source) {
+            return YearSummaryDocument.fromDocument(source);
+      }
+}
@@ -0,0 +1,18 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Writes a {@link YearSummary} as a year and a 12 element array of month counters.
+ */
+@WritingConverter
+public class YearSummaryWritingConverter implements Converter<YearSummary, Document> {
+
+      @Override
+      public Document convert(YearSummary source) {
+            return YearSummaryDocument.toDocument(source);
+      }
+}
@@ -0,0 +1,95 @@
+package com.uw.TrainerWorkloadService.controller;
+
+import com.uw.TrainerWorkloadService.dto.LeaderboardEntry;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.service.TrainerLeaderboard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+/**
+ * REST controller for the monthly trainer leaderboards, served from memory by {@link TrainerLeaderboard}.
+ * The rankings are those of this instance, and are only served once they have been built from the database.
+ */
+@RestController
+@RequestMapping("/trainer-workload/leaderboard")
+public class LeaderboardController {
+
+      private static final int MAX_LIMIT = 1000;
+
+      private final TrainerLeaderboard trainerLeaderboard;
+
+      /**
+       * Constructor for LeaderboardController.
+       *
+       * @param trainerLeaderboard the leaderboard of trainers by hours
+       */
+      @Autowired
+      public LeaderboardController(TrainerLeaderboard trainerLeaderboard) {
+            this.trainerLeaderboard = trainerLeaderboard;
+      }
+
+      /**
+       * Retrieves the trainers with the most hours in a month.
+       *
+       * @param year the year of the leaderboard
+       * @param month the month of the leaderboard
+       * @param limit the maximum number of trainers, 50 if not given
+       * @return a ResponseEntity with the trainers, most hours first, an error message if the month or limit is invalid,
+       * or 503 while the leaderboard is warming up
+       */
+      @GetMapping("/{year}/{month}")
+      public ResponseEntity<?> getTop(
+              @PathVariable(name = "year") int year,
+              @PathVariable(name = "month") int month,
+              @RequestParam(name = "limit", defaultValue = "50") int limit) {
+            if (month < 1 || month > 12) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Invalid month\"}");
+            }
+            if (limit < 1 || limit > MAX_LIMIT) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Limit must be between 1 and " + MAX_LIMIT + "\"}");
+            }
+            if (!trainerLeaderboard.isReady()) {
+                  return warmingUp();
+            }
+            return ResponseEntity.ok(trainerLeaderboard.top(year, Month.fromNumber(month), limit));
+      }
+
+      /**
+       * Retrieves the rank of a trainer in a month.
+       *
+       * @param year the year of the leaderboard
+       * @param month the month of the leaderboard
+       * @param username the username of the trainer
+       * @return a ResponseEntity with the rank and hours of the trainer, 404 if the trainer has no hours in the month,
+       * or 503 while the leaderboard is warming up
+       */
+      @GetMapping("/{year}/{month}/{username}")
+      public ResponseEntity<?> getRank(
+              @PathVariable(name = "year") int year,
+              @PathVariable(name = "month") int month,
+              @PathVariable(name = "username") String username) {
+            if (month < 1 || month > 12) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Invalid month\"}");
+            }
+            if (!trainerLeaderboard.isReady()) {
+                  return warmingUp();
+            }
+            Optional<LeaderboardEntry> entry = trainerLeaderboard.rank(username, year, Month.fromNumber(month));
+            if (entry.isEmpty()) {
+                  return new ResponseEntity<>("{\"message\": \"Trainer not ranked\"}", HttpStatus.NOT_FOUND);
+            }
+            return ResponseEntity.ok(entry.get());
+      }
+
+      private static ResponseEntity<?> warmingUp() {
+            return new ResponseEntity<>("{\"message\": \"Leaderboard is warming up\"}", HttpStatus.SERVICE_UNAVAILABLE);
+      }
+}
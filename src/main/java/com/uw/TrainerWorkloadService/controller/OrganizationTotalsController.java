@@ -0,0 +1,82 @@
+package com.uw.TrainerWorkloadService.controller;
+
+import com.uw.TrainerWorkloadService.dto.OrganizationYearTotals;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.OrganizationTotals;
+import com.uw.TrainerWorkloadService.service.OrganizationTotalsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for the organization-wide hours kept by {@link OrganizationTotalsService}.
+ */
+@RestController
+@RequestMapping("/trainer-workload/organization-totals")
+@ConditionalOnProperty(name = "trainer-workload.organization-totals.enabled", havingValue = "true")
+public class OrganizationTotalsController {
+
+      private static final Logger logger = LoggerFactory.getLogger(OrganizationTotalsController.class);
+
+      private final OrganizationTotalsService organizationTotalsService;
+
+      /**
+       * Constructor for OrganizationTotalsController.
+       *
+       * @param organizationTotalsService the service keeping the organization totals
+       */
+      @Autowired
+      public OrganizationTotalsController(OrganizationTotalsService organizationTotalsService) {
+            this.organizationTotalsService = organizationTotalsService;
+      }
+
+      /**
+       * Retrieves the hours of every month by year and trainer status.
+       *
+       * @param year the year to read, every year if not given
+       * @return a ResponseEntity with the totals, by year and then inactive before active trainers
+       */
+      @GetMapping
+      public ResponseEntity<List<OrganizationYearTotals>> getTotals(@RequestParam(name = "year", required = false) Integer year) {
+            List<OrganizationYearTotals> totals = organizationTotalsService.getTotals(year).stream()
+                    .map(OrganizationTotalsController::toYearTotals)
+                    .toList();
+            return ResponseEntity.ok(totals);
+      }
+
+      /**
+       * Rebuilds the totals from the trainer workloads.
+       *
+       * @return a ResponseEntity with the number of trainers read, or an error message if the rebuild failed
+       */
+      @PostMapping("/repair")
+      public ResponseEntity<String> repair() {
+            try {
+                  long trainers = organizationTotalsService.repair();
+                  return ResponseEntity.ok("{\"trainers\": " + trainers + "}");
+            } catch (IllegalStateException e) {
+                  logger.error("Error repairing organization totals: {}", e.getMessage());
+                  return new ResponseEntity<>("{\"message\": \"Error repairing organization totals\"}", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+      }
+
+      private static OrganizationYearTotals toYearTotals(OrganizationTotals totals) {
+            Map<Integer, Long> months = new LinkedHashMap<>();
+            for (Month month : Month.values()) {
+                  months.put(month.ordinal() + 1, totals.getMonthlyHours()[month.ordinal()]);
+            }
+            return new OrganizationYearTotals(totals.getYear(), totals.isTrainerStatus(), months, totals.getTotal());
+      }
+}
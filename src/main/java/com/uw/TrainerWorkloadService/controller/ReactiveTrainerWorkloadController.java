@@ -0,0 +1,97 @@
+package com.uw.TrainerWorkloadService.controller;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.service.ReactiveTrainerWorkloadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read endpoints for trainer workloads, next to the blocking ones of {@link TrainerWorkloadController}.
+ * <p>
+ * The handlers return a {@link Mono} backed by the reactive Mongo driver: the servlet thread is released
+ * as soon as the query is sent and the response is completed asynchronously, so slow clients and slow
+ * queries do not hold a thread each.
+ */
+@RestController
+@RequestMapping("/trainer-workload/reactive")
+public class ReactiveTrainerWorkloadController {
+
+      private final ReactiveTrainerWorkloadService reactiveTrainerWorkloadService;
+
+      /**
+       * Constructor for ReactiveTrainerWorkloadController.
+       *
+       * @param reactiveTrainerWorkloadService the service for reading trainer workloads without blocking
+       */
+      @Autowired
+      public ReactiveTrainerWorkloadController(ReactiveTrainerWorkloadService reactiveTrainerWorkloadService) {
+            this.reactiveTrainerWorkloadService = reactiveTrainerWorkloadService;
+      }
+
+      /**
+       * Retrieves the trainer workload of a trainer.
+       * The response carries the version of the trainer workload as its ETag. When the {@code If-None-Match}
+       * header holds the current one, 304 Not Modified is returned without loading the document.
+       *
+       * @param username the username of the trainer
+       * @param ifNoneMatch the entity tags the client already has, if any
+       * @return a Mono emitting the trainer workload, 304 if unchanged, or 404 if the trainer is not found
+       */
+      @GetMapping("/{username}")
+      public Mono<ResponseEntity<TrainerWorkload>> getTrainerWorkload(
+              @PathVariable(name = "username") String username,
+              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+            return reactiveTrainerWorkloadService.getVersion(username)
+                    .flatMap(version -> {
+                          String eTag = TrainerWorkloadETags.of(version);
+                          if (TrainerWorkloadETags.matches(ifNoneMatch, eTag)) {
+                                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<TrainerWorkload>build());
+                          }
+                          return reactiveTrainerWorkloadService.getTrainerWorkloadByUsername(username)
+                                  .map(trainerWorkload -> ResponseEntity.ok().eTag(eTag).body(trainerWorkload));
+                    })
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+      }
+
+      /**
+       * Retrieves the monthly training hours for a specific trainer.
+       * The response carries the version of the trainer workload as its ETag. When the {@code If-None-Match}
+       * header holds the current one, 304 Not Modified is returned from a version-only lookup.
+       *
+       * @param username the username of the trainer
+       * @param year the year for which to retrieve the hours
+       * @param month the month for which to retrieve the hours
+       * @param ifNoneMatch the entity tags the client already has, if any
+       * @return a Mono emitting the number of hours, 304 if unchanged, or an error message if the trainer is not found
+       */
+      @GetMapping("/{username}/{year}/{month}")
+      public Mono<ResponseEntity<String>> getMonthlyHours(
+              @PathVariable(name = "username") String username,
+              @PathVariable(name = "year") int year,
+              @PathVariable(name = "month") int month,
+              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+            if (month < 1 || month > 12) {
+                  return Mono.just(ResponseEntity.badRequest().body("{\"message\": \"Invalid month\"}"));
+            }
+            // The version is read before the hours, so the ETag is never newer than the body it is sent with
+            return reactiveTrainerWorkloadService.getVersion(username)
+                    .flatMap(version -> {
+                          String eTag = TrainerWorkloadETags.of(version);
+                          if (TrainerWorkloadETags.matches(ifNoneMatch, eTag)) {
+                                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<String>build());
+                          }
+                          return reactiveTrainerWorkloadService.getMonthlyHours(username, year, Month.fromNumber(month))
+                                  .map(hours -> ResponseEntity.ok().eTag(eTag).body("{\"hours\": " + hours + "}"));
+                    })
+                    .defaultIfEmpty(new ResponseEntity<>("{\"message\": \"User not found\"}", HttpStatus.NOT_FOUND));
+      }
+}
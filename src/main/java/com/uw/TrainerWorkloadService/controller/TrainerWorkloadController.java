@@ -1,13 +1,31 @@
 package com.uw.TrainerWorkloadService.controller;
 
+import com.uw.TrainerWorkloadService.dto.BulkIngestionResult;
+import com.uw.TrainerWorkloadService.dto.MonthlyHoursBatchRequest;
+import com.uw.TrainerWorkloadService.dto.TrainerHoursRange;
+import com.uw.TrainerWorkloadService.dto.TrainerYearHours;
 import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.service.TrainerWorkloadExportService;
 import com.uw.TrainerWorkloadService.service.TrainerWorkloadManagementService;
 import com.uw.TrainerWorkloadService.service.TrainerWorkloadService;
+import com.uw.TrainerWorkloadService.service.TrainingRequestBulkIngestionService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Optional;
+
 /**
  * REST controller for managing trainer workloads.
  */
@@ -15,19 +33,33 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/trainer-workload")
 public class TrainerWorkloadController {
 
+      private static final int MAX_BATCH_USERNAMES = 1000;
+
+      private static final int MAX_RANGE_YEARS = 100;
+
+      private static final int MAX_SEARCH_LIMIT = 100;
+
       private final TrainerWorkloadManagementService trainerWorkloadManagementService;
       private final TrainerWorkloadService trainerWorkloadService;
+      private final TrainingRequestBulkIngestionService trainingRequestBulkIngestionService;
+      private final TrainerWorkloadExportService trainerWorkloadExportService;
 
       /**
        * Constructor for TrainerWorkloadController.
        *
        * @param trainerWorkloadManagementService the service for managing trainer workloads
        * @param trainerWorkloadService the service for retrieving trainer workloads
+       * @param trainingRequestBulkIngestionService the service for ingesting training requests in bulk
+       * @param trainerWorkloadExportService the service for exporting trainer workloads
        */
       @Autowired
-      public TrainerWorkloadController(TrainerWorkloadManagementService trainerWorkloadManagementService, TrainerWorkloadService trainerWorkloadService) {
+      public TrainerWorkloadController(TrainerWorkloadManagementService trainerWorkloadManagementService, TrainerWorkloadService trainerWorkloadService,
+                                       TrainingRequestBulkIngestionService trainingRequestBulkIngestionService,
+                                       TrainerWorkloadExportService trainerWorkloadExportService) {
             this.trainerWorkloadManagementService = trainerWorkloadManagementService;
             this.trainerWorkloadService = trainerWorkloadService;
+            this.trainingRequestBulkIngestionService = trainingRequestBulkIngestionService;
+            this.trainerWorkloadExportService = trainerWorkloadExportService;
       }
 
       /**
@@ -46,27 +78,229 @@ public class TrainerWorkloadController {
 
       }
 
+      /**
+       * Handles many training requests in one call, sent as a JSON array or as newline delimited JSON.
+       * The body is streamed and applied in chunks, records are accepted or rejected one by one.
+       *
+       * @param contentType the content type of the body, application/json or application/x-ndjson
+       * @param body the request body
+       * @return a ResponseEntity with the result summary, 400 if the body could not be read to the end
+       * @throws IOException if the body cannot be read
+       */
+      @PostMapping(value = "/training-requests", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+      public ResponseEntity<BulkIngestionResult> trainingRequests(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                  InputStream body) throws IOException {
+            BulkIngestionResult result = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                    ? trainingRequestBulkIngestionService.ingestNdjson(body)
+                    : trainingRequestBulkIngestionService.ingestJsonArray(body);
+            if (result.getMessage() != null) {
+                  return ResponseEntity.badRequest().body(result);
+            }
+            return ResponseEntity.ok(result);
+      }
+
       /**
        * Retrieves the monthly training hours for a specific trainer.
+       * The response carries the version of the trainer workload as its ETag. When the {@code If-None-Match}
+       * header holds the current one, 304 Not Modified is returned from a version-only lookup. Otherwise the hours
+       * are read with the version, so the ETag always matches the body, and requests without the header make
+       * that single read only.
        *
        * @param username the username of the trainer
        * @param year the year for which to retrieve the hours
        * @param month the month for which to retrieve the hours
-       * @return a ResponseEntity with the number of hours or an error message if the trainer is not found
+       * @param ifNoneMatch the entity tags the client already has, if any
+       * @return a ResponseEntity with the number of hours, 304 if unchanged, or an error message if the trainer is not found
        */
       @GetMapping("/{username}/{year}/{month}")
       public ResponseEntity<?> getMonthlyHours(
               @PathVariable(name = "username") String username,
               @PathVariable(name = "year") int year,
-              @PathVariable(name = "month") int month) {
+              @PathVariable(name = "month") int month,
+              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+            ResponseEntity<?> notModified = checkNotModified(username, ifNoneMatch);
+            if (notModified != null) {
+                  return notModified;
+            }
 
-            if (trainerWorkloadService.getTrainerWorkloadByUsername(username).isEmpty()) {
+            // The hours and their ETag come from one read: dashboard reads may be served by secondaries,
+            // and two of them can be at different points of the replication
+            Optional<TrainerWorkload> trainerWorkload = trainerWorkloadService.getYearWorkload(username, year);
+            if (trainerWorkload.isEmpty()) {
                   // 404 Not Found if the trainer does not exist. message: "User not found"
                   return new ResponseEntity<>("{\"message\": \"User not found\"}", HttpStatus.NOT_FOUND);
             }
+            YearSummary yearSummary = trainerWorkload.get().getYearSummary(year);
+            int hours = yearSummary == null ? 0 : yearSummary.getHours(Month.fromNumber(month));
+
+            return ResponseEntity.ok().eTag(TrainerWorkloadETags.of(trainerWorkload.get().getVersion())).body("{\"hours\": " + hours + "}");
+      }
 
-            int hours = trainerWorkloadManagementService.getMonthlyHours(username, year, month);
-            return ResponseEntity.ok().body("{\"hours\": " + hours + "}");
+      /**
+       * Retrieves the training hours of every month of a year for a specific trainer, with the yearly total.
+       * Conditional requests are answered like those of {@link #getMonthlyHours}.
+       *
+       * @param username the username of the trainer
+       * @param year the year for which to retrieve the hours
+       * @param ifNoneMatch the entity tags the client already has, if any
+       * @return a ResponseEntity with the hours of the twelve months, 304 if unchanged, or an error message if the trainer is not found
+       */
+      @GetMapping("/{username}/{year}")
+      public ResponseEntity<?> getYearHours(
+              @PathVariable(name = "username") String username,
+              @PathVariable(name = "year") int year,
+              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+            ResponseEntity<?> notModified = checkNotModified(username, ifNoneMatch);
+            if (notModified != null) {
+                  return notModified;
+            }
+            Optional<TrainerYearHours> yearHours = trainerWorkloadManagementService.findYearHours(username, year);
+            if (yearHours.isEmpty()) {
+                  return new ResponseEntity<>("{\"message\": \"User not found\"}", HttpStatus.NOT_FOUND);
+            }
+            return ResponseEntity.ok().eTag(TrainerWorkloadETags.of(yearHours.get().getVersion())).body(yearHours.get());
+      }
+
+      /**
+       * Sums the training hours of a specific trainer over a range of months, per year and overall.
+       * The range may span several years and is read with a single lookup.
+       * Conditional requests are answered like those of {@link #getMonthlyHours}.
+       *
+       * @param username the username of the trainer
+       * @param from the first month of the range, e.g. 2024-01
+       * @param to the last month of the range, included, e.g. 2024-03
+       * @param ifNoneMatch the entity tags the client already has, if any
+       * @return a ResponseEntity with the sums, 304 if unchanged, or an error message if the range is invalid
+       * or the trainer is not found
+       */
+      @GetMapping("/{username}/hours")
+      public ResponseEntity<?> getHoursRange(
+              @PathVariable(name = "username") String username,
+              @RequestParam(name = "from") YearMonth from,
+              @RequestParam(name = "to") YearMonth to,
+              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+            if (to.isBefore(from) || to.getYear() - from.getYear() >= MAX_RANGE_YEARS) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Invalid month range\"}");
+            }
+            ResponseEntity<?> notModified = checkNotModified(username, ifNoneMatch);
+            if (notModified != null) {
+                  return notModified;
+            }
+            Optional<TrainerHoursRange> hoursRange = trainerWorkloadManagementService.findHoursRange(username, from, to);
+            if (hoursRange.isEmpty()) {
+                  return new ResponseEntity<>("{\"message\": \"User not found\"}", HttpStatus.NOT_FOUND);
+            }
+            return ResponseEntity.ok().eTag(TrainerWorkloadETags.of(hoursRange.get().getVersion())).body(hoursRange.get());
       }
 
-}
\ No newline at end of file
+      /**
+       * Searches trainers by prefixes of their username, first name and last name, one page at a time.
+       * Pass the {@code next} cursor of a page as {@code after} to get the following page.
+       *
+       * @param username the prefix of the username
+       * @param firstName the prefix of the first name
+       * @param lastName the prefix of the last name
+       * @param after the cursor of the previous page, the first page if not given
+       * @param limit the maximum number of trainers of the page, 20 if not given
+       * @return a ResponseEntity with the page, or an error message if no prefix is given or a parameter is invalid
+       */
+      @GetMapping("/search")
+      public ResponseEntity<?> searchTrainers(
+              @RequestParam(name = "username", required = false) String username,
+              @RequestParam(name = "firstName", required = false) String firstName,
+              @RequestParam(name = "lastName", required = false) String lastName,
+              @RequestParam(name = "after", required = false) String after,
+              @RequestParam(name = "limit", defaultValue = "20") int limit) {
+            if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Limit must be between 1 and " + MAX_SEARCH_LIMIT + "\"}");
+            }
+            try {
+                  return ResponseEntity.ok(trainerWorkloadManagementService.searchTrainers(
+                          blankToNull(username), blankToNull(firstName), blankToNull(lastName), after, limit));
+            } catch (IllegalArgumentException e) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"" + e.getMessage() + "\"}");
+            }
+      }
+
+      /**
+       * Retrieves the monthly training hours of many trainers for a year with a single lookup.
+       * A single month or a month range can be requested, all months are returned otherwise.
+       *
+       * @param batchRequest the usernames, the year and the optional month or month range
+       * @return a ResponseEntity with one entry per trainer, not found trainers included, or an error message
+       */
+      @PostMapping("/monthly-hours")
+      public ResponseEntity<?> getMonthlyHoursBatch(@RequestBody MonthlyHoursBatchRequest batchRequest) {
+            if (batchRequest == null || batchRequest.getUsernames() == null || batchRequest.getUsernames().isEmpty()) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Usernames must not be empty\"}");
+            }
+            if (batchRequest.getUsernames().size() > MAX_BATCH_USERNAMES) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"At most " + MAX_BATCH_USERNAMES + " usernames per request\"}");
+            }
+
+            int fromMonth = batchRequest.getMonth() != null ? batchRequest.getMonth()
+                    : batchRequest.getFromMonth() != null ? batchRequest.getFromMonth() : 1;
+            int toMonth = batchRequest.getMonth() != null ? batchRequest.getMonth()
+                    : batchRequest.getToMonth() != null ? batchRequest.getToMonth() : 12;
+            if (fromMonth < 1 || toMonth > 12 || fromMonth > toMonth) {
+                  return ResponseEntity.badRequest().body("{\"message\": \"Invalid month range\"}");
+            }
+
+            return ResponseEntity.ok(trainerWorkloadManagementService.findMonthlyHours(
+                    batchRequest.getUsernames(), batchRequest.getYear(), fromMonth, toMonth));
+      }
+
+      /**
+       * Streams all trainer workloads as newline delimited JSON, optionally filtered by status and year range.
+       * Only the years in the range are exported and trainers without hours in it are left out.
+       *
+       * @param trainerStatus only trainers with this status, all trainers if not given
+       * @param fromYear the first year to export, no lower bound if not given
+       * @param toYear the last year to export, no upper bound if not given
+       * @param response the response the records are written to as they are read
+       * @throws IOException if the error message cannot be written
+       */
+      @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+      public void exportTrainerWorkloads(
+              @RequestParam(name = "trainerStatus", required = false) Boolean trainerStatus,
+              @RequestParam(name = "fromYear", required = false) Integer fromYear,
+              @RequestParam(name = "toYear", required = false) Integer toYear,
+              HttpServletResponse response) throws IOException {
+            if (fromYear != null && toYear != null && fromYear > toYear) {
+                  response.setStatus(HttpStatus.BAD_REQUEST.value());
+                  response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                  response.getOutputStream().write("{\"message\": \"Invalid year range\"}".getBytes(StandardCharsets.UTF_8));
+                  return;
+            }
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            trainerWorkloadExportService.export(trainerStatus, fromYear, toYear, response.getOutputStream());
+      }
+
+      /**
+       * Answers a conditional request from a version-only lookup, made only when {@code If-None-Match} is sent.
+       *
+       * @param username the username of the trainer
+       * @param ifNoneMatch the entity tags the client already has, or null
+       * @return 304 if the client has the current version, 404 if the trainer does not exist,
+       * or null if the response must be read
+       */
+      private ResponseEntity<?> checkNotModified(String username, String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                  return null;
+            }
+            Optional<Long> version = trainerWorkloadService.getVersion(username);
+            if (version.isEmpty()) {
+                  return new ResponseEntity<>("{\"message\": \"User not found\"}", HttpStatus.NOT_FOUND);
+            }
+            String currentETag = TrainerWorkloadETags.of(version.get());
+            if (TrainerWorkloadETags.matches(ifNoneMatch, currentETag)) {
+                  return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+            return null;
+      }
+
+      private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value;
+      }
+}
@@ -0,0 +1,43 @@
+package com.uw.TrainerWorkloadService.controller;
+
+import org.springframework.http.ETag;
+
+/**
+ * Entity tags of trainer workload responses, derived from the version of the trainer workload document.
+ * <p>
+ * Every response of a trainer is computed from the document, so a response is unchanged as long as the version
+ * is, and a conditional GET can be answered from the version alone.
+ */
+final class TrainerWorkloadETags {
+
+      private TrainerWorkloadETags() {
+      }
+
+      /**
+       * @param version the version of the trainer workload
+       * @return the strong entity tag of a response computed from that version
+       */
+      static String of(long version) {
+            return "\"" + version + "\"";
+      }
+
+      /**
+       * Checks an {@code If-None-Match} header, with the weak comparison the header calls for.
+       *
+       * @param ifNoneMatch the header value, or null if the header is missing
+       * @param eTag the current entity tag, as returned by {@link #of(long)}
+       * @return true if the client already has the current response
+       */
+      static boolean matches(String ifNoneMatch, String eTag) {
+            if (ifNoneMatch == null) {
+                  return false;
+            }
+            String tag = eTag.substring(1, eTag.length() - 1);
+            for (ETag candidate : ETag.parse(ifNoneMatch)) {
+                  if (candidate.isWildcard() || candidate.tag().equals(tag)) {
+                        return true;
+                  }
+            }
+            return false;
+      }
+}
@@ -0,0 +1,104 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result summary of a bulk ingestion of training requests.
+ */
+@Getter
+public class BulkIngestionResult {
+    /**
+     * The number of records read from the request body.
+     */
+    private int received;
+
+    /**
+     * The number of records applied to the trainer workloads.
+     */
+    private int applied;
+
+    /**
+     * The number of records that were rejected or could not be written.
+     */
+    private int rejected;
+
+    /**
+     * The rejected records, by position in the body, up to the configured limit.
+     */
+    private final List<RecordError> errors = new ArrayList<>();
+
+    /**
+     * True if more records were rejected than are listed in {@link #errors}.
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * Set when the body could not be read to the end. Records before the failure stay applied.
+     */
+    private String message;
+
+    @Getter(AccessLevel.NONE)
+    private final int maxReportedErrors;
+
+    /**
+     * Constructor for BulkIngestionResult.
+     *
+     * @param maxReportedErrors the maximum number of rejected records listed in the result
+     */
+    public BulkIngestionResult(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Counts a record read from the body.
+     */
+    public void recordReceived() {
+        received++;
+    }
+
+    /**
+     * Counts records written to the trainer workloads.
+     *
+     * @param count the number of records
+     */
+    public void recordApplied(int count) {
+        applied += count;
+    }
+
+    /**
+     * Counts a rejected record and lists it while the limit allows.
+     *
+     * @param index the zero based position of the record in the body
+     * @param reason the reason the record was rejected
+     */
+    public void recordRejected(int index, String reason) {
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RecordError(index, reason));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    /**
+     * Marks the ingestion as stopped before the end of the body.
+     *
+     * @param message the reason the body could not be read
+     */
+    public void abort(String message) {
+        this.message = message;
+    }
+
+    /**
+     * A rejected record.
+     *
+     * @param index the zero based position of the record in the body
+     * @param message the reason the record was rejected
+     */
+    public record RecordError(int index, String message) {
+    }
+}
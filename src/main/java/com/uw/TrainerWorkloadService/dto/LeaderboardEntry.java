@@ -0,0 +1,30 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Position of one trainer on the leaderboard of a month.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class LeaderboardEntry {
+    /**
+     * The rank of the trainer, 1 for the most hours. Trainers with the same hours share a rank.
+     */
+    private int rank;
+
+    /**
+     * The username of the trainer.
+     */
+    private String username;
+
+    /**
+     * The hours of the trainer in the month.
+     */
+    private int hours;
+}
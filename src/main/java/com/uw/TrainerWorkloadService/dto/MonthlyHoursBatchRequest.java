@@ -0,0 +1,43 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for reading the monthly hours of many trainers at once.
+ * Either {@code month} or a {@code fromMonth} to {@code toMonth} range may be given, all months are read otherwise.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MonthlyHoursBatchRequest {
+    /**
+     * The usernames of the trainers.
+     */
+    private List<String> usernames;
+
+    /**
+     * The year to read.
+     */
+    private int year;
+
+    /**
+     * The single month to read, from 1 to 12.
+     */
+    private Integer month;
+
+    /**
+     * The first month of the range to read, from 1 to 12.
+     */
+    private Integer fromMonth;
+
+    /**
+     * The last month of the range to read, from 1 to 12.
+     */
+    private Integer toMonth;
+}
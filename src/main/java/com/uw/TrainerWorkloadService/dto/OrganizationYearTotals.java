@@ -0,0 +1,33 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Hours of every month of a year for all trainers with the same status.
+ */
+@Getter
+@AllArgsConstructor
+public class OrganizationYearTotals {
+    /**
+     * The year of the hours.
+     */
+    private int year;
+
+    /**
+     * The status of the trainers, true for active trainers.
+     */
+    private boolean trainerStatus;
+
+    /**
+     * The hours per month number, all twelve months included.
+     */
+    private Map<Integer, Long> months;
+
+    /**
+     * The hours of the whole year.
+     */
+    private long total;
+}
@@ -0,0 +1,46 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Hours of one trainer over a range of months, possibly spanning several years.
+ */
+@Getter
+@AllArgsConstructor
+public class TrainerHoursRange {
+    /**
+     * The username of the trainer.
+     */
+    private String username;
+
+    /**
+     * The first month of the range.
+     */
+    private YearMonth from;
+
+    /**
+     * The last month of the range, included.
+     */
+    private YearMonth to;
+
+    /**
+     * The hours per year, counting only the months of the year that are in the range. Every year of the range is included.
+     */
+    private Map<Integer, Long> yearlyTotals;
+
+    /**
+     * The hours of the whole range.
+     */
+    private long total;
+
+    /**
+     * The version of the trainer workload the hours were read from, sent as the ETag rather than in the body.
+     */
+    @JsonIgnore
+    private long version;
+}
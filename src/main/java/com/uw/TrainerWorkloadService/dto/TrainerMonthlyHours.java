@@ -0,0 +1,30 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Monthly hours of one trainer in a batch read.
+ */
+@Getter
+@AllArgsConstructor
+public class TrainerMonthlyHours {
+    /**
+     * The username of the trainer.
+     */
+    private String username;
+
+    /**
+     * False if the trainer does not exist.
+     */
+    private boolean found;
+
+    /**
+     * The hours per month number, only present if the trainer exists.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Integer, Integer> hours;
+}
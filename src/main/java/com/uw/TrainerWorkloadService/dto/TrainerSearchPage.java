@@ -0,0 +1,23 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of the trainers found by a search.
+ */
+@Getter
+@AllArgsConstructor
+public class TrainerSearchPage {
+    /**
+     * The trainers of the page, in search order.
+     */
+    private List<TrainerSummary> trainers;
+
+    /**
+     * The cursor to pass as {@code after} for the next page, or null if this is the last page.
+     */
+    private String next;
+}
@@ -0,0 +1,31 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Name and status of a trainer found by a search.
+ */
+@Getter
+@AllArgsConstructor
+public class TrainerSummary {
+    /**
+     * The username of the trainer.
+     */
+    private String username;
+
+    /**
+     * The first name of the trainer.
+     */
+    private String firstName;
+
+    /**
+     * The last name of the trainer.
+     */
+    private String lastName;
+
+    /**
+     * The status of the trainer, true for active trainers.
+     */
+    private boolean trainerStatus;
+}
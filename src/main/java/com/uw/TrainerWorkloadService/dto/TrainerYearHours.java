@@ -0,0 +1,40 @@
+package com.uw.TrainerWorkloadService.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Hours of every month of a year for one trainer.
+ */
+@Getter
+@AllArgsConstructor
+public class TrainerYearHours {
+    /**
+     * The username of the trainer.
+     */
+    private String username;
+
+    /**
+     * The year of the hours.
+     */
+    private int year;
+
+    /**
+     * The hours per month number, all twelve months included.
+     */
+    private Map<Integer, Integer> months;
+
+    /**
+     * The hours of the whole year.
+     */
+    private long total;
+
+    /**
+     * The version of the trainer workload the hours were read from, sent as the ETag rather than in the body.
+     */
+    @JsonIgnore
+    private long version;
+}
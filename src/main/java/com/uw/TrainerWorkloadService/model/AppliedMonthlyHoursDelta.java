@@ -0,0 +1,51 @@
+package com.uw.TrainerWorkloadService.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A {@link MonthlyHoursDelta} that was written, with the counter and version the trainer document had just before
+ * the write, as returned by the same atomic update. The change it made follows from them exactly, whatever the
+ * other writers of the trainer did before or after it.
+ */
+@Getter
+@ToString
+public class AppliedMonthlyHoursDelta {
+
+      private final MonthlyHoursDelta delta;
+
+      /**
+       * Whether the write created the trainer document.
+       */
+      private final boolean created;
+
+      /**
+       * The status of the trainer, which a counter update never changes.
+       */
+      private final boolean trainerStatus;
+
+      private final int hoursBefore;
+      private final long versionBefore;
+
+      public AppliedMonthlyHoursDelta(MonthlyHoursDelta delta, boolean created, boolean trainerStatus, int hoursBefore, long versionBefore) {
+            this.delta = delta;
+            this.created = created;
+            this.trainerStatus = trainerStatus;
+            this.hoursBefore = hoursBefore;
+            this.versionBefore = versionBefore;
+      }
+
+      /**
+       * @return the number of hours the write added to the counter, negative when it removed hours
+       */
+      public int getChange() {
+            return delta.applyTo(hoursBefore) - hoursBefore;
+      }
+
+      /**
+       * @return the version the write gave the trainer document
+       */
+      public long getVersion() {
+            return versionBefore + 1;
+      }
+}
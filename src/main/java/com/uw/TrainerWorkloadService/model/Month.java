@@ -17,6 +17,9 @@ public enum Month {
     NOVEMBER(11, "November"),
     DECEMBER(12, "December");
 
+    // values() clones the array on every call, keep one copy for lookups by number
+    private static final Month[] BY_NUMBER = values();
+
     private final int monthNumber;
     private final String monthName;
 
@@ -26,12 +29,10 @@ public enum Month {
     }
 
     public static Month fromNumber(int monthNumber) {
-        for (Month month : Month.values()) {
-            if (month.getMonthNumber() == monthNumber) {
-                return month;
-            }
+        if (monthNumber < 1 || monthNumber > BY_NUMBER.length) {
+            throw new IllegalArgumentException("Invalid month number: " + monthNumber);
         }
-        throw new IllegalArgumentException("Invalid month number: " + monthNumber);
+        return BY_NUMBER[monthNumber - 1];
     }
 
     public static Month fromName(String monthName) {
@@ -0,0 +1,79 @@
+package com.uw.TrainerWorkloadService.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Net change to a single (trainer, year, month) counter accumulated from a sequence of
+ * add and delete events.
+ * <p>
+ * Adding {@code a} hours maps a counter {@code x} to {@code x + a} and deleting {@code b} hours maps it
+ * to {@code max(0, x - b)}. Any sequence of those operations composes to {@code max(floor, x + delta)},
+ * so the whole sequence can be applied to the stored counter in a single update without changing the result.
+ */
+@Getter
+@ToString
+public class MonthlyHoursDelta {
+
+      private final String trainerUsername;
+      private final int year;
+      private final Month month;
+
+      private String trainerFirstName;
+      private String trainerLastName;
+      private boolean trainerStatus;
+
+      /**
+       * Whether at least one add event was seen, in which case the trainer document
+       * and year summary are created when missing.
+       */
+      private boolean createIfMissing;
+
+      private int delta;
+      private int floor;
+
+      public MonthlyHoursDelta(String trainerUsername, int year, Month month) {
+            this.trainerUsername = trainerUsername;
+            this.year = year;
+            this.month = month;
+      }
+
+      /**
+       * Composes an add event onto this delta.
+       *
+       * @param firstName the first name of the trainer, used if the trainer is created
+       * @param lastName the last name of the trainer, used if the trainer is created
+       * @param isActive the trainer status, used if the trainer is created
+       * @param hours the number of hours added
+       */
+      public void add(String firstName, String lastName, boolean isActive, int hours) {
+            if (!createIfMissing) {
+                  trainerFirstName = firstName;
+                  trainerLastName = lastName;
+                  trainerStatus = isActive;
+                  createIfMissing = true;
+            }
+            delta += hours;
+            floor += hours;
+      }
+
+      /**
+       * Composes a delete event onto this delta.
+       *
+       * @param hours the number of hours deleted
+       */
+      public void subtract(int hours) {
+            delta -= hours;
+            floor = Math.max(0, floor - hours);
+      }
+
+      /**
+       * Applies this delta to a counter value.
+       *
+       * @param hours the current value of the counter
+       * @return the value of the counter after all composed events
+       */
+      public int applyTo(int hours) {
+            return Math.max(floor, hours + delta);
+      }
+}
@@ -0,0 +1,80 @@
+package com.uw.TrainerWorkloadService.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Training hours of all trainers with the same status for one year, one counter per month.
+ * Stored in the {@code organizationTotals} collection, one document per (year, trainer status).
+ */
+@Getter
+@ToString
+public class OrganizationTotals {
+
+    private final int year;
+    private final boolean trainerStatus;
+
+    // Indexed by Month#ordinal()
+    private final long[] monthlyHours;
+
+    public OrganizationTotals(int year, boolean trainerStatus) {
+        this(year, trainerStatus, new long[YearSummary.MONTHS]);
+    }
+
+    public OrganizationTotals(int year, boolean trainerStatus, long[] monthlyHours) {
+        this.year = year;
+        this.trainerStatus = trainerStatus;
+        this.monthlyHours = monthlyHours;
+    }
+
+    /**
+     * @param year the year of the totals
+     * @param trainerStatus the status of the trainers
+     * @return the id of the stored totals, e.g. {@code 2024-active}
+     */
+    public static String id(int year, boolean trainerStatus) {
+        return year + (trainerStatus ? "-active" : "-inactive");
+    }
+
+    public String getId() {
+        return id(year, trainerStatus);
+    }
+
+    public void addHours(int monthOrdinal, long hours) {
+        monthlyHours[monthOrdinal] += hours;
+    }
+
+    /**
+     * Adds every month of another set of totals to this one.
+     *
+     * @param other totals of the same year and status
+     */
+    public void addAll(OrganizationTotals other) {
+        for (int ordinal = 0; ordinal < YearSummary.MONTHS; ordinal++) {
+            monthlyHours[ordinal] += other.monthlyHours[ordinal];
+        }
+    }
+
+    /**
+     * @return true if every month is 0
+     */
+    public boolean isEmpty() {
+        for (long hours : monthlyHours) {
+            if (hours != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the hours of the whole year
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long hours : monthlyHours) {
+            total += hours;
+        }
+        return total;
+    }
+}
@@ -2,11 +2,12 @@ package com.uw.TrainerWorkloadService.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Getter
 @Setter
@@ -14,19 +15,49 @@ import java.util.List;
 @NoArgsConstructor
 @ToString
 @Document(collection = "trainerWorkload")
+// Back the name prefix searches, ending with the username so every page boundary is a unique key
+@CompoundIndex(name = "lastName_firstName_username", def = "{'trainerLastName': 1, 'trainerFirstName': 1, 'trainerUsername': 1}")
+@CompoundIndex(name = "firstName_lastName_username", def = "{'trainerFirstName': 1, 'trainerLastName': 1, 'trainerUsername': 1}")
 public class TrainerWorkload {
 
     @Id
     private String id;
 
-    @Indexed
+    @Indexed(unique = true)
     private String trainerUsername;
-    @Indexed
     private String trainerFirstName;
-    @Indexed
     private String trainerLastName;
     private boolean trainerStatus;
 
-    private List<YearSummary> years = new ArrayList<>();
+    // Incremented by every change of the document, 0 for documents stored before the counter existed
+    private long version;
 
-}
\ No newline at end of file
+    // Keyed by year, stored as {"2024": {year: 2024, months: [...]}} so a year can be addressed by path
+    private Map<Integer, YearSummary> years = new TreeMap<>();
+
+    /**
+     * @param year the year to look up
+     * @return the summary of the year, or null if no hours were recorded for it
+     */
+    public YearSummary getYearSummary(int year) {
+        return years.get(year);
+    }
+
+    /**
+     * @param year the year to look up
+     * @return the summary of the year, created empty if it does not exist yet
+     */
+    public YearSummary getOrCreateYearSummary(int year) {
+        return years.computeIfAbsent(year, YearSummary::new);
+    }
+
+    /**
+     * @return a copy of this trainer workload sharing no mutable state with it
+     */
+    public TrainerWorkload copy() {
+        Map<Integer, YearSummary> yearsCopy = new TreeMap<>();
+        years.forEach((year, yearSummary) -> yearsCopy.put(year, new YearSummary(yearSummary.getYear(), yearSummary.getMonthlyHours().clone())));
+        return new TrainerWorkload(id, trainerUsername, trainerFirstName, trainerLastName, trainerStatus, version, yearsCopy);
+    }
+
+}
@@ -1,42 +1,43 @@
 package com.uw.TrainerWorkloadService.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.Document;
-
-import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * Training hours of a trainer for one year, one counter per month.
+ * The counters are kept in an array indexed by {@link Month#ordinal()} and stored as a 12 element
+ * array by {@link com.uw.TrainerWorkloadService.config.mongo.YearSummaryWritingConverter}.
+ */
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
-@Document
 public class YearSummary {
 
-      @Id
-      private String id; // En MongoDB el id puede ser de tipo String y se generará automáticamente si no se especifica.
+      public static final int MONTHS = 12;
 
       private int year;
 
-      private Map<Month, Integer> monthlyHours = new HashMap<>();
+      private int[] monthlyHours = new int[MONTHS];
 
       public YearSummary(int year) {
             this.year = year;
       }
 
+      public YearSummary(int year, int[] monthlyHours) {
+            this.year = year;
+            this.monthlyHours = monthlyHours;
+      }
+
       public void addHours(Month month, int hours) {
-            monthlyHours.put(month, monthlyHours.getOrDefault(month, 0) + hours);
+            monthlyHours[month.ordinal()] += hours;
       }
 
       public void deleteHours(Month month, int hours) {
-            monthlyHours.put(month, Math.max(0, monthlyHours.getOrDefault(month, 0) - hours));
+            monthlyHours[month.ordinal()] = Math.max(0, monthlyHours[month.ordinal()] - hours);
       }
 
       public int getHours(Month month) {
-            return monthlyHours.getOrDefault(month, 0);
+            return monthlyHours[month.ordinal()];
       }
 }
@@ -0,0 +1,148 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.uw.TrainerWorkloadService.model.OrganizationTotals;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate based storage of {@link OrganizationTotals} in the {@code organizationTotals} collection,
+ * stored as {@code {_id: "2024-active", year: 2024, trainerStatus: true, months: [h1, ..., h12]}}.
+ */
+@Repository
+public class OrganizationTotalsRepository {
+
+    public static final String COLLECTION = "organizationTotals";
+
+    private static final String ID = "_id";
+    private static final String YEAR = "year";
+    private static final String TRAINER_STATUS = "trainerStatus";
+    private static final String MONTHS = "months";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor for OrganizationTotalsRepository.
+     *
+     * @param mongoTemplate the template used to read and update the totals
+     */
+    @Autowired
+    public OrganizationTotalsRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Adds month counter changes to the stored totals with a single bulk write. Each totals document
+     * is changed by one update, and created when missing.
+     *
+     * @param changes the changes to add, at most one per (year, trainer status)
+     */
+    public void incrementMonthlyHours(Collection<OrganizationTotals> changes) {
+        List<WriteModel<Document>> operations = new ArrayList<>(changes.size());
+        for (OrganizationTotals change : changes) {
+            operations.add(new UpdateOneModel<>(new Document(ID, change.getId()), incrementUpdate(change),
+                    new UpdateOptions().upsert(true)));
+        }
+        if (!operations.isEmpty()) {
+            mongoTemplate.getCollection(COLLECTION).bulkWrite(operations, new BulkWriteOptions().ordered(false));
+        }
+    }
+
+    /**
+     * Replaces all stored totals, deleting the ones that are not given.
+     *
+     * @param totals the new totals, one per (year, trainer status)
+     */
+    public void replaceAll(Collection<OrganizationTotals> totals) {
+        List<WriteModel<Document>> operations = new ArrayList<>(totals.size());
+        for (OrganizationTotals yearTotals : totals) {
+            operations.add(new ReplaceOneModel<>(new Document(ID, yearTotals.getId()), toDocument(yearTotals),
+                    new ReplaceOptions().upsert(true)));
+        }
+        if (!operations.isEmpty()) {
+            mongoTemplate.getCollection(COLLECTION).bulkWrite(operations, new BulkWriteOptions().ordered(false));
+        }
+        Set<String> ids = totals.stream().map(OrganizationTotals::getId).collect(Collectors.toSet());
+        mongoTemplate.remove(new Query(Criteria.where(ID).nin(ids)), COLLECTION);
+    }
+
+    /**
+     * @param year the year to read, or null for every year
+     * @return the stored totals, by year and then inactive before active trainers
+     */
+    public List<OrganizationTotals> findTotals(Integer year) {
+        Query query = new Query().with(Sort.by(YEAR, TRAINER_STATUS));
+        if (year != null) {
+            query.addCriteria(Criteria.where(YEAR).is(year));
+        }
+        List<OrganizationTotals> result = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, COLLECTION)) {
+            result.add(fromDocument(document));
+        }
+        return result;
+    }
+
+    /**
+     * Update pipeline adding the changes to each month, starting from zero when the document does not exist.
+     */
+    private static List<Document> incrementUpdate(OrganizationTotals change) {
+        List<Long> changes = new ArrayList<>(YearSummary.MONTHS);
+        for (long hours : change.getMonthlyHours()) {
+            changes.add(hours);
+        }
+        Document months = new Document("$ifNull", List.of("$" + MONTHS, zeros()));
+        Document newMonths = new Document("$map", new Document("input", new Document("$range", List.of(0, YearSummary.MONTHS)))
+                .append("as", "i")
+                .append("in", new Document("$add", List.of(
+                        new Document("$arrayElemAt", List.of(months, "$$i")),
+                        new Document("$arrayElemAt", List.of(new Document("$literal", changes), "$$i"))))));
+        return List.of(new Document("$set", new Document(YEAR, change.getYear())
+                .append(TRAINER_STATUS, change.isTrainerStatus())
+                .append(MONTHS, newMonths)));
+    }
+
+    private static List<Long> zeros() {
+        List<Long> zeros = new ArrayList<>(YearSummary.MONTHS);
+        for (int ordinal = 0; ordinal < YearSummary.MONTHS; ordinal++) {
+            zeros.add(0L);
+        }
+        return zeros;
+    }
+
+    private static Document toDocument(OrganizationTotals totals) {
+        List<Long> months = new ArrayList<>(YearSummary.MONTHS);
+        for (long hours : totals.getMonthlyHours()) {
+            months.add(hours);
+        }
+        return new Document(ID, totals.getId())
+                .append(YEAR, totals.getYear())
+                .append(TRAINER_STATUS, totals.isTrainerStatus())
+                .append(MONTHS, months);
+    }
+
+    private static OrganizationTotals fromDocument(Document document) {
+        long[] monthlyHours = new long[YearSummary.MONTHS];
+        List<Number> months = document.getList(MONTHS, Number.class, List.of());
+        for (int ordinal = 0; ordinal < Math.min(months.size(), YearSummary.MONTHS); ordinal++) {
+            monthlyHours[ordinal] = months.get(ordinal).longValue();
+        }
+        return new OrganizationTotals(document.getInteger(YEAR), document.getBoolean(TRAINER_STATUS, false), monthlyHours);
+    }
+}
@@ -0,0 +1,16 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository for the read side of TrainerWorkload, backed by the reactive Mongo driver.
+ * Used by the non-blocking endpoints, next to the blocking {@link TrainerWorkloadRepository}.
+ */
+@Repository
+public interface ReactiveTrainerWorkloadRepository extends ReactiveMongoRepository<TrainerWorkload, String>, ReactiveTrainerWorkloadRepositoryCustom {
+
+    Mono<TrainerWorkload> findByTrainerUsername(String trainerUsername);
+}
@@ -0,0 +1,30 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom reactive read operations for TrainerWorkload documents.
+ */
+public interface ReactiveTrainerWorkloadRepositoryCustom {
+
+    /**
+     * Reads a single month counter without loading the whole trainer document.
+     * Only the matching year summary is returned by the database.
+     *
+     * @param username the username of the trainer
+     * @param year the year to read
+     * @param month the month to read
+     * @return the recorded hours, 0 if the year or month has no hours, or empty if the trainer does not exist
+     */
+    Mono<Integer> findMonthlyHours(String username, int year, Month month);
+
+    /**
+     * Reads the version of a trainer workload without loading the rest of the document.
+     *
+     * @param username the username of the trainer
+     * @return the version, 0 if the document has never been changed since versions were introduced,
+     * or empty if the trainer does not exist
+     */
+    Mono<Long> findVersion(String username);
+}
@@ -0,0 +1,61 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadDocument;
+import com.uw.TrainerWorkloadService.config.mongo.YearSummaryDocument;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveMongoTemplate based implementation of {@link ReactiveTrainerWorkloadRepositoryCustom},
+ * running the same projections as {@link TrainerWorkloadRepositoryCustomImpl}.
+ */
+public class ReactiveTrainerWorkloadRepositoryCustomImpl implements ReactiveTrainerWorkloadRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * Constructor for ReactiveTrainerWorkloadRepositoryCustomImpl.
+     *
+     * @param reactiveMongoTemplate the template used to run the queries
+     */
+    @Autowired
+    public ReactiveTrainerWorkloadRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<Integer> findMonthlyHours(String username, int year, Month month) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+        query.fields().include(TrainerWorkloadDocument.yearPath(year));
+        return reactiveMongoTemplate.findOne(query, Document.class, collectionName())
+                .flatMap(trainerWorkload -> TrainerWorkloadDocument.hasYearsArray(trainerWorkload)
+                        // Not migrated to the keyed shape yet
+                        ? findLegacyMonthlyHours(username, year, month)
+                        : Mono.just(TrainerWorkloadDocument.readYearMonths(trainerWorkload, year)[month.ordinal()]));
+    }
+
+    @Override
+    public Mono<Long> findVersion(String username) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+        query.fields().include(TrainerWorkloadDocument.VERSION);
+        return reactiveMongoTemplate.findOne(query, Document.class, collectionName())
+                .map(TrainerWorkloadDocument::readVersion);
+    }
+
+    private Mono<Integer> findLegacyMonthlyHours(String username, int year, Month month) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+        query.fields().elemMatch(TrainerWorkloadDocument.YEARS, Criteria.where(YearSummaryDocument.YEAR).is(year));
+        return reactiveMongoTemplate.findOne(query, Document.class, collectionName())
+                .map(trainerWorkload -> TrainerWorkloadDocument.readMatchedYearMonths(trainerWorkload)[month.ordinal()]);
+    }
+
+    private String collectionName() {
+        return reactiveMongoTemplate.getCollectionName(TrainerWorkload.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadDocument;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Order of the results of a prefix search, chosen from the prefixes given so that the search reads a single range
+ * of the index with the same fields, in index order. Every order ends with the unique username, so the sort key
+ * of a trainer identifies a position in the results that the next page starts after.
+ */
+public enum TrainerNameSearch {
+
+    /**
+     * By username, using the unique username index. Name prefixes are checked on the documents read.
+     */
+    USERNAME(List.of(TrainerWorkloadDocument.TRAINER_USERNAME),
+            List.of(TrainerWorkload::getTrainerUsername)),
+
+    /**
+     * By last name, first name and username, using the {@code lastName_firstName_username} index.
+     */
+    LAST_NAME(List.of(TrainerWorkloadDocument.TRAINER_LAST_NAME, TrainerWorkloadDocument.TRAINER_FIRST_NAME, TrainerWorkloadDocument.TRAINER_USERNAME),
+            List.of(TrainerWorkload::getTrainerLastName, TrainerWorkload::getTrainerFirstName, TrainerWorkload::getTrainerUsername)),
+
+    /**
+     * By first name, last name and username, using the {@code firstName_lastName_username} index.
+     */
+    FIRST_NAME(List.of(TrainerWorkloadDocument.TRAINER_FIRST_NAME, TrainerWorkloadDocument.TRAINER_LAST_NAME, TrainerWorkloadDocument.TRAINER_USERNAME),
+            List.of(TrainerWorkload::getTrainerFirstName, TrainerWorkload::getTrainerLastName, TrainerWorkload::getTrainerUsername));
+
+    private final List<String> keyFields;
+    private final List<Function<TrainerWorkload, String>> keyGetters;
+
+    TrainerNameSearch(List<String> keyFields, List<Function<TrainerWorkload, String>> keyGetters) {
+        this.keyFields = keyFields;
+        this.keyGetters = keyGetters;
+    }
+
+    /**
+     * @param usernamePrefix the username prefix, or null
+     * @param firstNamePrefix the first name prefix, or null
+     * @param lastNamePrefix the last name prefix, or null
+     * @return the order of a search with these prefixes
+     */
+    public static TrainerNameSearch of(String usernamePrefix, String firstNamePrefix, String lastNamePrefix) {
+        if (usernamePrefix != null) {
+            return USERNAME;
+        }
+        return lastNamePrefix != null ? LAST_NAME : FIRST_NAME;
+    }
+
+    /**
+     * @return the stored fields the results are sorted by, most significant first
+     */
+    public List<String> getKeyFields() {
+        return keyFields;
+    }
+
+    /**
+     * @param trainerWorkload a trainer returned by the search
+     * @return its sort key, one value per key field, null for missing names
+     */
+    public List<String> keyOf(TrainerWorkload trainerWorkload) {
+        List<String> key = new ArrayList<>(keyGetters.size());
+        for (Function<TrainerWorkload, String> getter : keyGetters) {
+            key.add(getter.apply(trainerWorkload));
+        }
+        return key;
+    }
+}
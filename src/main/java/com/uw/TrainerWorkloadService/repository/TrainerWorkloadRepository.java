@@ -7,6 +7,6 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface TrainerWorkloadRepository extends MongoRepository<TrainerWorkload, String> {
+public interface TrainerWorkloadRepository extends MongoRepository<TrainerWorkload, String>, TrainerWorkloadRepositoryCustom {
     Optional<TrainerWorkload> findByTrainerUsername(String username);
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom repository operations for TrainerWorkload documents that are executed
+ * as single server-side updates instead of a read-modify-write cycle.
+ */
+public interface TrainerWorkloadRepositoryCustom {
+
+    /**
+     * Atomically adds hours to a trainer's month counter.
+     * The trainer document and the year summary are created when they do not exist yet.
+     *
+     * @param username the username of the trainer
+     * @param firstName the first name of the trainer, only used when the document is created
+     * @param lastName the last name of the trainer, only used when the document is created
+     * @param isActive the trainer status, only used when the document is created
+     * @param year the year of the training session
+     * @param month the month of the training session
+     * @param hours the number of hours to add
+     */
+    void addMonthlyHours(String username, String firstName, String lastName, boolean isActive,
+                         int year, Month month, int hours);
+
+    /**
+     * Atomically subtracts hours from a trainer's month counter, never going below zero.
+     *
+     * @param username the username of the trainer
+     * @param year the year of the training session
+     * @param month the month of the training session
+     * @param hours the number of hours to subtract
+     * @return false if the trainer or the year summary does not exist, true otherwise
+     */
+    boolean subtractMonthlyHours(String username, int year, Month month, int hours);
+
+    /**
+     * Applies coalesced month counter changes for many trainers with a single ordered bulk write.
+     * Deltas that contain an add event create the trainer document and year summary when missing,
+     * deltas made only of delete events are skipped for trainers or years that do not exist.
+     *
+     * @param deltas the changes to apply, at most one per (trainer, year, month)
+     */
+    void applyMonthlyHoursDeltas(Collection<MonthlyHoursDelta> deltas);
+
+    /**
+     * Atomically applies one month counter change with a single findAndModify, which also returns the counter,
+     * status and version the trainer document had just before the change. Takes one round trip per change,
+     * where {@link #applyMonthlyHoursDeltas} sends many changes at once.
+     *
+     * @param delta the change to apply
+     * @return the applied change, or empty if it was skipped because it only subtracts hours
+     * and the trainer or the year summary does not exist
+     */
+    Optional<AppliedMonthlyHoursDelta> applyMonthlyHoursDelta(MonthlyHoursDelta delta);
+
+    /**
+     * Replaces the fields of a trainer document with a single findAndModify, which also returns the document as it was
+     * just before. The version is incremented by the database, so concurrent replaces get distinct versions.
+     * The document is matched by id when the trainer workload has one, by username otherwise, and inserted if missing.
+     * The id and the version the write gave the document are set on the trainer workload.
+     *
+     * @param trainerWorkload the trainer workload to store
+     * @return the trainer workload as stored just before the write, or empty if the write inserted it
+     */
+    Optional<TrainerWorkload> replaceTrainerWorkload(TrainerWorkload trainerWorkload);
+
+    /**
+     * Reads the month counters of one year for many trainers with a single {@code $in} query.
+     * Only the matching year summary of each trainer is returned by the database.
+     *
+     * @param usernames the usernames of the trainers
+     * @param year the year to read
+     * @return the counters indexed by {@link Month#ordinal()} per username, all 0 if the trainer has no hours
+     * in the year; trainers that do not exist are left out
+     */
+    Map<String, int[]> findYearMonthlyHours(Collection<String> usernames, int year);
+
+    /**
+     * Reads the version and a range of years of one trainer with a single query, so the hours are exactly those
+     * of the version even when the read is served by a secondary.
+     * Only the year summaries in the range are returned by the database when the range is short.
+     *
+     * @param username the username of the trainer
+     * @param fromYear the first year to read
+     * @param toYear the last year to read
+     * @return an Optional containing the trainer workload with its version and the years in the range that have
+     * a summary, or empty if the trainer does not exist
+     */
+    Optional<TrainerWorkload> findYearsWorkload(String username, int fromYear, int toYear);
+
+    /**
+     * Reads the version of a trainer workload without loading the rest of the document.
+     *
+     * @param username the username of the trainer
+     * @return the version, 0 if the document has never been changed since versions were introduced,
+     * or empty if the trainer does not exist
+     */
+    Optional<Long> findVersion(String username);
+
+    /**
+     * Reads the version and one year of a trainer with a single query, so the hours are exactly those of the version
+     * even when the read is served by a secondary.
+     *
+     * @param username the username of the trainer
+     * @param year the year to read
+     * @return an Optional containing the trainer workload with its version and at most that year,
+     * or empty if the trainer does not exist
+     */
+    Optional<TrainerWorkload> findYearWorkload(String username, int year);
+
+    /**
+     * Walks the trainer workloads with a server-side cursor, fetching them in batches as the stream is consumed.
+     * The stream holds the cursor open and must be closed.
+     *
+     * @param trainerStatus only trainers with this status, or all trainers if null
+     * @param fromYear only trainers with hours in this year or later, no lower bound if null
+     * @param toYear only trainers with hours in this year or earlier, no upper bound if null
+     * @return the matching trainer workloads with all their years; the year bounds are not guaranteed
+     * to be checked by the database, so callers must check them as well
+     */
+    Stream<TrainerWorkload> streamTrainerWorkloads(Boolean trainerStatus, Integer fromYear, Integer toYear);
+
+    /**
+     * Splits the collection into ranges of usernames with about the same number of trainers.
+     *
+     * @param partitions the number of ranges
+     * @return the first username of every range but the first one, in ascending order; fewer when there are
+     * fewer trainers than ranges
+     */
+    List<String> findUsernameSplitPoints(int partitions);
+
+    /**
+     * Walks the trainer workloads of a range of usernames with a server-side cursor, in username order.
+     * The stream holds the cursor open and must be closed.
+     *
+     * @param fromUsername the first username of the range, no lower bound if null
+     * @param toUsername the username after the range, no upper bound if null
+     * @return the trainer workloads of the range
+     */
+    Stream<TrainerWorkload> streamTrainerWorkloadsByUsername(String fromUsername, String toUsername);
+
+    /**
+     * Finds trainers by prefixes of their username, first name and last name, in the order given by
+     * {@link TrainerNameSearch#of}. The search seeks in the index to the position after {@code afterKey}
+     * instead of skipping the earlier results, so every page costs the same. Prefixes are case sensitive.
+     *
+     * @param usernamePrefix the prefix of the username, or null
+     * @param firstNamePrefix the prefix of the first name, or null
+     * @param lastNamePrefix the prefix of the last name, or null
+     * @param afterKey the {@link TrainerNameSearch#keyOf sort key} of the last trainer of the previous page,
+     * or null for the first page
+     * @param limit the maximum number of trainers
+     * @return the names and status of the matching trainers, without their years
+     */
+    List<TrainerWorkload> findByNamePrefix(String usernamePrefix, String firstNamePrefix, String lastNamePrefix,
+                                           List<String> afterKey, int limit);
+}
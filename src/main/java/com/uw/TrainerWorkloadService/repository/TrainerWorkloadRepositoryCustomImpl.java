@@ -0,0 +1,491 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoServerException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadDocument;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadRouting;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadRouting.Route;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadingConverter;
+import com.uw.TrainerWorkloadService.config.mongo.YearSummaryDocument;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate based implementation of {@link TrainerWorkloadRepositoryCustom}.
+ * Every counter change is a single update pipeline on one document, so concurrent consumers
+ * never overwrite each other's changes. Reads are sent with the read preference of their
+ * {@link TrainerWorkloadReadRouting route}; the ones of the organization totals repair stay on the primary.
+ */
+public class TrainerWorkloadRepositoryCustomImpl implements TrainerWorkloadRepositoryCustom {
+
+    // A retry only happens when another writer inserts the same trainer document at the same time
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final int EXPORT_CURSOR_BATCH_SIZE = 500;
+
+    // Computed field of the pre-image returned by applyMonthlyHoursDelta
+    private static final String PRE_IMAGE_HOURS = "hours";
+
+    // Years are keys, so a year range is only matched by the database when it is short enough to list every key
+    private static final int MAX_MATCHED_YEARS = 50;
+
+    private static final TrainerWorkloadReadingConverter READING_CONVERTER = new TrainerWorkloadReadingConverter();
+
+    private final MongoTemplate mongoTemplate;
+    private final TrainerWorkloadReadRouting readRouting;
+
+    /**
+     * Constructor for TrainerWorkloadRepositoryCustomImpl.
+     *
+     * @param mongoTemplate the template used to run the updates and reads
+     * @param readRouting the read preferences of the reads, by route
+     */
+    @Autowired
+    public TrainerWorkloadRepositoryCustomImpl(MongoTemplate mongoTemplate, TrainerWorkloadReadRouting readRouting) {
+        this.mongoTemplate = mongoTemplate;
+        this.readRouting = readRouting;
+    }
+
+    @Override
+    public void addMonthlyHours(String username, String firstName, String lastName, boolean isActive,
+                                int year, Month month, int hours) {
+        MonthlyHoursDelta delta = new MonthlyHoursDelta(username, year, month);
+        delta.add(firstName, lastName, isActive, hours);
+        applyMonthlyHoursDeltas(List.of(delta));
+    }
+
+    @Override
+    public boolean subtractMonthlyHours(String username, int year, Month month, int hours) {
+        MonthlyHoursDelta delta = new MonthlyHoursDelta(username, year, month);
+        delta.subtract(hours);
+        return mongoTemplate.getCollection(collectionName())
+                .updateOne(counterFilter(delta), counterUpdate(delta))
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public void applyMonthlyHoursDeltas(Collection<MonthlyHoursDelta> deltas) {
+        List<WriteModel<Document>> operations = new ArrayList<>(deltas.size());
+        for (MonthlyHoursDelta delta : deltas) {
+            // A delta that adds hours creates the trainer and the year summary in the same update if they do not exist yet
+            operations.add(new UpdateOneModel<>(counterFilter(delta), counterUpdate(delta),
+                    new UpdateOptions().upsert(delta.isCreateIfMissing())));
+        }
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !operations.isEmpty(); attempt++) {
+            try {
+                mongoTemplate.getCollection(collectionName()).bulkWrite(operations, new BulkWriteOptions().ordered(true));
+                return;
+            } catch (MongoBulkWriteException e) {
+                // Ordered bulk writes stop at the first error: everything before it was applied.
+                // A duplicate key can only come from a concurrent insert of the same trainer, so resume from there.
+                BulkWriteError error = e.getWriteErrors().get(0);
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                operations = new ArrayList<>(operations.subList(error.getIndex(), operations.size()));
+            }
+        }
+        throw new OptimisticLockingFailureException("Could not apply " + deltas.size() + " monthly hours deltas");
+    }
+
+    @Override
+    public Optional<AppliedMonthlyHoursDelta> applyMonthlyHoursDelta(MonthlyHoursDelta delta) {
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+                .upsert(delta.isCreateIfMissing())
+                .returnDocument(ReturnDocument.BEFORE)
+                .projection(preImageProjection(delta));
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Document before;
+            try {
+                before = mongoTemplate.getCollection(collectionName()).findOneAndUpdate(counterFilter(delta), counterUpdate(delta), options);
+            } catch (MongoServerException e) {
+                // A duplicate key can only come from a concurrent insert of the same trainer, which now exists
+                if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                continue;
+            }
+            if (before == null) {
+                // Either inserted by the upsert or skipped by the filter
+                return delta.isCreateIfMissing()
+                        ? Optional.of(new AppliedMonthlyHoursDelta(delta, true, delta.isTrainerStatus(), 0, 0))
+                        : Optional.empty();
+            }
+            boolean trainerStatus = before.get(TrainerWorkloadDocument.TRAINER_STATUS) instanceof Boolean status ? status : delta.isTrainerStatus();
+            return Optional.of(new AppliedMonthlyHoursDelta(delta, false, trainerStatus,
+                    before.get(PRE_IMAGE_HOURS, Number.class).intValue(), TrainerWorkloadDocument.readVersion(before)));
+        }
+        throw new OptimisticLockingFailureException("Could not apply monthly hours delta " + delta);
+    }
+
+    @Override
+    public Optional<TrainerWorkload> replaceTrainerWorkload(TrainerWorkload trainerWorkload) {
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(trainerWorkload, fields);
+        Object id = fields.remove("_id");
+        fields.remove(TrainerWorkloadDocument.VERSION);
+        Document filter = id != null ? new Document("_id", id)
+                : new Document(TrainerWorkloadDocument.TRAINER_USERNAME, trainerWorkload.getTrainerUsername());
+        Document update = new Document("$set", fields)
+                .append("$inc", new Document(TrainerWorkloadDocument.VERSION, 1L));
+        // Null names are not written by the converter, but must not survive from the previous document either
+        Document missing = new Document();
+        for (String field : List.of(TrainerWorkloadDocument.TRAINER_FIRST_NAME, TrainerWorkloadDocument.TRAINER_LAST_NAME)) {
+            if (!fields.containsKey(field)) {
+                missing.append(field, "");
+            }
+        }
+        if (!missing.isEmpty()) {
+            update.append("$unset", missing);
+        }
+        ObjectId insertedId = new ObjectId();
+        if (id == null) {
+            update.append("$setOnInsert", new Document("_id", insertedId));
+        }
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.BEFORE);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Document before;
+            try {
+                before = mongoTemplate.getCollection(collectionName()).findOneAndUpdate(filter, update, options);
+            } catch (MongoServerException e) {
+                // A duplicate key can only come from a concurrent insert of the same trainer, which now exists
+                if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                continue;
+            }
+            if (before == null) {
+                trainerWorkload.setId(id != null ? id.toString() : insertedId.toHexString());
+                trainerWorkload.setVersion(1);
+                return Optional.empty();
+            }
+            TrainerWorkload previous = READING_CONVERTER.convert(before);
+            trainerWorkload.setId(previous.getId());
+            trainerWorkload.setVersion(previous.getVersion() + 1);
+            return Optional.of(previous);
+        }
+        throw new OptimisticLockingFailureException("Could not replace trainer workload " + trainerWorkload.getTrainerUsername());
+    }
+
+    @Override
+    public Map<String, int[]> findYearMonthlyHours(Collection<String> usernames, int year) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).in(usernames));
+        query.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME).include(TrainerWorkloadDocument.yearPath(year));
+        Map<String, int[]> result = new HashMap<>();
+        List<String> legacyUsernames = new ArrayList<>();
+        for (Document trainerWorkload : find(Route.DASHBOARD, query)) {
+            String username = trainerWorkload.getString(TrainerWorkloadDocument.TRAINER_USERNAME);
+            if (TrainerWorkloadDocument.hasYearsArray(trainerWorkload)) {
+                legacyUsernames.add(username);
+            } else {
+                result.put(username, TrainerWorkloadDocument.readYearMonths(trainerWorkload, year));
+            }
+        }
+
+        if (!legacyUsernames.isEmpty()) {
+            // Not migrated to the keyed shape yet
+            Query legacyQuery = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).in(legacyUsernames));
+            legacyQuery.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME)
+                    .elemMatch(TrainerWorkloadDocument.YEARS, Criteria.where(YearSummaryDocument.YEAR).is(year));
+            for (Document trainerWorkload : find(Route.DASHBOARD, legacyQuery)) {
+                result.put(trainerWorkload.getString(TrainerWorkloadDocument.TRAINER_USERNAME),
+                        TrainerWorkloadDocument.readMatchedYearMonths(trainerWorkload));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<TrainerWorkload> findYearsWorkload(String username, int fromYear, int toYear) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+        query.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME).include(TrainerWorkloadDocument.VERSION);
+        if (toYear - fromYear < MAX_MATCHED_YEARS) {
+            for (int year = fromYear; year <= toYear; year++) {
+                query.fields().include(TrainerWorkloadDocument.yearPath(year));
+            }
+        } else {
+            query.fields().include(TrainerWorkloadDocument.YEARS);
+        }
+        Document trainerWorkload = findOne(Route.DASHBOARD, query);
+        if (trainerWorkload == null) {
+            return Optional.empty();
+        }
+        if (TrainerWorkloadDocument.hasYearsArray(trainerWorkload)) {
+            // Not migrated to the keyed shape yet, year paths do not match inside the array
+            Query legacyQuery = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+            legacyQuery.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME).include(TrainerWorkloadDocument.VERSION)
+                    .include(TrainerWorkloadDocument.YEARS);
+            trainerWorkload = findOne(Route.DASHBOARD, legacyQuery);
+            if (trainerWorkload == null) {
+                return Optional.empty();
+            }
+        }
+        TrainerWorkload yearsWorkload = READING_CONVERTER.convert(trainerWorkload);
+        yearsWorkload.getYears().keySet().removeIf(year -> year < fromYear || year > toYear);
+        return Optional.of(yearsWorkload);
+    }
+
+    @Override
+    public Optional<Long> findVersion(String username) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+        query.fields().include(TrainerWorkloadDocument.VERSION);
+        return Optional.ofNullable(findOne(Route.DASHBOARD, query))
+                .map(TrainerWorkloadDocument::readVersion);
+    }
+
+    @Override
+    public Optional<TrainerWorkload> findYearWorkload(String username, int year) {
+        Query query = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+        query.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME).include(TrainerWorkloadDocument.VERSION)
+                .include(TrainerWorkloadDocument.yearPath(year));
+        Document trainerWorkload = findOne(Route.DASHBOARD, query);
+        if (trainerWorkload != null && TrainerWorkloadDocument.hasYearsArray(trainerWorkload)) {
+            // Not migrated to the keyed shape yet, the year path does not match inside the array
+            Query legacyQuery = new Query(Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME).is(username));
+            legacyQuery.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME).include(TrainerWorkloadDocument.VERSION)
+                    .elemMatch(TrainerWorkloadDocument.YEARS, Criteria.where(YearSummaryDocument.YEAR).is(year));
+            trainerWorkload = findOne(Route.DASHBOARD, legacyQuery);
+        }
+        return Optional.ofNullable(trainerWorkload).map(READING_CONVERTER::convert);
+    }
+
+    @Override
+    public Stream<TrainerWorkload> streamTrainerWorkloads(Boolean trainerStatus, Integer fromYear, Integer toYear) {
+        Query query = new Query().cursorBatchSize(EXPORT_CURSOR_BATCH_SIZE);
+        if (trainerStatus != null) {
+            query.addCriteria(Criteria.where(TrainerWorkloadDocument.TRAINER_STATUS).is(trainerStatus));
+        }
+        if (fromYear != null && toYear != null && toYear - fromYear < MAX_MATCHED_YEARS) {
+            List<Criteria> anyYear = new ArrayList<>();
+            for (int year = fromYear; year <= toYear; year++) {
+                anyYear.add(Criteria.where(TrainerWorkloadDocument.yearPath(year)).exists(true));
+            }
+            // Documents not migrated to the keyed shape yet
+            anyYear.add(Criteria.where(TrainerWorkloadDocument.YEARS)
+                    .elemMatch(Criteria.where(YearSummaryDocument.YEAR).gte(fromYear).lte(toYear)));
+            query.addCriteria(new Criteria().orOperator(anyYear));
+        }
+        return stream(Route.LIST, query);
+    }
+
+    @Override
+    public List<String> findUsernameSplitPoints(int partitions) {
+        // One pass over the username index, sorted the way $bucketAuto needs it, instead of a skip per split point
+        List<Document> pipeline = List.of(
+                new Document("$sort", new Document(TrainerWorkloadDocument.TRAINER_USERNAME, 1)),
+                new Document("$project", new Document(TrainerWorkloadDocument.TRAINER_USERNAME, 1).append("_id", 0)),
+                new Document("$bucketAuto", new Document("groupBy", "$" + TrainerWorkloadDocument.TRAINER_USERNAME)
+                        .append("buckets", partitions)));
+        List<Document> buckets = readRouting.time(Route.PRIMARY, () -> mongoTemplate.getCollection(collectionName())
+                .withReadPreference(readRouting.getReadPreference(Route.PRIMARY))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .into(new ArrayList<>()));
+        List<String> splitPoints = new ArrayList<>();
+        for (Document bucket : buckets.subList(Math.min(1, buckets.size()), buckets.size())) {
+            splitPoints.add(bucket.get("_id", Document.class).getString("min"));
+        }
+        return splitPoints;
+    }
+
+    @Override
+    public Stream<TrainerWorkload> streamTrainerWorkloadsByUsername(String fromUsername, String toUsername) {
+        Criteria username = Criteria.where(TrainerWorkloadDocument.TRAINER_USERNAME);
+        if (fromUsername != null) {
+            username.gte(fromUsername);
+        }
+        if (toUsername != null) {
+            username.lt(toUsername);
+        }
+        Query query = new Query().cursorBatchSize(EXPORT_CURSOR_BATCH_SIZE).with(Sort.by(TrainerWorkloadDocument.TRAINER_USERNAME));
+        if (fromUsername != null || toUsername != null) {
+            query.addCriteria(username);
+        }
+        return stream(Route.PRIMARY, query);
+    }
+
+    @Override
+    public List<TrainerWorkload> findByNamePrefix(String usernamePrefix, String firstNamePrefix, String lastNamePrefix,
+                                                  List<String> afterKey, int limit) {
+        TrainerNameSearch search = TrainerNameSearch.of(usernamePrefix, firstNamePrefix, lastNamePrefix);
+        List<Criteria> criteria = new ArrayList<>();
+        addPrefix(criteria, TrainerWorkloadDocument.TRAINER_USERNAME, usernamePrefix);
+        addPrefix(criteria, TrainerWorkloadDocument.TRAINER_FIRST_NAME, firstNamePrefix);
+        addPrefix(criteria, TrainerWorkloadDocument.TRAINER_LAST_NAME, lastNamePrefix);
+        if (afterKey != null) {
+            addAfter(criteria, search.getKeyFields(), afterKey);
+        }
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, search.getKeyFields().toArray(String[]::new))).limit(limit);
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+        query.fields().include(TrainerWorkloadDocument.TRAINER_USERNAME).include(TrainerWorkloadDocument.TRAINER_FIRST_NAME)
+                .include(TrainerWorkloadDocument.TRAINER_LAST_NAME).include(TrainerWorkloadDocument.TRAINER_STATUS);
+        return readRouting.time(Route.LIST, () -> mongoTemplate.find(readRouting.route(Route.LIST, query), TrainerWorkload.class));
+    }
+
+    /**
+     * Anchored regex without metacharacters, which the database reads as a range of the index.
+     */
+    private static void addPrefix(List<Criteria> criteria, String field, String prefix) {
+        if (prefix == null) {
+            return;
+        }
+        StringBuilder regex = new StringBuilder(prefix.length() + 8).append('^');
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        criteria.add(Criteria.where(field).regex(regex.toString()));
+    }
+
+    /**
+     * Keys strictly after the given one in ascending order: {@code k1 >= v1} bounds the index scan, the
+     * {@code $or} then skips the keys equal to the given one up to the first differing field.
+     * Missing names sort before every string, so anything greater than a missing name is a string.
+     */
+    private static void addAfter(List<Criteria> criteria, List<String> keyFields, List<String> afterKey) {
+        if (afterKey.size() != keyFields.size()) {
+            throw new IllegalArgumentException("Invalid search position");
+        }
+        if (afterKey.get(0) != null) {
+            criteria.add(Criteria.where(keyFields.get(0)).gte(afterKey.get(0)));
+        }
+        List<Criteria> after = new ArrayList<>(keyFields.size());
+        for (int field = 0; field < keyFields.size(); field++) {
+            List<Criteria> clause = new ArrayList<>(field + 1);
+            for (int equal = 0; equal < field; equal++) {
+                clause.add(Criteria.where(keyFields.get(equal)).is(afterKey.get(equal)));
+            }
+            String value = afterKey.get(field);
+            // Every string, "" included, is after a missing name
+            clause.add(value == null ? Criteria.where(keyFields.get(field)).gte("") : Criteria.where(keyFields.get(field)).gt(value));
+            after.add(clause.size() == 1 ? clause.get(0) : new Criteria().andOperator(clause));
+        }
+        criteria.add(new Criteria().orOperator(after));
+    }
+
+    private Document findOne(Route route, Query query) {
+        return readRouting.time(route, () -> mongoTemplate.findOne(readRouting.route(route, query), Document.class, collectionName()));
+    }
+
+    private List<Document> find(Route route, Query query) {
+        return readRouting.time(route, () -> mongoTemplate.find(readRouting.route(route, query), Document.class, collectionName()));
+    }
+
+    private Stream<TrainerWorkload> stream(Route route, Query query) {
+        return readRouting.time(route, () -> mongoTemplate.stream(readRouting.route(route, query), TrainerWorkload.class));
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(TrainerWorkload.class);
+    }
+
+    /**
+     * Matches the trainer of the delta. Deltas that only subtract hours also require the year summary to exist,
+     * in either the keyed or the older array shape.
+     */
+    private static Document counterFilter(MonthlyHoursDelta delta) {
+        Document filter = new Document(TrainerWorkloadDocument.TRAINER_USERNAME, delta.getTrainerUsername());
+        if (!delta.isCreateIfMissing()) {
+            filter.append("$or", List.of(
+                    new Document(TrainerWorkloadDocument.yearPath(delta.getYear()), new Document("$exists", true)),
+                    new Document(TrainerWorkloadDocument.YEARS + "." + YearSummaryDocument.YEAR, delta.getYear())));
+        }
+        return filter;
+    }
+
+    /**
+     * Projects the version, the status and the counter of the delta from a document in either shape,
+     * without returning its years.
+     */
+    private static Document preImageProjection(MonthlyHoursDelta delta) {
+        Document legacyYearSummary = new Document("$arrayElemAt", List.of(
+                new Document("$filter", new Document("input", "$" + TrainerWorkloadDocument.YEARS)
+                        .append("cond", new Document("$eq", List.of("$$this." + YearSummaryDocument.YEAR, delta.getYear())))),
+                0));
+        Document yearSummary = new Document("$cond", List.of(
+                new Document("$isArray", "$" + TrainerWorkloadDocument.YEARS),
+                legacyYearSummary,
+                "$" + TrainerWorkloadDocument.yearPath(delta.getYear())));
+        // A missing year summary reads as twelve zero counters
+        Document hours = new Document("$let", new Document("vars", new Document("yearSummary", yearSummary))
+                .append("in", new Document("$ifNull", List.of(
+                        new Document("$arrayElemAt", List.of(YearSummaryDocument.monthsExpression("$$yearSummary"), delta.getMonth().ordinal())),
+                        0))));
+        return new Document("_id", 0)
+                .append(TrainerWorkloadDocument.VERSION, 1)
+                .append(TrainerWorkloadDocument.TRAINER_STATUS, 1)
+                .append(PRE_IMAGE_HOURS, hours);
+    }
+
+    private static List<Document> counterUpdate(MonthlyHoursDelta delta) {
+        return List.of(TrainerWorkloadDocument.normalizeYearsStage(), applyDeltaStage(delta));
+    }
+
+    /**
+     * Builds an update pipeline stage that rewrites the year summary of the delta with
+     * {@code counter = max(floor, counter + delta)}, starting from zero when the summary does not exist,
+     * and increments the document version.
+     * Deltas that may create the trainer also fill in the trainer fields that are still missing.
+     */
+    private static Document applyDeltaStage(MonthlyHoursDelta delta) {
+        String yearPath = TrainerWorkloadDocument.yearPath(delta.getYear());
+        String months = "$$months";
+        Document newMonths = new Document("$map", new Document("input", new Document("$range", List.of(0, YearSummary.MONTHS)))
+                .append("as", "i")
+                .append("in", new Document("$cond", List.of(
+                        new Document("$eq", List.of("$$i", delta.getMonth().ordinal())),
+                        new Document("$max", List.of(
+                                delta.getFloor(),
+                                new Document("$add", List.of(new Document("$arrayElemAt", List.of(months, "$$i")), delta.getDelta())))),
+                        new Document("$arrayElemAt", List.of(months, "$$i"))))));
+        Document updatedYear = new Document("$let", new Document("vars", new Document("months", YearSummaryDocument.monthsExpression("$" + yearPath)))
+                .append("in", new Document(YearSummaryDocument.YEAR, delta.getYear())
+                        .append(YearSummaryDocument.MONTHS, newMonths)));
+
+        Document fields = new Document(yearPath, updatedYear)
+                .append(TrainerWorkloadDocument.VERSION, TrainerWorkloadDocument.nextVersionExpression());
+        if (delta.isCreateIfMissing()) {
+            fields.append(TrainerWorkloadDocument.TRAINER_FIRST_NAME, ifMissing(TrainerWorkloadDocument.TRAINER_FIRST_NAME, delta.getTrainerFirstName()))
+                    .append(TrainerWorkloadDocument.TRAINER_LAST_NAME, ifMissing(TrainerWorkloadDocument.TRAINER_LAST_NAME, delta.getTrainerLastName()))
+                    .append(TrainerWorkloadDocument.TRAINER_STATUS, ifMissing(TrainerWorkloadDocument.TRAINER_STATUS, delta.isTrainerStatus()));
+        }
+        return new Document("$set", fields);
+    }
+
+    private static Document ifMissing(String field, Object value) {
+        return new Document("$ifNull", List.of("$" + field, new Document("$literal", value)));
+    }
+}
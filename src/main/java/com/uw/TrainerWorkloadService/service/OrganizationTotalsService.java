@@ -0,0 +1,211 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.OrganizationTotals;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.repository.OrganizationTotalsRepository;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the organization-wide hours per (year, month, trainer status), enabled with
+ * {@code trainer-workload.organization-totals.enabled}.
+ * <p>
+ * While enabled, {@link TrainerWorkloadService} writes every counter change with a findAndModify that returns the
+ * counter it found, and passes the applied changes to {@link #record}. The change every write made is worked out
+ * from that pre-image with the {@link MonthlyHoursDelta} semantics of the write, so deletions that stop at zero are
+ * counted right and concurrent writers of the same trainer, on any instance, each count their own change exactly.
+ * The changes are added to the totals with one atomic update per (year, trainer status).
+ * <p>
+ * The trainer and totals updates are not one transaction: a failure between them leaves the totals off until
+ * {@link #repair()} rebuilds them. Saves and deletes of whole trainer workloads read the trainer before writing it,
+ * so a counter change racing with them can also be missed.
+ */
+@Service
+@ConditionalOnProperty(name = "trainer-workload.organization-totals.enabled", havingValue = "true")
+public class OrganizationTotalsService {
+
+      private static final Logger logger = LoggerFactory.getLogger(OrganizationTotalsService.class);
+
+      private final TrainerWorkloadRepository trainerWorkloadRepository;
+      private final OrganizationTotalsRepository organizationTotalsRepository;
+      private final int repairParallelism;
+      private final WorkerThreads workerThreads;
+
+      /**
+       * Constructor for OrganizationTotalsService.
+       *
+       * @param trainerWorkloadRepository the repository the trainer workloads are read from by a repair
+       * @param organizationTotalsRepository the repository of the totals
+       * @param repairParallelism the number of ranges of trainers read at the same time by a repair
+       * @param workerThreads the factory of the repair threads
+       */
+      @Autowired
+      public OrganizationTotalsService(TrainerWorkloadRepository trainerWorkloadRepository, OrganizationTotalsRepository organizationTotalsRepository,
+                                       @Value("${trainer-workload.organization-totals.repair-parallelism:4}") int repairParallelism,
+                                       WorkerThreads workerThreads) {
+            this.trainerWorkloadRepository = trainerWorkloadRepository;
+            this.organizationTotalsRepository = organizationTotalsRepository;
+            this.repairParallelism = Math.max(1, repairParallelism);
+            this.workerThreads = workerThreads;
+      }
+
+      /**
+       * Adds the changes made by written deltas to the totals. Errors are logged and left to {@link #repair()},
+       * the trainer counters are already written.
+       *
+       * @param appliedDeltas the written changes, with the counters they found
+       */
+      public void record(Collection<AppliedMonthlyHoursDelta> appliedDeltas) {
+            Map<String, OrganizationTotals> changes = new HashMap<>();
+            for (AppliedMonthlyHoursDelta applied : appliedDeltas) {
+                  int change = applied.getChange();
+                  if (change == 0) {
+                        continue;
+                  }
+                  MonthlyHoursDelta delta = applied.getDelta();
+                  changes.computeIfAbsent(OrganizationTotals.id(delta.getYear(), applied.isTrainerStatus()),
+                                  id -> new OrganizationTotals(delta.getYear(), applied.isTrainerStatus()))
+                          .addHours(delta.getMonth().ordinal(), change);
+            }
+            increment(changes.values());
+      }
+
+      /**
+       * Moves the hours of a trainer workload that was saved or deleted as a whole.
+       *
+       * @param before the trainer workload before the change, or null if it did not exist
+       * @param after the trainer workload after the change, or null if it was deleted
+       */
+      public void recordReplace(TrainerWorkload before, TrainerWorkload after) {
+            Map<String, OrganizationTotals> changes = new HashMap<>();
+            if (before != null) {
+                  accumulate(changes, before, -1);
+            }
+            if (after != null) {
+                  accumulate(changes, after, 1);
+            }
+            increment(changes.values());
+      }
+
+      /**
+       * @param year the year to read, or null for every year
+       * @return the totals, by year and then inactive before active trainers
+       */
+      public List<OrganizationTotals> getTotals(Integer year) {
+            logger.info("Retrieving organization totals, year: {}", year);
+            return organizationTotalsRepository.findTotals(year);
+      }
+
+      /**
+       * Rebuilds the totals from the trainer workloads. The trainers are split into ranges of usernames
+       * that are read and summed at the same time, then the totals are replaced in one pass.
+       * Counter changes written while the repair runs may be missed or counted twice; run it again if needed.
+       *
+       * @return the number of trainer workloads read
+       * @throws IllegalStateException if a range could not be read
+       */
+      public long repair() {
+            long start = System.nanoTime();
+            List<String> splitPoints = trainerWorkloadRepository.findUsernameSplitPoints(repairParallelism);
+            List<String> bounds = new ArrayList<>(splitPoints.size() + 2);
+            bounds.add(null);
+            bounds.addAll(splitPoints);
+            bounds.add(null);
+
+            ExecutorService executor = Executors.newFixedThreadPool(bounds.size() - 1, workerThreads.factory("organization-totals-repair"));
+            try {
+                  List<Future<RangeTotals>> ranges = new ArrayList<>();
+                  for (int range = 0; range < bounds.size() - 1; range++) {
+                        String from = bounds.get(range);
+                        String to = bounds.get(range + 1);
+                        ranges.add(executor.submit(() -> sumRange(from, to)));
+                  }
+                  RangeTotals all = new RangeTotals();
+                  for (Future<RangeTotals> range : ranges) {
+                        all.merge(range.get());
+                  }
+                  organizationTotalsRepository.replaceAll(all.totals.values());
+                  logger.info("Rebuilt {} organization totals from {} trainers in {} ranges in {} ms", all.totals.size(), all.trainers,
+                          ranges.size(), (System.nanoTime() - start) / 1_000_000);
+                  return all.trainers;
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new IllegalStateException("Organization totals repair interrupted", e);
+            } catch (ExecutionException e) {
+                  throw new IllegalStateException("Organization totals repair failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                  executor.shutdownNow();
+            }
+      }
+
+      private RangeTotals sumRange(String fromUsername, String toUsername) {
+            RangeTotals rangeTotals = new RangeTotals();
+            try (Stream<TrainerWorkload> trainerWorkloads = trainerWorkloadRepository.streamTrainerWorkloadsByUsername(fromUsername, toUsername)) {
+                  trainerWorkloads.forEach(trainerWorkload -> {
+                        rangeTotals.trainers++;
+                        accumulate(rangeTotals.totals, trainerWorkload, 1);
+                  });
+            }
+            return rangeTotals;
+      }
+
+      private void increment(Collection<OrganizationTotals> changes) {
+            changes.removeIf(OrganizationTotals::isEmpty);
+            if (changes.isEmpty()) {
+                  return;
+            }
+            try {
+                  organizationTotalsRepository.incrementMonthlyHours(changes);
+            } catch (RuntimeException e) {
+                  logger.error("Error updating organization totals, a repair is needed: {}", e.getMessage());
+            }
+      }
+
+      private static void accumulate(Map<String, OrganizationTotals> totals, TrainerWorkload trainerWorkload, int sign) {
+            boolean trainerStatus = trainerWorkload.isTrainerStatus();
+            trainerWorkload.getYears().forEach((year, yearSummary) -> {
+                  OrganizationTotals yearTotals = totals.computeIfAbsent(OrganizationTotals.id(year, trainerStatus),
+                          id -> new OrganizationTotals(year, trainerStatus));
+                  int[] monthlyHours = yearSummary.getMonthlyHours();
+                  for (int ordinal = 0; ordinal < YearSummary.MONTHS; ordinal++) {
+                        yearTotals.addHours(ordinal, (long) sign * monthlyHours[ordinal]);
+                  }
+            });
+      }
+
+      private static final class RangeTotals {
+
+            private final Map<String, OrganizationTotals> totals = new HashMap<>();
+            private long trainers;
+
+            void merge(RangeTotals other) {
+                  trainers += other.trainers;
+                  other.totals.forEach((id, otherTotals) -> {
+                        OrganizationTotals yearTotals = totals.putIfAbsent(id, otherTotals);
+                        if (yearTotals != null) {
+                              yearTotals.addAll(otherTotals);
+                        }
+                  });
+            }
+      }
+}
@@ -0,0 +1,94 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.repository.ReactiveTrainerWorkloadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read side of TrainerWorkload, backed by {@link ReactiveTrainerWorkloadRepository}.
+ * <p>
+ * Shares the {@link TrainerWorkloadNearCache} with {@link TrainerWorkloadService}, so writes
+ * evict both read paths. The cache is in memory, looking it up does not block.
+ */
+@Service
+public class ReactiveTrainerWorkloadService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTrainerWorkloadService.class);
+    private final ReactiveTrainerWorkloadRepository reactiveTrainerWorkloadRepository;
+    private final TrainerWorkloadNearCache nearCache;
+
+    /**
+     * Constructor for ReactiveTrainerWorkloadService.
+     *
+     * @param reactiveTrainerWorkloadRepository the reactive repository for TrainerWorkload entities
+     * @param nearCache the cache of TrainerWorkload lookups
+     */
+    @Autowired
+    public ReactiveTrainerWorkloadService(ReactiveTrainerWorkloadRepository reactiveTrainerWorkloadRepository, TrainerWorkloadNearCache nearCache) {
+        this.reactiveTrainerWorkloadRepository = reactiveTrainerWorkloadRepository;
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * Retrieves a TrainerWorkload entity by the trainer's username, from the cache when present.
+     * A TrainerWorkload read from the database is added to the cache unless the trainer was written meanwhile.
+     *
+     * @param username the username of the trainer
+     * @return a Mono emitting the TrainerWorkload entity, or empty if not found
+     */
+    public Mono<TrainerWorkload> getTrainerWorkloadByUsername(String username) {
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            return Mono.justOrEmpty((TrainerWorkload) cached.get()).map(TrainerWorkload::copy);
+        }
+        logger.info("Retrieving TrainerWorkload by username: {}", username);
+        return Mono.defer(() -> {
+            long lookup = nearCache.beginLookup();
+            return reactiveTrainerWorkloadRepository.findByTrainerUsername(username)
+                    .doOnNext(trainerWorkload -> nearCache.put(username, trainerWorkload, lookup));
+        });
+    }
+
+    /**
+     * Retrieves the training hours of a single month for a trainer.
+     * A cached TrainerWorkload is used when present, otherwise only the month counter is read from the database.
+     *
+     * @param username the username of the trainer
+     * @param year the year of the training sessions
+     * @param month the month of the training sessions
+     * @return a Mono emitting the hours, or empty if the trainer does not exist
+     */
+    public Mono<Integer> getMonthlyHours(String username, int year, Month month) {
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            return Mono.justOrEmpty((TrainerWorkload) cached.get())
+                    .map(trainerWorkload -> {
+                        YearSummary yearSummary = trainerWorkload.getYearSummary(year);
+                        return yearSummary == null ? 0 : yearSummary.getHours(month);
+                    });
+        }
+        logger.info("Retrieving monthly hours by username: {}, year: {}, month: {}", username, year, month);
+        return reactiveTrainerWorkloadRepository.findMonthlyHours(username, year, month);
+    }
+
+    /**
+     * Retrieves the version of a trainer's workload, which changes whenever its hours change.
+     * A cached TrainerWorkload is used when present, otherwise only the version is read from the database.
+     *
+     * @param username the username of the trainer
+     * @return a Mono emitting the version, or empty if the trainer does not exist
+     */
+    public Mono<Long> getVersion(String username) {
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            return Mono.justOrEmpty((TrainerWorkload) cached.get()).map(TrainerWorkload::getVersion);
+        }
+        return reactiveTrainerWorkloadRepository.findVersion(username);
+    }
+}
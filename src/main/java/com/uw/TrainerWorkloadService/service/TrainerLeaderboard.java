@@ -0,0 +1,306 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.dto.LeaderboardEntry;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory ranking of trainers by hours, one board per (year, month).
+ * <p>
+ * A board groups trainers by their hours in descending order, so a top-N query walks at most N trainers
+ * and the rank of a trainer is found by counting the trainers of the higher hour values, without reading
+ * the database. Trainers without hours in a month are not on its board.
+ * <p>
+ * {@link TrainerWorkloadService} applies the counter changes, saves and deletions it writes, with the same
+ * {@link MonthlyHoursDelta} semantics as the database. The boards are rebuilt from the database by
+ * {@link TrainerLeaderboardRefresher}, which also picks up the changes written by other instances.
+ * The changes applied while a rebuild reads the database are recorded with the version they gave their trainer,
+ * and replayed on the rebuilt boards before they replace the current ones, unless the version read for the trainer
+ * already includes them. None is lost and none is counted twice. Counter writes are wrapped in
+ * {@link #beginWrite()} and {@link #endWrite()}, so that once a rebuild records changes, every write reports its version.
+ * <p>
+ * The boards are kept per instance: until the next rebuild, each instance only sees its own writes.
+ */
+@Component
+public class TrainerLeaderboard {
+
+      private static final long REMOVED = -1;
+
+      private volatile ConcurrentMap<YearMonth, MonthBoard> boards = new ConcurrentHashMap<>();
+      private volatile boolean ready;
+
+      // Guards the swap of the boards with the recording of the changes made during a rebuild
+      private final Object rebuildLock = new Object();
+      private List<Change> changesDuringRebuild;
+
+      // Held shared by the counter writes, so a rebuild starts recording only once no write without a version is running
+      private final ReadWriteLock writes = new ReentrantReadWriteLock();
+
+      /**
+       * Starts a counter write, to be ended with {@link #endWrite()} once its changes are applied here.
+       *
+       * @return true if a rebuild records the changes, which must then be applied with {@link #applyWritten}
+       */
+      public boolean beginWrite() {
+            writes.readLock().lock();
+            synchronized (rebuildLock) {
+                  return changesDuringRebuild != null;
+            }
+      }
+
+      /**
+       * Ends a counter write started with {@link #beginWrite()}.
+       */
+      public void endWrite() {
+            writes.readLock().unlock();
+      }
+
+      /**
+       * Applies counter changes that were written to the database without reporting their versions.
+       * A rebuild replays them whatever it read.
+       *
+       * @param deltas the applied changes
+       */
+      public void apply(Collection<MonthlyHoursDelta> deltas) {
+            for (MonthlyHoursDelta delta : List.copyOf(deltas)) {
+                  change(new Change(delta.getTrainerUsername(), Long.MAX_VALUE,
+                          target -> board(target, delta.getYear(), delta.getMonth()).apply(delta)));
+            }
+      }
+
+      /**
+       * Applies counter changes with the versions they gave their trainers.
+       *
+       * @param applied the changes as returned by the database
+       */
+      public void applyWritten(Collection<AppliedMonthlyHoursDelta> applied) {
+            for (AppliedMonthlyHoursDelta written : List.copyOf(applied)) {
+                  MonthlyHoursDelta delta = written.getDelta();
+                  change(new Change(delta.getTrainerUsername(), written.getVersion(),
+                          target -> board(target, delta.getYear(), delta.getMonth()).apply(delta)));
+            }
+      }
+
+      /**
+       * Replaces every month of a trainer with the hours of a saved trainer workload.
+       *
+       * @param trainerWorkload the saved trainer workload, with the version the save gave it
+       */
+      public void replace(TrainerWorkload trainerWorkload) {
+            String username = trainerWorkload.getTrainerUsername();
+            if (username == null) {
+                  return;
+            }
+            TrainerWorkload saved = trainerWorkload.copy();
+            change(new Change(username, saved.getVersion(), target -> {
+                  target.values().forEach(board -> board.set(username, 0));
+                  saved.getYears().forEach((year, yearSummary) -> {
+                        for (Month month : Month.values()) {
+                              int hours = yearSummary.getHours(month);
+                              if (hours > 0) {
+                                    board(target, year, month).set(username, hours);
+                              }
+                        }
+                  });
+            }));
+      }
+
+      /**
+       * Removes a deleted trainer from every board.
+       *
+       * @param username the username of the deleted trainer
+       */
+      public void remove(String username) {
+            if (username == null) {
+                  return;
+            }
+            change(new Change(username, REMOVED, target -> target.values().forEach(board -> board.set(username, 0))));
+      }
+
+      /**
+       * Replaces all boards with the hours of the given trainer workloads, followed by the changes applied while
+       * they were read that are newer than the version read for their trainer.
+       * Starting waits for the counter writes running without reporting their versions.
+       *
+       * @param trainerWorkloads every trainer workload
+       * @return the number of trainer workloads read
+       */
+      public synchronized long rebuild(Stream<TrainerWorkload> trainerWorkloads) {
+            writes.writeLock().lock();
+            try {
+                  synchronized (rebuildLock) {
+                        changesDuringRebuild = new ArrayList<>();
+                  }
+            } finally {
+                  writes.writeLock().unlock();
+            }
+            try {
+                  ConcurrentMap<YearMonth, MonthBoard> rebuilt = new ConcurrentHashMap<>();
+                  Map<String, Long> readVersions = new HashMap<>();
+                  long[] count = new long[1];
+                  trainerWorkloads.forEach(trainerWorkload -> {
+                        count[0]++;
+                        readVersions.put(trainerWorkload.getTrainerUsername(), trainerWorkload.getVersion());
+                        trainerWorkload.getYears().forEach((year, yearSummary) -> {
+                              int[] monthlyHours = yearSummary.getMonthlyHours();
+                              for (int ordinal = 0; ordinal < YearSummary.MONTHS; ordinal++) {
+                                    if (monthlyHours[ordinal] > 0) {
+                                          rebuilt.computeIfAbsent(YearMonth.of(year, ordinal + 1), key -> new MonthBoard())
+                                                  .set(trainerWorkload.getTrainerUsername(), monthlyHours[ordinal]);
+                                    }
+                              }
+                        });
+                  });
+                  synchronized (rebuildLock) {
+                        for (Change change : changesDuringRebuild) {
+                              if (change.version() == REMOVED) {
+                                    // Whatever was read is gone, a trainer created again after it is replayed from scratch
+                                    readVersions.remove(change.username());
+                                    change.update().accept(rebuilt);
+                              } else if (change.version() > readVersions.getOrDefault(change.username(), 0L)) {
+                                    change.update().accept(rebuilt);
+                              }
+                        }
+                        boards = rebuilt;
+                        ready = true;
+                  }
+                  return count[0];
+            } finally {
+                  synchronized (rebuildLock) {
+                        changesDuringRebuild = null;
+                  }
+            }
+      }
+
+      /**
+       * @return true once the boards have been built from the database, false while they only hold the
+       * changes written since the start
+       */
+      public boolean isReady() {
+            return ready;
+      }
+
+      /**
+       * @param year the year of the board
+       * @param month the month of the board
+       * @param limit the maximum number of trainers
+       * @return the trainers with the most hours in the month, most hours first, ties by username
+       */
+      public List<LeaderboardEntry> top(int year, Month month, int limit) {
+            MonthBoard board = boards.get(key(year, month));
+            return board == null ? List.of() : board.top(limit);
+      }
+
+      /**
+       * @param username the username of the trainer
+       * @param year the year of the board
+       * @param month the month of the board
+       * @return the position of the trainer, or empty if the trainer has no hours in the month
+       */
+      public Optional<LeaderboardEntry> rank(String username, int year, Month month) {
+            MonthBoard board = boards.get(key(year, month));
+            return board == null ? Optional.empty() : Optional.ofNullable(board.rank(username));
+      }
+
+      private void change(Change change) {
+            ConcurrentMap<YearMonth, MonthBoard> current;
+            synchronized (rebuildLock) {
+                  if (changesDuringRebuild != null) {
+                        changesDuringRebuild.add(change);
+                  }
+                  current = boards;
+            }
+            // Boards replaced by a rebuild in the meantime get the change too, and the rebuilt ones get it from the replay
+            change.update().accept(current);
+      }
+
+      /**
+       * A change written to the database, with the version it gave the trainer.
+       * {@link #REMOVED} for a deletion, {@link Long#MAX_VALUE} if the version is not known.
+       */
+      private record Change(String username, long version, Consumer<ConcurrentMap<YearMonth, MonthBoard>> update) {
+      }
+
+      private static MonthBoard board(ConcurrentMap<YearMonth, MonthBoard> boards, int year, Month month) {
+            return boards.computeIfAbsent(key(year, month), key -> new MonthBoard());
+      }
+
+      private static YearMonth key(int year, Month month) {
+            return YearMonth.of(year, month.ordinal() + 1);
+      }
+
+      private static final class MonthBoard {
+
+            private final Map<String, Integer> hoursByTrainer = new HashMap<>();
+            private final NavigableMap<Integer, NavigableSet<String>> trainersByHours = new TreeMap<>(Comparator.reverseOrder());
+
+            synchronized void apply(MonthlyHoursDelta delta) {
+                  set(delta.getTrainerUsername(), delta.applyTo(hoursByTrainer.getOrDefault(delta.getTrainerUsername(), 0)));
+            }
+
+            synchronized void set(String username, int hours) {
+                  Integer previous = hoursByTrainer.remove(username);
+                  if (previous != null) {
+                        NavigableSet<String> trainers = trainersByHours.get(previous);
+                        trainers.remove(username);
+                        if (trainers.isEmpty()) {
+                              trainersByHours.remove(previous);
+                        }
+                  }
+                  if (hours > 0) {
+                        hoursByTrainer.put(username, hours);
+                        trainersByHours.computeIfAbsent(hours, key -> new TreeSet<>()).add(username);
+                  }
+            }
+
+            synchronized List<LeaderboardEntry> top(int limit) {
+                  List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, hoursByTrainer.size()));
+                  int rank = 1;
+                  for (Map.Entry<Integer, NavigableSet<String>> bucket : trainersByHours.entrySet()) {
+                        for (String username : bucket.getValue()) {
+                              if (entries.size() == limit) {
+                                    return entries;
+                              }
+                              entries.add(new LeaderboardEntry(rank, username, bucket.getKey()));
+                        }
+                        rank += bucket.getValue().size();
+                  }
+                  return entries;
+            }
+
+            synchronized LeaderboardEntry rank(String username) {
+                  Integer hours = hoursByTrainer.get(username);
+                  if (hours == null) {
+                        return null;
+                  }
+                  int above = 0;
+                  for (NavigableSet<String> trainers : trainersByHours.headMap(hours, false).values()) {
+                        above += trainers.size();
+                  }
+                  return new LeaderboardEntry(above + 1, username, hours);
+            }
+      }
+}
@@ -0,0 +1,93 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the {@link TrainerLeaderboard} from the trainer workloads stored in the database, once the application
+ * is ready and then every {@code trainer-workload.leaderboard.refresh-interval-ms}.
+ * <p>
+ * Between two rebuilds the boards only follow the changes written by this instance; a rebuild catches up with
+ * the changes of the other instances. A change this instance writes while a rebuild walks the collection is
+ * replayed on the rebuilt boards, unless the version the walk read for its trainer already includes it.
+ * The leaderboard endpoints answer 503 until the first rebuild completes.
+ */
+@Component
+public class TrainerLeaderboardRefresher {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainerLeaderboardRefresher.class);
+
+      private final TrainerWorkloadRepository trainerWorkloadRepository;
+      private final TrainerLeaderboard trainerLeaderboard;
+      private final long refreshIntervalMillis;
+      private final WorkerThreads workerThreads;
+
+      /**
+       * Constructor for TrainerLeaderboardRefresher.
+       *
+       * @param trainerWorkloadRepository the repository the trainer workloads are read from
+       * @param trainerLeaderboard the leaderboard to rebuild
+       * @param refreshIntervalMillis the time between two rebuilds, 0 to only build the leaderboard on start
+       * @param workerThreads the factory of the refresh thread
+       */
+      @Autowired
+      public TrainerLeaderboardRefresher(TrainerWorkloadRepository trainerWorkloadRepository, TrainerLeaderboard trainerLeaderboard,
+                                         @Value("${trainer-workload.leaderboard.refresh-interval-ms:300000}") long refreshIntervalMillis,
+                                         WorkerThreads workerThreads) {
+            this.trainerWorkloadRepository = trainerWorkloadRepository;
+            this.trainerLeaderboard = trainerLeaderboard;
+            this.refreshIntervalMillis = refreshIntervalMillis;
+            this.workerThreads = workerThreads;
+      }
+
+      /**
+       * Starts building the leaderboard in a background thread once the application is ready.
+       */
+      @EventListener(ApplicationReadyEvent.class)
+      public void start() {
+            Thread thread = workerThreads.factory("trainer-leaderboard-refresher").newThread(this::refreshLoop);
+            thread.setDaemon(true);
+            thread.start();
+      }
+
+      /**
+       * Rebuilds the leaderboard with a single pass over the trainer workloads.
+       */
+      public void refresh() {
+            long start = System.nanoTime();
+            long trainers;
+            try (Stream<TrainerWorkload> trainerWorkloads = trainerWorkloadRepository.streamTrainerWorkloads(null, null, null)) {
+                  trainers = trainerLeaderboard.rebuild(trainerWorkloads);
+            }
+            logger.info("Rebuilt trainer leaderboard from {} trainers in {} ms", trainers, (System.nanoTime() - start) / 1_000_000);
+      }
+
+      private void refreshLoop() {
+            do {
+                  try {
+                        refresh();
+                  } catch (RuntimeException e) {
+                        logger.error("Error rebuilding the trainer leaderboard: {}", e.getMessage());
+                  }
+                  if (refreshIntervalMillis <= 0) {
+                        return;
+                  }
+                  try {
+                        Thread.sleep(refreshIntervalMillis);
+                  } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                  }
+            } while (true);
+      }
+}
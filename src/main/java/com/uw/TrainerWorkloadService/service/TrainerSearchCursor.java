@@ -0,0 +1,52 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.repository.TrainerNameSearch;
+import org.bson.BSONException;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque position in the results of a trainer search: the order of the search and the sort key
+ * of the last trainer returned, as URL-safe Base64 of a small JSON document.
+ */
+final class TrainerSearchCursor {
+
+      private static final String ORDER = "o";
+      private static final String KEY = "k";
+
+      private TrainerSearchCursor() {
+      }
+
+      /**
+       * @param search the order of the search
+       * @param key the sort key of the last trainer of a page
+       * @return the cursor of the next page
+       */
+      static String encode(TrainerNameSearch search, List<String> key) {
+            String json = new Document(ORDER, search.name()).append(KEY, key).toJson();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+      }
+
+      /**
+       * @param search the order of the search the cursor is used with
+       * @param cursor a cursor returned by {@link #encode}
+       * @return the sort key the next page starts after
+       * @throws IllegalArgumentException if the cursor is malformed or belongs to a search with another order
+       */
+      static List<String> decode(TrainerNameSearch search, String cursor) {
+            try {
+                  Document document = Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+                  List<String> key = document.getList(KEY, String.class);
+                  if (!search.name().equals(document.getString(ORDER)) || key == null || key.size() != search.getKeyFields().size()) {
+                        throw new IllegalArgumentException("Invalid cursor");
+                  }
+                  return key;
+            } catch (JsonParseException | BSONException | ClassCastException e) {
+                  throw new IllegalArgumentException("Invalid cursor", e);
+            }
+      }
+}
@@ -0,0 +1,41 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the TrainerWorkload cache consistent with whole-document writes made through the repository.
+ * Atomic updates do not raise mapping events and are evicted by {@link TrainerWorkloadService} instead.
+ */
+@Component
+public class TrainerWorkloadCacheEvictionListener extends AbstractMongoEventListener<TrainerWorkload> {
+
+      private final TrainerWorkloadNearCache nearCache;
+
+      /**
+       * Constructor for TrainerWorkloadCacheEvictionListener.
+       *
+       * @param nearCache the cache of TrainerWorkload lookups
+       */
+      @Autowired
+      public TrainerWorkloadCacheEvictionListener(TrainerWorkloadNearCache nearCache) {
+            this.nearCache = nearCache;
+      }
+
+      @Override
+      public void onAfterSave(AfterSaveEvent<TrainerWorkload> event) {
+            if (event.getSource().getTrainerUsername() != null) {
+                  nearCache.evict(event.getSource().getTrainerUsername());
+            }
+      }
+
+      @Override
+      public void onAfterDelete(AfterDeleteEvent<TrainerWorkload> event) {
+            // Delete events only carry the query, which is usually by id, so the username is unknown
+            nearCache.clear();
+      }
+}
@@ -0,0 +1,277 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link TrainerWorkloadNearCache} of every instance consistent with the writes of the others,
+ * enabled with {@code trainer-workload.near-cache.invalidation.enabled}.
+ * <p>
+ * While enabled, {@link TrainerWorkloadService} writes every counter change with a findAndModify that also returns
+ * the version it produced. Each write is invalidated here right away, and its versions are handed to a publisher
+ * thread that sends them on the {@code trainer-workload.near-cache.invalidation.topic} topic, so the write does not
+ * wait for the broker. Versions handed over while a message is being sent are merged, keeping the highest version
+ * of each trainer, and go out together in the next message. Every other instance invalidates those trainers in its
+ * near cache, so an entry older than the write is evicted, or reloaded when {@code refresh} is true, and a message
+ * that arrives late is ignored. Deletes publish a message that clears the whole cache, as the versions of a trainer
+ * start over when it is created again.
+ * <p>
+ * Messages are sent without persistence: an instance that misses one serves the old entry until it expires.
+ */
+@Service
+@ConditionalOnProperty(name = "trainer-workload.near-cache.invalidation.enabled", havingValue = "true")
+public class TrainerWorkloadCacheInvalidations {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainerWorkloadCacheInvalidations.class);
+
+      /**
+       * String property holding the id of the instance that published the message.
+       */
+      static final String ORIGIN_PROPERTY = "origin";
+
+      /**
+       * Boolean property of the messages that clear the whole cache.
+       */
+      static final String CLEAR_PROPERTY = "clear";
+
+      private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+      private final TrainerWorkloadNearCache nearCache;
+      private final TrainerWorkloadRepository trainerWorkloadRepository;
+      private final JmsTemplate jmsTemplate;
+      private final String topic;
+      private final boolean refresh;
+      private final String origin = UUID.randomUUID().toString();
+
+      // Versions waiting for the publisher thread, the highest one per username
+      private final ConcurrentMap<String, Long> pendingVersions = new ConcurrentHashMap<>();
+      private final AtomicBoolean publishScheduled = new AtomicBoolean();
+      private final ExecutorService publisher;
+
+      private final Counter publishedMessages;
+      private final Counter failedMessages;
+      private final Counter evictedTrainers;
+      private final Counter refreshedTrainers;
+      private final Counter staleInvalidations;
+      private final Counter clears;
+
+      /**
+       * Constructor for TrainerWorkloadCacheInvalidations.
+       *
+       * @param nearCache the near cache invalidated by the writes
+       * @param trainerWorkloadRepository the repository the refreshed trainers are read from
+       * @param connectionFactory the JMS connection factory
+       * @param meterRegistry the registry for the invalidation metrics
+       * @param topic the topic the invalidations are published on
+       * @param refresh whether trainers invalidated by another instance are reloaded instead of evicted, if they were cached
+       * @param workerThreads the factory of the publisher thread
+       */
+      @Autowired
+      public TrainerWorkloadCacheInvalidations(TrainerWorkloadNearCache nearCache, TrainerWorkloadRepository trainerWorkloadRepository,
+                                               ConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                                               @Value("${trainer-workload.near-cache.invalidation.topic:trainer-workload.invalidations}") String topic,
+                                               @Value("${trainer-workload.near-cache.invalidation.refresh:false}") boolean refresh,
+                                               WorkerThreads workerThreads) {
+            this.nearCache = nearCache;
+            this.publisher = Executors.newSingleThreadExecutor(workerThreads.factory("cache-invalidation-publisher"));
+            this.trainerWorkloadRepository = trainerWorkloadRepository;
+            this.topic = topic;
+            this.refresh = refresh;
+            this.jmsTemplate = new JmsTemplate(connectionFactory);
+            this.jmsTemplate.setPubSubDomain(true);
+            this.jmsTemplate.setExplicitQosEnabled(true);
+            this.jmsTemplate.setDeliveryPersistent(false);
+
+            this.publishedMessages = invalidations(meterRegistry, "trainer.workload.cache.invalidations.sent", "success", "Invalidation messages published");
+            this.failedMessages = invalidations(meterRegistry, "trainer.workload.cache.invalidations.sent", "failed", "Invalidation messages published");
+            this.evictedTrainers = invalidations(meterRegistry, "trainer.workload.cache.invalidations.received", "evicted", "Trainers invalidated by other instances");
+            this.refreshedTrainers = invalidations(meterRegistry, "trainer.workload.cache.invalidations.received", "refreshed", "Trainers invalidated by other instances");
+            this.staleInvalidations = invalidations(meterRegistry, "trainer.workload.cache.invalidations.received", "stale", "Trainers invalidated by other instances");
+            this.clears = invalidations(meterRegistry, "trainer.workload.cache.invalidations.received", "cleared", "Trainers invalidated by other instances");
+      }
+
+      private static Counter invalidations(MeterRegistry meterRegistry, String name, String outcome, String description) {
+            return Counter.builder(name)
+                    .description(description)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+      }
+
+      /**
+       * Invalidates trainers written with known versions here, and hands them to the publisher thread for the other instances.
+       *
+       * @param versions the version produced by the write per username
+       */
+      public void written(Map<String, Long> versions) {
+            if (versions.isEmpty()) {
+                  return;
+            }
+            versions.forEach(nearCache::invalidate);
+            versions.forEach((username, version) -> pendingVersions.merge(username, version, Math::max));
+            if (publishScheduled.compareAndSet(false, true)) {
+                  submit(this::publishPending);
+            }
+      }
+
+      /**
+       * Clears the cache here and on the other instances, after a write whose trainers are unknown.
+       * The clear is published after the versions handed over before it.
+       */
+      public void cleared() {
+            nearCache.clear();
+            submit(() -> {
+                  publishPending();
+                  publish(Map.of(), true);
+            });
+      }
+
+      /**
+       * Stops the publisher thread once the messages already handed over are sent.
+       */
+      @PreDestroy
+      public void shutdown() {
+            publisher.shutdown();
+            try {
+                  if (!publisher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        logger.warn("Invalidation publisher did not finish in time, {} trainers not published", pendingVersions.size());
+                        publisher.shutdownNow();
+                  }
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+            }
+      }
+
+      private void submit(Runnable task) {
+            try {
+                  publisher.execute(task);
+            } catch (RejectedExecutionException e) {
+                  failedMessages.increment();
+                  logger.warn("Invalidation publisher is shut down, the other instances are not invalidated");
+            }
+      }
+
+      private void publishPending() {
+            // Cleared before draining, so versions added from now on schedule another message
+            publishScheduled.set(false);
+            Map<String, Long> versions = new LinkedHashMap<>();
+            for (String username : pendingVersions.keySet()) {
+                  Long version = pendingVersions.remove(username);
+                  if (version != null) {
+                        versions.put(username, version);
+                  }
+            }
+            if (!versions.isEmpty()) {
+                  publish(versions, false);
+            }
+      }
+
+      private void publish(Map<String, Long> versions, boolean clear) {
+            try {
+                  jmsTemplate.send(topic, session -> {
+                        BytesMessage message = session.createBytesMessage();
+                        message.setStringProperty(ORIGIN_PROPERTY, origin);
+                        message.setBooleanProperty(CLEAR_PROPERTY, clear);
+                        write(message, versions);
+                        return message;
+                  });
+                  publishedMessages.increment();
+            } catch (JmsException e) {
+                  failedMessages.increment();
+                  logger.warn("Could not publish the invalidation of {} trainers", versions.size(), e);
+            }
+      }
+
+      /**
+       * Method to receive the invalidations published by the instances, ignoring those of this instance.
+       *
+       * @param message the invalidation message
+       */
+      @JmsListener(destination = "${trainer-workload.near-cache.invalidation.topic:trainer-workload.invalidations}",
+              containerFactory = CacheConfig.INVALIDATION_LISTENER_FACTORY)
+      public void receiveMessage(Message message) throws JMSException {
+            if (origin.equals(message.getStringProperty(ORIGIN_PROPERTY))) {
+                  return;
+            }
+            if (message.getBooleanProperty(CLEAR_PROPERTY)) {
+                  nearCache.clear();
+                  clears.increment();
+                  return;
+            }
+            if (!(message instanceof BytesMessage bytesMessage)) {
+                  logger.warn("Ignoring invalidation message of type {}", message.getClass().getSimpleName());
+                  return;
+            }
+            read(bytesMessage).forEach(this::invalidate);
+      }
+
+      private void invalidate(String username, long version) {
+            boolean cached = nearCache.get(username) != null;
+            if (!nearCache.invalidate(username, version)) {
+                  staleInvalidations.increment();
+            } else if (refresh && cached) {
+                  // Read from the primary, which already has the write; put() drops it if an even newer write was invalidated meanwhile
+                  long lookup = nearCache.beginLookup();
+                  nearCache.put(username, trainerWorkloadRepository.findByTrainerUsername(username).orElse(null), lookup);
+                  refreshedTrainers.increment();
+            } else {
+                  evictedTrainers.increment();
+            }
+      }
+
+      /**
+       * Writes the body of an invalidation message: the number of trainers, then the username and version of each one.
+       *
+       * @param message the message to write to
+       * @param versions the version per username
+       */
+      static void write(BytesMessage message, Map<String, Long> versions) throws JMSException {
+            message.writeInt(versions.size());
+            for (Map.Entry<String, Long> version : versions.entrySet()) {
+                  message.writeUTF(version.getKey());
+                  message.writeLong(version.getValue());
+            }
+      }
+
+      /**
+       * Reads the body written by {@link #write}.
+       *
+       * @param message the message to read from
+       * @return the version per username, in the order they were written
+       */
+      static Map<String, Long> read(BytesMessage message) throws JMSException {
+            int size = message.readInt();
+            Map<String, Long> versions = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                  versions.put(message.readUTF(), message.readLong());
+            }
+            return versions;
+      }
+}
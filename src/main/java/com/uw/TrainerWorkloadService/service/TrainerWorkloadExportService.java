@@ -0,0 +1,76 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting trainer workloads as newline delimited JSON.
+ * <p>
+ * Trainer workloads are written one per line while the database cursor is walked, so memory use does not
+ * depend on the size of the collection. A client that disconnects makes the next write or flush fail,
+ * which stops the export and closes the cursor.
+ */
+@Service
+public class TrainerWorkloadExportService {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainerWorkloadExportService.class);
+
+      private static final int FLUSH_INTERVAL = 100;
+      private static final byte NEWLINE = '\n';
+
+      private final TrainerWorkloadService trainerWorkloadService;
+      private final ObjectWriter trainerWorkloadWriter;
+
+      /**
+       * Constructor for TrainerWorkloadExportService.
+       *
+       * @param trainerWorkloadService the service streaming the trainer workloads
+       * @param objectMapper the mapper used to write the records
+       */
+      @Autowired
+      public TrainerWorkloadExportService(TrainerWorkloadService trainerWorkloadService, ObjectMapper objectMapper) {
+            this.trainerWorkloadService = trainerWorkloadService;
+            this.trainerWorkloadWriter = objectMapper.writerFor(TrainerWorkload.class);
+      }
+
+      /**
+       * Writes the matching trainer workloads to an output stream, one JSON object per line.
+       *
+       * @param trainerStatus only trainers with this status, or all trainers if null
+       * @param fromYear the first year to include, no lower bound if null
+       * @param toYear the last year to include, no upper bound if null
+       * @param out the stream to write to, usually the response body
+       * @return the number of trainer workloads written, up to the disconnect if the client went away
+       */
+      public long export(Boolean trainerStatus, Integer fromYear, Integer toYear, OutputStream out) {
+            long exported = 0;
+            try (Stream<TrainerWorkload> trainerWorkloads = trainerWorkloadService.streamTrainerWorkloads(trainerStatus, fromYear, toYear)) {
+                  Iterator<TrainerWorkload> iterator = trainerWorkloads.iterator();
+                  while (iterator.hasNext()) {
+                        out.write(trainerWorkloadWriter.writeValueAsBytes(iterator.next()));
+                        out.write(NEWLINE);
+                        exported++;
+                        if (exported % FLUSH_INTERVAL == 0) {
+                              // Hands the records to the client and surfaces a disconnect early
+                              out.flush();
+                        }
+                  }
+                  out.flush();
+            } catch (IOException e) {
+                  logger.info("Export aborted by the client after {} trainer workloads: {}", exported, e.getMessage());
+                  return exported;
+            }
+            logger.info("Exported {} trainer workloads", exported);
+            return exported;
+      }
+}
@@ -1,9 +1,16 @@
 package com.uw.TrainerWorkloadService.service;
 
+import com.uw.TrainerWorkloadService.dto.TrainerHoursRange;
+import com.uw.TrainerWorkloadService.dto.TrainerMonthlyHours;
+import com.uw.TrainerWorkloadService.dto.TrainerSearchPage;
+import com.uw.TrainerWorkloadService.dto.TrainerSummary;
+import com.uw.TrainerWorkloadService.dto.TrainerYearHours;
 import com.uw.TrainerWorkloadService.dto.TrainingRequest;
 import com.uw.TrainerWorkloadService.model.Month;
 import com.uw.TrainerWorkloadService.model.TrainerWorkload;
 import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.repository.TrainerNameSearch;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +18,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for managing trainer workloads.
@@ -22,20 +37,25 @@ public class TrainerWorkloadManagementService {
 
       private static final Logger logger = LoggerFactory.getLogger(TrainerWorkloadManagementService.class);
       private final TrainerWorkloadService trainerWorkloadService;
+      private final TrainingPipelineMetrics trainingPipelineMetrics;
 
       /**
        * Constructor for TrainerWorkloadManagementService.
        *
        * @param trainerWorkloadService the service for retrieving and saving trainer workloads
+       * @param trainingPipelineMetrics the meters of the requests processed over HTTP
        */
       @Autowired
-      public TrainerWorkloadManagementService(TrainerWorkloadService trainerWorkloadService) {
+      public TrainerWorkloadManagementService(TrainerWorkloadService trainerWorkloadService,
+                                              TrainingPipelineMetrics trainingPipelineMetrics) {
             this.trainerWorkloadService = trainerWorkloadService;
+            this.trainingPipelineMetrics = trainingPipelineMetrics;
       }
 
       /**
        * Adds training hours to a trainer's workload.
        * If the trainer or year summary does not exist, they are created.
+       * The change is applied as a single atomic update in the database.
        *
        * @param username the username of the trainer
        * @param firstName the first name of the trainer
@@ -49,23 +69,7 @@ public class TrainerWorkloadManagementService {
       public String addTraining(String username, String firstName, String lastName, boolean isActive,
                                 int year, int month, int duration) {
             logger.info("Adding training for trainer: {}, year: {}, month: {}, duration: {}", username, year, month, duration);
-            TrainerWorkload trainerWorkload = getOrCreateTrainerWorkload(username, firstName, lastName, isActive);
-            Month monthEnum = Month.fromNumber(month);
-
-            for (YearSummary y : trainerWorkload.getYears()) {
-                  if (y.getYear() == year) {
-                        y.addHours(monthEnum, duration);
-                        trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
-                        logger.info("Training added successfully for trainer: {}", username);
-                        return "Training added successfully";
-                  }
-            }
-
-            YearSummary yearSummary = new YearSummary();
-            yearSummary.setYear(year);
-            yearSummary.addHours(monthEnum, duration);
-            trainerWorkload.getYears().add(yearSummary);
-            trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
+            trainerWorkloadService.addMonthlyHours(username, firstName, lastName, isActive, year, Month.fromNumber(month), duration);
             logger.info("Training added successfully for trainer: {}", username);
             return "Training added successfully";
       }
@@ -73,6 +77,7 @@ public class TrainerWorkloadManagementService {
       /**
        * Adds training hours to a trainer's workload.
        * If the trainer or year summary does not exist, they are created.
+       * The change is applied as a single atomic update in the database.
        *
        * @param trainingRequest the training request data transfer object
        * @return a message indicating the result of the operation
@@ -97,25 +102,14 @@ public class TrainerWorkloadManagementService {
                   throw new IllegalArgumentException("Training duration must be greater than 0");
             }
 
-            int month = trainingRequest.getTrainingDate().getMonthValue();
-
-            TrainerWorkload trainerWorkload = getOrCreateTrainerWorkload(trainingRequest.getTrainerUsername(), trainingRequest.getFirstName(), trainingRequest.getLastName(), trainingRequest.isActive());
-            Month monthEnum = Month.fromNumber(month);
-
-            for (YearSummary y : trainerWorkload.getYears()) {
-                  if (y.getYear() == trainingRequest.getTrainingDate().getYear()) {
-                        y.addHours(monthEnum, trainingRequest.getTrainingDuration());
-                        trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
-                        logger.info("Training workload added successfully for trainer: {}", trainingRequest.getTrainerUsername());
-                        return "Training workload added successfully";
-                  }
-            }
-
-            YearSummary yearSummary = new YearSummary();
-            yearSummary.setYear(trainingRequest.getTrainingDate().getYear());
-            yearSummary.addHours(monthEnum, trainingRequest.getTrainingDuration());
-            trainerWorkload.getYears().add(yearSummary);
-            trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
+            trainerWorkloadService.addMonthlyHours(
+                    trainingRequest.getTrainerUsername(),
+                    trainingRequest.getFirstName(),
+                    trainingRequest.getLastName(),
+                    trainingRequest.isActive(),
+                    trainingRequest.getTrainingDate().getYear(),
+                    Month.fromNumber(trainingRequest.getTrainingDate().getMonthValue()),
+                    trainingRequest.getTrainingDuration());
             logger.info("Training workload added successfully for trainer: {}", trainingRequest.getTrainerUsername());
             return "Training workload added successfully";
       }
@@ -123,6 +117,7 @@ public class TrainerWorkloadManagementService {
 
       /**
        * Deletes training hours from a trainer's workload.
+       * The month counter is decremented atomically and never goes below zero.
        * If the training session is not found, an IllegalArgumentException is thrown.
        *
        * @param username the username of the trainer
@@ -134,27 +129,17 @@ public class TrainerWorkloadManagementService {
        */
       public String deleteTraining(String username, int year, int month, int duration) {
             logger.info("Deleting training for trainer: {}, year: {}, month: {}, duration: {}", username, year, month, duration);
-            TrainerWorkload trainerWorkload = trainerWorkloadService.getTrainerWorkloadByUsername(username)
-                    .orElseThrow(() -> new IllegalArgumentException("Training not found"));
-            Month monthEnum = Month.fromNumber(month);
-
-            System.out.println("trainerWorkload: " + trainerWorkload);
-
-            for (YearSummary y : trainerWorkload.getYears()) {
-                  if (y.getYear() == year) {
-                        y.deleteHours(monthEnum, duration);
-                        trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
-                        logger.info("Training workload deleted successfully for trainer: {}", username);
-                        return "Training workload deleted successfully";
-                  }
+            if (!trainerWorkloadService.subtractMonthlyHours(username, year, Month.fromNumber(month), duration)) {
+                  logger.error("Training not found for trainer: {}, year: {}, month: {}, duration: {}", username, year, month, duration);
+                  throw new IllegalArgumentException("Training not found");
             }
-
-            logger.error("Training not found for trainer: {}, year: {}, month: {}, duration: {}", username, year, month, duration);
-            throw new IllegalArgumentException("Training not found");
+            logger.info("Training workload deleted successfully for trainer: {}", username);
+            return "Training workload deleted successfully";
       }
 
       /**
        * Deletes training hours from a trainer's workload.
+       * The month counter is decremented atomically and never goes below zero.
        * If the training session is not found, an IllegalArgumentException is thrown.
        *
        * @param trainingRequest the training request data transfer object
@@ -163,86 +148,168 @@ public class TrainerWorkloadManagementService {
        */
       public String deleteTraining(TrainingRequest trainingRequest) {
             logger.info("Deleting training for trainer: {}, trainingRequest: {}", trainingRequest.getTrainerUsername(), trainingRequest);
-            TrainerWorkload trainerWorkload = trainerWorkloadService.getTrainerWorkloadByUsername(trainingRequest.getTrainerUsername())
-                    .orElseThrow(() -> new IllegalArgumentException("Training not found"));
-            Month monthEnum = Month.fromNumber(trainingRequest.getTrainingDate().getMonthValue());
-
-            for (YearSummary y : trainerWorkload.getYears()) {
-                  if (y.getYear() == trainingRequest.getTrainingDate().getYear()) {
-                        y.deleteHours(monthEnum, trainingRequest.getTrainingDuration());
-                        trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
-                        logger.info("Training workload deleted successfully for trainer: {}", trainingRequest.getTrainerUsername());
-                        return "Training workload deleted successfully";
-                  }
+            if (!trainerWorkloadService.subtractMonthlyHours(
+                    trainingRequest.getTrainerUsername(),
+                    trainingRequest.getTrainingDate().getYear(),
+                    Month.fromNumber(trainingRequest.getTrainingDate().getMonthValue()),
+                    trainingRequest.getTrainingDuration())) {
+                  logger.error("Training not found for trainer: {}, trainingRequest: {}", trainingRequest.getTrainerUsername(), trainingRequest);
+                  throw new IllegalArgumentException("Training not found");
             }
-
-            logger.error("Training not found for trainer: {}, trainingRequest: {}", trainingRequest.getTrainerUsername(), trainingRequest);
-            throw new IllegalArgumentException("Training not found");
+            logger.info("Training workload deleted successfully for trainer: {}", trainingRequest.getTrainerUsername());
+            return "Training workload deleted successfully";
       }
 
       /**
-       * Retrieves or creates a TrainerWorkload object.
-       * If the trainer does not exist, a new TrainerWorkload object is created.
+       * Retrieves the hours of a range of months for many trainers with a single lookup.
+       * Trainers that do not exist are returned with {@code found} set to false.
        *
-       * @param username the username of the trainer
-       * @param firstName the first name of the trainer
-       * @param lastName the last name of the trainer
-       * @param isActive the status indicating whether the trainer is active
-       * @return the TrainerWorkload object
+       * @param usernames the usernames of the trainers
+       * @param year the year of the training sessions
+       * @param fromMonth the first month of the range, from 1 to 12
+       * @param toMonth the last month of the range, from 1 to 12
+       * @return one entry per distinct username, in request order
        */
-      private TrainerWorkload getOrCreateTrainerWorkload(String username, String firstName, String lastName, boolean isActive) {
-            logger.info("Retrieving or creating TrainerWorkload for trainer: {}", username);
-            Optional<TrainerWorkload> existingWorkload = trainerWorkloadService.getTrainerWorkloadByUsername(username);
-            if (existingWorkload.isPresent()) {
-                  return existingWorkload.get();
-            } else {
-                  TrainerWorkload newWorkload = new TrainerWorkload();
-                  newWorkload.setTrainerUsername(username);
-                  newWorkload.setTrainerFirstName(firstName);
-                  newWorkload.setTrainerLastName(lastName);
-                  newWorkload.setTrainerStatus(isActive);
-                  logger.info("Created new TrainerWorkload for trainer: {}", username);
-                  return newWorkload;
+      public List<TrainerMonthlyHours> findMonthlyHours(Collection<String> usernames, int year, int fromMonth, int toMonth) {
+            Set<String> distinctUsernames = new LinkedHashSet<>(usernames);
+            logger.info("Retrieving monthly hours for {} trainers, year: {}, months: {}-{}", distinctUsernames.size(), year, fromMonth, toMonth);
+            Map<String, int[]> yearMonthlyHours = trainerWorkloadService.getYearMonthlyHours(distinctUsernames, year);
+
+            List<TrainerMonthlyHours> result = new ArrayList<>(distinctUsernames.size());
+            for (String username : distinctUsernames) {
+                  int[] monthlyHours = yearMonthlyHours.get(username);
+                  if (monthlyHours == null) {
+                        result.add(new TrainerMonthlyHours(username, false, null));
+                        continue;
+                  }
+                  Map<Integer, Integer> hours = new LinkedHashMap<>();
+                  for (int month = fromMonth; month <= toMonth; month++) {
+                        hours.put(month, monthlyHours[Month.fromNumber(month).ordinal()]);
+                  }
+                  result.add(new TrainerMonthlyHours(username, true, hours));
             }
+            return result;
       }
 
       /**
-       * Retrieves the monthly training hours for a specific trainer.
-       * If the trainer or year summary does not exist, 0 is returned.
+       * Retrieves the hours of every month of a year for a trainer, with the yearly total, with a single lookup.
        *
        * @param username the username of the trainer
-       * @param year the year of the training session
-       * @param month the month of the training session
-       * @return the number of training hours for the specified month and year
+       * @param year the year of the training sessions
+       * @return an Optional containing the hours of the twelve months and the version they were read from,
+       * or empty if the trainer does not exist
        */
-      public int getMonthlyHours(String username, int year, int month) {
-            logger.info("Retrieving monthly hours for trainer: {}, year: {}, month: {}", username, year, month);
-            Optional<TrainerWorkload> trainerWorkloadOptional = trainerWorkloadService.getTrainerWorkloadByUsername(username);
+      public Optional<TrainerYearHours> findYearHours(String username, int year) {
+            logger.info("Retrieving hours of year {} for trainer: {}", year, username);
+            return trainerWorkloadService.getYearsWorkload(username, year, year)
+                    .map(trainerWorkload -> {
+                          YearSummary yearSummary = trainerWorkload.getYearSummary(year);
+                          Map<Integer, Integer> months = new LinkedHashMap<>();
+                          long total = 0;
+                          for (Month month : Month.values()) {
+                                int hours = yearSummary == null ? 0 : yearSummary.getHours(month);
+                                months.put(month.ordinal() + 1, hours);
+                                total += hours;
+                          }
+                          return new TrainerYearHours(username, year, months, total, trainerWorkload.getVersion());
+                    });
+      }
 
-            if (trainerWorkloadOptional.isEmpty()) {
-                  logger.warn("TrainerWorkload not found for trainer: {}", username);
-                  return 0;
+      /**
+       * Finds trainers by prefixes of their username and names, one page at a time. With a username prefix the
+       * trainers are sorted by username, otherwise by last name or, without it, by first name, then by the
+       * other name and the username.
+       *
+       * @param usernamePrefix the prefix of the username, or null
+       * @param firstNamePrefix the prefix of the first name, or null
+       * @param lastNamePrefix the prefix of the last name, or null
+       * @param after the {@code next} cursor of the previous page, or null for the first page
+       * @param limit the maximum number of trainers of the page
+       * @return the page, with the cursor of the next page if there may be more trainers
+       * @throws IllegalArgumentException if no prefix is given or the cursor is invalid
+       */
+      public TrainerSearchPage searchTrainers(String usernamePrefix, String firstNamePrefix, String lastNamePrefix, String after, int limit) {
+            if (usernamePrefix == null && firstNamePrefix == null && lastNamePrefix == null) {
+                  throw new IllegalArgumentException("A username, first name or last name prefix is required");
             }
+            TrainerNameSearch search = TrainerNameSearch.of(usernamePrefix, firstNamePrefix, lastNamePrefix);
+            List<String> afterKey = after == null ? null : TrainerSearchCursor.decode(search, after);
+            // One more than the page tells whether there is a next page
+            List<TrainerWorkload> found = trainerWorkloadService.findByNamePrefix(usernamePrefix, firstNamePrefix, lastNamePrefix, afterKey, limit + 1);
 
-            TrainerWorkload trainerWorkload = trainerWorkloadOptional.get();
-            for (YearSummary y : trainerWorkload.getYears()) {
-                  if (y.getYear() == year) {
-                        return y.getHours(Month.fromNumber(month));
-                  }
+            List<TrainerWorkload> page = found.size() > limit ? found.subList(0, limit) : found;
+            List<TrainerSummary> trainers = new ArrayList<>(page.size());
+            for (TrainerWorkload trainerWorkload : page) {
+                  trainers.add(new TrainerSummary(trainerWorkload.getTrainerUsername(), trainerWorkload.getTrainerFirstName(),
+                          trainerWorkload.getTrainerLastName(), trainerWorkload.isTrainerStatus()));
             }
+            String next = found.size() > limit ? TrainerSearchCursor.encode(search, search.keyOf(page.get(page.size() - 1))) : null;
+            return new TrainerSearchPage(trainers, next);
+      }
 
-            logger.warn("YearSummary not found for trainer: {}, year: {}", username, year);
-            return 0;
+      /**
+       * Sums the hours of a range of months for a trainer, per year and overall, with a single lookup
+       * however many years the range spans.
+       *
+       * @param username the username of the trainer
+       * @param from the first month of the range
+       * @param to the last month of the range, included
+       * @return an Optional containing the sums and the version they were read from, or empty if the trainer does not exist
+       * @throws IllegalArgumentException if the range ends before it starts
+       */
+      public Optional<TrainerHoursRange> findHoursRange(String username, YearMonth from, YearMonth to) {
+            if (to.isBefore(from)) {
+                  throw new IllegalArgumentException("Invalid month range");
+            }
+            logger.info("Retrieving hours of months {} to {} for trainer: {}", from, to, username);
+            return trainerWorkloadService.getYearsWorkload(username, from.getYear(), to.getYear())
+                    .map(trainerWorkload -> {
+                          Map<Integer, Long> yearlyTotals = new LinkedHashMap<>();
+                          long total = 0;
+                          for (int year = from.getYear(); year <= to.getYear(); year++) {
+                                YearSummary yearSummary = trainerWorkload.getYearSummary(year);
+                                long yearTotal = 0;
+                                if (yearSummary != null) {
+                                      int[] monthlyHours = yearSummary.getMonthlyHours();
+                                      int firstMonth = year == from.getYear() ? from.getMonthValue() : 1;
+                                      int lastMonth = year == to.getYear() ? to.getMonthValue() : YearSummary.MONTHS;
+                                      for (int month = firstMonth; month <= lastMonth; month++) {
+                                            yearTotal += monthlyHours[month - 1];
+                                      }
+                                }
+                                yearlyTotals.put(year, yearTotal);
+                                total += yearTotal;
+                          }
+                          return new TrainerHoursRange(username, from, to, yearlyTotals, total, trainerWorkload.getVersion());
+                    });
       }
 
       /**
        * Processes a training request and returns a response entity.
        * The request is validated and the appropriate method is called based on the action type.
+       * The processing time is recorded under the HTTP source, requests answered with 400 as rejected.
        *
        * @param trainingRequest the training request data transfer object
        * @return a response entity containing a message indicating the result of the operation
        */
       public ResponseEntity<String> processRequest(@Valid TrainingRequest trainingRequest) {
+            Timer.Sample sample = trainingPipelineMetrics.startProcessing();
+            ResponseEntity<String> response;
+            try {
+                  response = applyRequest(trainingRequest);
+            } catch (RuntimeException e) {
+                  trainingPipelineMetrics.recordProcessing(sample, TrainingPipelineMetrics.SOURCE_HTTP, trainingRequest.getActionType(), e);
+                  throw e;
+            }
+            if (response.getStatusCode().is4xxClientError()) {
+                  trainingPipelineMetrics.recordRejected(sample, TrainingPipelineMetrics.SOURCE_HTTP, trainingRequest.getActionType());
+            } else {
+                  trainingPipelineMetrics.recordProcessing(sample, TrainingPipelineMetrics.SOURCE_HTTP, trainingRequest.getActionType(), null);
+            }
+            return response;
+      }
+
+      private ResponseEntity<String> applyRequest(TrainingRequest trainingRequest) {
             logger.info("Processing training request for trainer: {}, actionType: {}", trainingRequest.getTrainerUsername(), trainingRequest.getActionType());
             if( trainingRequest.getTrainerUsername() == null || trainingRequest.getTrainerUsername().isBlank() ) {
                   logger.error("Invalid trainer username: ");
@@ -0,0 +1,152 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-instance cache of TrainerWorkload documents keyed by trainer username, backed by the
+ * {@link CacheConfig#TRAINER_WORKLOADS} cache.
+ * <p>
+ * Every write of a trainer raises the trainer's floor: an invalidation raises it to the version the write produced,
+ * an eviction of a write whose version is unknown marks it with the eviction's place in a sequence of the evictions.
+ * A lookup takes its place in that sequence with {@link #beginLookup()} before reading the database, and its result
+ * is not cached if the trainer was evicted after it began or is older than the version floor. So a lookup that read
+ * the trainer before a write cannot put it back once the write is evicted or invalidated, and a late invalidation
+ * cannot evict or replace an entry that is already newer.
+ * Floors are kept for {@code trainer-workload.near-cache.version-floor-ttl-ms}, which must outlast the lookups
+ * and invalidations in flight.
+ * <p>
+ * Entries are copies of the TrainerWorkload put, which must not be modified by the callers of {@link #get}.
+ */
+@Component
+public class TrainerWorkloadNearCache {
+
+      private final Cache trainerWorkloadCache;
+      private final ConcurrentMap<String, Floor> versionFloors;
+      private final AtomicLong evictions = new AtomicLong();
+      private volatile long clearedAt;
+
+      /**
+       * Constructor for TrainerWorkloadNearCache.
+       *
+       * @param cacheManager the cache manager holding the TrainerWorkload cache
+       * @param versionFloorTtlMillis how long the floor of a trainer is kept after its last write
+       * @param versionFloorMaximumSize the maximum number of trainers with a floor
+       */
+      @Autowired
+      public TrainerWorkloadNearCache(CacheManager cacheManager,
+                                      @Value("${trainer-workload.near-cache.version-floor-ttl-ms:60000}") long versionFloorTtlMillis,
+                                      @Value("${trainer-workload.near-cache.version-floor-maximum-size:100000}") long versionFloorMaximumSize) {
+            this.trainerWorkloadCache = cacheManager.getCache(CacheConfig.TRAINER_WORKLOADS);
+            this.versionFloors = Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofMillis(versionFloorTtlMillis))
+                    .maximumSize(versionFloorMaximumSize)
+                    .<String, Floor>build()
+                    .asMap();
+      }
+
+      /**
+       * @param username the username of the trainer
+       * @return the cached entry, holding the TrainerWorkload or null if the trainer did not exist, or null if not cached
+       */
+      public Cache.ValueWrapper get(String username) {
+            return trainerWorkloadCache.get(username);
+      }
+
+      /**
+       * Begins a lookup, to be called before the trainer is read from the database.
+       *
+       * @return the ticket of the lookup, to be passed to {@link #put}
+       */
+      public long beginLookup() {
+            return evictions.get();
+      }
+
+      /**
+       * Caches a copy of the result of a lookup, unless the trainer was evicted since the lookup began
+       * or a write newer than the result has been invalidated.
+       *
+       * @param username the username of the trainer
+       * @param trainerWorkload the TrainerWorkload read from the database, or null if the trainer does not exist
+       * @param lookup the ticket returned by {@link #beginLookup()} before the TrainerWorkload was read
+       * @return true if the entry was cached
+       */
+      public boolean put(String username, TrainerWorkload trainerWorkload, long lookup) {
+            boolean[] cached = {false};
+            // The floor's map entry serializes this check with evict() and invalidate(), so a floor cannot be raised in between
+            versionFloors.compute(username, (key, floor) -> {
+                  if (lookup >= clearedAt && (floor == null || floor.admits(trainerWorkload, lookup))) {
+                        trainerWorkloadCache.put(key, trainerWorkload == null ? null : trainerWorkload.copy());
+                        cached[0] = true;
+                  }
+                  return floor;
+            });
+            return cached[0];
+      }
+
+      /**
+       * Evicts a trainer whose new version is unknown. Lookups that began before the eviction are not cached.
+       *
+       * @param username the username of the trainer
+       */
+      public void evict(String username) {
+            long evictedAt = evictions.incrementAndGet();
+            versionFloors.compute(username, (key, floor) -> {
+                  trainerWorkloadCache.evict(key);
+                  return new Floor(floor == null ? 0 : floor.version(), evictedAt);
+            });
+      }
+
+      /**
+       * Invalidates the trainer after a write: raises its floor to the version of the write and evicts the cached
+       * entry if it is older. Invalidations may arrive in any order, an older one leaves the floor and the entry as they are.
+       *
+       * @param username the username of the trainer
+       * @param version the version produced by the write
+       * @return false if the cached entry is at least as new as the write, true otherwise
+       */
+      public boolean invalidate(String username, long version) {
+            boolean[] stale = {true};
+            versionFloors.compute(username, (key, floor) -> {
+                  Cache.ValueWrapper cached = trainerWorkloadCache.get(key);
+                  if (cached != null && cached.get() instanceof TrainerWorkload trainerWorkload && trainerWorkload.getVersion() >= version) {
+                        stale[0] = false;
+                  } else {
+                        trainerWorkloadCache.evict(key);
+                  }
+                  return floor == null ? new Floor(version, 0) : new Floor(Math.max(floor.version(), version), floor.evictedAt());
+            });
+            return stale[0];
+      }
+
+      /**
+       * Empties the cache and forgets the floors, for writes that can restart the versions of a trainer,
+       * such as a delete followed by a new insert. Lookups that began before are not cached.
+       */
+      public void clear() {
+            clearedAt = evictions.incrementAndGet();
+            versionFloors.clear();
+            trainerWorkloadCache.clear();
+      }
+
+      /**
+       * Floor of a trainer: the highest version invalidated, 0 if none, and the ticket of its last eviction, 0 if none.
+       */
+      private record Floor(long version, long evictedAt) {
+
+            boolean admits(TrainerWorkload trainerWorkload, long lookup) {
+                  return lookup >= evictedAt
+                          && (version == 0 || (trainerWorkload != null && trainerWorkload.getVersion() >= version));
+            }
+      }
+}
@@ -1,43 +1,229 @@
 package com.uw.TrainerWorkloadService.service;
 
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
 import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
 import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing TrainerWorkload entities.
  * This class handles the business logic for saving, retrieving, and deleting trainer workloads.
+ * <p>
+ * Lookups by username are cached in the {@link TrainerWorkloadNearCache}. The atomic update
+ * methods and saves evict the trainer they touch, deletes are evicted by {@link TrainerWorkloadCacheEvictionListener}.
+ * When {@link TrainerWorkloadCacheInvalidations} is enabled, every write is instead invalidated with the version
+ * it produced, here and on the other instances.
+ * Every counter change, save and delete is also applied to the {@link TrainerLeaderboard}, and to the
+ * {@link OrganizationTotalsService} when it is enabled.
  */
 @Service
 public class TrainerWorkloadService {
     private static final Logger logger = LoggerFactory.getLogger(TrainerWorkloadService.class);
     private final TrainerWorkloadRepository trainerWorkloadRepository;
+    private final TrainerWorkloadNearCache nearCache;
+    private final TrainerLeaderboard trainerLeaderboard;
+    private final OrganizationTotalsService organizationTotals;
+    private final TrainerWorkloadCacheInvalidations cacheInvalidations;
 
     /**
      * Constructor for TrainerWorkloadService.
      *
      * @param trainerWorkloadRepository the repository for TrainerWorkload entities
+     * @param nearCache the cache of TrainerWorkload lookups
+     * @param trainerLeaderboard the leaderboard the counter changes are applied to
+     * @param organizationTotals the organization totals the counter changes are added to, if enabled
+     * @param cacheInvalidations the publisher of the writes to the other instances, if enabled
      */
     @Autowired
-    public TrainerWorkloadService(TrainerWorkloadRepository trainerWorkloadRepository) {
+    public TrainerWorkloadService(TrainerWorkloadRepository trainerWorkloadRepository, TrainerWorkloadNearCache nearCache,
+                                  TrainerLeaderboard trainerLeaderboard, Optional<OrganizationTotalsService> organizationTotals,
+                                  Optional<TrainerWorkloadCacheInvalidations> cacheInvalidations) {
         this.trainerWorkloadRepository = trainerWorkloadRepository;
+        this.nearCache = nearCache;
+        this.trainerLeaderboard = trainerLeaderboard;
+        this.organizationTotals = organizationTotals.orElse(null);
+        this.cacheInvalidations = cacheInvalidations.orElse(null);
     }
 
     /**
-     * Saves a TrainerWorkload entity.
+     * Saves a TrainerWorkload entity with a single findAndModify, the database incrementing its version.
+     * The document it replaced, returned by the same write, gives the change applied to the organization totals.
      *
      * @param trainerWorkload the TrainerWorkload entity to save
-     * @return the saved TrainerWorkload entity
+     * @return the saved TrainerWorkload entity, with its id and new version
      */
     public TrainerWorkload saveTrainerWorkload(TrainerWorkload trainerWorkload) {
         logger.info("Saving TrainerWorkload: {}", trainerWorkload);
-        return trainerWorkloadRepository.save(trainerWorkload);
+        TrainerWorkload before = trainerWorkloadRepository.replaceTrainerWorkload(trainerWorkload).orElse(null);
+        List<String> written = new ArrayList<>(List.of(trainerWorkload.getTrainerUsername()));
+        if (before != null && !trainerWorkload.getTrainerUsername().equals(before.getTrainerUsername())) {
+            // Saved under a new username, the old one no longer exists
+            trainerLeaderboard.remove(before.getTrainerUsername());
+            written.add(before.getTrainerUsername());
+        }
+        trainerLeaderboard.replace(trainerWorkload);
+        if (organizationTotals != null) {
+            organizationTotals.recordReplace(before, trainerWorkload);
+        }
+        if (cacheInvalidations != null) {
+            Map<String, Long> versions = new HashMap<>();
+            written.forEach(username -> versions.put(username, trainerWorkload.getVersion()));
+            cacheInvalidations.written(versions);
+        } else {
+            written.forEach(nearCache::evict);
+        }
+        return trainerWorkload;
+    }
+
+    /**
+     * Atomically adds training hours to a trainer's month counter, creating the trainer
+     * and the year summary if they do not exist yet.
+     *
+     * @param username the username of the trainer
+     * @param firstName the first name of the trainer
+     * @param lastName the last name of the trainer
+     * @param isActive the status indicating whether the trainer is active
+     * @param year the year of the training session
+     * @param month the month of the training session
+     * @param hours the number of hours to add
+     */
+    public void addMonthlyHours(String username, String firstName, String lastName, boolean isActive,
+                                int year, Month month, int hours) {
+        logger.info("Adding {} hours to TrainerWorkload: {}, year: {}, month: {}", hours, username, year, month);
+        MonthlyHoursDelta delta = new MonthlyHoursDelta(username, year, month);
+        delta.add(firstName, lastName, isActive, hours);
+        writeCounters(List.of(delta), () -> {
+            trainerWorkloadRepository.addMonthlyHours(username, firstName, lastName, isActive, year, month, hours);
+            return true;
+        });
+        evictWritten(List.of(username));
+    }
+
+    /**
+     * Atomically subtracts training hours from a trainer's month counter, never going below zero.
+     *
+     * @param username the username of the trainer
+     * @param year the year of the training session
+     * @param month the month of the training session
+     * @param hours the number of hours to subtract
+     * @return false if the trainer or the year summary does not exist
+     */
+    public boolean subtractMonthlyHours(String username, int year, Month month, int hours) {
+        logger.info("Subtracting {} hours from TrainerWorkload: {}, year: {}, month: {}", hours, username, year, month);
+        MonthlyHoursDelta delta = new MonthlyHoursDelta(username, year, month);
+        delta.subtract(hours);
+        boolean written = writeCounters(List.of(delta),
+                () -> trainerWorkloadRepository.subtractMonthlyHours(username, year, month, hours));
+        if (!written) {
+            // Nothing was written, but a cached entry may still hold the year the database does not have
+            nearCache.evict(username);
+            return false;
+        }
+        evictWritten(List.of(username));
+        return true;
+    }
+
+    /**
+     * Applies coalesced month counter changes for many trainers in a single bulk write,
+     * or one findAndModify per change when the organization totals or the cache invalidations are enabled,
+     * or while the leaderboard is rebuilt.
+     *
+     * @param deltas the changes to apply, at most one per (trainer, year, month)
+     */
+    public void applyMonthlyHoursDeltas(Collection<MonthlyHoursDelta> deltas) {
+        logger.info("Applying {} monthly hours deltas", deltas.size());
+        writeCounters(deltas, () -> {
+            trainerWorkloadRepository.applyMonthlyHoursDeltas(deltas);
+            return true;
+        });
+        evictWritten(deltas.stream().map(MonthlyHoursDelta::getTrainerUsername).distinct().toList());
+    }
+
+    /**
+     * Writes counter changes and applies them to the leaderboard. While the leaderboard is rebuilt, they are written
+     * with the update that returns the trainer it found, so the rebuild knows which of them it read already.
+     *
+     * @param deltas the changes to write
+     * @param untracked the write used when the changes need not be tracked, returning false if nothing was written
+     * @return false if nothing was written
+     */
+    private boolean writeCounters(Collection<MonthlyHoursDelta> deltas, BooleanSupplier untracked) {
+        boolean rebuilding = trainerLeaderboard.beginWrite();
+        try {
+            if (tracked() || rebuilding) {
+                List<AppliedMonthlyHoursDelta> applied = applyTracked(deltas);
+                trainerLeaderboard.applyWritten(applied);
+                return !applied.isEmpty();
+            }
+            if (!untracked.getAsBoolean()) {
+                return false;
+            }
+            trainerLeaderboard.apply(deltas);
+            return true;
+        } finally {
+            trainerLeaderboard.endWrite();
+        }
+    }
+
+    /**
+     * @return true if the counter changes must be written with the update that returns the trainer it found
+     */
+    private boolean tracked() {
+        return organizationTotals != null || cacheInvalidations != null;
+    }
+
+    /**
+     * Applies the changes one at a time with the update that returns the trainer it found, records what they changed
+     * in the organization totals and invalidates the trainers with the versions they produced, those applied before
+     * a failure included. Trainers whose change was skipped are only evicted here.
+     *
+     * @return the changes that were applied, without those skipped for missing trainers or years
+     */
+    private List<AppliedMonthlyHoursDelta> applyTracked(Collection<MonthlyHoursDelta> deltas) {
+        List<AppliedMonthlyHoursDelta> applied = new ArrayList<>(deltas.size());
+        try {
+            for (MonthlyHoursDelta delta : deltas) {
+                trainerWorkloadRepository.applyMonthlyHoursDelta(delta).ifPresent(applied::add);
+            }
+        } finally {
+            if (organizationTotals != null) {
+                organizationTotals.record(applied);
+            }
+            if (cacheInvalidations != null) {
+                Map<String, Long> versions = new HashMap<>();
+                applied.forEach(change -> versions.merge(change.getDelta().getTrainerUsername(), change.getVersion(), Math::max));
+                deltas.stream().map(MonthlyHoursDelta::getTrainerUsername).filter(username -> !versions.containsKey(username))
+                        .forEach(nearCache::evict);
+                cacheInvalidations.written(versions);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Evicts trainers after an atomic update. When the invalidations are enabled, the update was tracked
+     * and the trainers are already invalidated with their versions.
+     */
+    private void evictWritten(Collection<String> usernames) {
+        if (cacheInvalidations == null) {
+            usernames.forEach(nearCache::evict);
+        }
     }
 
     // Method to update a TrainerWorkload by username (if you need custom behavior, this can be adjusted)
@@ -63,12 +249,36 @@ public class TrainerWorkloadService {
      * Retrieves all TrainerWorkload entities.
      *
      * @return an Optional containing a list of all TrainerWorkload entities
+     * @deprecated loads the whole collection into memory, use {@link #streamTrainerWorkloads} instead
      */
+    @Deprecated
     public Optional<List<TrainerWorkload>> getAllTrainerWorkloads() {
         logger.info("Retrieving all TrainerWorkloads");
         return Optional.of(trainerWorkloadRepository.findAll());
     }
 
+    /**
+     * Streams TrainerWorkload entities from a server-side cursor, keeping only the years in the requested range.
+     * Trainers without hours in the range are left out. The stream must be closed to release the cursor.
+     *
+     * @param trainerStatus only trainers with this status, or all trainers if null
+     * @param fromYear the first year to include, no lower bound if null
+     * @param toYear the last year to include, no upper bound if null
+     * @return the matching TrainerWorkload entities
+     */
+    public Stream<TrainerWorkload> streamTrainerWorkloads(Boolean trainerStatus, Integer fromYear, Integer toYear) {
+        logger.info("Streaming TrainerWorkloads, status: {}, years: {}-{}", trainerStatus, fromYear, toYear);
+        Stream<TrainerWorkload> trainerWorkloads = trainerWorkloadRepository.streamTrainerWorkloads(trainerStatus, fromYear, toYear);
+        if (fromYear == null && toYear == null) {
+            return trainerWorkloads;
+        }
+        int from = fromYear == null ? Integer.MIN_VALUE : fromYear;
+        int to = toYear == null ? Integer.MAX_VALUE : toYear;
+        return trainerWorkloads
+                .peek(trainerWorkload -> trainerWorkload.getYears().keySet().removeIf(year -> year < from || year > to))
+                .filter(trainerWorkload -> !trainerWorkload.getYears().isEmpty());
+    }
+
     /**
      * Retrieves a TrainerWorkload entity by its ID.
      *
@@ -87,17 +297,137 @@ public class TrainerWorkloadService {
      */
     public void deleteTrainerWorkload(String id) {
         logger.info("Deleting TrainerWorkload by ID: {}", id);
+        TrainerWorkload before = trainerWorkloadRepository.findById(id).orElse(null);
         trainerWorkloadRepository.deleteById(id);
+        if (before != null) {
+            trainerLeaderboard.remove(before.getTrainerUsername());
+            if (organizationTotals != null) {
+                organizationTotals.recordReplace(before, null);
+            }
+        }
+        if (cacheInvalidations != null) {
+            cacheInvalidations.cleared();
+        }
+    }
+
+    /**
+     * Retrieves the version and a range of years of a trainer, read together so the hours are those of the version.
+     * A cached TrainerWorkload is used when present, otherwise only the version and the years in the range are read
+     * from the database.
+     *
+     * @param username the username of the trainer
+     * @param fromYear the first year to read
+     * @param toYear the last year to read
+     * @return an Optional containing the trainer workload, which must not be modified, holding at least the
+     * years in the range that have hours, or empty if the trainer does not exist
+     */
+    public Optional<TrainerWorkload> getYearsWorkload(String username, int fromYear, int toYear) {
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            logger.info("Retrieving years {}-{} from cached TrainerWorkload: {}", fromYear, toYear, username);
+            return Optional.ofNullable((TrainerWorkload) cached.get());
+        }
+        logger.info("Retrieving version and years {}-{} by username: {}", fromYear, toYear, username);
+        return trainerWorkloadRepository.findYearsWorkload(username, fromYear, toYear);
+    }
+
+    /**
+     * Retrieves the version and one year of a trainer, read together so the hours are those of the version.
+     * A cached TrainerWorkload is used when present, otherwise only the version and the year are read from the database.
+     *
+     * @param username the username of the trainer
+     * @param year the year to read
+     * @return an Optional containing the trainer workload, which must not be modified, holding at least the
+     * requested year if it has hours, or empty if the trainer does not exist
+     */
+    public Optional<TrainerWorkload> getYearWorkload(String username, int year) {
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            logger.info("Retrieving year {} from cached TrainerWorkload: {}", year, username);
+            return Optional.ofNullable((TrainerWorkload) cached.get());
+        }
+        logger.info("Retrieving version and year {} by username: {}", year, username);
+        return trainerWorkloadRepository.findYearWorkload(username, year);
     }
 
     /**
-     * Retrieves a TrainerWorkload entity by the trainer's username.
+     * Retrieves the version of a trainer's workload, which changes whenever its hours change.
+     * A cached TrainerWorkload is used when present, otherwise only the version is read from the database.
+     *
+     * @param username the username of the trainer
+     * @return an Optional containing the version, or empty if the trainer does not exist
+     */
+    public Optional<Long> getVersion(String username) {
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            return Optional.ofNullable((TrainerWorkload) cached.get()).map(TrainerWorkload::getVersion);
+        }
+        logger.info("Retrieving version of TrainerWorkload: {}", username);
+        return trainerWorkloadRepository.findVersion(username);
+    }
+
+    /**
+     * Retrieves the training hours of every month of a year for many trainers.
+     * Cached TrainerWorkloads are used when present, the others are read with a single query.
+     *
+     * @param usernames the usernames of the trainers
+     * @param year the year of the training sessions
+     * @return the hours indexed by {@link Month#ordinal()} per username; trainers that do not exist are left out
+     */
+    public Map<String, int[]> getYearMonthlyHours(Collection<String> usernames, int year) {
+        Map<String, int[]> result = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String username : usernames) {
+            Cache.ValueWrapper cached = nearCache.get(username);
+            if (cached == null) {
+                uncached.add(username);
+            } else if (cached.get() instanceof TrainerWorkload trainerWorkload) {
+                YearSummary yearSummary = trainerWorkload.getYearSummary(year);
+                result.put(username, yearSummary == null ? new int[YearSummary.MONTHS] : yearSummary.getMonthlyHours().clone());
+            }
+        }
+        logger.info("Retrieving hours of year {} for {} trainers, {} from cache", year, usernames.size(), usernames.size() - uncached.size());
+        if (!uncached.isEmpty()) {
+            result.putAll(trainerWorkloadRepository.findYearMonthlyHours(uncached, year));
+        }
+        return result;
+    }
+
+    /**
+     * Finds trainers by prefixes of their username and names, one page at a time.
+     *
+     * @param usernamePrefix the prefix of the username, or null
+     * @param firstNamePrefix the prefix of the first name, or null
+     * @param lastNamePrefix the prefix of the last name, or null
+     * @param afterKey the sort key of the last trainer of the previous page, or null for the first page
+     * @param limit the maximum number of trainers
+     * @return the names and status of the matching trainers, without their years
+     */
+    public List<TrainerWorkload> findByNamePrefix(String usernamePrefix, String firstNamePrefix, String lastNamePrefix,
+                                                  List<String> afterKey, int limit) {
+        logger.info("Searching trainers, username: {}, first name: {}, last name: {}", usernamePrefix, firstNamePrefix, lastNamePrefix);
+        return trainerWorkloadRepository.findByNamePrefix(usernamePrefix, firstNamePrefix, lastNamePrefix, afterKey, limit);
+    }
+
+    /**
+     * Retrieves a TrainerWorkload entity by the trainer's username, from the near cache when present.
+     * A TrainerWorkload read from the database is cached unless the trainer was written meanwhile.
      *
      * @param username the username of the trainer
      * @return an Optional containing the TrainerWorkload entity if found
      */
     public Optional<TrainerWorkload> getTrainerWorkloadByUsername(String username) {
+        if (username == null) {
+            return trainerWorkloadRepository.findByTrainerUsername(null);
+        }
+        Cache.ValueWrapper cached = nearCache.get(username);
+        if (cached != null) {
+            return Optional.ofNullable((TrainerWorkload) cached.get()).map(TrainerWorkload::copy);
+        }
         logger.info("Retrieving TrainerWorkload by username: {}", username);
-        return trainerWorkloadRepository.findByTrainerUsername(username);
+        long lookup = nearCache.beginLookup();
+        Optional<TrainerWorkload> trainerWorkload = trainerWorkloadRepository.findByTrainerUsername(username);
+        nearCache.put(username, trainerWorkload.orElse(null), lookup);
+        return trainerWorkload;
     }
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.uw.TrainerWorkloadService.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the training request pipeline, from the JMS message to the applied counter update.
+ * <p>
+ * Timers publish percentile histograms so latency percentiles can be aggregated across instances.
+ * Mongo latency per command comes from the driver metrics ({@code mongodb.driver.commands}) that
+ * Spring Boot registers for the Mongo client.
+ * <ul>
+ *   <li>{@code trainer.workload.processing}: time to apply a request, by source, action, outcome and exception.
+ *   The batch, bulk and write-behind sources time each write of coalesced requests under the {@code batch} action</li>
+ *   <li>{@code trainer.workload.deserialization}: time to read a message into a request, by outcome</li>
+ *   <li>{@code trainer.workload.jms.message.age}: time from sending a message to consuming it</li>
+ *   <li>{@code trainer.workload.jms.end.to.end}: time from sending a message to having applied it</li>
+ *   <li>{@code trainer.workload.inflight}: requests received and not applied yet</li>
+ * </ul>
+ */
+@Component
+public class TrainingPipelineMetrics {
+
+      public static final String SOURCE_JMS = "jms";
+      public static final String SOURCE_HTTP = "http";
+      public static final String SOURCE_JMS_BATCH = "jms-batch";
+      public static final String SOURCE_BULK = "bulk";
+      public static final String SOURCE_WRITE_BEHIND = "write-behind";
+
+      // Adds and deletes coalesced and applied with one write
+      public static final String ACTION_BATCH = "batch";
+
+      public static final String OUTCOME_SUCCESS = "success";
+      // The request itself is wrong (invalid fields, unknown training), retrying does not help
+      public static final String OUTCOME_REJECTED = "rejected";
+      // Anything else, e.g. the database being unavailable
+      public static final String OUTCOME_FAILED = "failed";
+
+      private static final String NO_EXCEPTION = "none";
+
+      private final MeterRegistry meterRegistry;
+      private final Timer deserializationSuccess;
+      private final Timer deserializationFailure;
+      private final Timer messageAge;
+      private final Timer endToEnd;
+      private final AtomicInteger inFlight = new AtomicInteger();
+      // Registered on first use, so a processed request costs a map lookup instead of a registry lookup
+      private final Map<ProcessingKey, Timer> processingTimers = new ConcurrentHashMap<>();
+
+      /**
+       * Constructor for TrainingPipelineMetrics.
+       *
+       * @param meterRegistry the registry the meters are registered in
+       */
+      @Autowired
+      public TrainingPipelineMetrics(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            this.deserializationSuccess = deserializationTimer(OUTCOME_SUCCESS);
+            this.deserializationFailure = deserializationTimer(OUTCOME_FAILED);
+            this.messageAge = Timer.builder("trainer.workload.jms.message.age")
+                    .description("Time from sending a training message to consuming it")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.endToEnd = Timer.builder("trainer.workload.jms.end.to.end")
+                    .description("Time from sending a training message to having applied it")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("trainer.workload.inflight", inFlight, AtomicInteger::get)
+                    .description("Training requests received and not applied yet")
+                    .register(meterRegistry);
+      }
+
+      /**
+       * Records the time a message waited in the broker.
+       *
+       * @param sentTimestamp the JMS timestamp of the message, 0 if the producer did not set it
+       */
+      public void recordMessageAge(long sentTimestamp) {
+            if (sentTimestamp > 0) {
+                  messageAge.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - sentTimestamp)));
+            }
+      }
+
+      /**
+       * Records the time from sending a message to the end of its processing, whatever the outcome.
+       *
+       * @param sentTimestamp the JMS timestamp of the message, 0 if the producer did not set it
+       */
+      public void recordEndToEnd(long sentTimestamp) {
+            if (sentTimestamp > 0) {
+                  endToEnd.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - sentTimestamp)));
+            }
+      }
+
+      /**
+       * Records the time spent reading a message.
+       *
+       * @param startNanos the {@link System#nanoTime()} before reading
+       * @param success false if the message could not be read
+       */
+      public void recordDeserialization(long startNanos, boolean success) {
+            (success ? deserializationSuccess : deserializationFailure).record(Duration.ofNanos(System.nanoTime() - startNanos));
+      }
+
+      /**
+       * Counts a request as received and not applied yet.
+       */
+      public void requestReceived() {
+            inFlight.incrementAndGet();
+      }
+
+      /**
+       * Counts a request received with {@link #requestReceived()} as done, whatever its outcome.
+       */
+      public void requestDone() {
+            inFlight.decrementAndGet();
+      }
+
+      /**
+       * Records the time spent applying a request.
+       *
+       * @param sample the sample started before applying it
+       * @param source where the request came from, one of the {@code SOURCE_} constants
+       * @param actionType the action type of the request, or {@link #ACTION_BATCH} for a write of coalesced requests
+       * @param exception the exception thrown while applying it, or null if it succeeded
+       */
+      public void recordProcessing(Timer.Sample sample, String source, String actionType, Throwable exception) {
+            record(sample, new ProcessingKey(source, action(actionType),
+                    exception == null ? OUTCOME_SUCCESS : exception instanceof IllegalArgumentException ? OUTCOME_REJECTED : OUTCOME_FAILED,
+                    exception == null ? NO_EXCEPTION : exception.getClass().getSimpleName()));
+      }
+
+      /**
+       * Records the time spent on a request that was answered as invalid without an exception being thrown.
+       *
+       * @param sample the sample started before applying it
+       * @param source where the request came from, one of the {@code SOURCE_} constants
+       * @param actionType the action type of the request
+       */
+      public void recordRejected(Timer.Sample sample, String source, String actionType) {
+            record(sample, new ProcessingKey(source, action(actionType), OUTCOME_REJECTED, NO_EXCEPTION));
+      }
+
+      /**
+       * Runs a write of coalesced requests and records its time under the {@link #ACTION_BATCH} action.
+       *
+       * @param source where the requests came from, one of the {@code SOURCE_} constants
+       * @param write the write to run
+       * @throws RuntimeException whatever the write throws, after recording it
+       */
+      public void timeBatch(String source, Runnable write) {
+            Timer.Sample sample = startProcessing();
+            try {
+                  write.run();
+            } catch (RuntimeException e) {
+                  recordProcessing(sample, source, ACTION_BATCH, e);
+                  throw e;
+            }
+            recordProcessing(sample, source, ACTION_BATCH, null);
+      }
+
+      /**
+       * @return a sample to pass to {@link #recordProcessing}
+       */
+      public Timer.Sample startProcessing() {
+            return Timer.start(meterRegistry);
+      }
+
+      // Keeps the tag values bounded whatever the messages contain
+      private static String action(String actionType) {
+            if ("add".equalsIgnoreCase(actionType)) {
+                  return "add";
+            }
+            if ("delete".equalsIgnoreCase(actionType)) {
+                  return "delete";
+            }
+            return ACTION_BATCH.equals(actionType) ? ACTION_BATCH : "other";
+      }
+
+      private void record(Timer.Sample sample, ProcessingKey key) {
+            sample.stop(processingTimers.computeIfAbsent(key, this::processingTimer));
+      }
+
+      private Timer processingTimer(ProcessingKey key) {
+            return Timer.builder("trainer.workload.processing")
+                    .description("Time to apply a training request")
+                    .tag("source", key.source())
+                    .tag("action", key.action())
+                    .tag("outcome", key.outcome())
+                    .tag("exception", key.exception())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+      }
+
+      private Timer deserializationTimer(String outcome) {
+            return Timer.builder("trainer.workload.deserialization")
+                    .description("Time to read a training message")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+      }
+
+      private record ProcessingKey(String source, String action, String outcome, String exception) {
+      }
+}
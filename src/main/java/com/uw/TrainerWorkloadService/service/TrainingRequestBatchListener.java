@@ -0,0 +1,225 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Batch consumer for the "training.queue", used instead of {@link TrainingRequestListener}
+ * when {@code trainer-workload.jms.batch.enabled} is true.
+ * <p>
+ * Each cycle drains up to {@code batch.size} messages, or whatever arrives within {@code batch.linger-ms}
+ * of the first one, coalesces them per (trainer, year, month) and applies the result with one bulk write.
+ * The whole batch is received in a transacted session that is committed only after the write succeeds,
+ * so a failure redelivers the batch. The worker keeps one session and one consumer for all its batches,
+ * and opens new ones only after a failure.
+ */
+@Service
+@ConditionalOnProperty(name = "trainer-workload.jms.batch.enabled", havingValue = "true")
+public class TrainingRequestBatchListener implements SmartLifecycle {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainingRequestBatchListener.class);
+
+      private static final String DESTINATION = "training.queue";
+      private static final long POLL_TIMEOUT_MILLIS = 1000;
+      private static final long RECOVERY_INTERVAL_MILLIS = 5000;
+
+      private final TrainerWorkloadService trainerWorkloadService;
+      private final TrainingRequestReader trainingRequestReader;
+      private final WorkerThreads workerThreads;
+      private final TrainingPipelineMetrics trainingPipelineMetrics;
+      private final JmsTemplate jmsTemplate;
+      private final int batchSize;
+      private final long lingerMillis;
+
+      private final DistributionSummary batchFillRatio;
+      private final DistributionSummary batchDeltas;
+      private final Counter receivedMessages;
+      private final Counter rejectedMessages;
+
+      private volatile boolean running;
+      private Thread worker;
+
+      /**
+       * Constructor for TrainingRequestBatchListener.
+       *
+       * @param trainerWorkloadService the service used to apply the coalesced deltas
+       * @param trainingRequestReader the reader of the messages
+       * @param connectionFactory the JMS connection factory
+       * @param meterRegistry the registry for the batch metrics
+       * @param batchSize the maximum number of messages per batch
+       * @param lingerMillis how long to wait for more messages after the first one of a batch
+       * @param workerThreads the factory of the consumer thread
+       * @param trainingPipelineMetrics the meters of the training request pipeline
+       */
+      @Autowired
+      public TrainingRequestBatchListener(TrainerWorkloadService trainerWorkloadService, TrainingRequestReader trainingRequestReader,
+                                          ConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                                          @Value("${trainer-workload.jms.batch.size:500}") int batchSize,
+                                          @Value("${trainer-workload.jms.batch.linger-ms:200}") long lingerMillis,
+                                          WorkerThreads workerThreads, TrainingPipelineMetrics trainingPipelineMetrics) {
+            this.trainerWorkloadService = trainerWorkloadService;
+            this.workerThreads = workerThreads;
+            this.trainingPipelineMetrics = trainingPipelineMetrics;
+            this.trainingRequestReader = trainingRequestReader;
+            this.jmsTemplate = new JmsTemplate(connectionFactory);
+            this.jmsTemplate.setSessionTransacted(true);
+            this.batchSize = batchSize;
+            this.lingerMillis = lingerMillis;
+
+            this.batchFillRatio = DistributionSummary.builder("trainer.workload.batch.fill.ratio")
+                    .description("Messages per batch relative to the configured batch size")
+                    .register(meterRegistry);
+            this.batchDeltas = DistributionSummary.builder("trainer.workload.batch.deltas")
+                    .description("Coalesced (trainer, year, month) updates per batch")
+                    .register(meterRegistry);
+            this.receivedMessages = Counter.builder("trainer.workload.batch.messages")
+                    .description("Messages consumed in batch mode")
+                    .register(meterRegistry);
+            this.rejectedMessages = Counter.builder("trainer.workload.batch.messages.rejected")
+                    .description("Messages that could not be read or were invalid")
+                    .register(meterRegistry);
+      }
+
+      @Override
+      public void start() {
+            running = true;
+            worker = workerThreads.factory("training-batch-listener").newThread(this::consumeLoop);
+            worker.start();
+            logger.info("Started batch consumer for {}, batch size: {}, linger: {} ms", DESTINATION, batchSize, lingerMillis);
+      }
+
+      @Override
+      public void stop() {
+            running = false;
+            if (worker == null) {
+                  return;
+            }
+            try {
+                  // The worker notices the flag after its current receive or bulk write
+                  worker.join(POLL_TIMEOUT_MILLIS + lingerMillis);
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+            }
+      }
+
+      @Override
+      public boolean isRunning() {
+            return running;
+      }
+
+      private void consumeLoop() {
+            while (running) {
+                  try {
+                        jmsTemplate.execute(this::consumeBatches, true);
+                  } catch (RuntimeException e) {
+                        logger.error("Error consuming batch from {}, retrying in {} ms: {}", DESTINATION, RECOVERY_INTERVAL_MILLIS, e.getMessage());
+                        try {
+                              Thread.sleep(RECOVERY_INTERVAL_MILLIS);
+                        } catch (InterruptedException interrupted) {
+                              Thread.currentThread().interrupt();
+                              return;
+                        }
+                  }
+            }
+      }
+
+      /**
+       * Consumes batches with a single consumer until the listener is stopped or a batch fails.
+       *
+       * @param session the transacted session of the worker
+       * @return null
+       * @throws JMSException if the consumer cannot be created or a batch cannot be received or committed
+       */
+      private Void consumeBatches(Session session) throws JMSException {
+            MessageConsumer consumer = session.createConsumer(session.createQueue(DESTINATION));
+            try {
+                  while (running) {
+                        consumeBatch(session, consumer);
+                  }
+                  return null;
+            } finally {
+                  consumer.close();
+            }
+      }
+
+      /**
+       * Receives one batch, applies it and commits the session.
+       *
+       * @param session the transacted session
+       * @param consumer the consumer of the queue, created on the session
+       * @return the number of messages in the batch
+       * @throws JMSException if the messages cannot be received or the session cannot be committed
+       */
+      int consumeBatch(Session session, MessageConsumer consumer) throws JMSException {
+            try {
+                  Message message = consumer.receive(POLL_TIMEOUT_MILLIS);
+                  if (message == null) {
+                        return 0;
+                  }
+
+                  TrainingRequestCoalescer coalescer = new TrainingRequestCoalescer();
+                  int received = 0;
+                  long deadline = System.currentTimeMillis() + lingerMillis;
+                  while (message != null) {
+                        received++;
+                        accept(message, coalescer);
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (received >= batchSize || remaining <= 0) {
+                              break;
+                        }
+                        message = consumer.receive(remaining);
+                  }
+
+                  if (!coalescer.getDeltas().isEmpty()) {
+                        trainingPipelineMetrics.timeBatch(TrainingPipelineMetrics.SOURCE_JMS_BATCH,
+                                () -> trainerWorkloadService.applyMonthlyHoursDeltas(coalescer.getDeltas()));
+                  }
+                  session.commit();
+
+                  receivedMessages.increment(received);
+                  batchFillRatio.record((double) received / batchSize);
+                  batchDeltas.record(coalescer.getDeltas().size());
+                  logger.info("Applied batch of {} messages as {} updates", received, coalescer.getDeltas().size());
+                  return received;
+            } catch (JMSException | RuntimeException e) {
+                  session.rollback();
+                  throw e;
+            }
+      }
+
+      private void accept(Message message, TrainingRequestCoalescer coalescer) throws JMSException {
+            trainingPipelineMetrics.recordMessageAge(message.getJMSTimestamp());
+            long deserializationStart = System.nanoTime();
+            TrainingRequest trainingRequest;
+            try {
+                  trainingRequest = trainingRequestReader.read(message);
+            } catch (IOException | IllegalArgumentException e) {
+                  trainingPipelineMetrics.recordDeserialization(deserializationStart, false);
+                  logger.error("Error processing message: {}", e.getMessage());
+                  rejectedMessages.increment();
+                  return;
+            }
+            trainingPipelineMetrics.recordDeserialization(deserializationStart, true);
+            if (!coalescer.accept(trainingRequest)) {
+                  rejectedMessages.increment();
+            }
+      }
+}
@@ -0,0 +1,175 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uw.TrainerWorkloadService.dto.BulkIngestionResult;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for ingesting large numbers of training requests from a single request body.
+ * <p>
+ * The body is read one record at a time, either from a JSON array or from newline delimited JSON,
+ * so it is never held in memory as a whole. Valid records are coalesced in chunks of
+ * {@code trainer-workload.bulk.chunk-size} and each chunk is applied with one bulk write.
+ * Deleting hours from a year without a summary is ignored, as in the batch consumer.
+ */
+@Service
+public class TrainingRequestBulkIngestionService {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainingRequestBulkIngestionService.class);
+
+      private final TrainerWorkloadService trainerWorkloadService;
+      private final ObjectReader trainingRequestReader;
+      private final TrainingPipelineMetrics trainingPipelineMetrics;
+      private final int chunkSize;
+      private final int maxReportedErrors;
+
+      /**
+       * Constructor for TrainingRequestBulkIngestionService.
+       *
+       * @param trainerWorkloadService the service used to apply the coalesced deltas
+       * @param objectMapper the mapper used to read the records
+       * @param chunkSize the number of records coalesced into one bulk write
+       * @param maxReportedErrors the maximum number of rejected records listed in a result
+       * @param trainingPipelineMetrics the meters of the training request pipeline
+       */
+      @Autowired
+      public TrainingRequestBulkIngestionService(TrainerWorkloadService trainerWorkloadService, ObjectMapper objectMapper,
+                                                 @Value("${trainer-workload.bulk.chunk-size:500}") int chunkSize,
+                                                 @Value("${trainer-workload.bulk.max-reported-errors:100}") int maxReportedErrors,
+                                                 TrainingPipelineMetrics trainingPipelineMetrics) {
+            this.trainerWorkloadService = trainerWorkloadService;
+            this.trainingRequestReader = objectMapper.readerFor(TrainingRequest.class);
+            this.trainingPipelineMetrics = trainingPipelineMetrics;
+            this.chunkSize = chunkSize;
+            this.maxReportedErrors = maxReportedErrors;
+      }
+
+      /**
+       * Ingests a JSON array of training requests.
+       * A record that cannot be bound is rejected on its own, malformed JSON stops the ingestion.
+       *
+       * @param body the request body
+       * @return the result summary
+       * @throws IOException if the body cannot be read
+       */
+      public BulkIngestionResult ingestJsonArray(InputStream body) throws IOException {
+            BulkIngestionResult result = new BulkIngestionResult(maxReportedErrors);
+            Chunk chunk = new Chunk(result);
+            try (MappingIterator<TrainingRequest> records = trainingRequestReader.readValues(body)) {
+                  while (true) {
+                        int index = result.getReceived();
+                        TrainingRequest trainingRequest;
+                        try {
+                              if (!records.hasNextValue()) {
+                                    break;
+                              }
+                              trainingRequest = records.nextValue();
+                        } catch (JsonParseException e) {
+                              result.abort("Malformed JSON after record " + index);
+                              break;
+                        } catch (JsonProcessingException e) {
+                              // The iterator skips the rest of a record it could not bind
+                              result.recordReceived();
+                              result.recordRejected(index, "Invalid training request");
+                              continue;
+                        }
+                        result.recordReceived();
+                        chunk.accept(index, trainingRequest);
+                  }
+            }
+            chunk.flush();
+            return result;
+      }
+
+      /**
+       * Ingests newline delimited training requests, one JSON object per line.
+       * Blank lines are skipped and a malformed line only rejects that record.
+       *
+       * @param body the request body
+       * @return the result summary
+       * @throws IOException if the body cannot be read
+       */
+      public BulkIngestionResult ingestNdjson(InputStream body) throws IOException {
+            BulkIngestionResult result = new BulkIngestionResult(maxReportedErrors);
+            Chunk chunk = new Chunk(result);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                  String line;
+                  while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                              continue;
+                        }
+                        int index = result.getReceived();
+                        result.recordReceived();
+                        TrainingRequest trainingRequest;
+                        try {
+                              trainingRequest = trainingRequestReader.readValue(line);
+                        } catch (JsonProcessingException e) {
+                              result.recordRejected(index, "Invalid training request");
+                              continue;
+                        }
+                        chunk.accept(index, trainingRequest);
+                  }
+            }
+            chunk.flush();
+            return result;
+      }
+
+      /**
+       * Records waiting to be written, at most one chunk.
+       */
+      private final class Chunk {
+            private final BulkIngestionResult result;
+            private TrainingRequestCoalescer coalescer = new TrainingRequestCoalescer();
+            private final List<Integer> indexes = new ArrayList<>();
+
+            private Chunk(BulkIngestionResult result) {
+                  this.result = result;
+            }
+
+            private void accept(int index, TrainingRequest trainingRequest) {
+                  String rejection = TrainingRequestCoalescer.validate(trainingRequest);
+                  if (rejection != null) {
+                        result.recordRejected(index, rejection);
+                        return;
+                  }
+                  coalescer.accept(trainingRequest);
+                  indexes.add(index);
+                  if (indexes.size() >= chunkSize) {
+                        flush();
+                  }
+            }
+
+            private void flush() {
+                  if (indexes.isEmpty()) {
+                        return;
+                  }
+                  try {
+                        trainingPipelineMetrics.timeBatch(TrainingPipelineMetrics.SOURCE_BULK,
+                                () -> trainerWorkloadService.applyMonthlyHoursDeltas(coalescer.getDeltas()));
+                        result.recordApplied(indexes.size());
+                  } catch (RuntimeException e) {
+                        logger.error("Failed to apply a chunk of {} training requests", indexes.size(), e);
+                        indexes.forEach(index -> result.recordRejected(index, "Failed to apply training request"));
+                  }
+                  coalescer = new TrainingRequestCoalescer();
+                  indexes.clear();
+            }
+      }
+}
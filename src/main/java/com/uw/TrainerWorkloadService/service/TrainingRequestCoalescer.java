@@ -0,0 +1,94 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Folds a sequence of training requests into one {@link MonthlyHoursDelta} per (trainer, year, month).
+ * Requests must be accepted in the order they were received. Instances are not thread-safe.
+ */
+public class TrainingRequestCoalescer {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainingRequestCoalescer.class);
+
+      private final Map<Key, MonthlyHoursDelta> deltas = new LinkedHashMap<>();
+      private int accepted;
+
+      /**
+       * Composes a training request onto the delta of its (trainer, year, month).
+       *
+       * @param trainingRequest the training request to accept
+       * @return false if the request is invalid and was ignored
+       */
+      public boolean accept(TrainingRequest trainingRequest) {
+            String rejection = validate(trainingRequest);
+            if (rejection != null) {
+                  logger.error("{}: {}", rejection, trainingRequest);
+                  return false;
+            }
+
+            boolean add = "add".equalsIgnoreCase(trainingRequest.getActionType());
+
+            Key key = new Key(trainingRequest.getTrainerUsername(),
+                    trainingRequest.getTrainingDate().getYear(),
+                    Month.fromNumber(trainingRequest.getTrainingDate().getMonthValue()));
+            MonthlyHoursDelta delta = deltas.computeIfAbsent(key, k -> new MonthlyHoursDelta(k.username(), k.year(), k.month()));
+            if (add) {
+                  delta.add(trainingRequest.getFirstName(), trainingRequest.getLastName(),
+                          trainingRequest.isActive(), trainingRequest.getTrainingDuration());
+            } else {
+                  delta.subtract(trainingRequest.getTrainingDuration());
+            }
+            accepted++;
+            return true;
+      }
+
+      /**
+       * Checks whether a training request can be accepted.
+       *
+       * @param trainingRequest the training request to check
+       * @return the reason the request is invalid, or null if it is valid
+       */
+      public static String validate(TrainingRequest trainingRequest) {
+            if (trainingRequest == null) {
+                  return "Invalid training request";
+            }
+            if (trainingRequest.getTrainerUsername() == null || trainingRequest.getTrainerUsername().isBlank()) {
+                  return "Invalid trainer username";
+            }
+            if (trainingRequest.getTrainingDate() == null) {
+                  return "Invalid training date";
+            }
+            if (trainingRequest.getTrainingDuration() <= 0) {
+                  return "Invalid training duration";
+            }
+            if (!"add".equalsIgnoreCase(trainingRequest.getActionType()) && !"delete".equalsIgnoreCase(trainingRequest.getActionType())) {
+                  return "Invalid action type";
+            }
+            return null;
+      }
+
+      /**
+       * @return the coalesced deltas, in the order their keys were first seen
+       */
+      public Collection<MonthlyHoursDelta> getDeltas() {
+            return deltas.values();
+      }
+
+      /**
+       * @return the number of requests folded into the deltas
+       */
+      public int getAccepted() {
+            return accepted;
+      }
+
+      private record Key(String username, int year, Month month) {
+      }
+}
@@ -0,0 +1,163 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans training request processing out over a fixed number of single-threaded lanes.
+ * <p>
+ * The lane is chosen by hashing the trainer username, so all events of a trainer run one after
+ * the other in the order they were dispatched, while different trainers run in parallel.
+ * Each lane has a bounded queue: when it is full, {@link #dispatch} blocks the caller
+ * (the JMS listener thread) until there is room again.
+ * <p>
+ * The lanes are drained when the context stops, after the JMS listeners and before their sessions are closed,
+ * so the requests already dispatched are applied and acknowledged.
+ */
+@Component
+public class TrainingRequestDispatcher implements SmartLifecycle {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainingRequestDispatcher.class);
+
+      private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+      private final ThreadPoolExecutor[] lanes;
+
+      private volatile boolean running;
+
+      /**
+       * Constructor for TrainingRequestDispatcher with lanes on platform threads.
+       *
+       * @param laneCount the number of lanes, or 0 to use one lane per available processor
+       * @param queueCapacity the maximum number of pending tasks per lane
+       * @param meterRegistry the registry for the queue size gauge
+       */
+      public TrainingRequestDispatcher(int laneCount, int queueCapacity, MeterRegistry meterRegistry) {
+            this(laneCount, queueCapacity, meterRegistry, WorkerThreads.platform());
+      }
+
+      /**
+       * Constructor for TrainingRequestDispatcher.
+       *
+       * @param laneCount the number of lanes, or 0 to use one lane per available processor
+       * @param queueCapacity the maximum number of pending tasks per lane
+       * @param meterRegistry the registry for the queue size gauge
+       * @param workerThreads the factory of the lane threads
+       */
+      @Autowired
+      public TrainingRequestDispatcher(@Value("${trainer-workload.jms.dispatch.lanes:0}") int laneCount,
+                                       @Value("${trainer-workload.jms.dispatch.queue-capacity:1000}") int queueCapacity,
+                                       MeterRegistry meterRegistry, WorkerThreads workerThreads) {
+            int size = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+            this.lanes = new ThreadPoolExecutor[size];
+            for (int i = 0; i < size; i++) {
+                  lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                          new ArrayBlockingQueue<>(queueCapacity),
+                          workerThreads.factory("training-lane-" + i),
+                          TrainingRequestDispatcher::waitForRoom);
+            }
+            Gauge.builder("trainer.workload.dispatch.queue.size", this, TrainingRequestDispatcher::getQueuedTasks)
+                    .description("Training requests waiting in the dispatch lanes")
+                    .register(meterRegistry);
+            logger.info("Started {} dispatch lanes with capacity {}", size, queueCapacity);
+      }
+
+      /**
+       * Runs a task on the lane of the given trainer.
+       * Blocks while that lane's queue is full.
+       *
+       * @param trainerUsername the trainer the task belongs to
+       * @param task the task to run
+       * @return the completion of the task, holding the exception it threw if any
+       * @throws RejectedExecutionException if the dispatcher is shutting down
+       */
+      public Future<?> dispatch(String trainerUsername, Runnable task) {
+            return lanes[laneOf(trainerUsername)].submit(task);
+      }
+
+      /**
+       * @return the total number of tasks waiting in all lanes
+       */
+      public int getQueuedTasks() {
+            int queued = 0;
+            for (ThreadPoolExecutor lane : lanes) {
+                  queued += lane.getQueue().size();
+            }
+            return queued;
+      }
+
+      @Override
+      public void start() {
+            running = true;
+      }
+
+      @Override
+      public void stop() {
+            running = false;
+            shutdown();
+      }
+
+      @Override
+      public boolean isRunning() {
+            return running;
+      }
+
+      /**
+       * Stops after the JMS listeners and before the {@link TrainingRequestWriteBehindBuffer} the lanes may hand
+       * requests to.
+       */
+      @Override
+      public int getPhase() {
+            return DEFAULT_PHASE - 1;
+      }
+
+      int laneOf(String trainerUsername) {
+            return trainerUsername == null ? 0 : Math.floorMod(trainerUsername.hashCode(), lanes.length);
+      }
+
+      /**
+       * Stops accepting tasks and waits for the queued ones to finish.
+       */
+      @PreDestroy
+      public void shutdown() {
+            for (ThreadPoolExecutor lane : lanes) {
+                  lane.shutdown();
+            }
+            try {
+                  for (ThreadPoolExecutor lane : lanes) {
+                        if (!lane.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                              logger.warn("Dispatch lane did not finish in time, {} tasks dropped", lane.shutdownNow().size());
+                        }
+                  }
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+            }
+      }
+
+      // Rejection handler that applies backpressure instead of dropping or reordering the task
+      private static void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+            if (lane.isShutdown()) {
+                  throw new RejectedExecutionException("Dispatch lane is shut down");
+            }
+            try {
+                  lane.getQueue().put(task);
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new RejectedExecutionException("Interrupted while waiting for a dispatch lane", e);
+            }
+      }
+}
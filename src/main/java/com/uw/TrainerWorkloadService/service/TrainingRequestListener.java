@@ -1,60 +1,193 @@
 package com.uw.TrainerWorkloadService.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.uw.TrainerWorkloadService.config.JmsConfig;
 import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.Optional;
+
 /**
  * Service class that listens for training requests from a JMS queue.
+ * Disabled when the batch consumer ({@link TrainingRequestBatchListener}) is enabled.
+ * <p>
+ * Messages are consumed by a single listener thread and handed over to the {@link TrainingRequestDispatcher}
+ * in the order they were delivered, so the events of each trainer stay in order while the lanes run different
+ * trainers in parallel. The listener thread does not wait for the lanes: each message is acknowledged on its own
+ * by its lane once applied (see {@link JmsConfig#trainingRequestListenerFactory}). A request that fails for any
+ * reason other than being invalid is retried in its lane, holding back the later events of its trainer, and
+ * messages left unacknowledged at shutdown are redelivered by the broker.
+ * When the {@link TrainingRequestWriteBehindBuffer} is enabled, the lanes hand the requests to it
+ * instead of applying them one by one.
  */
 @Service
+@ConditionalOnProperty(name = "trainer-workload.jms.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class TrainingRequestListener {
 
       Logger logger = LoggerFactory.getLogger(TrainingRequestListener.class);
 
       private final TrainerWorkloadManagementService trainerWorkloadManagementService;
-      private final ObjectMapper objectMapper;
+      private final TrainingRequestDispatcher trainingRequestDispatcher;
+      private final TrainingRequestReader trainingRequestReader;
+      private final TrainingPipelineMetrics trainingPipelineMetrics;
+      private final long retryIntervalMillis;
+      private final TrainingRequestWriteBehindBuffer writeBehindBuffer;
+
       /**
        * Constructor to inject TrainerWorkloadManagementService.
        *
        * @param trainerWorkloadManagementService the service to manage trainer workload
+       * @param trainingRequestDispatcher the dispatcher that processes the requests per trainer
+       * @param trainingRequestReader the reader of the messages
+       * @param trainingPipelineMetrics the meters of the training request pipeline
+       * @param retryIntervalMillis the wait before a failed request is retried
+       * @param writeBehindBuffer the buffer the requests are handed to, if the write-behind mode is enabled
        */
       @Autowired
-      public TrainingRequestListener(TrainerWorkloadManagementService trainerWorkloadManagementService, ObjectMapper objectMapper) {
+      public TrainingRequestListener(TrainerWorkloadManagementService trainerWorkloadManagementService,
+                                     TrainingRequestDispatcher trainingRequestDispatcher, TrainingRequestReader trainingRequestReader,
+                                     TrainingPipelineMetrics trainingPipelineMetrics,
+                                     @Value("${trainer-workload.jms.retry-interval-ms:5000}") long retryIntervalMillis,
+                                     Optional<TrainingRequestWriteBehindBuffer> writeBehindBuffer) {
             this.trainerWorkloadManagementService = trainerWorkloadManagementService;
-            this.objectMapper = objectMapper;
+            this.trainingRequestDispatcher = trainingRequestDispatcher;
+            this.trainingRequestReader = trainingRequestReader;
+            this.trainingPipelineMetrics = trainingPipelineMetrics;
+            this.retryIntervalMillis = retryIntervalMillis;
+            this.writeBehindBuffer = writeBehindBuffer.orElse(null);
       }
 
       /**
-       * Method to receive and process messages from the "training.queue".
+       * Method to receive messages from the "training.queue" and dispatch them to the trainer's lane.
+       * The lane acknowledges the message once the request is processed; messages that cannot be read are
+       * acknowledged right away.
+       * Text messages are JSON, bytes messages are in the format of their content type, see {@link TrainingRequestReader}.
        *
        * @param message the message received from the queue
        */
-      @JmsListener(destination = "training.queue")
-      public void receiveMessage(String message) {
-            logger.info("Received message: {}", message);
+      @JmsListener(destination = "training.queue", containerFactory = JmsConfig.TRAINING_LISTENER_FACTORY)
+      public void receiveMessage(Message message) {
+            long sentTimestamp = sentTimestamp(message);
+            trainingPipelineMetrics.recordMessageAge(sentTimestamp);
+            long deserializationStart = System.nanoTime();
+            TrainingRequest trainingRequest;
             try {
-                  TrainingRequest trainingRequest = objectMapper.readValue(message, TrainingRequest.class);
-                  if (trainingRequest.getActionType().equalsIgnoreCase("add")) {
+                  trainingRequest = trainingRequestReader.read(message);
+                  logger.info("Received message: {}", trainingRequest);
+            } catch (JsonProcessingException e) {
+                  trainingPipelineMetrics.recordDeserialization(deserializationStart, false);
+                  logger.error("Error mapping message to TrainingRequest: {}", e.getMessage());
+                  acknowledge(message);
+                  return;
+            } catch (IOException | JMSException | IllegalArgumentException e) {
+                  trainingPipelineMetrics.recordDeserialization(deserializationStart, false);
+                  logger.error("Error processing message: {}", e.getMessage());
+                  acknowledge(message);
+                  return;
+            }
+            trainingPipelineMetrics.recordDeserialization(deserializationStart, true);
+
+            trainingPipelineMetrics.requestReceived();
+            try {
+                  trainingRequestDispatcher.dispatch(trainingRequest.getTrainerUsername(), () -> {
+                        try {
+                              if (processUntilDone(trainingRequest)) {
+                                    acknowledge(message);
+                              }
+                        } finally {
+                              trainingPipelineMetrics.requestDone();
+                              trainingPipelineMetrics.recordEndToEnd(sentTimestamp);
+                        }
+                  });
+            } catch (RuntimeException e) {
+                  trainingPipelineMetrics.requestDone();
+                  throw e;
+            }
+      }
+
+      /**
+       * Processes a training request, retrying it until it is applied or rejected. Runs on the dispatch lane of the
+       * trainer, so the later events of the trainer wait for it.
+       *
+       * @param trainingRequest the training request to apply
+       * @return false if the lane was interrupted before the request was processed, leaving it for redelivery
+       */
+      private boolean processUntilDone(TrainingRequest trainingRequest) {
+            while (true) {
+                  try {
+                        process(trainingRequest);
+                        return true;
+                  } catch (RuntimeException e) {
+                        try {
+                              Thread.sleep(retryIntervalMillis);
+                        } catch (InterruptedException interrupted) {
+                              Thread.currentThread().interrupt();
+                              logger.warn("Stopped retrying training request for trainer: {}, it will be redelivered", trainingRequest.getTrainerUsername());
+                              return false;
+                        }
+                  }
+            }
+      }
+
+      /**
+       * Applies a training request, or hands it to the write-behind buffer. Runs on the dispatch lane of the trainer.
+       * Invalid requests are logged and dropped, any other failure is rethrown so the request is retried.
+       *
+       * @param trainingRequest the training request to apply
+       */
+      void process(TrainingRequest trainingRequest) {
+            Timer.Sample sample = trainingPipelineMetrics.startProcessing();
+            RuntimeException failure = null;
+            try {
+                  if (writeBehindBuffer != null) {
+                        writeBehindBuffer.accept(trainingRequest);
+                  } else if ("add".equalsIgnoreCase(trainingRequest.getActionType())) {
                         logger.info("Adding training request: {}", trainingRequest);
                         trainerWorkloadManagementService.addTraining(trainingRequest);
-                  } else if (trainingRequest.getActionType().equalsIgnoreCase("delete")) {
+                  } else if ("delete".equalsIgnoreCase(trainingRequest.getActionType())) {
                         logger.info("Delete training request: {}", trainingRequest);
                         trainerWorkloadManagementService.deleteTraining(trainingRequest);
                   } else {
                         logger.error("Invalid action type: {}", trainingRequest.getActionType());
+                        failure = new IllegalArgumentException("Invalid action type");
                   }
-            } catch (JsonMappingException e) {
-                  logger.error("Error mapping message to TrainingRequest: {}", e.getMessage());
-            } catch (JsonProcessingException e) {
-                  logger.error("Error processing message: {}", e.getMessage());
+            } catch (IllegalArgumentException e) {
+                  failure = e;
+                  logger.error("Rejected training request for trainer: {}, error: {}", trainingRequest.getTrainerUsername(), e.getMessage());
+            } catch (RuntimeException e) {
+                  failure = e;
+                  logger.error("Error processing training request for trainer: {}, retrying in {} ms: {}", trainingRequest.getTrainerUsername(), retryIntervalMillis, e.getMessage());
+                  throw e;
+            } finally {
+                  trainingPipelineMetrics.recordProcessing(sample, TrainingPipelineMetrics.SOURCE_JMS, trainingRequest.getActionType(), failure);
+            }
+      }
+
+      // A message whose acknowledgement is lost is redelivered and applied again
+      private void acknowledge(Message message) {
+            try {
+                  message.acknowledge();
+            } catch (JMSException | RuntimeException e) {
+                  logger.error("Error acknowledging training request message, it will be redelivered: {}", e.getMessage());
+            }
+      }
+
+      // 0 when unknown, which the metrics ignore
+      private static long sentTimestamp(Message message) {
+            try {
+                  return message.getJMSTimestamp();
+            } catch (JMSException e) {
+                  return 0;
             }
       }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+
+/**
+ * Reads training.queue messages into {@link TrainingRequest}s.
+ * <p>
+ * Text messages are JSON. Bytes messages are read straight from their bytes in the format named by their
+ * {@value #CONTENT_TYPE_PROPERTY} string property: {@value #JSON}, {@value #SMILE} or {@value #CBOR},
+ * JSON when the property is missing. All formats use the modules of the application's {@link ObjectMapper}.
+ */
+@Component
+public class TrainingRequestReader {
+
+      public static final String CONTENT_TYPE_PROPERTY = "contentType";
+
+      public static final String JSON = "application/json";
+      public static final String SMILE = "application/x-jackson-smile";
+      public static final String CBOR = "application/cbor";
+
+      private static final MimeType JSON_TYPE = MimeType.valueOf(JSON);
+      private static final MimeType SMILE_TYPE = MimeType.valueOf(SMILE);
+      private static final MimeType CBOR_TYPE = MimeType.valueOf(CBOR);
+
+      private final ObjectReader jsonReader;
+      private final ObjectReader smileReader;
+      private final ObjectReader cborReader;
+
+      /**
+       * Constructor for TrainingRequestReader.
+       *
+       * @param objectMapper the mapper whose configuration is used for every format
+       */
+      @Autowired
+      public TrainingRequestReader(ObjectMapper objectMapper) {
+            this.jsonReader = objectMapper.readerFor(TrainingRequest.class);
+            this.smileReader = objectMapper.copyWith(new SmileFactory()).readerFor(TrainingRequest.class);
+            this.cborReader = objectMapper.copyWith(new CBORFactory()).readerFor(TrainingRequest.class);
+      }
+
+      /**
+       * Reads a message into a training request.
+       *
+       * @param message a text or bytes message
+       * @return the training request
+       * @throws IOException if the payload cannot be read as a training request
+       * @throws JMSException if the message body or properties cannot be read
+       * @throws IllegalArgumentException if the message type or content type is not supported
+       */
+      public TrainingRequest read(Message message) throws IOException, JMSException {
+            if (message instanceof TextMessage textMessage) {
+                  return jsonReader.readValue(textMessage.getText());
+            }
+            if (message instanceof BytesMessage bytesMessage) {
+                  byte[] payload = new byte[(int) bytesMessage.getBodyLength()];
+                  bytesMessage.readBytes(payload);
+                  return reader(bytesMessage.getStringProperty(CONTENT_TYPE_PROPERTY)).readValue(payload);
+            }
+            throw new IllegalArgumentException("Unsupported message type: " + message.getClass().getName());
+      }
+
+      private ObjectReader reader(String contentType) {
+            if (contentType == null) {
+                  return jsonReader;
+            }
+            MimeType mimeType;
+            try {
+                  mimeType = MimeType.valueOf(contentType);
+            } catch (InvalidMimeTypeException e) {
+                  throw new IllegalArgumentException("Invalid content type: " + contentType);
+            }
+            // Parameters such as charset do not change the format
+            if (mimeType.equalsTypeAndSubtype(JSON_TYPE)) {
+                  return jsonReader;
+            }
+            if (mimeType.equalsTypeAndSubtype(SMILE_TYPE)) {
+                  return smileReader;
+            }
+            if (mimeType.equalsTypeAndSubtype(CBOR_TYPE)) {
+                  return cborReader;
+            }
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+      }
+}
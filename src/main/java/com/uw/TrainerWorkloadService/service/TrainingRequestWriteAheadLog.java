@@ -0,0 +1,240 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of accepted training requests, written to memory-mapped segment files.
+ * <p>
+ * A record is {@code [length][crc32][body]}; a zero length marks the end of the written part of a segment.
+ * Segments are named by an increasing sequence number. {@link #roll()} starts a new segment, and the segments
+ * up to a sequence number are deleted once their requests are stored in the database.
+ * <p>
+ * Mapped writes survive a crash of the process; with {@code sync} they are also forced to disk on every append,
+ * which survives a crash of the machine at the cost of a disk flush per request. Instances are not thread-safe.
+ */
+public class TrainingRequestWriteAheadLog implements Closeable {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainingRequestWriteAheadLog.class);
+
+      private static final String SEGMENT_PREFIX = "training-requests-";
+      private static final String SEGMENT_SUFFIX = ".wal";
+      private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+      private final Path directory;
+      private final int segmentSize;
+      private final boolean sync;
+      private final ByteBuffer body;
+
+      private long segment;
+      private FileChannel channel;
+      private MappedByteBuffer mapped;
+
+      /**
+       * Constructor for TrainingRequestWriteAheadLog. Does not open a segment until the first append.
+       *
+       * @param directory the directory of the segment files, created if missing
+       * @param segmentSize the size of a segment file in bytes
+       * @param sync true to force every append to disk
+       * @throws IOException if the directory cannot be created or listed
+       */
+      public TrainingRequestWriteAheadLog(Path directory, int segmentSize, boolean sync) throws IOException {
+            this.directory = Files.createDirectories(directory);
+            this.segmentSize = segmentSize;
+            this.sync = sync;
+            this.body = ByteBuffer.allocate(segmentSize - HEADER_BYTES);
+            List<Long> segments = segments();
+            this.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+      }
+
+      /**
+       * Reads every request of the existing segments, oldest first. Reading a segment stops at the first record
+       * that was not completely written. Must be called before the first append.
+       *
+       * @param consumer receives the requests
+       * @return the number of requests read
+       * @throws IOException if a segment cannot be read
+       */
+      public int replay(Consumer<TrainingRequest> consumer) throws IOException {
+            int replayed = 0;
+            for (long existing : segments()) {
+                  ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath(existing)));
+                  while (buffer.remaining() >= HEADER_BYTES) {
+                        int length = buffer.getInt();
+                        int crc = buffer.getInt();
+                        if (length <= 0 || length > buffer.remaining()) {
+                              break;
+                        }
+                        ByteBuffer record = buffer.slice(buffer.position(), length);
+                        buffer.position(buffer.position() + length);
+                        if (crc(record) != crc) {
+                              logger.warn("Partially written record in write-ahead log segment {}, ignoring the rest of it", existing);
+                              break;
+                        }
+                        consumer.accept(decode(record));
+                        replayed++;
+                  }
+            }
+            return replayed;
+      }
+
+      /**
+       * Appends a request to the current segment, starting a new one when it is full.
+       *
+       * @param trainingRequest a valid training request
+       * @throws IOException if a new segment cannot be created
+       * @throws IllegalArgumentException if the request is larger than a segment
+       */
+      public void append(TrainingRequest trainingRequest) throws IOException {
+            body.clear();
+            try {
+                  encode(trainingRequest, body);
+            } catch (BufferOverflowException e) {
+                  throw new IllegalArgumentException("Training request does not fit in a write-ahead log segment");
+            }
+            body.flip();
+            if (mapped == null || mapped.remaining() < HEADER_BYTES + body.remaining()) {
+                  roll();
+            }
+            int start = mapped.position();
+            // Write the body before the length, so a record is only visible once it is complete
+            mapped.position(start + HEADER_BYTES);
+            int crc = crc(body);
+            int length = body.remaining();
+            mapped.put(body);
+            mapped.putInt(start + Integer.BYTES, crc);
+            mapped.putInt(start, length);
+            if (sync) {
+                  mapped.force();
+            }
+      }
+
+      /**
+       * Closes the current segment and starts a new one on the next append.
+       *
+       * @return the sequence number of the last closed segment; every request appended so far is in a segment up to it
+       * @throws IOException if the segment cannot be closed
+       */
+      public long roll() throws IOException {
+            long closed = segment;
+            closeSegment();
+            segment++;
+            channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return closed;
+      }
+
+      /**
+       * Deletes the segments up to a sequence number, once their requests are stored.
+       *
+       * @param lastSegment the sequence number returned by {@link #roll()}
+       * @throws IOException if a segment cannot be deleted
+       */
+      public void deleteUpTo(long lastSegment) throws IOException {
+            for (long existing : segments()) {
+                  if (existing <= lastSegment && existing != segment) {
+                        Files.deleteIfExists(segmentPath(existing));
+                  }
+            }
+      }
+
+      @Override
+      public void close() throws IOException {
+            closeSegment();
+      }
+
+      private void closeSegment() throws IOException {
+            if (channel != null) {
+                  if (!sync) {
+                        mapped.force();
+                  }
+                  channel.close();
+                  channel = null;
+                  mapped = null;
+            }
+      }
+
+      private List<Long> segments() throws IOException {
+            List<Long> segments = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                  files.map(file -> file.getFileName().toString())
+                          .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                          .forEach(name -> segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+            }
+            segments.sort(null);
+            return segments;
+      }
+
+      private Path segmentPath(long sequence) {
+            return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+      }
+
+      private static int crc(ByteBuffer buffer) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            return (int) crc.getValue();
+      }
+
+      // Only what the coalescer needs is kept: the day of the training is not
+      private static void encode(TrainingRequest trainingRequest, ByteBuffer buffer) {
+            buffer.put((byte) ("add".equalsIgnoreCase(trainingRequest.getActionType()) ? 1 : 0));
+            putString(buffer, trainingRequest.getTrainerUsername());
+            putString(buffer, trainingRequest.getFirstName());
+            putString(buffer, trainingRequest.getLastName());
+            buffer.put((byte) (trainingRequest.isActive() ? 1 : 0));
+            buffer.putInt(trainingRequest.getTrainingDate().getYear());
+            buffer.put((byte) trainingRequest.getTrainingDate().getMonthValue());
+            buffer.putInt(trainingRequest.getTrainingDuration());
+      }
+
+      private static TrainingRequest decode(ByteBuffer buffer) {
+            TrainingRequest trainingRequest = new TrainingRequest();
+            trainingRequest.setActionType(buffer.get() == 1 ? "add" : "delete");
+            trainingRequest.setTrainerUsername(getString(buffer));
+            trainingRequest.setFirstName(getString(buffer));
+            trainingRequest.setLastName(getString(buffer));
+            trainingRequest.setActive(buffer.get() == 1);
+            int year = buffer.getInt();
+            trainingRequest.setTrainingDate(LocalDate.of(year, buffer.get(), 1));
+            trainingRequest.setTrainingDuration(buffer.getInt());
+            return trainingRequest;
+      }
+
+      private static void putString(ByteBuffer buffer, String value) {
+            if (value == null) {
+                  buffer.putInt(-1);
+                  return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+      }
+
+      private static String getString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                  return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+      }
+}
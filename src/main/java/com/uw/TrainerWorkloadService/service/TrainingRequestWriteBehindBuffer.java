@@ -0,0 +1,315 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind mode of the {@link TrainingRequestListener}, enabled with {@code trainer-workload.write-behind.enabled}.
+ * <p>
+ * Accepted requests are appended to a {@link TrainingRequestWriteAheadLog} and folded into one
+ * {@link com.uw.TrainerWorkloadService.model.MonthlyHoursDelta} per (trainer, year, month). The deltas are written
+ * with one bulk write every {@code flush-interval-ms}, or as soon as {@code max-pending} months are pending,
+ * and the log segments they came from are deleted once the write succeeds. On start, the requests left in the log
+ * by a previous run are replayed and written first.
+ * <p>
+ * A request is applied at least once: a crash between a bulk write and the deletion of its log segments
+ * applies the segments again on restart. Requests accepted while stopping are logged behind the pending ones and
+ * written by the last flushes; if those fail, they stay in the log with the rest, so they are still applied after
+ * the earlier requests of their trainers on the next start.
+ */
+@Service
+@ConditionalOnProperty(name = "trainer-workload.write-behind.enabled", havingValue = "true")
+public class TrainingRequestWriteBehindBuffer implements SmartLifecycle {
+
+      private static final Logger logger = LoggerFactory.getLogger(TrainingRequestWriteBehindBuffer.class);
+
+      private static final long RECOVERY_INTERVAL_MILLIS = 5000;
+
+      private final TrainerWorkloadService trainerWorkloadService;
+      private final WorkerThreads workerThreads;
+      private final TrainingPipelineMetrics trainingPipelineMetrics;
+      private final TrainingRequestWriteAheadLog writeAheadLog;
+      private final long flushIntervalMillis;
+      private final int maxPending;
+
+      private final Counter bufferedRequests;
+      private final DistributionSummary flushedDeltas;
+      private final Timer flushTime;
+
+      private final ReentrantLock lock = new ReentrantLock();
+      private final Condition flushRequested = lock.newCondition();
+      private TrainingRequestCoalescer pending = new TrainingRequestCoalescer();
+
+      private volatile boolean running;
+      private Thread flusher;
+
+      // From stop until the flusher has written everything accepted; for good if that failed. Guarded by the lock
+      private boolean draining;
+
+      /**
+       * Constructor for TrainingRequestWriteBehindBuffer.
+       *
+       * @param trainerWorkloadService the service used to apply the coalesced deltas
+       * @param meterRegistry the registry for the buffer metrics
+       * @param walDirectory the directory of the write-ahead log
+       * @param walSegmentSize the size of a write-ahead log segment in bytes
+       * @param walSync true to force every write-ahead log append to disk
+       * @param flushIntervalMillis the maximum time a request stays in the buffer
+       * @param maxPending the number of pending (trainer, year, month) deltas that triggers a flush
+       * @param workerThreads the factory of the flush thread
+       * @param trainingPipelineMetrics the meters of the training request pipeline
+       * @throws IOException if the write-ahead log directory cannot be opened
+       */
+      @Autowired
+      public TrainingRequestWriteBehindBuffer(TrainerWorkloadService trainerWorkloadService, MeterRegistry meterRegistry,
+                                              @Value("${trainer-workload.write-behind.wal.directory:wal}") Path walDirectory,
+                                              @Value("${trainer-workload.write-behind.wal.segment-size:16777216}") int walSegmentSize,
+                                              @Value("${trainer-workload.write-behind.wal.sync:false}") boolean walSync,
+                                              @Value("${trainer-workload.write-behind.flush-interval-ms:1000}") long flushIntervalMillis,
+                                              @Value("${trainer-workload.write-behind.max-pending:10000}") int maxPending,
+                                              WorkerThreads workerThreads, TrainingPipelineMetrics trainingPipelineMetrics) throws IOException {
+            this.trainerWorkloadService = trainerWorkloadService;
+            this.workerThreads = workerThreads;
+            this.trainingPipelineMetrics = trainingPipelineMetrics;
+            this.writeAheadLog = new TrainingRequestWriteAheadLog(walDirectory, walSegmentSize, walSync);
+            this.flushIntervalMillis = flushIntervalMillis;
+            this.maxPending = maxPending;
+
+            this.bufferedRequests = Counter.builder("trainer.workload.write.behind.requests")
+                    .description("Training requests accepted into the write-behind buffer")
+                    .register(meterRegistry);
+            this.flushedDeltas = DistributionSummary.builder("trainer.workload.write.behind.flush.deltas")
+                    .description("Coalesced (trainer, year, month) updates per flush")
+                    .register(meterRegistry);
+            this.flushTime = Timer.builder("trainer.workload.write.behind.flush")
+                    .description("Time to write the buffered deltas")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("trainer.workload.write.behind.pending", this, TrainingRequestWriteBehindBuffer::getPendingDeltas)
+                    .description("Coalesced updates waiting for the next flush")
+                    .register(meterRegistry);
+      }
+
+      /**
+       * Logs a training request and adds it to the buffer. Requests of a trainer must be accepted in order.
+       * Once the buffer is stopped and has written everything it accepted, requests are applied right away instead.
+       * Until then, or for good if those writes failed, they are logged behind the pending requests.
+       *
+       * @param trainingRequest the training request to accept
+       * @throws IllegalArgumentException if the request is invalid
+       * @throws UncheckedIOException if the request cannot be written to the write-ahead log
+       */
+      public void accept(TrainingRequest trainingRequest) {
+            String rejection = TrainingRequestCoalescer.validate(trainingRequest);
+            if (rejection != null) {
+                  throw new IllegalArgumentException(rejection);
+            }
+            lock.lock();
+            try {
+                  if (running || draining) {
+                        writeAheadLog.append(trainingRequest);
+                        pending.accept(trainingRequest);
+                        bufferedRequests.increment();
+                        if (!running) {
+                              // The flusher may be done already, so nothing else would close the segment
+                              writeAheadLog.close();
+                        } else if (pending.getDeltas().size() >= maxPending) {
+                              flushRequested.signal();
+                        }
+                        return;
+                  }
+            } catch (IOException e) {
+                  throw new UncheckedIOException("Could not write training request to the write-ahead log", e);
+            } finally {
+                  lock.unlock();
+            }
+            // Requests still draining from the dispatch lanes during shutdown
+            TrainingRequestCoalescer coalescer = new TrainingRequestCoalescer();
+            coalescer.accept(trainingRequest);
+            trainerWorkloadService.applyMonthlyHoursDeltas(coalescer.getDeltas());
+      }
+
+      @Override
+      public void start() {
+            try {
+                  int replayed = writeAheadLog.replay(pending::accept);
+                  if (replayed > 0) {
+                        logger.info("Replayed {} training requests from the write-ahead log", replayed);
+                  }
+            } catch (IOException e) {
+                  throw new UncheckedIOException("Could not replay the write-ahead log", e);
+            }
+            running = true;
+            flusher = workerThreads.factory("write-behind-flusher").newThread(this::flushLoop);
+            flusher.start();
+            logger.info("Started write-behind buffer, flush interval: {} ms, max pending: {}", flushIntervalMillis, maxPending);
+      }
+
+      @Override
+      public void stop() {
+            lock.lock();
+            try {
+                  if (!running) {
+                        return;
+                  }
+                  running = false;
+                  draining = true;
+                  flushRequested.signal();
+            } finally {
+                  lock.unlock();
+            }
+            try {
+                  flusher.join();
+                  writeAheadLog.close();
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                  logger.error("Error closing the write-ahead log: {}", e.getMessage());
+            }
+      }
+
+      @Override
+      public boolean isRunning() {
+            return running;
+      }
+
+      /**
+       * Starts before and stops after the JMS listeners and the dispatch lanes, so nothing is accepted before the log
+       * is replayed and the last requests are flushed.
+       */
+      @Override
+      public int getPhase() {
+            return DEFAULT_PHASE - 2;
+      }
+
+      /**
+       * @return the number of coalesced updates waiting for the next flush
+       */
+      public int getPendingDeltas() {
+            lock.lock();
+            try {
+                  return pending.getDeltas().size();
+            } finally {
+                  lock.unlock();
+            }
+      }
+
+      private void flushLoop() {
+            while (true) {
+                  lock.lock();
+                  try {
+                        if (running && pending.getDeltas().size() < maxPending) {
+                              flushRequested.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                        }
+                        if (!running) {
+                              break;
+                        }
+                  } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                  } finally {
+                        lock.unlock();
+                  }
+                  if (!flush(false) && !running) {
+                        // The batch given up on is only in the write-ahead log: a later flush would delete its segments
+                        logger.warn("Write-behind buffer stopped with unwritten requests, left in the write-ahead log for the next start");
+                        return;
+                  }
+            }
+            drain();
+      }
+
+      /**
+       * Flushes until nothing accepted is left, including the requests still draining from the dispatch lanes,
+       * then lets later requests be applied right away. Stops at the first failed flush, so the requests accepted
+       * after it are kept in the write-ahead log too.
+       */
+      private void drain() {
+            while (flush(true)) {
+                  lock.lock();
+                  try {
+                        if (pending.getAccepted() == 0) {
+                              draining = false;
+                              return;
+                        }
+                  } finally {
+                        lock.unlock();
+                  }
+            }
+      }
+
+      /**
+       * Writes the pending deltas and deletes their write-ahead log segments. Retries until the write succeeds,
+       * or gives up when stopping, leaving the segments to be replayed on the next start. Once a batch was given up on,
+       * no later flush may run, as it would delete the segments of that batch with its own.
+       *
+       * @param stopping true on the flushes after stop
+       * @return false if the pending deltas were not written
+       */
+      boolean flush(boolean stopping) {
+            TrainingRequestCoalescer batch;
+            long lastSegment;
+            lock.lock();
+            try {
+                  if (pending.getAccepted() == 0) {
+                        return true;
+                  }
+                  // Rolled first, so a failure leaves the pending deltas in place for the next flush
+                  lastSegment = writeAheadLog.roll();
+                  batch = pending;
+                  pending = new TrainingRequestCoalescer();
+            } catch (IOException e) {
+                  logger.error("Error rolling the write-ahead log: {}", e.getMessage());
+                  return false;
+            } finally {
+                  lock.unlock();
+            }
+
+            // Single flush thread: a batch is written before any later one, which keeps the events of a trainer in order
+            while (true) {
+                  try {
+                        flushTime.record(() -> trainingPipelineMetrics.timeBatch(TrainingPipelineMetrics.SOURCE_WRITE_BEHIND,
+                                () -> trainerWorkloadService.applyMonthlyHoursDeltas(batch.getDeltas())));
+                        flushedDeltas.record(batch.getDeltas().size());
+                        writeAheadLog.deleteUpTo(lastSegment);
+                        logger.info("Flushed {} training requests as {} updates", batch.getAccepted(), batch.getDeltas().size());
+                        return true;
+                  } catch (IOException e) {
+                        // Written: the segments are applied again on the next start, as after a crash
+                        logger.error("Error deleting flushed write-ahead log segments: {}", e.getMessage());
+                        return true;
+                  } catch (RuntimeException e) {
+                        if (stopping || !running) {
+                              logger.error("Error flushing {} updates, left in the write-ahead log for the next start: {}", batch.getDeltas().size(), e.getMessage());
+                              return false;
+                        }
+                        logger.error("Error flushing {} updates, retrying in {} ms: {}", batch.getDeltas().size(), RECOVERY_INTERVAL_MILLIS, e.getMessage());
+                        try {
+                              Thread.sleep(RECOVERY_INTERVAL_MILLIS);
+                        } catch (InterruptedException interrupted) {
+                              Thread.currentThread().interrupt();
+                              return false;
+                        }
+                  }
+            }
+      }
+}
@@ -0,0 +1,82 @@
+package com.uw.TrainerWorkloadService.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the JwtUtil class.
+ */
+public class JwtUtilTest {
+
+      private static final String SECRET = "signatureSecret183827374628384628274628364627836482738";
+
+      private SimpleMeterRegistry meterRegistry;
+      private JwtUtil jwtUtil;
+
+      @BeforeEach
+      public void setUp() {
+            meterRegistry = new SimpleMeterRegistry();
+            jwtUtil = new JwtUtil(SECRET, 100, 300, meterRegistry);
+      }
+
+      /**
+       * Tests that a reused token is verified once and then served from the claims cache.
+       */
+      @Test
+      public void extractAllClaims_ReusedToken_HitsCache() {
+            String token = token(SECRET, "trainer1", 60_000);
+
+            Claims first = jwtUtil.extractAllClaims(token);
+            Claims second = jwtUtil.extractAllClaims(token);
+
+            assertSame(first, second);
+            assertEquals("trainer1", jwtUtil.extractUsername(token));
+            assertTrue(jwtUtil.validateToken(token));
+            assertEquals(3, meterRegistry.get("cache.gets").tag("cache", JwtUtil.CLAIMS_CACHE).tag("result", "hit").functionCounter().count());
+            assertEquals(1, meterRegistry.get("cache.gets").tag("cache", JwtUtil.CLAIMS_CACHE).tag("result", "miss").functionCounter().count());
+      }
+
+      /**
+       * Tests that a cached token is not accepted past its expiration, even with a longer cache TTL.
+       */
+      @Test
+      public void extractAllClaims_TokenExpiresWhileCached_IsRejected() throws Exception {
+            // exp is truncated to whole seconds, so the token expires between one and two seconds from now
+            String token = token(SECRET, "trainer1", 2_000);
+            assertTrue(jwtUtil.validateToken(token));
+
+            Thread.sleep(2_100);
+
+            assertThrows(ExpiredJwtException.class, () -> jwtUtil.extractAllClaims(token));
+      }
+
+      /**
+       * Tests that a token signed with another key is rejected and not cached.
+       */
+      @Test
+      public void extractAllClaims_WrongSignature_IsRejected() {
+            String token = token("b3RoZXJTZWNyZXQxODM4MjczNzQ2MjgzODQ2MjgyNzQ2MjgzNjQ2Mjc4MzY0ODI3Mzg", "trainer1", 60_000);
+
+            assertThrows(SignatureException.class, () -> jwtUtil.extractAllClaims(token));
+            assertThrows(SignatureException.class, () -> jwtUtil.extractAllClaims(token));
+      }
+
+      @SuppressWarnings("deprecation")
+      private static String token(String secret, String subject, long validForMillis) {
+            return Jwts.builder()
+                    .setSubject(subject)
+                    .setExpiration(new Date(System.currentTimeMillis() + validForMillis))
+                    .signWith(SignatureAlgorithm.HS256, secret)
+                    .compact();
+      }
+}
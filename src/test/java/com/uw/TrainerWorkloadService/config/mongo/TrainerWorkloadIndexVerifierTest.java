@@ -0,0 +1,65 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the TrainerWorkloadIndexVerifier class.
+ */
+public class TrainerWorkloadIndexVerifierTest {
+
+      /**
+       * Tests that the declared indexes are the unique username index and the two compound name indexes.
+       */
+      @Test
+      public void declaredIndexes_ResolvedFromAnnotations() {
+            MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+            when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+
+            List<Document> declared = new TrainerWorkloadIndexVerifier(mongoTemplate, true).declaredIndexes();
+
+            assertEquals(3, declared.size());
+            assertEquals(List.of("trainerUsername"), declared.stream().filter(index -> index.getBoolean("unique")).map(index -> index.getString("name")).toList());
+      }
+
+      /**
+       * Tests that indexes with other fields, another field order or another uniqueness are reported as missing,
+       * directions stored as doubles still match, and single-field name indexes are reported as redundant.
+       */
+      @Test
+      public void missingAndRedundantIndexes_ComparesFieldsInOrder() {
+            List<Document> declared = List.of(
+                    index("trainerUsername", true, "trainerUsername"),
+                    index("lastName_firstName_username", false, "trainerLastName", "trainerFirstName", "trainerUsername"),
+                    index("firstName_lastName_username", false, "trainerFirstName", "trainerLastName", "trainerUsername"));
+            List<Document> existing = List.of(
+                    index("_id_", false, "_id"),
+                    index("trainerUsername", false, "trainerUsername"),
+                    index("lastName_firstName_username", false, "trainerLastName", "trainerFirstName", "trainerUsername")
+                            .append("key", new Document("trainerLastName", 1.0).append("trainerFirstName", 1.0).append("trainerUsername", 1.0)),
+                    index("firstName_username", false, "trainerFirstName", "trainerUsername"),
+                    index("trainerFirstName", false, "trainerFirstName"));
+
+            assertEquals(List.of("trainerUsername", "firstName_lastName_username"),
+                    TrainerWorkloadIndexVerifier.missingIndexes(declared, existing));
+            assertEquals(List.of("trainerFirstName"), TrainerWorkloadIndexVerifier.redundantIndexes(declared, existing));
+      }
+
+      private static Document index(String name, boolean unique, String... fields) {
+            Document key = new Document();
+            for (String field : fields) {
+                  key.append(field, 1);
+            }
+            return new Document("key", key).append("name", name).append("unique", unique);
+      }
+}
@@ -0,0 +1,111 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.model.Month;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the TrainerWorkloadLayoutMigration class, against a real MongoDB.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class TrainerWorkloadLayoutMigrationIntegrationTest {
+
+      private static final String DATABASE = "trainer_workload_migration_test";
+      private static final String COLLECTION = "trainerWorkload";
+      private static final int LEGACY_TRAINERS = 7;
+
+      @Container
+      private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+      private MongoClient mongoClient;
+      private MongoTemplate mongoTemplate;
+
+      @BeforeEach
+      public void setUp() {
+            mongoClient = MongoClients.create(MONGO.getReplicaSetUrl(DATABASE));
+            mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+      }
+
+      @AfterEach
+      public void tearDown() {
+            mongoTemplate.dropCollection(COLLECTION);
+            mongoClient.close();
+      }
+
+      /**
+       * Tests that documents in the array shape, with month arrays or month name maps, are converted in batches
+       * smaller than the collection without changing any counter, that keyed documents are left alone,
+       * and that a second run finds nothing to migrate.
+       */
+      @Test
+      public void migrateAll_LegacyDocuments_ConvertedWithSameTotals() {
+            MongoCollection<Document> collection = mongoTemplate.getCollection(COLLECTION);
+            List<Document> documents = new ArrayList<>();
+            for (int trainer = 0; trainer < LEGACY_TRAINERS; trainer++) {
+                  documents.add(new Document(TrainerWorkloadDocument.TRAINER_USERNAME, "trainer" + trainer)
+                          .append(TrainerWorkloadDocument.YEARS, List.of(
+                                  new Document(YearSummaryDocument.YEAR, 2023)
+                                          .append(YearSummaryDocument.LEGACY_MONTHLY_HOURS, new Document(Month.MARCH.name(), trainer + 1)
+                                                  .append(Month.DECEMBER.name(), 2)),
+                                  new Document(YearSummaryDocument.YEAR, 2024)
+                                          .append(YearSummaryDocument.MONTHS, List.of(trainer, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 3)))));
+            }
+            documents.add(new Document(TrainerWorkloadDocument.TRAINER_USERNAME, "keyed")
+                    .append(TrainerWorkloadDocument.YEARS, new Document("2024", new Document(YearSummaryDocument.YEAR, 2024)
+                            .append(YearSummaryDocument.MONTHS, List.of(5, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0)))));
+            collection.insertMany(documents);
+            Map<String, Map<Integer, int[]>> before = readCounters(collection);
+
+            TrainerWorkloadLayoutMigration migration = new TrainerWorkloadLayoutMigration(mongoTemplate, new SimpleMeterRegistry(),
+                    3, 0, WorkerThreads.platform());
+
+            assertEquals(LEGACY_TRAINERS, migration.migrateAll());
+            assertEquals(0, migration.migrateAll());
+            for (Document stored : collection.find()) {
+                  assertFalse(TrainerWorkloadDocument.hasYearsArray(stored));
+            }
+            Map<String, Map<Integer, int[]>> after = readCounters(collection);
+            assertEquals(before.keySet(), after.keySet());
+            before.forEach((username, years) -> {
+                  assertEquals(years.keySet(), after.get(username).keySet(), username);
+                  years.forEach((year, monthlyHours) -> assertArrayEquals(monthlyHours, after.get(username).get(year), username + " " + year));
+            });
+      }
+
+      /**
+       * Reads the counters of every trainer in either shape, per username and year.
+       */
+      private static Map<String, Map<Integer, int[]>> readCounters(MongoCollection<Document> collection) {
+            Map<String, Map<Integer, int[]>> counters = new HashMap<>();
+            for (Document stored : collection.find()) {
+                  Map<Integer, int[]> years = new HashMap<>();
+                  Object storedYears = stored.get(TrainerWorkloadDocument.YEARS);
+                  List<?> yearSummaries = storedYears instanceof Document keyed ? new ArrayList<>(keyed.values()) : (List<?>) storedYears;
+                  for (Object yearSummary : yearSummaries) {
+                        Document document = (Document) yearSummary;
+                        years.put(document.getInteger(YearSummaryDocument.YEAR), YearSummaryDocument.readMonths(document));
+                  }
+                  counters.put(stored.getString(TrainerWorkloadDocument.TRAINER_USERNAME), years);
+            }
+            return counters;
+      }
+}
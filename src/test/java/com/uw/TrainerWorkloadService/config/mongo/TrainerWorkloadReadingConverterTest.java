@@ -0,0 +1,76 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the TrainerWorkload reading converter.
+ */
+public class TrainerWorkloadReadingConverterTest {
+
+      private final TrainerWorkloadReadingConverter readingConverter = new TrainerWorkloadReadingConverter();
+
+      /**
+       * Tests that a document with years keyed by year is read.
+       */
+      @Test
+      public void read_YearsKeyedByYear_ReadsYearSummaries() {
+            ObjectId id = new ObjectId();
+            Document document = new Document("_id", id)
+                    .append("trainerUsername", "john.doe")
+                    .append("trainerFirstName", "John")
+                    .append("trainerLastName", "Doe")
+                    .append("trainerStatus", true)
+                    .append("years", new Document("2024", new Document("year", 2024)
+                            .append("months", List.of(0, 0, 5, 0, 0, 0, 0, 0, 0, 0, 0, 2))));
+
+            TrainerWorkload trainerWorkload = readingConverter.convert(document);
+
+            assertEquals(id.toHexString(), trainerWorkload.getId());
+            assertEquals("john.doe", trainerWorkload.getTrainerUsername());
+            assertEquals("John", trainerWorkload.getTrainerFirstName());
+            assertEquals("Doe", trainerWorkload.getTrainerLastName());
+            assertTrue(trainerWorkload.isTrainerStatus());
+            assertEquals(5, trainerWorkload.getYearSummary(2024).getHours(Month.MARCH));
+            assertEquals(2, trainerWorkload.getYearSummary(2024).getHours(Month.DECEMBER));
+            assertNull(trainerWorkload.getYearSummary(2023));
+      }
+
+      /**
+       * Tests that a document still storing its years in an array is read into the keyed map.
+       */
+      @Test
+      public void read_YearsArray_ReadsYearSummaries() {
+            Document document = new Document("trainerUsername", "john.doe")
+                    .append("years", List.of(
+                            new Document("year", 2023).append("monthlyHours", new Document("JANUARY", 3)),
+                            new Document("year", 2024).append("months", List.of(0, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0))));
+
+            TrainerWorkload trainerWorkload = readingConverter.convert(document);
+
+            assertFalse(trainerWorkload.isTrainerStatus());
+            assertEquals(List.of(2023, 2024), List.copyOf(trainerWorkload.getYears().keySet()));
+            assertEquals(3, trainerWorkload.getYearSummary(2023).getHours(Month.JANUARY));
+            assertEquals(4, trainerWorkload.getYearSummary(2024).getHours(Month.FEBRUARY));
+      }
+
+      /**
+       * Tests that a document without years is read with no year summaries.
+       */
+      @Test
+      public void read_NoYears_ReadsEmptyYears() {
+            TrainerWorkload trainerWorkload = readingConverter.convert(new Document("trainerUsername", "john.doe"));
+
+            assertTrue(trainerWorkload.getYears().isEmpty());
+      }
+}
@@ -0,0 +1,76 @@
+package com.uw.TrainerWorkloadService.config.mongo;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Unit tests for the YearSummary reading and writing converters.
+ */
+public class YearSummaryConvertersTest {
+
+      private final YearSummaryWritingConverter writingConverter = new YearSummaryWritingConverter();
+      private final YearSummaryReadingConverter readingConverter = new YearSummaryReadingConverter();
+
+      /**
+       * Tests that a year summary is written as a year and a 12 element month array.
+       */
+      @Test
+      public void write_YearSummary_StoresMonthArray() {
+            YearSummary yearSummary = new YearSummary(2024);
+            yearSummary.addHours(Month.MARCH, 5);
+            yearSummary.addHours(Month.DECEMBER, 2);
+
+            Document document = writingConverter.convert(yearSummary);
+
+            assertEquals(2024, document.getInteger("year"));
+            assertEquals(List.of(0, 0, 5, 0, 0, 0, 0, 0, 0, 0, 0, 2), document.getList("months", Integer.class));
+            assertFalse(document.containsKey("monthlyHours"));
+      }
+
+      /**
+       * Tests that a written year summary is read back unchanged.
+       */
+      @Test
+      public void read_WrittenYearSummary_RoundTrips() {
+            YearSummary yearSummary = new YearSummary(2024);
+            yearSummary.addHours(Month.JULY, 7);
+
+            YearSummary read = readingConverter.convert(writingConverter.convert(yearSummary));
+
+            assertEquals(2024, read.getYear());
+            assertArrayEquals(yearSummary.getMonthlyHours(), read.getMonthlyHours());
+      }
+
+      /**
+       * Tests that year summaries stored as a month name map are still read.
+       */
+      @Test
+      public void read_LegacyMonthNameMap_ReadsCounters() {
+            Document legacy = Document.parse("{year: 2021, monthlyHours: {JANUARY: 4, OCTOBER: 10}}");
+
+            YearSummary read = readingConverter.convert(legacy);
+
+            assertEquals(2021, read.getYear());
+            assertEquals(4, read.getHours(Month.JANUARY));
+            assertEquals(10, read.getHours(Month.OCTOBER));
+            assertEquals(0, read.getHours(Month.MAY));
+      }
+
+      /**
+       * Tests that month lookups by number map to the matching month.
+       */
+      @Test
+      public void fromNumber_AllMonths_ReturnsMatchingMonth() {
+            for (Month month : Month.values()) {
+                  assertEquals(month, Month.fromNumber(month.getMonthNumber()));
+            }
+      }
+}
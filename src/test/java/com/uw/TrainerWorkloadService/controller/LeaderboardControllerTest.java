@@ -0,0 +1,85 @@
+package com.uw.TrainerWorkloadService.controller;
+
+import com.uw.TrainerWorkloadService.dto.LeaderboardEntry;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.service.TrainerLeaderboard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LeaderboardController class.
+ */
+@ExtendWith(MockitoExtension.class)
+class LeaderboardControllerTest {
+
+      @Mock
+      private TrainerLeaderboard trainerLeaderboard;
+
+      @InjectMocks
+      private LeaderboardController leaderboardController;
+
+      /**
+       * Tests that the top trainers of a month are returned.
+       */
+      @Test
+      void getTop_ValidRequest_ReturnsTrainers() {
+            List<LeaderboardEntry> top = List.of(new LeaderboardEntry(1, "testUser", 8));
+            when(trainerLeaderboard.isReady()).thenReturn(true);
+            when(trainerLeaderboard.top(2024, Month.OCTOBER, 50)).thenReturn(top);
+
+            ResponseEntity<?> response = leaderboardController.getTop(2024, 10, 50);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(top, response.getBody());
+      }
+
+      /**
+       * Tests that an invalid month or limit returns a Bad Request response.
+       */
+      @Test
+      void getTop_InvalidRequest_ReturnsBadRequest() {
+            assertEquals(HttpStatus.BAD_REQUEST, leaderboardController.getTop(2024, 13, 50).getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST, leaderboardController.getTop(2024, 10, 0).getStatusCode());
+            verifyNoInteractions(trainerLeaderboard);
+      }
+
+      /**
+       * Tests that a trainer without hours in the month returns a Not Found response.
+       */
+      @Test
+      void getRank_TrainerNotRanked_ReturnsNotFound() {
+            when(trainerLeaderboard.isReady()).thenReturn(true);
+            when(trainerLeaderboard.rank("testUser", 2024, Month.OCTOBER)).thenReturn(Optional.empty());
+
+            ResponseEntity<?> response = leaderboardController.getRank(2024, 10, "testUser");
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+      }
+
+      /**
+       * Tests that both endpoints answer Service Unavailable until the leaderboard has been built from the database.
+       */
+      @Test
+      void getTopAndRank_NotReady_ReturnServiceUnavailable() {
+            when(trainerLeaderboard.isReady()).thenReturn(false);
+
+            ResponseEntity<?> top = leaderboardController.getTop(2024, 10, 50);
+            ResponseEntity<?> rank = leaderboardController.getRank(2024, 10, "testUser");
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, top.getStatusCode());
+            assertEquals("{\"message\": \"Leaderboard is warming up\"}", top.getBody());
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rank.getStatusCode());
+      }
+}
@@ -0,0 +1,85 @@
+package com.uw.TrainerWorkloadService.controller;
+
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.service.ReactiveTrainerWorkloadService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ReactiveTrainerWorkloadController class.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveTrainerWorkloadControllerTest {
+
+      @Mock
+      private ReactiveTrainerWorkloadService reactiveTrainerWorkloadService;
+
+      @InjectMocks
+      private ReactiveTrainerWorkloadController reactiveTrainerWorkloadController;
+
+      /**
+       * Tests that the monthly hours of an existing trainer are returned.
+       */
+      @Test
+      void getMonthlyHours_TrainerExists_ReturnsHours() {
+            when(reactiveTrainerWorkloadService.getVersion("testUser")).thenReturn(Mono.just(1L));
+            when(reactiveTrainerWorkloadService.getMonthlyHours("testUser", 2024, Month.OCTOBER)).thenReturn(Mono.just(5));
+
+            ResponseEntity<String> response = reactiveTrainerWorkloadController.getMonthlyHours("testUser", 2024, 10, null).block();
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("{\"hours\": 5}", response.getBody());
+            assertEquals("\"1\"", response.getHeaders().getETag());
+      }
+
+      /**
+       * Tests that a trainer that does not exist returns a Not Found response.
+       */
+      @Test
+      void getMonthlyHours_TrainerDoesNotExist_ReturnsNotFound() {
+            when(reactiveTrainerWorkloadService.getVersion("testUser")).thenReturn(Mono.empty());
+
+            ResponseEntity<String> response = reactiveTrainerWorkloadController.getMonthlyHours("testUser", 2024, 10, null).block();
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+            assertEquals("{\"message\": \"User not found\"}", response.getBody());
+      }
+
+      /**
+       * Tests that a month out of range returns a Bad Request response.
+       */
+      @Test
+      void getMonthlyHours_InvalidMonth_ReturnsBadRequest() {
+            ResponseEntity<String> response = reactiveTrainerWorkloadController.getMonthlyHours("testUser", 2024, 13, null).block();
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(reactiveTrainerWorkloadService);
+      }
+
+      /**
+       * Tests that a request carrying the current ETag is answered with Not Modified without loading the document.
+       */
+      @Test
+      void getTrainerWorkload_CurrentETag_ReturnsNotModified() {
+            when(reactiveTrainerWorkloadService.getVersion("testUser")).thenReturn(Mono.just(7L));
+
+            ResponseEntity<TrainerWorkload> response = reactiveTrainerWorkloadController.getTrainerWorkload("testUser", "\"7\"").block();
+
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+            assertEquals("\"7\"", response.getHeaders().getETag());
+            verify(reactiveTrainerWorkloadService, never()).getTrainerWorkloadByUsername("testUser");
+      }
+}
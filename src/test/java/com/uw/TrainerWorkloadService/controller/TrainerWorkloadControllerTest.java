@@ -1,25 +1,42 @@
 package com.uw.TrainerWorkloadService.controller;
 
+import com.uw.TrainerWorkloadService.dto.BulkIngestionResult;
+import com.uw.TrainerWorkloadService.dto.MonthlyHoursBatchRequest;
+import com.uw.TrainerWorkloadService.dto.TrainerHoursRange;
+import com.uw.TrainerWorkloadService.dto.TrainerYearHours;
 import com.uw.TrainerWorkloadService.dto.TrainingRequest;
 import com.uw.TrainerWorkloadService.model.Month;
 import com.uw.TrainerWorkloadService.model.TrainerWorkload;
-import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.service.TrainerWorkloadExportService;
 import com.uw.TrainerWorkloadService.service.TrainerWorkloadManagementService;
 import com.uw.TrainerWorkloadService.service.TrainerWorkloadService;
+import com.uw.TrainerWorkloadService.service.TrainingRequestBulkIngestionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -38,6 +55,12 @@ class TrainerWorkloadControllerTest {
       @Mock
       private TrainerWorkloadManagementService trainerWorkloadManagementService;
 
+      @Mock
+      private TrainingRequestBulkIngestionService trainingRequestBulkIngestionService;
+
+      @Mock
+      private TrainerWorkloadExportService trainerWorkloadExportService;
+
       @InjectMocks
       private TrainerWorkloadController trainerWorkloadController;
 
@@ -83,23 +106,18 @@ class TrainerWorkloadControllerTest {
       }
 
       /**
-       * Tests that a valid request for monthly hours returns the correct number of hours.
+       * Tests that a valid request for monthly hours returns the correct number of hours, tagged with the version,
+       * and that without If-None-Match the version is not looked up on its own.
        */
       @Test
       void getMonthlyHours_ValidRequest_ReturnsHours() {
-            TrainerWorkload trainerWorkload = new TrainerWorkload();
-            trainerWorkload.setTrainerUsername(TEST_USERNAME);
-            YearSummary yearSummary = new YearSummary();
-            yearSummary.setYear(TEST_YEAR);
-            yearSummary.addHours(Month.OCTOBER, 10);
-            trainerWorkload.getYears().add(yearSummary);
+            when(trainerWorkloadService.getYearWorkload(TEST_USERNAME, TEST_YEAR)).thenReturn(Optional.of(yearWorkload(3L, 10)));
 
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(anyString())).thenReturn(Optional.of(trainerWorkload));
-            when(trainerWorkloadManagementService.getMonthlyHours(anyString(), anyInt(), anyInt())).thenReturn(10);
-
-            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours(TEST_USERNAME, TEST_YEAR, TEST_MONTH);
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours(TEST_USERNAME, TEST_YEAR, TEST_MONTH, null);
 
             assertEquals("{\"hours\": 10}", response.getBody());
+            assertEquals("\"3\"", response.getHeaders().getETag());
+            verify(trainerWorkloadService, never()).getVersion(anyString());
       }
 
       /**
@@ -107,11 +125,70 @@ class TrainerWorkloadControllerTest {
        */
       @Test
       void getMonthlyHours_InvalidUser_ReturnsNotFound() {
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(anyString())).thenReturn(Optional.empty());
+            when(trainerWorkloadService.getYearWorkload("invalidUser", TEST_YEAR)).thenReturn(Optional.empty());
 
-            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours("invalidUser", TEST_YEAR, TEST_MONTH);
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours("invalidUser", TEST_YEAR, TEST_MONTH, null);
 
             assertEquals("{\"message\": \"User not found\"}", response.getBody());
+            verifyNoInteractions(trainerWorkloadManagementService);
+      }
+
+      /**
+       * Tests that a conditional request for a trainer that does not exist returns Not Found from the version lookup.
+       */
+      @Test
+      void getMonthlyHours_ConditionalInvalidUser_ReturnsNotFound() {
+            when(trainerWorkloadService.getVersion("invalidUser")).thenReturn(Optional.empty());
+
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours("invalidUser", TEST_YEAR, TEST_MONTH, "\"3\"");
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+            verify(trainerWorkloadService, never()).getYearWorkload(anyString(), anyInt());
+      }
+
+      /**
+       * Tests that a request carrying the current ETag is answered with Not Modified without reading the hours.
+       */
+      @Test
+      void getMonthlyHours_CurrentETag_ReturnsNotModified() {
+            when(trainerWorkloadService.getVersion(TEST_USERNAME)).thenReturn(Optional.of(3L));
+
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours(TEST_USERNAME, TEST_YEAR, TEST_MONTH, "\"2\", W/\"3\"");
+
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+            assertEquals("\"3\"", response.getHeaders().getETag());
+            verify(trainerWorkloadService, never()).getYearWorkload(anyString(), anyInt());
+            verifyNoInteractions(trainerWorkloadManagementService);
+      }
+
+      /**
+       * Tests that a request carrying an older ETag gets the hours again.
+       */
+      @Test
+      void getMonthlyHours_OutdatedETag_ReturnsHours() {
+            when(trainerWorkloadService.getVersion(TEST_USERNAME)).thenReturn(Optional.of(4L));
+            when(trainerWorkloadService.getYearWorkload(TEST_USERNAME, TEST_YEAR)).thenReturn(Optional.of(yearWorkload(4L, 12)));
+
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours(TEST_USERNAME, TEST_YEAR, TEST_MONTH, "\"3\"");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("{\"hours\": 12}", response.getBody());
+            assertEquals("\"4\"", response.getHeaders().getETag());
+      }
+
+      /**
+       * Tests that the ETag of the hours is the version read with them, not the one of the conditional check,
+       * which may come from a replica further ahead.
+       */
+      @Test
+      void getMonthlyHours_VersionChangedBetweenReads_TagsBodyWithItsOwnVersion() {
+            when(trainerWorkloadService.getVersion(TEST_USERNAME)).thenReturn(Optional.of(5L));
+            when(trainerWorkloadService.getYearWorkload(TEST_USERNAME, TEST_YEAR)).thenReturn(Optional.of(yearWorkload(4L, 12)));
+
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHours(TEST_USERNAME, TEST_YEAR, TEST_MONTH, "\"3\"");
+
+            assertEquals("{\"hours\": 12}", response.getBody());
+            assertEquals("\"4\"", response.getHeaders().getETag());
       }
 
       /**
@@ -144,4 +221,184 @@ class TrainerWorkloadControllerTest {
             assertEquals("{\"message\": \"Training deleted successfully\"}", response.getBody());
       }
 
-}
\ No newline at end of file
+
+      /**
+       * Tests that an NDJSON body goes to the NDJSON reader and a body read to the end returns OK.
+       */
+      @Test
+      void trainingRequests_NdjsonBody_ReturnsOk() throws Exception {
+            InputStream body = new ByteArrayInputStream(new byte[0]);
+            BulkIngestionResult result = new BulkIngestionResult(10);
+            when(trainingRequestBulkIngestionService.ingestNdjson(body)).thenReturn(result);
+
+            ResponseEntity<BulkIngestionResult> response = trainerWorkloadController.trainingRequests(MediaType.APPLICATION_NDJSON, body);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(result, response.getBody());
+      }
+
+      /**
+       * Tests that a JSON array body that could not be read to the end returns a Bad Request response.
+       */
+      @Test
+      void trainingRequests_AbortedJsonArray_ReturnsBadRequest() throws Exception {
+            BulkIngestionResult result = new BulkIngestionResult(10);
+            result.abort("Malformed JSON after record 0");
+            when(trainingRequestBulkIngestionService.ingestJsonArray(any())).thenReturn(result);
+
+            ResponseEntity<BulkIngestionResult> response = trainerWorkloadController.trainingRequests(MediaType.APPLICATION_JSON,
+                    new ByteArrayInputStream(new byte[0]));
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+      }
+
+      /**
+       * Tests that a single month in a batch read is passed as a one month range.
+       */
+      @Test
+      void getMonthlyHoursBatch_SingleMonth_ReadsThatMonth() {
+            MonthlyHoursBatchRequest batchRequest = new MonthlyHoursBatchRequest(List.of(TEST_USERNAME), TEST_YEAR, TEST_MONTH, null, null);
+            when(trainerWorkloadManagementService.findMonthlyHours(List.of(TEST_USERNAME), TEST_YEAR, TEST_MONTH, TEST_MONTH))
+                    .thenReturn(List.of());
+
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHoursBatch(batchRequest);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            verify(trainerWorkloadManagementService).findMonthlyHours(List.of(TEST_USERNAME), TEST_YEAR, TEST_MONTH, TEST_MONTH);
+      }
+
+      /**
+       * Tests that an inverted month range in a batch read returns a Bad Request response.
+       */
+      @Test
+      void getMonthlyHoursBatch_InvalidRange_ReturnsBadRequest() {
+            MonthlyHoursBatchRequest batchRequest = new MonthlyHoursBatchRequest(List.of(TEST_USERNAME), TEST_YEAR, null, 5, 2);
+
+            ResponseEntity<?> response = trainerWorkloadController.getMonthlyHoursBatch(batchRequest);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("{\"message\": \"Invalid month range\"}", response.getBody());
+            verifyNoInteractions(trainerWorkloadManagementService);
+      }
+
+      /**
+       * Tests that the year hours of a trainer that does not exist return a Not Found response.
+       */
+      @Test
+      void getYearHours_InvalidUser_ReturnsNotFound() {
+            when(trainerWorkloadManagementService.findYearHours(TEST_USERNAME, TEST_YEAR)).thenReturn(Optional.empty());
+
+            ResponseEntity<?> response = trainerWorkloadController.getYearHours(TEST_USERNAME, TEST_YEAR, null);
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+      }
+
+      /**
+       * Tests that the year hours are tagged with the version they were read from.
+       */
+      @Test
+      void getYearHours_ValidRequest_ReturnsHoursWithETag() {
+            TrainerYearHours yearHours = new TrainerYearHours(TEST_USERNAME, TEST_YEAR, Map.of(1, 3), 3, 7L);
+            when(trainerWorkloadManagementService.findYearHours(TEST_USERNAME, TEST_YEAR)).thenReturn(Optional.of(yearHours));
+
+            ResponseEntity<?> response = trainerWorkloadController.getYearHours(TEST_USERNAME, TEST_YEAR, null);
+
+            assertEquals(yearHours, response.getBody());
+            assertEquals("\"7\"", response.getHeaders().getETag());
+            verify(trainerWorkloadService, never()).getVersion(anyString());
+      }
+
+      /**
+       * Tests that year hours requested with the current ETag are answered with Not Modified without reading them.
+       */
+      @Test
+      void getYearHours_CurrentETag_ReturnsNotModified() {
+            when(trainerWorkloadService.getVersion(TEST_USERNAME)).thenReturn(Optional.of(7L));
+
+            ResponseEntity<?> response = trainerWorkloadController.getYearHours(TEST_USERNAME, TEST_YEAR, "\"7\"");
+
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+            verifyNoInteractions(trainerWorkloadManagementService);
+      }
+
+      /**
+       * Tests that a range sum is read with a single call to the management service.
+       */
+      @Test
+      void getHoursRange_ValidRange_ReturnsSums() {
+            TrainerHoursRange hoursRange = new TrainerHoursRange(TEST_USERNAME, YearMonth.of(2024, 1), YearMonth.of(2024, 3), Map.of(2024, 9L), 9, 2L);
+            when(trainerWorkloadService.getVersion(TEST_USERNAME)).thenReturn(Optional.of(2L));
+            when(trainerWorkloadManagementService.findHoursRange(TEST_USERNAME, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+                    .thenReturn(Optional.of(hoursRange));
+
+            ResponseEntity<?> response = trainerWorkloadController.getHoursRange(TEST_USERNAME, YearMonth.of(2024, 1), YearMonth.of(2024, 3), "\"1\"");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(hoursRange, response.getBody());
+            assertEquals("\"2\"", response.getHeaders().getETag());
+      }
+
+      /**
+       * Tests that inverted and overly wide ranges return a Bad Request response without a lookup.
+       */
+      @Test
+      void getHoursRange_InvalidRange_ReturnsBadRequest() {
+            ResponseEntity<?> inverted = trainerWorkloadController.getHoursRange(TEST_USERNAME, YearMonth.of(2024, 3), YearMonth.of(2024, 1), null);
+            ResponseEntity<?> tooWide = trainerWorkloadController.getHoursRange(TEST_USERNAME, YearMonth.of(1900, 1), YearMonth.of(2024, 1), "\"1\"");
+
+            assertEquals(HttpStatus.BAD_REQUEST, inverted.getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST, tooWide.getStatusCode());
+            verifyNoInteractions(trainerWorkloadManagementService);
+      }
+
+      /**
+       * Tests that a search with blank prefixes only is rejected by the service with a Bad Request response,
+       * and that an out of range limit is rejected without a search.
+       */
+      @Test
+      void searchTrainers_InvalidParameters_ReturnsBadRequest() {
+            when(trainerWorkloadManagementService.searchTrainers(null, null, null, null, 20))
+                    .thenThrow(new IllegalArgumentException("A username, first name or last name prefix is required"));
+
+            ResponseEntity<?> noPrefix = trainerWorkloadController.searchTrainers(" ", null, "", null, 20);
+            ResponseEntity<?> badLimit = trainerWorkloadController.searchTrainers(TEST_USERNAME, null, null, null, 101);
+
+            assertEquals(HttpStatus.BAD_REQUEST, noPrefix.getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST, badLimit.getStatusCode());
+            verify(trainerWorkloadManagementService).searchTrainers(null, null, null, null, 20);
+      }
+
+      /**
+       * Tests that an export streams NDJSON through the export service.
+       */
+      @Test
+      void exportTrainerWorkloads_ValidRange_StreamsNdjson() throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            trainerWorkloadController.exportTrainerWorkloads(true, 2023, 2024, response);
+
+            assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+            verify(trainerWorkloadExportService).export(true, 2023, 2024, response.getOutputStream());
+      }
+
+      /**
+       * Tests that an inverted year range in an export returns a Bad Request response.
+       */
+      @Test
+      void exportTrainerWorkloads_InvalidRange_ReturnsBadRequest() throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            trainerWorkloadController.exportTrainerWorkloads(null, 2024, 2023, response);
+
+            assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+            verifyNoInteractions(trainerWorkloadExportService);
+      }
+
+      private static TrainerWorkload yearWorkload(long version, int hours) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(TEST_USERNAME);
+            trainerWorkload.setVersion(version);
+            trainerWorkload.getOrCreateYearSummary(TEST_YEAR).addHours(Month.fromNumber(TEST_MONTH), hours);
+            return trainerWorkload;
+      }
+}
@@ -0,0 +1,139 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.uw.TrainerWorkloadService.config.MongoConfig;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadRouting;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the read routing of TrainerWorkloadRepositoryCustomImpl, against a single-host replica set.
+ * The read preference of every read is checked on the commands sent by the driver. With a single member every
+ * read is served by the primary, a secondary-preferring read falls back to it.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class TrainerWorkloadReadRoutingIntegrationTest {
+
+      private static final String DATABASE = "trainer_workload_routing_test";
+      private static final String USERNAME = "trainer1";
+
+      @Container
+      private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+      private final List<BsonDocument> finds = new CopyOnWriteArrayList<>();
+
+      private MongoClient mongoClient;
+      private MongoTemplate mongoTemplate;
+      private SimpleMeterRegistry meterRegistry;
+      private TrainerWorkloadRepositoryCustomImpl repository;
+
+      @BeforeEach
+      public void setUp() {
+            mongoClient = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(MONGO.getReplicaSetUrl(DATABASE)))
+                    .addCommandListener(new CommandListener() {
+                          @Override
+                          public void commandStarted(CommandStartedEvent event) {
+                                if (event.getCommandName().equals("find")) {
+                                      finds.add(event.getCommand().clone());
+                                }
+                          }
+                    })
+                    .build());
+            SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(mongoClient, DATABASE);
+            MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+            MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(databaseFactory), mappingContext);
+            converter.setCustomConversions(conversions);
+            converter.afterPropertiesSet();
+            mongoTemplate = new MongoTemplate(databaseFactory, converter);
+
+            meterRegistry = new SimpleMeterRegistry();
+            repository = new TrainerWorkloadRepositoryCustomImpl(mongoTemplate,
+                    new TrainerWorkloadReadRouting(meterRegistry, "secondaryPreferred", "nearest", 90));
+            repository.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.MARCH, 5);
+            finds.clear();
+      }
+
+      @AfterEach
+      public void tearDown() {
+            mongoTemplate.dropCollection(TrainerWorkload.class);
+            mongoClient.close();
+      }
+
+      /**
+       * Tests that dashboard reads are sent with their read preference and staleness bound, and timed under their route.
+       */
+      @Test
+      public void dashboardReads_SentWithStalenessBound() {
+            assertEquals(5, repository.findYearWorkload(USERNAME, 2024).orElseThrow().getYearSummary(2024).getHours(Month.MARCH));
+            assertEquals(Optional.of(1L), repository.findVersion(USERNAME));
+
+            assertEquals(2, finds.size());
+            finds.forEach(find -> assertReadPreference(find, "secondaryPreferred"));
+            assertEquals(2, meterRegistry.get("trainer.workload.mongo.reads").tag("route", "dashboard").timer().count());
+      }
+
+      /**
+       * Tests that list reads use the list route, independently of the dashboard route.
+       */
+      @Test
+      public void listReads_SentWithTheirOwnReadPreference() {
+            try (Stream<TrainerWorkload> trainerWorkloads = repository.streamTrainerWorkloads(null, null, null)) {
+                  assertEquals(1, trainerWorkloads.count());
+            }
+            assertEquals(1, repository.findByNamePrefix(null, null, "Do", null, 10).size());
+
+            assertEquals(2, finds.size());
+            finds.forEach(find -> assertReadPreference(find, "nearest"));
+            assertEquals(2, meterRegistry.get("trainer.workload.mongo.reads").tag("route", "list").timer().count());
+      }
+
+      /**
+       * Tests that the reads of the organization totals repair stay on the primary.
+       */
+      @Test
+      public void repairReads_StayOnPrimary() {
+            try (Stream<TrainerWorkload> trainerWorkloads = repository.streamTrainerWorkloadsByUsername(null, null)) {
+                  assertEquals(5, trainerWorkloads.findFirst().orElseThrow().getYearSummary(2024).getHours(Month.MARCH));
+            }
+            assertEquals(1, finds.size());
+            BsonDocument readPreference = finds.get(0).getDocument("$readPreference", null);
+            assertTrue(readPreference == null || readPreference.getString("mode").getValue().equals("primary"));
+            assertEquals(1, meterRegistry.get("trainer.workload.mongo.reads").tag("route", "primary").timer().count());
+      }
+
+      private static void assertReadPreference(BsonDocument find, String mode) {
+            BsonDocument readPreference = find.getDocument("$readPreference");
+            assertEquals(mode, readPreference.getString("mode").getValue());
+            assertEquals(90, readPreference.getNumber("maxStalenessSeconds").intValue());
+      }
+}
@@ -0,0 +1,267 @@
+package com.uw.TrainerWorkloadService.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.uw.TrainerWorkloadService.config.MongoConfig;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadDocument;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadRouting;
+import com.uw.TrainerWorkloadService.config.mongo.YearSummaryDocument;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the atomic counter updates of TrainerWorkloadRepositoryCustomImpl, against a real MongoDB.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class TrainerWorkloadRepositoryIntegrationTest {
+
+      private static final String DATABASE = "trainer_workload_repository_test";
+      private static final String USERNAME = "trainer1";
+      private static final int WRITERS = 8;
+      private static final int TRAINERS = 20;
+
+      @Container
+      private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+      private MongoClient mongoClient;
+      private MongoTemplate mongoTemplate;
+      private TrainerWorkloadRepositoryCustomImpl repository;
+
+      @BeforeEach
+      public void setUp() {
+            mongoClient = MongoClients.create(MONGO.getReplicaSetUrl(DATABASE));
+            SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(mongoClient, DATABASE);
+            MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+            MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(databaseFactory), mappingContext);
+            converter.setCustomConversions(conversions);
+            converter.afterPropertiesSet();
+            mongoTemplate = new MongoTemplate(databaseFactory, converter);
+            // Backs the upserts of the same trainer by concurrent writers, as auto-index-creation does in the application
+            mongoTemplate.indexOps(TrainerWorkload.class)
+                    .ensureIndex(new Index(TrainerWorkloadDocument.TRAINER_USERNAME, Sort.Direction.ASC).unique());
+
+            repository = new TrainerWorkloadRepositoryCustomImpl(mongoTemplate,
+                    new TrainerWorkloadReadRouting(new SimpleMeterRegistry(), "primary", "primary", 0));
+      }
+
+      @AfterEach
+      public void tearDown() {
+            mongoTemplate.dropCollection(TrainerWorkload.class);
+            mongoClient.close();
+      }
+
+      /**
+       * Tests that deleting more hours than recorded stops at zero on every write path, and that a deletion for a year
+       * without hours matches nothing and creates nothing.
+       */
+      @Test
+      public void subtractMonthlyHours_MoreThanRecorded_StopsAtZero() {
+            repository.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.MARCH, 5);
+
+            assertTrue(repository.subtractMonthlyHours(USERNAME, 2024, Month.MARCH, 8));
+            assertEquals(Optional.of(0), findMarchHours(USERNAME));
+
+            repository.applyMonthlyHoursDeltas(List.of(subtract(USERNAME, 2024, 3)));
+            AppliedMonthlyHoursDelta applied = repository.applyMonthlyHoursDelta(subtract(USERNAME, 2024, 2)).orElseThrow();
+            assertEquals(0, applied.getChange());
+            assertEquals(Optional.of(0), findMarchHours(USERNAME));
+            assertEquals(Optional.of(4L), repository.findVersion(USERNAME));
+
+            assertFalse(repository.subtractMonthlyHours(USERNAME, 2023, Month.MARCH, 1));
+            assertFalse(repository.subtractMonthlyHours("unknown", 2024, Month.MARCH, 1));
+            assertNull(repository.findYearsWorkload(USERNAME, 2023, 2023).orElseThrow().getYearSummary(2023));
+            assertEquals(1, mongoTemplate.getCollection(collectionName()).countDocuments());
+      }
+
+      /**
+       * Tests that concurrent first writes of the same trainers, through the bulk and the findAndModify paths,
+       * create a single document per trainer and lose no hours.
+       */
+      @Test
+      public void addMonthlyHours_ConcurrentFirstWrites_CreateOneDocumentPerTrainer() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                  List<Future<?>> writers = new ArrayList<>();
+                  for (int writer = 0; writer < WRITERS; writer++) {
+                        boolean findAndModify = writer % 2 == 0;
+                        writers.add(executor.submit(() -> {
+                              start.await();
+                              for (int trainer = 0; trainer < TRAINERS; trainer++) {
+                                    MonthlyHoursDelta delta = add("trainer" + trainer, 2024, 1);
+                                    if (findAndModify) {
+                                          repository.applyMonthlyHoursDelta(delta);
+                                    } else {
+                                          repository.applyMonthlyHoursDeltas(List.of(delta));
+                                    }
+                              }
+                              return null;
+                        }));
+                  }
+                  start.countDown();
+                  for (Future<?> writer : writers) {
+                        writer.get();
+                  }
+            } finally {
+                  executor.shutdownNow();
+            }
+
+            assertEquals(TRAINERS, mongoTemplate.getCollection(collectionName()).countDocuments());
+            for (int trainer = 0; trainer < TRAINERS; trainer++) {
+                  assertEquals(Optional.of(WRITERS), findMarchHours("trainer" + trainer));
+                  assertEquals(Optional.of((long) WRITERS), repository.findVersion("trainer" + trainer));
+            }
+      }
+
+      /**
+       * Tests that a document still storing its years in an array, with month name maps, is converted in place
+       * by its next counter update, keeping its other years and its identity.
+       */
+      @Test
+      public void addMonthlyHours_LegacyYearsArray_UpdatedInPlace() {
+            ObjectId id = new ObjectId();
+            mongoTemplate.getCollection(collectionName()).insertOne(new Document("_id", id)
+                    .append(TrainerWorkloadDocument.TRAINER_USERNAME, USERNAME)
+                    .append(TrainerWorkloadDocument.TRAINER_FIRST_NAME, "John")
+                    .append(TrainerWorkloadDocument.TRAINER_LAST_NAME, "Doe")
+                    .append(TrainerWorkloadDocument.TRAINER_STATUS, true)
+                    .append(TrainerWorkloadDocument.YEARS, List.of(
+                            new Document(YearSummaryDocument.YEAR, 2023)
+                                    .append(YearSummaryDocument.LEGACY_MONTHLY_HOURS, new Document(Month.MARCH.name(), 4)),
+                            new Document(YearSummaryDocument.YEAR, 2024)
+                                    .append(YearSummaryDocument.LEGACY_MONTHLY_HOURS, new Document(Month.MARCH.name(), 3)
+                                            .append(Month.JUNE.name(), 6)))));
+
+            AppliedMonthlyHoursDelta applied = repository.applyMonthlyHoursDelta(add(USERNAME, 2024, 2)).orElseThrow();
+            repository.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.MARCH, 1);
+
+            assertFalse(applied.isCreated());
+            assertEquals(3, applied.getHoursBefore());
+            Document stored = mongoTemplate.getCollection(collectionName()).find().first();
+            assertEquals(1, mongoTemplate.getCollection(collectionName()).countDocuments());
+            assertEquals(id, stored.getObjectId("_id"));
+            assertFalse(TrainerWorkloadDocument.hasYearsArray(stored));
+            assertEquals(4, TrainerWorkloadDocument.readYearMonths(stored, 2023)[Month.MARCH.ordinal()]);
+            assertEquals(6, TrainerWorkloadDocument.readYearMonths(stored, 2024)[Month.MARCH.ordinal()]);
+            assertEquals(6, TrainerWorkloadDocument.readYearMonths(stored, 2024)[Month.JUNE.ordinal()]);
+            assertEquals(2, TrainerWorkloadDocument.readVersion(stored));
+      }
+
+      /**
+       * Tests that a replace returns the document it replaced, including the hours added since the caller read it,
+       * keeps the document identity, and that concurrent replaces each get a distinct version from the database.
+       */
+      @Test
+      public void replaceTrainerWorkload_ExistingTrainer_ReturnsPreImageWithServerVersion() throws Exception {
+            repository.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.MARCH, 5);
+            TrainerWorkload read = repository.findYearsWorkload(USERNAME, 2024, 2024).orElseThrow();
+            repository.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.MARCH, 2);
+
+            TrainerWorkload replacement = new TrainerWorkload();
+            replacement.setTrainerUsername(USERNAME);
+            replacement.setTrainerFirstName("Jane");
+            replacement.setTrainerStatus(false);
+            replacement.getOrCreateYearSummary(2023).addHours(Month.MAY, 4);
+            TrainerWorkload before = repository.replaceTrainerWorkload(replacement).orElseThrow();
+
+            assertEquals(7, before.getYearSummary(2024).getHours(Month.MARCH));
+            assertEquals(read.getId(), replacement.getId());
+            assertEquals(3, replacement.getVersion());
+            Document stored = mongoTemplate.getCollection(collectionName()).find().first();
+            assertEquals("Jane", stored.getString(TrainerWorkloadDocument.TRAINER_FIRST_NAME));
+            assertFalse(stored.containsKey(TrainerWorkloadDocument.TRAINER_LAST_NAME));
+            assertEquals(4, TrainerWorkloadDocument.readYearMonths(stored, 2023)[Month.MAY.ordinal()]);
+            assertEquals(0, TrainerWorkloadDocument.readYearMonths(stored, 2024)[Month.MARCH.ordinal()]);
+
+            ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+            List<Future<Long>> versions = new ArrayList<>();
+            try {
+                  for (int writer = 0; writer < WRITERS; writer++) {
+                        versions.add(executor.submit(() -> {
+                              TrainerWorkload concurrent = replacement.copy();
+                              repository.replaceTrainerWorkload(concurrent);
+                              return concurrent.getVersion();
+                        }));
+                  }
+                  Set<Long> distinct = new HashSet<>();
+                  for (Future<Long> version : versions) {
+                        distinct.add(version.get());
+                  }
+                  assertEquals(WRITERS, distinct.size());
+            } finally {
+                  executor.shutdownNow();
+            }
+            assertEquals(Optional.of(3L + WRITERS), repository.findVersion(USERNAME));
+      }
+
+      /**
+       * Tests that the split points cut the trainers into ranges of about the same size, and that there are fewer of them
+       * when there are fewer trainers than ranges.
+       */
+      @Test
+      public void findUsernameSplitPoints_Trainers_SplitIntoEvenRanges() {
+            for (int trainer = 0; trainer < TRAINERS; trainer++) {
+                  repository.addMonthlyHours(String.format("trainer%02d", trainer), "John", "Doe", true, 2024, Month.MARCH, 1);
+            }
+
+            assertEquals(List.of("trainer05", "trainer10", "trainer15"), repository.findUsernameSplitPoints(4));
+            assertEquals(TRAINERS - 1, repository.findUsernameSplitPoints(TRAINERS * 2).size());
+            assertEquals(List.of(), repository.findUsernameSplitPoints(1));
+      }
+
+      private String collectionName() {
+            return mongoTemplate.getCollectionName(TrainerWorkload.class);
+      }
+
+      private Optional<Integer> findMarchHours(String username) {
+            return repository.findYearWorkload(username, 2024)
+                    .map(trainerWorkload -> trainerWorkload.getYearSummary(2024) == null ? 0
+                            : trainerWorkload.getYearSummary(2024).getHours(Month.MARCH));
+      }
+
+      private static MonthlyHoursDelta add(String username, int year, int hours) {
+            MonthlyHoursDelta delta = new MonthlyHoursDelta(username, year, Month.MARCH);
+            delta.add("John", "Doe", true, hours);
+            return delta;
+      }
+
+      private static MonthlyHoursDelta subtract(String username, int year, int hours) {
+            MonthlyHoursDelta delta = new MonthlyHoursDelta(username, year, Month.MARCH);
+            delta.subtract(hours);
+            return delta;
+      }
+}
@@ -0,0 +1,170 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.config.MongoConfig;
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadDocument;
+import com.uw.TrainerWorkloadService.config.mongo.TrainerWorkloadReadRouting;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.OrganizationTotals;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.model.YearSummary;
+import com.uw.TrainerWorkloadService.repository.OrganizationTotalsRepository;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepositoryCustomImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the organization totals kept by OrganizationTotalsService, against a real MongoDB.
+ * Two TrainerWorkloadService instances share the database, as two service instances would.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class OrganizationTotalsIntegrationTest {
+
+      private static final String DATABASE = "trainer_workload_totals_test";
+      private static final int YEAR = 2024;
+      private static final int TRAINERS = 3;
+      private static final int WRITERS_PER_INSTANCE = 4;
+      private static final int WRITES_PER_WRITER = 100;
+
+      @Container
+      private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+      private MongoClient mongoClient;
+      private MongoTemplate mongoTemplate;
+      private TrainerWorkloadRepository trainerWorkloadRepository;
+      private OrganizationTotalsRepository organizationTotalsRepository;
+
+      @BeforeEach
+      public void setUp() {
+            mongoClient = MongoClients.create(MONGO.getReplicaSetUrl(DATABASE));
+            SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(mongoClient, DATABASE);
+            MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+            MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(databaseFactory), mappingContext);
+            converter.setCustomConversions(conversions);
+            converter.afterPropertiesSet();
+            mongoTemplate = new MongoTemplate(databaseFactory, converter);
+            // Backs the upserts of the same trainer by concurrent writers, as auto-index-creation does in the application
+            mongoTemplate.indexOps(TrainerWorkload.class)
+                    .ensureIndex(new Index(TrainerWorkloadDocument.TRAINER_USERNAME, Sort.Direction.ASC).unique());
+
+            TrainerWorkloadRepositoryCustomImpl custom = new TrainerWorkloadRepositoryCustomImpl(mongoTemplate,
+                    new TrainerWorkloadReadRouting(new SimpleMeterRegistry(), "primary", "primary", 0));
+            trainerWorkloadRepository = new MongoRepositoryFactory(mongoTemplate)
+                    .getRepository(TrainerWorkloadRepository.class, RepositoryFragments.just(custom));
+            organizationTotalsRepository = new OrganizationTotalsRepository(mongoTemplate);
+      }
+
+      @AfterEach
+      public void tearDown() {
+            mongoTemplate.dropCollection(TrainerWorkload.class);
+            mongoTemplate.dropCollection(OrganizationTotalsRepository.COLLECTION);
+            mongoClient.close();
+      }
+
+      /**
+       * Tests that concurrent adds, deletes that stop at zero and bulk writes of the same trainers, made by two
+       * instances at the same time, leave totals equal to the sum of the trainer counters.
+       */
+      @Test
+      public void concurrentWriters_TotalsMatchTrainerCounters() throws Exception {
+            List<TrainerWorkloadService> instances = List.of(instance(), instance());
+            ExecutorService executor = Executors.newFixedThreadPool(instances.size() * WRITERS_PER_INSTANCE);
+            try {
+                  List<Future<Void>> writers = new ArrayList<>();
+                  for (TrainerWorkloadService instance : instances) {
+                        for (int writer = 0; writer < WRITERS_PER_INSTANCE; writer++) {
+                              writers.add(executor.submit(writes(instance)));
+                        }
+                  }
+                  for (Future<Void> writer : writers) {
+                        writer.get();
+                  }
+            } finally {
+                  executor.shutdownNow();
+            }
+
+            Map<String, long[]> expected = new HashMap<>();
+            for (TrainerWorkload trainerWorkload : trainerWorkloadRepository.findAll()) {
+                  long[] hours = expected.computeIfAbsent(OrganizationTotals.id(YEAR, trainerWorkload.isTrainerStatus()), id -> new long[YearSummary.MONTHS]);
+                  int[] monthlyHours = trainerWorkload.getYearSummary(YEAR).getMonthlyHours();
+                  for (int ordinal = 0; ordinal < YearSummary.MONTHS; ordinal++) {
+                        hours[ordinal] += monthlyHours[ordinal];
+                  }
+            }
+            List<OrganizationTotals> totals = organizationTotalsRepository.findTotals(YEAR);
+            assertEquals(expected.size(), totals.size());
+            for (OrganizationTotals yearTotals : totals) {
+                  assertArrayEquals(expected.get(yearTotals.getId()), yearTotals.getMonthlyHours(), yearTotals.getId());
+            }
+      }
+
+      private TrainerWorkloadService instance() {
+            OrganizationTotalsService organizationTotals = new OrganizationTotalsService(trainerWorkloadRepository,
+                    organizationTotalsRepository, 2, WorkerThreads.platform());
+            return new TrainerWorkloadService(trainerWorkloadRepository,
+                    new TrainerWorkloadNearCache(new CaffeineCacheManager(CacheConfig.TRAINER_WORKLOADS), 60000, 100000),
+                    new TrainerLeaderboard(), Optional.of(organizationTotals), Optional.empty());
+      }
+
+      private static Callable<Void> writes(TrainerWorkloadService trainerWorkloadService) {
+            return () -> {
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  for (int write = 0; write < WRITES_PER_WRITER; write++) {
+                        int trainer = random.nextInt(TRAINERS);
+                        String username = "trainer" + trainer;
+                        Month month = random.nextBoolean() ? Month.MARCH : Month.APRIL;
+                        switch (random.nextInt(3)) {
+                              case 0 -> trainerWorkloadService.addMonthlyHours(username, "John", "Doe", trainer % 2 == 0,
+                                      YEAR, month, 1 + random.nextInt(5));
+                              // Often more than the counter holds, so the deletion stops at zero
+                              case 1 -> trainerWorkloadService.subtractMonthlyHours(username, YEAR, month, 1 + random.nextInt(8));
+                              default -> {
+                                    MonthlyHoursDelta added = new MonthlyHoursDelta(username, YEAR, Month.MAY);
+                                    added.add("John", "Doe", trainer % 2 == 0, 1 + random.nextInt(5));
+                                    MonthlyHoursDelta deleted = new MonthlyHoursDelta(username, YEAR, month);
+                                    deleted.subtract(1 + random.nextInt(8));
+                                    trainerWorkloadService.applyMonthlyHoursDeltas(List.of(added, deleted));
+                              }
+                        }
+                  }
+                  return null;
+            };
+      }
+}
@@ -0,0 +1,129 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.OrganizationTotals;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.repository.OrganizationTotalsRepository;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the OrganizationTotalsService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class OrganizationTotalsServiceTest {
+
+      @Mock
+      private TrainerWorkloadRepository trainerWorkloadRepository;
+
+      @Mock
+      private OrganizationTotalsRepository organizationTotalsRepository;
+
+      private OrganizationTotalsService organizationTotalsService;
+
+      @BeforeEach
+      public void setUp() {
+            organizationTotalsService = new OrganizationTotalsService(trainerWorkloadRepository, organizationTotalsRepository, 2,
+                    WorkerThreads.platform());
+      }
+
+      /**
+       * Tests that the totals change by what the counters actually changed from the counters the writes found:
+       * deletions stop at zero, trainers count with the status they had, and changes that changed nothing are left out.
+       */
+      @Test
+      public void record_AppliedDeltas_IncrementsActualChanges() {
+            MonthlyHoursDelta overDelete = new MonthlyHoursDelta("trainer1", 2024, Month.MARCH);
+            overDelete.subtract(5);
+            MonthlyHoursDelta newTrainer = new MonthlyHoursDelta("trainer2", 2024, Month.MARCH);
+            newTrainer.add("John", "Doe", true, 4);
+            MonthlyHoursDelta emptyDelete = new MonthlyHoursDelta("trainer3", 2024, Month.MARCH);
+            emptyDelete.subtract(2);
+
+            organizationTotalsService.record(List.of(
+                    new AppliedMonthlyHoursDelta(overDelete, false, false, 3, 7),
+                    new AppliedMonthlyHoursDelta(newTrainer, true, true, 0, 0),
+                    new AppliedMonthlyHoursDelta(emptyDelete, false, true, 0, 2)));
+
+            Map<String, OrganizationTotals> changes = captureIncrement();
+            assertEquals(2, changes.size());
+            assertEquals(-3, changes.get("2024-inactive").getMonthlyHours()[Month.MARCH.ordinal()]);
+            assertEquals(4, changes.get("2024-active").getMonthlyHours()[Month.MARCH.ordinal()]);
+      }
+
+      /**
+       * Tests that replacing a trainer moves its hours between statuses, and that a failed update does not
+       * fail the write.
+       */
+      @Test
+      public void recordReplace_StatusChange_MovesHours() {
+            doThrow(new IllegalStateException("unavailable")).when(organizationTotalsRepository).incrementMonthlyHours(any());
+
+            organizationTotalsService.recordReplace(trainerWorkload("trainer1", true, 2024, Month.MAY, 6),
+                    trainerWorkload("trainer1", false, 2024, Month.MAY, 6));
+
+            Map<String, OrganizationTotals> changes = captureIncrement();
+            assertEquals(-6, changes.get("2024-active").getTotal());
+            assertEquals(6, changes.get("2024-inactive").getTotal());
+      }
+
+      /**
+       * Tests that a repair sums every username range and replaces the totals with the merged result.
+       */
+      @Test
+      public void repair_MergesRanges() {
+            when(trainerWorkloadRepository.findUsernameSplitPoints(2)).thenReturn(List.of("m"));
+            when(trainerWorkloadRepository.streamTrainerWorkloadsByUsername(null, "m"))
+                    .thenReturn(Stream.of(trainerWorkload("a", true, 2024, Month.JANUARY, 2)));
+            when(trainerWorkloadRepository.streamTrainerWorkloadsByUsername("m", null))
+                    .thenReturn(Stream.of(trainerWorkload("n", true, 2024, Month.JANUARY, 3),
+                            trainerWorkload("o", false, 2025, Month.JUNE, 1)));
+
+            assertEquals(3, organizationTotalsService.repair());
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Collection<OrganizationTotals>> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(organizationTotalsRepository).replaceAll(captor.capture());
+            Map<String, OrganizationTotals> totals = byId(captor.getValue());
+            assertEquals(2, totals.size());
+            assertEquals(5, totals.get("2024-active").getMonthlyHours()[Month.JANUARY.ordinal()]);
+            assertEquals(1, totals.get("2025-inactive").getTotal());
+      }
+
+      private Map<String, OrganizationTotals> captureIncrement() {
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Collection<OrganizationTotals>> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(organizationTotalsRepository).incrementMonthlyHours(captor.capture());
+            return byId(captor.getValue());
+      }
+
+      private static Map<String, OrganizationTotals> byId(Collection<OrganizationTotals> totals) {
+            return totals.stream().collect(Collectors.toMap(OrganizationTotals::getId, t -> t));
+      }
+
+      private static TrainerWorkload trainerWorkload(String username, boolean trainerStatus, int year, Month month, int hours) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(username);
+            trainerWorkload.setTrainerStatus(trainerStatus);
+            trainerWorkload.getOrCreateYearSummary(year).addHours(month, hours);
+            return trainerWorkload;
+      }
+}
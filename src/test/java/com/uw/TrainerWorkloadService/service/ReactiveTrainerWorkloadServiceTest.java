@@ -0,0 +1,72 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.repository.ReactiveTrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ReactiveTrainerWorkloadService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveTrainerWorkloadServiceTest {
+
+      private static final String USERNAME = "trainer1";
+
+      @Mock
+      private ReactiveTrainerWorkloadRepository reactiveTrainerWorkloadRepository;
+
+      private ReactiveTrainerWorkloadService reactiveTrainerWorkloadService;
+
+      @BeforeEach
+      public void setUp() {
+            CacheManager cacheManager = new CaffeineCacheManager(CacheConfig.TRAINER_WORKLOADS);
+            reactiveTrainerWorkloadService = new ReactiveTrainerWorkloadService(reactiveTrainerWorkloadRepository,
+                    new TrainerWorkloadNearCache(cacheManager, 60000, 100000));
+      }
+
+      /**
+       * Tests that a trainer read from the database is cached and then answers month lookups without a query.
+       */
+      @Test
+      public void getTrainerWorkloadByUsername_ReadOnce_ServesMonthlyHoursFromCache() {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(USERNAME);
+            trainerWorkload.getOrCreateYearSummary(2024).addHours(Month.MAY, 7);
+            when(reactiveTrainerWorkloadRepository.findByTrainerUsername(USERNAME)).thenReturn(Mono.just(trainerWorkload));
+
+            reactiveTrainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).block();
+            reactiveTrainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).block();
+            Integer hours = reactiveTrainerWorkloadService.getMonthlyHours(USERNAME, 2024, Month.MAY).block();
+            Integer otherYear = reactiveTrainerWorkloadService.getMonthlyHours(USERNAME, 2023, Month.MAY).block();
+
+            assertEquals(7, hours);
+            assertEquals(0, otherYear);
+            verify(reactiveTrainerWorkloadRepository, times(1)).findByTrainerUsername(USERNAME);
+            verify(reactiveTrainerWorkloadRepository, never()).findMonthlyHours(anyString(), anyInt(), any());
+      }
+
+      /**
+       * Tests that an uncached month lookup reads only the month counter and a missing trainer completes empty.
+       */
+      @Test
+      public void getMonthlyHours_NotCached_QueriesMonthCounter() {
+            when(reactiveTrainerWorkloadRepository.findMonthlyHours(USERNAME, 2024, Month.MAY)).thenReturn(Mono.just(3));
+            when(reactiveTrainerWorkloadRepository.findMonthlyHours("missing", 2024, Month.MAY)).thenReturn(Mono.empty());
+
+            assertEquals(3, reactiveTrainerWorkloadService.getMonthlyHours(USERNAME, 2024, Month.MAY).block());
+            assertNull(reactiveTrainerWorkloadService.getMonthlyHours("missing", 2024, Month.MAY).block());
+      }
+}
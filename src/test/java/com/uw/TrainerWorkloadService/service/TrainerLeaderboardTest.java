@@ -0,0 +1,179 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.dto.LeaderboardEntry;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the TrainerLeaderboard class.
+ */
+public class TrainerLeaderboardTest {
+
+      private final TrainerLeaderboard trainerLeaderboard = new TrainerLeaderboard();
+
+      /**
+       * Tests that the top trainers are ordered by hours, with ties sharing a rank and ordered by username.
+       */
+      @Test
+      public void top_TiedHours_ShareRank() {
+            trainerLeaderboard.apply(List.of(add("carol", 5), add("alice", 8), add("bob", 5), add("dave", 1)));
+
+            List<LeaderboardEntry> top = trainerLeaderboard.top(2024, Month.MARCH, 3);
+
+            assertEquals(List.of(
+                    new LeaderboardEntry(1, "alice", 8),
+                    new LeaderboardEntry(2, "bob", 5),
+                    new LeaderboardEntry(2, "carol", 5)), top);
+            assertEquals(new LeaderboardEntry(4, "dave", 1), trainerLeaderboard.rank("dave", 2024, Month.MARCH).orElseThrow());
+            assertTrue(trainerLeaderboard.top(2024, Month.APRIL, 3).isEmpty());
+      }
+
+      /**
+       * Tests that deletions follow the database semantics: never below zero, and trainers without hours leave the board.
+       */
+      @Test
+      public void apply_Deletions_MoveAndRemoveTrainers() {
+            trainerLeaderboard.apply(List.of(add("alice", 8), add("bob", 5)));
+
+            trainerLeaderboard.apply(List.of(subtract("alice", 4), subtract("bob", 9), subtract("erin", 2)));
+
+            assertEquals(List.of(new LeaderboardEntry(1, "alice", 4)), trainerLeaderboard.top(2024, Month.MARCH, 10));
+            assertEquals(Optional.empty(), trainerLeaderboard.rank("bob", 2024, Month.MARCH));
+            assertEquals(Optional.empty(), trainerLeaderboard.rank("erin", 2024, Month.MARCH));
+      }
+
+      /**
+       * Tests that a rebuild replaces the boards, and that a saved trainer workload replaces all months of its trainer.
+       */
+      @Test
+      public void rebuildAndReplace_ReplaceHours() {
+            trainerLeaderboard.apply(List.of(add("stale", 50)));
+
+            long trainers = trainerLeaderboard.rebuild(Stream.of(trainerWorkload("alice", Month.MARCH, 3), trainerWorkload("bob", Month.MARCH, 6)));
+            trainerLeaderboard.replace(trainerWorkload("alice", Month.MAY, 2));
+
+            assertEquals(2, trainers);
+            assertEquals(List.of(new LeaderboardEntry(1, "bob", 6)), trainerLeaderboard.top(2024, Month.MARCH, 10));
+            assertEquals(List.of(new LeaderboardEntry(1, "alice", 2)), trainerLeaderboard.top(2024, Month.MAY, 10));
+      }
+
+      /**
+       * Tests that changes applied while a rebuild reads the database are replayed on the rebuilt boards,
+       * and that the leaderboard is ready once the rebuild completes.
+       */
+      @Test
+      public void rebuild_ChangesDuringRead_AreReplayed() {
+            Stream<TrainerWorkload> read = Stream.of(trainerWorkload("alice", Month.MARCH, 3), trainerWorkload("bob", Month.MARCH, 6))
+                    .peek(trainerWorkload -> {
+                          if (trainerWorkload.getTrainerUsername().equals("alice")) {
+                                trainerLeaderboard.apply(List.of(add("carol", 4)));
+                                trainerLeaderboard.remove("bob");
+                          }
+                    });
+            assertFalse(trainerLeaderboard.isReady());
+
+            trainerLeaderboard.rebuild(read);
+
+            assertTrue(trainerLeaderboard.isReady());
+            assertEquals(List.of(new LeaderboardEntry(1, "carol", 4), new LeaderboardEntry(2, "alice", 3)),
+                    trainerLeaderboard.top(2024, Month.MARCH, 10));
+      }
+
+      /**
+       * Tests that a change replayed after a rebuild is skipped when the version read for its trainer already
+       * includes it, and that a trainer deleted and created again is replayed from its creation.
+       */
+      @Test
+      public void rebuild_ChangesAlreadyRead_AreNotCountedTwice() {
+            Stream<TrainerWorkload> read = Stream.of(trainerWorkload("alice", Month.MARCH, 5, 2), trainerWorkload("bob", Month.MARCH, 6, 3),
+                            trainerWorkload("carol", Month.MARCH, 1, 1))
+                    .peek(trainerWorkload -> {
+                          if (trainerWorkload.getTrainerUsername().equals("carol")) {
+                                trainerLeaderboard.applyWritten(List.of(written(add("alice", 2), 1), written(add("dave", 4), 0)));
+                                trainerLeaderboard.replace(trainerWorkload("bob", Month.MARCH, 6, 3));
+                                trainerLeaderboard.remove("carol");
+                                trainerLeaderboard.applyWritten(List.of(written(add("carol", 2), 0)));
+                          }
+                    });
+
+            trainerLeaderboard.rebuild(read);
+
+            assertEquals(List.of(new LeaderboardEntry(1, "bob", 6), new LeaderboardEntry(2, "alice", 5),
+                    new LeaderboardEntry(3, "dave", 4), new LeaderboardEntry(4, "carol", 2)), trainerLeaderboard.top(2024, Month.MARCH, 10));
+      }
+
+      /**
+       * Tests that counter writes must report their versions only while a rebuild records the changes.
+       */
+      @Test
+      public void beginWrite_DuringRebuild_RequiresVersions() {
+            List<Boolean> duringRebuild = new ArrayList<>();
+            Stream<TrainerWorkload> read = Stream.of(trainerWorkload("alice", Month.MARCH, 3))
+                    .peek(trainerWorkload -> {
+                          duringRebuild.add(trainerLeaderboard.beginWrite());
+                          trainerLeaderboard.endWrite();
+                    });
+
+            assertFalse(trainerLeaderboard.beginWrite());
+            trainerLeaderboard.endWrite();
+            trainerLeaderboard.rebuild(read);
+
+            assertEquals(List.of(true), duringRebuild);
+            assertFalse(trainerLeaderboard.beginWrite());
+            trainerLeaderboard.endWrite();
+      }
+
+      /**
+       * Tests that a removed trainer leaves every board.
+       */
+      @Test
+      public void remove_DeletedTrainer_LeavesAllBoards() {
+            trainerLeaderboard.replace(trainerWorkload("alice", Month.MARCH, 3));
+            trainerLeaderboard.apply(List.of(add("bob", 2)));
+
+            trainerLeaderboard.remove("alice");
+
+            assertEquals(Optional.empty(), trainerLeaderboard.rank("alice", 2024, Month.MARCH));
+            assertEquals(new LeaderboardEntry(1, "bob", 2), trainerLeaderboard.rank("bob", 2024, Month.MARCH).orElseThrow());
+      }
+
+      private static MonthlyHoursDelta add(String username, int hours) {
+            MonthlyHoursDelta delta = new MonthlyHoursDelta(username, 2024, Month.MARCH);
+            delta.add("First", "Last", true, hours);
+            return delta;
+      }
+
+      private static MonthlyHoursDelta subtract(String username, int hours) {
+            MonthlyHoursDelta delta = new MonthlyHoursDelta(username, 2024, Month.MARCH);
+            delta.subtract(hours);
+            return delta;
+      }
+
+      private static AppliedMonthlyHoursDelta written(MonthlyHoursDelta delta, long versionBefore) {
+            return new AppliedMonthlyHoursDelta(delta, versionBefore == 0, true, 0, versionBefore);
+      }
+
+      private static TrainerWorkload trainerWorkload(String username, Month month, int hours) {
+            return trainerWorkload(username, month, hours, 0);
+      }
+
+      private static TrainerWorkload trainerWorkload(String username, Month month, int hours, long version) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(username);
+            trainerWorkload.setVersion(version);
+            trainerWorkload.getOrCreateYearSummary(2024).addHours(month, hours);
+            return trainerWorkload;
+      }
+}
@@ -0,0 +1,169 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.model.AppliedMonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQTopic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TrainerWorkloadCacheInvalidations class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainerWorkloadCacheInvalidationsTest {
+
+      private static final String USERNAME = "trainer1";
+
+      @Mock
+      private TrainerWorkloadRepository trainerWorkloadRepository;
+
+      @Mock
+      private ConnectionFactory connectionFactory;
+
+      private SimpleMeterRegistry meterRegistry;
+      private TrainerWorkloadNearCache nearCache;
+
+      @BeforeEach
+      public void setUp() {
+            meterRegistry = new SimpleMeterRegistry();
+            nearCache = new TrainerWorkloadNearCache(new CaffeineCacheManager(CacheConfig.TRAINER_WORKLOADS), 60000, 100000);
+      }
+
+      /**
+       * Tests that a counter change written by the service is invalidated here with the version returned by the update,
+       * without reading it back, and published with its origin in one message.
+       */
+      @Test
+      public void written_CounterChange_InvalidatesAndPublishesVersionOfUpdate() throws Exception {
+            MessageProducer producer = producer();
+            MonthlyHoursDelta delta = new MonthlyHoursDelta(USERNAME, 2024, Month.MARCH);
+            delta.add("John", "Doe", true, 2);
+            when(trainerWorkloadRepository.applyMonthlyHoursDelta(any()))
+                    .thenReturn(Optional.of(new AppliedMonthlyHoursDelta(delta, false, true, 1, 3)));
+            nearCache.put(USERNAME, trainerWorkload(3), nearCache.beginLookup());
+            TrainerWorkloadCacheInvalidations invalidations = invalidations(false);
+            TrainerWorkloadService trainerWorkloadService = new TrainerWorkloadService(trainerWorkloadRepository, nearCache,
+                    new TrainerLeaderboard(), Optional.empty(), Optional.of(invalidations));
+
+            trainerWorkloadService.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.MARCH, 2);
+
+            assertNull(nearCache.get(USERNAME));
+            assertFalse(nearCache.put(USERNAME, trainerWorkload(3), nearCache.beginLookup()));
+            ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+            verify(producer, timeout(5000)).send(sent.capture(), anyInt(), anyInt(), anyLong());
+            ActiveMQBytesMessage message = (ActiveMQBytesMessage) sent.getValue();
+            assertNotNull(message.getStringProperty(TrainerWorkloadCacheInvalidations.ORIGIN_PROPERTY));
+            message.reset();
+            assertEquals(Map.of(USERNAME, 4L), TrainerWorkloadCacheInvalidations.read(message));
+            invalidations.shutdown();
+            assertEquals(1, meterRegistry.get("trainer.workload.cache.invalidations.sent").tag("outcome", "success").counter().count());
+            verify(trainerWorkloadRepository, never()).addMonthlyHours(any(), any(), any(), anyBoolean(), anyInt(), any(), anyInt());
+      }
+
+      /**
+       * Tests that an invalidation from another instance evicts an older entry and ignores a newer one.
+       */
+      @Test
+      public void receiveMessage_OlderAndNewerEntries_EvictsOnlyOlder() throws Exception {
+            TrainerWorkloadCacheInvalidations invalidations = invalidations(false);
+            nearCache.put(USERNAME, trainerWorkload(3), nearCache.beginLookup());
+            nearCache.put("trainer2", trainerWorkload(8), nearCache.beginLookup());
+
+            invalidations.receiveMessage(message(Map.of(USERNAME, 4L, "trainer2", 7L), "other"));
+
+            assertNull(nearCache.get(USERNAME));
+            assertNotNull(nearCache.get("trainer2"));
+            assertEquals(1, meterRegistry.get("trainer.workload.cache.invalidations.received").tag("outcome", "evicted").counter().count());
+            assertEquals(1, meterRegistry.get("trainer.workload.cache.invalidations.received").tag("outcome", "stale").counter().count());
+            verifyNoInteractions(trainerWorkloadRepository);
+      }
+
+      /**
+       * Tests that a cached trainer is reloaded instead of evicted when refreshing is enabled.
+       */
+      @Test
+      public void receiveMessage_RefreshEnabled_ReloadsCachedTrainer() throws Exception {
+            TrainerWorkloadCacheInvalidations invalidations = invalidations(true);
+            nearCache.put(USERNAME, trainerWorkload(3), nearCache.beginLookup());
+            when(trainerWorkloadRepository.findByTrainerUsername(USERNAME)).thenReturn(Optional.of(trainerWorkload(4)));
+
+            invalidations.receiveMessage(message(Map.of(USERNAME, 4L, "trainer2", 1L), "other"));
+
+            assertEquals(4, ((TrainerWorkload) nearCache.get(USERNAME).get()).getVersion());
+            verify(trainerWorkloadRepository, never()).findByTrainerUsername("trainer2");
+      }
+
+      /**
+       * Tests that the messages published by this instance are ignored.
+       */
+      @Test
+      public void receiveMessage_OwnMessage_IsIgnored() throws Exception {
+            MessageProducer producer = producer();
+            TrainerWorkloadCacheInvalidations invalidations = invalidations(false);
+            invalidations.cleared();
+            ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+            verify(producer, timeout(5000)).send(sent.capture(), anyInt(), anyInt(), anyLong());
+            nearCache.put(USERNAME, trainerWorkload(3), nearCache.beginLookup());
+
+            invalidations.receiveMessage(sent.getValue());
+
+            assertNotNull(nearCache.get(USERNAME));
+      }
+
+      private TrainerWorkloadCacheInvalidations invalidations(boolean refresh) {
+            return new TrainerWorkloadCacheInvalidations(nearCache, trainerWorkloadRepository, connectionFactory, meterRegistry,
+                    "trainer-workload.invalidations", refresh, WorkerThreads.platform());
+      }
+
+      private MessageProducer producer() throws Exception {
+            MessageProducer producer = mock(MessageProducer.class);
+            Session session = mock(Session.class);
+            Connection connection = mock(Connection.class);
+            when(connectionFactory.createConnection()).thenReturn(connection);
+            when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+            lenient().when(session.createTopic("trainer-workload.invalidations")).thenReturn(new ActiveMQTopic("trainer-workload.invalidations"));
+            when(session.createProducer(any())).thenReturn(producer);
+            when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+            return producer;
+      }
+
+      private static ActiveMQBytesMessage message(Map<String, Long> versions, String origin) throws Exception {
+            ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+            message.setStringProperty(TrainerWorkloadCacheInvalidations.ORIGIN_PROPERTY, origin);
+            message.setBooleanProperty(TrainerWorkloadCacheInvalidations.CLEAR_PROPERTY, false);
+            TrainerWorkloadCacheInvalidations.write(message, versions);
+            // Makes the body readable, as it is on a received message
+            message.reset();
+            return message;
+      }
+
+      private static TrainerWorkload trainerWorkload(long version) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setVersion(version);
+            return trainerWorkload;
+      }
+}
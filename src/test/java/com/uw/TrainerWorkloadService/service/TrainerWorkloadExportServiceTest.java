@@ -0,0 +1,99 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the TrainerWorkloadExportService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainerWorkloadExportServiceTest {
+
+      @Mock
+      private TrainerWorkloadRepository trainerWorkloadRepository;
+
+      private final ObjectMapper objectMapper = new ObjectMapper();
+
+      private TrainerWorkloadExportService exportService;
+
+      @BeforeEach
+      public void setUp() {
+            TrainerWorkloadService trainerWorkloadService = new TrainerWorkloadService(trainerWorkloadRepository,
+                    new TrainerWorkloadNearCache(new CaffeineCacheManager(CacheConfig.TRAINER_WORKLOADS), 60000, 100000),
+                    new TrainerLeaderboard(), Optional.empty(), Optional.empty());
+            exportService = new TrainerWorkloadExportService(trainerWorkloadService, objectMapper);
+      }
+
+      /**
+       * Tests that trainers are written one per line with only the years in the range,
+       * and that trainers without hours in the range are left out.
+       */
+      @Test
+      public void export_YearRange_WritesOneLinePerTrainerWithYearsInRange() throws Exception {
+            when(trainerWorkloadRepository.streamTrainerWorkloads(true, 2023, 2024))
+                    .thenReturn(Stream.of(trainerWorkload("trainer1", 2022, 2023), trainerWorkload("trainer2", 2021)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long exported = exportService.export(true, 2023, 2024, out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(1, exported);
+            assertEquals(1, lines.length);
+            JsonNode record = objectMapper.readTree(lines[0]);
+            assertEquals("trainer1", record.get("trainerUsername").asText());
+            assertTrue(record.get("years").has("2023"));
+            assertFalse(record.get("years").has("2022"));
+      }
+
+      /**
+       * Tests that a client disconnect stops the export and closes the database cursor.
+       */
+      @Test
+      public void export_ClientDisconnects_StopsAndClosesCursor() {
+            AtomicBoolean closed = new AtomicBoolean();
+            when(trainerWorkloadRepository.streamTrainerWorkloads(null, null, null))
+                    .thenReturn(Stream.of(trainerWorkload("trainer1", 2024), trainerWorkload("trainer2", 2024))
+                            .onClose(() -> closed.set(true)));
+            OutputStream disconnected = new OutputStream() {
+                  @Override
+                  public void write(int b) throws IOException {
+                        throw new IOException("Broken pipe");
+                  }
+            };
+
+            long exported = exportService.export(null, null, null, disconnected);
+
+            assertEquals(0, exported);
+            assertTrue(closed.get());
+      }
+
+      private static TrainerWorkload trainerWorkload(String username, int... years) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(username);
+            for (int year : years) {
+                  trainerWorkload.getOrCreateYearSummary(year).addHours(Month.JANUARY, 1);
+            }
+            return trainerWorkload;
+      }
+}
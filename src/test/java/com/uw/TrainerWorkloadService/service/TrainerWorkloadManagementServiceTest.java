@@ -1,17 +1,35 @@
 package com.uw.TrainerWorkloadService.service;
 
+import com.uw.TrainerWorkloadService.dto.TrainerHoursRange;
+import com.uw.TrainerWorkloadService.dto.TrainerMonthlyHours;
+import com.uw.TrainerWorkloadService.dto.TrainerSearchPage;
+import com.uw.TrainerWorkloadService.dto.TrainerSummary;
+import com.uw.TrainerWorkloadService.dto.TrainerYearHours;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
 import com.uw.TrainerWorkloadService.model.Month;
 import com.uw.TrainerWorkloadService.model.TrainerWorkload;
 import com.uw.TrainerWorkloadService.model.YearSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -23,94 +41,66 @@ public class TrainerWorkloadManagementServiceTest {
       @Mock
       private TrainerWorkloadService trainerWorkloadService;
 
-      @InjectMocks
+      private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
       private TrainerWorkloadManagementService trainerWorkloadManagementService;
 
+      @BeforeEach
+      public void setUp() {
+            trainerWorkloadManagementService = new TrainerWorkloadManagementService(trainerWorkloadService,
+                    new TrainingPipelineMetrics(meterRegistry));
+      }
+
       /**
-       * Tests adding training hours to an existing year in the trainer's workload.
+       * Tests that adding training hours is applied as a single atomic increment.
        */
       @Test
-      public void testAddTraining_YearExists_AddsHoursToExistingYear() {
+      public void testAddTraining_AppliesAtomicIncrement() {
             // Arrange
             String username = "trainer1";
             int year = 2024;
             int month = 1;
             int duration = 5;
-            TrainerWorkload trainerWorkload = new TrainerWorkload();
-            YearSummary existingYearSummary = new YearSummary(year);
-            trainerWorkload.getYears().add(existingYearSummary);
-
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.of(trainerWorkload));
 
             // Act
             String result = trainerWorkloadManagementService.addTraining(username, "John", "Doe", true, year, month, duration);
 
             // Assert
-            verify(trainerWorkloadService, times(1)).saveTrainerWorkload(trainerWorkload);
-      }
-
-      /**
-       * Tests adding training hours to a new year entry in the trainer's workload.
-       */
-      @Test
-      public void testAddTraining_YearDoesNotExist_CreatesNewYearEntry() {
-            // Arrange
-            String username = "trainer2";
-            int year = 2025;
-            int month = 2;
-            int duration = 3;
-            TrainerWorkload trainerWorkload = new TrainerWorkload();
-
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.of(trainerWorkload));
-
-            // Act
-            trainerWorkloadManagementService.addTraining(username, "John", "Doe", true, year, month, duration);
-
-            // Assert
-            trainerWorkload.getYears().stream().filter(y -> y.getYear() == year).findFirst().orElse(null);
-            verify(trainerWorkloadService, times(1)).saveTrainerWorkload(trainerWorkload);
+            assertEquals("Training added successfully", result);
+            verify(trainerWorkloadService, times(1)).addMonthlyHours(username, "John", "Doe", true, year, Month.JANUARY, duration);
+            verify(trainerWorkloadService, never()).saveTrainerWorkload(any(TrainerWorkload.class));
       }
 
       /**
-       * Tests adding training hours for a trainer that does not exist, creating a new TrainerWorkload.
+       * Tests that adding training hours from a training request is applied as a single atomic increment.
        */
       @Test
-      public void addTraining_TrainerDoesNotExist_CreatesNewTrainerWorkload() {
-            String username = "trainer3";
-            int year = 2023;
-            int month = 3;
-            int duration = 4;
-
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.empty());
+      public void addTraining_TrainingRequest_AppliesAtomicIncrement() {
+            TrainingRequest trainingRequest = new TrainingRequest("trainer3", "Jane", "Doe", true,
+                    LocalDate.of(2023, 3, 15), 4, "add");
 
-            trainerWorkloadManagementService.addTraining(username, "Jane", "Doe", true, year, month, duration);
+            trainerWorkloadManagementService.addTraining(trainingRequest);
 
-            verify(trainerWorkloadService, times(1)).saveTrainerWorkload(any(TrainerWorkload.class));
+            verify(trainerWorkloadService, times(1)).addMonthlyHours("trainer3", "Jane", "Doe", true, 2023, Month.MARCH, 4);
       }
 
       /**
        * Tests deleting training hours from an existing year in the trainer's workload.
        */
       @Test
-      public void deleteTraining_TrainerExists_DeletesHoursFromExistingYear() {
+      public void deleteTraining_TrainerExists_AppliesAtomicDecrement() {
             String username = "trainer1";
             int year = 2024;
             int month = 1;
             int duration = 5;
-            TrainerWorkload trainerWorkload = new TrainerWorkload();
-            YearSummary existingYearSummary = new YearSummary(year);
-            existingYearSummary.addHours(Month.fromNumber(month), duration);
-            trainerWorkload.getYears().add(existingYearSummary);
 
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.of(trainerWorkload));
+            when(trainerWorkloadService.subtractMonthlyHours(username, year, Month.JANUARY, duration))
+                    .thenReturn(true);
 
             String result = trainerWorkloadManagementService.deleteTraining(username, year, month, duration);
 
-            verify(trainerWorkloadService, times(1)).saveTrainerWorkload(trainerWorkload);
+            assertEquals("Training workload deleted successfully", result);
+            verify(trainerWorkloadService, never()).saveTrainerWorkload(any(TrainerWorkload.class));
       }
 
       /**
@@ -123,8 +113,8 @@ public class TrainerWorkloadManagementServiceTest {
             int month = 3;
             int duration = 4;
 
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.empty());
+            when(trainerWorkloadService.subtractMonthlyHours(username, year, Month.MARCH, duration))
+                    .thenReturn(false);
 
             assertThrows(IllegalArgumentException.class, () -> {
                   trainerWorkloadManagementService.deleteTraining(username, year, month, duration);
@@ -132,41 +122,164 @@ public class TrainerWorkloadManagementServiceTest {
       }
 
       /**
-       * Tests retrieving monthly training hours for an existing trainer.
+       * Tests that a batch lookup returns the requested months of each trainer, in request order,
+       * with an explicit entry for trainers that do not exist.
        */
       @Test
-      public void getMonthlyHours_TrainerExists_ReturnsCorrectHours() {
-            String username = "trainer1";
-            int year = 2024;
-            int month = 1;
-            int duration = 5;
-            TrainerWorkload trainerWorkload = new TrainerWorkload();
-            YearSummary existingYearSummary = new YearSummary(year);
-            existingYearSummary.addHours(Month.fromNumber(month), duration);
-            trainerWorkload.getYears().add(existingYearSummary);
+      public void findMonthlyHours_ManyTrainers_ReturnsRangeAndNotFoundEntries() {
+            int[] trainer1Hours = new int[12];
+            trainer1Hours[Month.FEBRUARY.ordinal()] = 4;
+            trainer1Hours[Month.MARCH.ordinal()] = 6;
+            when(trainerWorkloadService.getYearMonthlyHours(Set.of("trainer1", "trainer2"), 2024))
+                    .thenReturn(Map.of("trainer1", trainer1Hours));
+
+            List<TrainerMonthlyHours> result = trainerWorkloadManagementService.findMonthlyHours(
+                    List.of("trainer2", "trainer1", "trainer2"), 2024, 2, 3);
+
+            assertEquals(2, result.size());
+            assertEquals("trainer2", result.get(0).getUsername());
+            assertFalse(result.get(0).isFound());
+            assertNull(result.get(0).getHours());
+            assertEquals("trainer1", result.get(1).getUsername());
+            assertTrue(result.get(1).isFound());
+            assertEquals(Map.of(2, 4, 3, 6), result.get(1).getHours());
+      }
+
+      /**
+       * Tests that the year vector lists all twelve months, with zeros for a year without hours, and the yearly total.
+       */
+      @Test
+      public void findYearHours_TrainerExists_ReturnsMonthVectorAndTotal() {
+            int[] hours = new int[12];
+            hours[Month.JANUARY.ordinal()] = 3;
+            hours[Month.DECEMBER.ordinal()] = 5;
+            when(trainerWorkloadService.getYearsWorkload("trainer1", 2024, 2024)).thenReturn(Optional.of(yearsWorkload(6L, Map.of(2024, hours))));
+            when(trainerWorkloadService.getYearsWorkload("trainer1", 2025, 2025)).thenReturn(Optional.of(yearsWorkload(6L, Map.of())));
+
+            TrainerYearHours yearHours = trainerWorkloadManagementService.findYearHours("trainer1", 2024).orElseThrow();
+            TrainerYearHours emptyYear = trainerWorkloadManagementService.findYearHours("trainer1", 2025).orElseThrow();
+
+            assertEquals(12, yearHours.getMonths().size());
+            assertEquals(3, yearHours.getMonths().get(1));
+            assertEquals(5, yearHours.getMonths().get(12));
+            assertEquals(8, yearHours.getTotal());
+            assertEquals(6L, yearHours.getVersion());
+            assertEquals(12, emptyYear.getMonths().size());
+            assertEquals(0, emptyYear.getTotal());
+      }
 
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.of(trainerWorkload));
+      /**
+       * Tests that a range spanning several years only counts its own months, with one total per year of the range.
+       */
+      @Test
+      public void findHoursRange_SpansYears_SumsOnlyMonthsInRange() {
+            int[] hours2023 = new int[12];
+            hours2023[Month.OCTOBER.ordinal()] = 7;
+            hours2023[Month.NOVEMBER.ordinal()] = 2;
+            int[] hours2025 = new int[12];
+            hours2025[Month.FEBRUARY.ordinal()] = 4;
+            hours2025[Month.MARCH.ordinal()] = 9;
+            when(trainerWorkloadService.getYearsWorkload("trainer1", 2023, 2025))
+                    .thenReturn(Optional.of(yearsWorkload(2L, Map.of(2023, hours2023, 2025, hours2025))));
+
+            TrainerHoursRange range = trainerWorkloadManagementService.findHoursRange("trainer1",
+                    YearMonth.of(2023, 11), YearMonth.of(2025, 2)).orElseThrow();
+
+            assertEquals(Map.of(2023, 2L, 2024, 0L, 2025, 4L), range.getYearlyTotals());
+            assertEquals(6, range.getTotal());
+            assertEquals(2L, range.getVersion());
+      }
 
-            int result = trainerWorkloadManagementService.getMonthlyHours(username, year, month);
+      /**
+       * Tests that a range ending before it starts is rejected.
+       */
+      @Test
+      public void findHoursRange_InvertedRange_ThrowsException() {
+            assertThrows(IllegalArgumentException.class, () -> trainerWorkloadManagementService.findHoursRange("trainer1",
+                    YearMonth.of(2024, 3), YearMonth.of(2024, 2)));
+            verifyNoInteractions(trainerWorkloadService);
+      }
 
-            assertEquals(duration, result);
+      /**
+       * Tests that a full page returns a cursor that continues after its last trainer, in the order of the search,
+       * and that the last page has no cursor.
+       */
+      @Test
+      public void searchTrainers_MorePages_ContinuesAfterLastTrainer() {
+            when(trainerWorkloadService.findByNamePrefix(null, null, "Sm", null, 3))
+                    .thenReturn(List.of(trainer("u1", "Ann", "Smith"), trainer("u2", null, "Smith"), trainer("u3", "Bob", "Smyth")));
+            when(trainerWorkloadService.findByNamePrefix(eq(null), eq(null), eq("Sm"), eq(Arrays.asList("Smith", null, "u2")), eq(3)))
+                    .thenReturn(List.of(trainer("u3", "Bob", "Smyth")));
+
+            TrainerSearchPage first = trainerWorkloadManagementService.searchTrainers(null, null, "Sm", null, 2);
+            TrainerSearchPage second = trainerWorkloadManagementService.searchTrainers(null, null, "Sm", first.getNext(), 2);
+
+            assertEquals(List.of("u1", "u2"), first.getTrainers().stream().map(TrainerSummary::getUsername).toList());
+            assertNotNull(first.getNext());
+            assertEquals(1, second.getTrainers().size());
+            assertNull(second.getNext());
       }
 
       /**
-       * Tests retrieving monthly training hours for a trainer that does not exist, expecting zero hours.
+       * Tests that searches without a prefix, and cursors of a search in another order, are rejected.
        */
       @Test
-      public void getMonthlyHours_TrainerDoesNotExist_ReturnsZero() {
-            String username = "trainer4";
-            int year = 2023;
-            int month = 3;
+      public void searchTrainers_InvalidSearch_ThrowsException() {
+            when(trainerWorkloadService.findByNamePrefix(null, null, "Sm", null, 2))
+                    .thenReturn(List.of(trainer("u1", "Ann", "Smith"), trainer("u2", "Bob", "Smith")));
+            String lastNameCursor = trainerWorkloadManagementService.searchTrainers(null, null, "Sm", null, 1).getNext();
+
+            assertThrows(IllegalArgumentException.class, () -> trainerWorkloadManagementService.searchTrainers(null, null, null, null, 1));
+            assertThrows(IllegalArgumentException.class, () -> trainerWorkloadManagementService.searchTrainers("u", null, null, lastNameCursor, 1));
+            assertThrows(IllegalArgumentException.class, () -> trainerWorkloadManagementService.searchTrainers("u", null, null, "not a cursor", 1));
+      }
+
+      private static TrainerWorkload trainer(String username, String firstName, String lastName) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(username);
+            trainerWorkload.setTrainerFirstName(firstName);
+            trainerWorkload.setTrainerLastName(lastName);
+            return trainerWorkload;
+      }
 
-            when(trainerWorkloadService.getTrainerWorkloadByUsername(username))
-                    .thenReturn(Optional.empty());
+      private static TrainerWorkload yearsWorkload(long version, Map<Integer, int[]> years) {
+            TrainerWorkload trainerWorkload = trainer("trainer1", "John", "Doe");
+            trainerWorkload.setVersion(version);
+            years.forEach((year, monthlyHours) -> trainerWorkload.getYears().put(year, new YearSummary(year, monthlyHours)));
+            return trainerWorkload;
+      }
 
-            int result = trainerWorkloadManagementService.getMonthlyHours(username, year, month);
+      /**
+       * Tests that requests processed over HTTP are timed under the HTTP source, those answered with 400 as rejected.
+       */
+      @Test
+      public void processRequest_AppliedAndRejected_RecordedUnderHttpSource() {
+            TrainingRequest add = trainingRequest("add");
+            TrainingRequest delete = trainingRequest("delete");
+            when(trainerWorkloadService.subtractMonthlyHours("trainer1", 2024, Month.MARCH, 5)).thenReturn(false);
+
+            assertEquals(200, trainerWorkloadManagementService.processRequest(add).getStatusCode().value());
+            assertEquals(400, trainerWorkloadManagementService.processRequest(delete).getStatusCode().value());
+
+            assertEquals(1, processing("add", "success").count());
+            assertEquals(1, processing("delete", "rejected").count());
+      }
+
+      private Timer processing(String action, String outcome) {
+            return meterRegistry.get("trainer.workload.processing")
+                    .tag("source", "http").tag("action", action).tag("outcome", outcome).tag("exception", "none")
+                    .timer();
+      }
 
-            assertEquals(0, result);
+      private static TrainingRequest trainingRequest(String actionType) {
+            TrainingRequest trainingRequest = new TrainingRequest();
+            trainingRequest.setTrainerUsername("trainer1");
+            trainingRequest.setFirstName("John");
+            trainingRequest.setLastName("Doe");
+            trainingRequest.setActive(true);
+            trainingRequest.setTrainingDate(LocalDate.of(2024, 3, 1));
+            trainingRequest.setTrainingDuration(5);
+            trainingRequest.setActionType(actionType);
+            return trainingRequest;
       }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the version checks of the TrainerWorkloadNearCache class.
+ */
+public class TrainerWorkloadNearCacheTest {
+
+      private static final String USERNAME = "trainer1";
+
+      private final TrainerWorkloadNearCache nearCache = new TrainerWorkloadNearCache(new CaffeineCacheManager(CacheConfig.TRAINER_WORKLOADS),
+              60000, 100000);
+
+      /**
+       * Tests that a lookup that read the trainer before an invalidated write is not cached, and a newer one is.
+       */
+      @Test
+      public void put_OlderThanInvalidatedWrite_IsNotCached() {
+            nearCache.invalidate(USERNAME, 5);
+
+            assertFalse(nearCache.put(USERNAME, trainerWorkload(4), nearCache.beginLookup()));
+            assertFalse(nearCache.put(USERNAME, null, nearCache.beginLookup()));
+            assertNull(nearCache.get(USERNAME));
+
+            assertTrue(nearCache.put(USERNAME, trainerWorkload(5), nearCache.beginLookup()));
+            assertEquals(5, ((TrainerWorkload) nearCache.get(USERNAME).get()).getVersion());
+      }
+
+      /**
+       * Tests that an invalidation evicts an older entry, and that a late one keeps a newer entry and the higher floor.
+       */
+      @Test
+      public void invalidate_OutOfOrder_NeverResurrectsOlderVersion() {
+            nearCache.put(USERNAME, trainerWorkload(3), nearCache.beginLookup());
+            assertTrue(nearCache.invalidate(USERNAME, 4));
+            assertNull(nearCache.get(USERNAME));
+
+            nearCache.put(USERNAME, trainerWorkload(6), nearCache.beginLookup());
+            assertFalse(nearCache.invalidate(USERNAME, 5));
+            assertEquals(6, ((TrainerWorkload) nearCache.get(USERNAME).get()).getVersion());
+
+            nearCache.invalidate(USERNAME, 7);
+            nearCache.invalidate(USERNAME, 5);
+            assertFalse(nearCache.put(USERNAME, trainerWorkload(6), nearCache.beginLookup()));
+      }
+
+      /**
+       * Tests that a lookup that began before an eviction is not cached, and one that began after it is.
+       */
+      @Test
+      public void put_LookupBeganBeforeEviction_IsNotCached() {
+            long lookup = nearCache.beginLookup();
+            nearCache.evict(USERNAME);
+
+            assertFalse(nearCache.put(USERNAME, trainerWorkload(3), lookup));
+            assertNull(nearCache.get(USERNAME));
+
+            assertTrue(nearCache.put(USERNAME, trainerWorkload(4), nearCache.beginLookup()));
+      }
+
+      /**
+       * Tests that a lookup that began before the cache was cleared is not cached.
+       */
+      @Test
+      public void put_LookupBeganBeforeClear_IsNotCached() {
+            long lookup = nearCache.beginLookup();
+            nearCache.clear();
+
+            assertFalse(nearCache.put(USERNAME, trainerWorkload(3), lookup));
+      }
+
+      /**
+       * Tests that the cached entry is a copy, not changed by later changes of the TrainerWorkload put.
+       */
+      @Test
+      public void put_CachesCopy() {
+            TrainerWorkload trainerWorkload = trainerWorkload(3);
+            trainerWorkload.getOrCreateYearSummary(2024).addHours(Month.MARCH, 5);
+            nearCache.put(USERNAME, trainerWorkload, nearCache.beginLookup());
+
+            trainerWorkload.getYearSummary(2024).addHours(Month.MARCH, 5);
+            trainerWorkload.setVersion(4);
+
+            TrainerWorkload cached = (TrainerWorkload) nearCache.get(USERNAME).get();
+            assertEquals(3, cached.getVersion());
+            assertEquals(5, cached.getYearSummary(2024).getHours(Month.MARCH));
+      }
+
+      /**
+       * Tests that clearing the cache forgets the floors, so a trainer created again with lower versions is cached.
+       */
+      @Test
+      public void clear_ForgetsVersionFloors() {
+            nearCache.invalidate(USERNAME, 9);
+
+            nearCache.clear();
+
+            assertTrue(nearCache.put(USERNAME, trainerWorkload(1), nearCache.beginLookup()));
+      }
+
+      private static TrainerWorkload trainerWorkload(long version) {
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(USERNAME);
+            trainerWorkload.setVersion(version);
+            return trainerWorkload;
+      }
+}
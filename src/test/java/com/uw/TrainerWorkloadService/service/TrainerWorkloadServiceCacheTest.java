@@ -0,0 +1,200 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.uw.TrainerWorkloadService.config.CacheConfig;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import com.uw.TrainerWorkloadService.model.TrainerWorkload;
+import com.uw.TrainerWorkloadService.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the caching of TrainerWorkload lookups in the TrainerWorkloadService class.
+ */
+@SpringJUnitConfig
+public class TrainerWorkloadServiceCacheTest {
+
+      private static final String USERNAME = "trainer1";
+
+      @Configuration
+      @Import({CacheConfig.class, TrainerWorkloadNearCache.class, TrainerWorkloadService.class, TrainerLeaderboard.class})
+      static class TestConfig {
+            @Bean
+            CacheManager cacheManager() {
+                  return new CaffeineCacheManager(CacheConfig.TRAINER_WORKLOADS);
+            }
+      }
+
+      @MockBean
+      private TrainerWorkloadRepository trainerWorkloadRepository;
+
+      @Autowired
+      private TrainerWorkloadService trainerWorkloadService;
+
+      @Autowired
+      private CacheManager cacheManager;
+
+      @BeforeEach
+      public void setup() {
+            cacheManager.getCache(CacheConfig.TRAINER_WORKLOADS).clear();
+            TrainerWorkload trainerWorkload = new TrainerWorkload();
+            trainerWorkload.setTrainerUsername(USERNAME);
+            when(trainerWorkloadRepository.findByTrainerUsername(USERNAME)).thenReturn(Optional.of(trainerWorkload));
+      }
+
+      /**
+       * Tests that repeated lookups of the same trainer are served from the cache.
+       */
+      @Test
+      public void getTrainerWorkloadByUsername_RepeatedLookup_HitsCache() {
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+            Optional<TrainerWorkload> result = trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+
+            assertTrue(result.isPresent());
+            verify(trainerWorkloadRepository, times(1)).findByTrainerUsername(USERNAME);
+      }
+
+      /**
+       * Tests that changing a trainer workload returned by a lookup does not change the cached one.
+       */
+      @Test
+      public void getTrainerWorkloadByUsername_ModifiedResult_LeavesCacheUnchanged() {
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).get().getOrCreateYearSummary(2024).addHours(Month.MARCH, 5);
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).get().setTrainerStatus(true);
+
+            TrainerWorkload cached = trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).get();
+            assertTrue(cached.getYears().isEmpty());
+            assertFalse(cached.isTrainerStatus());
+      }
+
+      /**
+       * Tests that adding and subtracting hours evicts the trainer from the cache.
+       */
+      @Test
+      public void addAndSubtractMonthlyHours_EvictTrainer() {
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+            trainerWorkloadService.addMonthlyHours(USERNAME, "John", "Doe", true, 2024, Month.JANUARY, 2);
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+            trainerWorkloadService.subtractMonthlyHours(USERNAME, 2024, Month.JANUARY, 1);
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+
+            verify(trainerWorkloadRepository, times(3)).findByTrainerUsername(USERNAME);
+      }
+
+      /**
+       * Tests that saving a trainer workload evicts it from the cache, as the findAndModify raises no mapping event.
+       */
+      @Test
+      public void saveTrainerWorkload_EvictsTrainer() {
+            TrainerWorkload trainerWorkload = trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).get();
+            when(trainerWorkloadRepository.replaceTrainerWorkload(trainerWorkload)).thenReturn(Optional.empty());
+
+            trainerWorkloadService.saveTrainerWorkload(trainerWorkload);
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+
+            verify(trainerWorkloadRepository, times(2)).findByTrainerUsername(USERNAME);
+      }
+
+      /**
+       * Tests that a bulk update evicts every trainer it touches.
+       */
+      @Test
+      public void applyMonthlyHoursDeltas_EvictsTouchedTrainers() {
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+            MonthlyHoursDelta delta = new MonthlyHoursDelta(USERNAME, 2024, Month.JANUARY);
+            delta.subtract(1);
+
+            trainerWorkloadService.applyMonthlyHoursDeltas(List.of(delta));
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+
+            verify(trainerWorkloadRepository, times(2)).findByTrainerUsername(USERNAME);
+      }
+
+      /**
+       * Tests that the year workload is read from a cached TrainerWorkload without querying the database.
+       */
+      @Test
+      public void getYearWorkload_CachedTrainer_SkipsDatabase() {
+            TrainerWorkload cached = trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME).get();
+
+            Optional<TrainerWorkload> trainerWorkload = trainerWorkloadService.getYearWorkload(USERNAME, 2024);
+
+            assertEquals(cached.getVersion(), trainerWorkload.get().getVersion());
+            verify(trainerWorkloadRepository, never()).findYearWorkload(anyString(), anyInt());
+      }
+
+      /**
+       * Tests that the year workload of a trainer that is not cached is read with the projection query.
+       */
+      @Test
+      public void getYearWorkload_NotCached_UsesProjection() {
+            TrainerWorkload projected = new TrainerWorkload();
+            projected.setVersion(4);
+            when(trainerWorkloadRepository.findYearWorkload(USERNAME, 2024)).thenReturn(Optional.of(projected));
+
+            Optional<TrainerWorkload> trainerWorkload = trainerWorkloadService.getYearWorkload(USERNAME, 2024);
+
+            assertEquals(Optional.of(projected), trainerWorkload);
+            verify(trainerWorkloadRepository, never()).findByTrainerUsername(USERNAME);
+      }
+
+      /**
+       * Tests that the version is read from a cached TrainerWorkload, and with the version-only query otherwise.
+       */
+      @Test
+      public void getVersion_CachedOrNot_AvoidsLoadingTheDocument() {
+            when(trainerWorkloadRepository.findVersion(USERNAME)).thenReturn(Optional.of(2L));
+            assertEquals(Optional.of(2L), trainerWorkloadService.getVersion(USERNAME));
+            verify(trainerWorkloadRepository, never()).findByTrainerUsername(USERNAME);
+
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+            assertEquals(Optional.of(0L), trainerWorkloadService.getVersion(USERNAME));
+            verify(trainerWorkloadRepository, times(1)).findVersion(USERNAME);
+      }
+
+      /**
+       * Tests that lookups without a username bypass the cache.
+       */
+      @Test
+      public void getTrainerWorkloadByUsername_NullUsername_BypassesCache() {
+            trainerWorkloadService.getTrainerWorkloadByUsername(null);
+            trainerWorkloadService.getTrainerWorkloadByUsername(null);
+
+            verify(trainerWorkloadRepository, times(2)).findByTrainerUsername(null);
+            Cache<?, ?> nativeCache = (Cache<?, ?>) cacheManager.getCache(CacheConfig.TRAINER_WORKLOADS).getNativeCache();
+            assertEquals(0, nativeCache.estimatedSize());
+      }
+
+      /**
+       * Tests that a batch read takes cached trainers from the cache and queries only the others.
+       */
+      @Test
+      public void getYearMonthlyHours_CachedTrainer_QueriesOnlyUncached() {
+            trainerWorkloadService.getTrainerWorkloadByUsername(USERNAME);
+            when(trainerWorkloadRepository.findYearMonthlyHours(List.of("trainer2"), 2024)).thenReturn(Map.of());
+
+            Map<String, int[]> result = trainerWorkloadService.getYearMonthlyHours(List.of(USERNAME, "trainer2"), 2024);
+
+            assertEquals(1, result.size());
+            assertEquals(0, result.get(USERNAME)[Month.JANUARY.ordinal()]);
+            verify(trainerWorkloadRepository).findYearMonthlyHours(List.of("trainer2"), 2024);
+      }
+}
@@ -141,7 +141,7 @@ public class TrainerWorkloadServiceIntegrationTest {
 
             // Assert
             Optional<TrainerWorkload> trainerWorkloadOpt = trainerWorkloadService.getTrainerWorkloadByUsername(username);
-            YearSummary addedYear = trainerWorkloadOpt.get().getYears().stream().filter(y -> y.getYear() == year).findFirst().orElse(null);
+            YearSummary addedYear = trainerWorkloadOpt.get().getYearSummary(year);
             assertNotNull(addedYear, "Expected year summary to be created for the new year");
       }
 
@@ -164,7 +164,7 @@ public class TrainerWorkloadServiceIntegrationTest {
 
             // Assert
             Optional<TrainerWorkload> trainerWorkloadOpt = trainerWorkloadService.getTrainerWorkloadByUsername(username);
-            YearSummary addedYear = trainerWorkloadOpt.get().getYears().stream().filter(y -> y.getYear() == year).findFirst().orElse(null);
+            YearSummary addedYear = trainerWorkloadOpt.get().getYearSummary(year);
             assertEquals(duration, addedYear.getHours(Month.fromNumber(month)), "Expected hours to match the added duration");
       }
 
@@ -0,0 +1,78 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TrainingRequestBatchListener class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainingRequestBatchListenerTest {
+
+      @Mock
+      private TrainerWorkloadService trainerWorkloadService;
+
+      @Mock
+      private ConnectionFactory connectionFactory;
+
+      private TrainingRequestBatchListener listener;
+
+      @BeforeEach
+      public void setUp() {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            listener = new TrainingRequestBatchListener(trainerWorkloadService, new TrainingRequestReader(new ObjectMapper().findAndRegisterModules()),
+                    connectionFactory, meterRegistry, 1, 0, WorkerThreads.platform(), new TrainingPipelineMetrics(meterRegistry));
+      }
+
+      /**
+       * Tests that stopping a listener that was never started does nothing.
+       */
+      @Test
+      public void stop_NotStarted_DoesNothing() {
+            assertDoesNotThrow(() -> listener.stop());
+            assertFalse(listener.isRunning());
+      }
+
+      /**
+       * Tests that consecutive batches are received by the same consumer, each committed after its write.
+       */
+      @Test
+      public void start_ConsecutiveBatches_ShareOneConsumer() throws Exception {
+            Connection connection = mock(Connection.class);
+            Session session = mock(Session.class);
+            MessageConsumer consumer = mock(MessageConsumer.class);
+            TextMessage message = mock(TextMessage.class);
+            when(connectionFactory.createConnection()).thenReturn(connection);
+            when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+            when(session.createConsumer(any())).thenReturn(consumer);
+            when(message.getText()).thenReturn("{\"trainerUsername\": \"trainer1\", \"firstName\": \"John\", \"lastName\": \"Doe\", "
+                    + "\"active\": true, \"trainingDate\": \"2024-03-01\", \"trainingDuration\": 5, \"actionType\": \"add\"}");
+            when(consumer.receive(anyLong())).thenReturn(message, message, message, null);
+
+            listener.start();
+            verify(session, timeout(5000).times(3)).commit();
+            listener.stop();
+
+            verify(trainerWorkloadService, times(3)).applyMonthlyHoursDeltas(any());
+            verify(session, times(1)).createConsumer(any());
+      }
+}
@@ -0,0 +1,133 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uw.TrainerWorkloadService.dto.BulkIngestionResult;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TrainingRequestBulkIngestionService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainingRequestBulkIngestionServiceTest {
+
+      @Mock
+      private TrainerWorkloadService trainerWorkloadService;
+
+      private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+      private TrainingRequestBulkIngestionService bulkIngestionService;
+
+      @BeforeEach
+      public void setUp() {
+            bulkIngestionService = new TrainingRequestBulkIngestionService(trainerWorkloadService,
+                    new ObjectMapper().findAndRegisterModules(), 2, 100, new TrainingPipelineMetrics(meterRegistry));
+      }
+
+      /**
+       * Tests that a JSON array is applied in chunks and that a record that cannot be bound
+       * or is invalid is rejected without stopping the rest.
+       */
+      @Test
+      @SuppressWarnings("unchecked")
+      public void ingestJsonArray_MixedRecords_AppliesValidRecordsInChunks() throws Exception {
+            String body = "[" + record("trainer1", "2024-03-01", 5, "add") + ","
+                    + "{\"trainerUsername\": \"trainer1\", \"trainingDate\": \"not a date\"},"
+                    + record("trainer1", "2024-03-02", 2, "add") + ","
+                    + record("trainer2", "2024-03-02", 0, "add") + ","
+                    + record("trainer2", "2024-04-02", 1, "delete") + "]";
+
+            BulkIngestionResult result = bulkIngestionService.ingestJsonArray(stream(body));
+
+            assertEquals(5, result.getReceived());
+            assertEquals(3, result.getApplied());
+            assertEquals(2, result.getRejected());
+            assertEquals(List.of(1, 3), result.getErrors().stream().map(BulkIngestionResult.RecordError::index).toList());
+            assertNull(result.getMessage());
+
+            ArgumentCaptor<Collection<MonthlyHoursDelta>> deltas = ArgumentCaptor.forClass(Collection.class);
+            verify(trainerWorkloadService, times(2)).applyMonthlyHoursDeltas(deltas.capture());
+            // The first chunk holds both trainer1 records for March, coalesced into one delta
+            assertEquals(1, deltas.getAllValues().get(0).size());
+            assertEquals(7, deltas.getAllValues().get(0).iterator().next().getDelta());
+      }
+
+      /**
+       * Tests that malformed JSON stops the ingestion and keeps the records applied before it.
+       */
+      @Test
+      public void ingestJsonArray_MalformedJson_StopsAndKeepsAppliedRecords() throws Exception {
+            String body = "[" + record("trainer1", "2024-03-01", 5, "add") + ", {\"trainerUsername\": ";
+
+            BulkIngestionResult result = bulkIngestionService.ingestJsonArray(stream(body));
+
+            assertEquals(1, result.getReceived());
+            assertEquals(1, result.getApplied());
+            assertNotNull(result.getMessage());
+            verify(trainerWorkloadService).applyMonthlyHoursDeltas(anyCollection());
+      }
+
+      /**
+       * Tests that a malformed NDJSON line only rejects that record and blank lines are skipped.
+       */
+      @Test
+      public void ingestNdjson_MalformedLine_RejectsOnlyThatRecord() throws Exception {
+            String body = record("trainer1", "2024-03-01", 5, "add") + "\n"
+                    + "{not json\n"
+                    + "\n"
+                    + record("trainer1", "2024-03-02", 2, "delete") + "\n";
+
+            BulkIngestionResult result = bulkIngestionService.ingestNdjson(stream(body));
+
+            assertEquals(3, result.getReceived());
+            assertEquals(2, result.getApplied());
+            assertEquals(1, result.getRejected());
+            assertEquals(1, result.getErrors().get(0).index());
+      }
+
+      /**
+       * Tests that a failed write rejects the records of its chunk, the listed errors are capped
+       * and the write is timed as failed.
+       */
+      @Test
+      public void ingestNdjson_WriteFails_RejectsChunkAndCapsErrors() throws Exception {
+            bulkIngestionService = new TrainingRequestBulkIngestionService(trainerWorkloadService,
+                    new ObjectMapper().findAndRegisterModules(), 10, 1, new TrainingPipelineMetrics(meterRegistry));
+            doThrow(new IllegalStateException("Mongo unavailable")).when(trainerWorkloadService).applyMonthlyHoursDeltas(anyCollection());
+            String body = record("trainer1", "2024-03-01", 5, "add") + "\n" + record("trainer2", "2024-03-01", 5, "add");
+
+            BulkIngestionResult result = bulkIngestionService.ingestNdjson(stream(body));
+
+            assertEquals(0, result.getApplied());
+            assertEquals(2, result.getRejected());
+            assertEquals(1, result.getErrors().size());
+            assertTrue(result.isErrorsTruncated());
+            assertEquals(1, meterRegistry.get("trainer.workload.processing").tag("source", "bulk").tag("action", "batch")
+                    .tag("outcome", "failed").tag("exception", "IllegalStateException").timer().count());
+      }
+
+      private static String record(String username, String date, int duration, String actionType) {
+            return "{\"trainerUsername\": \"" + username + "\", \"firstName\": \"John\", \"lastName\": \"Doe\", "
+                    + "\"trainingDate\": \"" + date + "\", \"trainingDuration\": " + duration + ", \"actionType\": \"" + actionType + "\"}";
+      }
+
+      private static InputStream stream(String body) {
+            return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+      }
+}
@@ -0,0 +1,78 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.model.Month;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TrainingRequestCoalescer class.
+ */
+public class TrainingRequestCoalescerTest {
+
+      /**
+       * Tests that requests for the same trainer and month are folded into a single delta.
+       */
+      @Test
+      public void accept_SameTrainerAndMonth_CoalescesIntoOneDelta() {
+            TrainingRequestCoalescer coalescer = new TrainingRequestCoalescer();
+
+            coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 1), 5, "add"));
+            coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 20), 2, "add"));
+            coalescer.accept(request("trainer1", LocalDate.of(2024, 4, 2), 1, "add"));
+            coalescer.accept(request("trainer2", LocalDate.of(2024, 3, 2), 4, "delete"));
+
+            List<MonthlyHoursDelta> deltas = List.copyOf(coalescer.getDeltas());
+            assertEquals(4, coalescer.getAccepted());
+            assertEquals(3, deltas.size());
+            assertEquals(Month.MARCH, deltas.get(0).getMonth());
+            assertEquals(7, deltas.get(0).getDelta());
+            assertTrue(deltas.get(0).isCreateIfMissing());
+            assertFalse(deltas.get(2).isCreateIfMissing());
+      }
+
+      /**
+       * Tests that a coalesced delta gives the same result as applying each request in order,
+       * including the floor at zero of deletes.
+       */
+      @Test
+      public void accept_AddsAndDeletes_MatchSequentialApplication() {
+            TrainingRequestCoalescer coalescer = new TrainingRequestCoalescer();
+
+            coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 1), 5, "add"));
+            coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 1), 10, "delete"));
+            coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 1), 3, "add"));
+
+            MonthlyHoursDelta delta = coalescer.getDeltas().iterator().next();
+            // 4 + 5 = 9, max(0, 9 - 10) = 0, 0 + 3 = 3
+            assertEquals(3, delta.applyTo(4));
+            // 20 + 5 = 25, 25 - 10 = 15, 15 + 3 = 18
+            assertEquals(18, delta.applyTo(20));
+            assertEquals(3, delta.applyTo(0));
+      }
+
+      /**
+       * Tests that invalid requests are rejected and not coalesced.
+       */
+      @Test
+      public void accept_InvalidRequests_AreRejected() {
+            TrainingRequestCoalescer coalescer = new TrainingRequestCoalescer();
+
+            assertFalse(coalescer.accept(request(null, LocalDate.of(2024, 3, 1), 5, "add")));
+            assertFalse(coalescer.accept(request("trainer1", null, 5, "add")));
+            assertFalse(coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 1), -1, "add")));
+            assertFalse(coalescer.accept(request("trainer1", LocalDate.of(2024, 3, 1), 5, "update")));
+
+            assertEquals(0, coalescer.getAccepted());
+            assertTrue(coalescer.getDeltas().isEmpty());
+      }
+
+      private TrainingRequest request(String username, LocalDate date, int duration, String actionType) {
+            return new TrainingRequest(username, "John", "Doe", true, date, duration, actionType);
+      }
+}
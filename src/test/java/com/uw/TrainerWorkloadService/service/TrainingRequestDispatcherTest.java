@@ -0,0 +1,99 @@
+package com.uw.TrainerWorkloadService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TrainingRequestDispatcher class.
+ */
+public class TrainingRequestDispatcherTest {
+
+      private TrainingRequestDispatcher dispatcher;
+
+      @AfterEach
+      public void tearDown() {
+            dispatcher.shutdown();
+      }
+
+      /**
+       * Tests that the tasks of each trainer run in the order they were dispatched.
+       */
+      @Test
+      public void dispatch_ManyTrainers_KeepsPerTrainerOrder() {
+            dispatcher = new TrainingRequestDispatcher(4, 16, new SimpleMeterRegistry());
+            Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+
+            for (int i = 0; i < 1000; i++) {
+                  String username = "trainer" + (i % 10);
+                  int sequence = i;
+                  dispatcher.dispatch(username, () ->
+                          processed.computeIfAbsent(username, u -> Collections.synchronizedList(new ArrayList<>())).add(sequence));
+            }
+            dispatcher.shutdown();
+
+            assertEquals(10, processed.size());
+            processed.values().forEach(sequences -> {
+                  assertEquals(100, sequences.size());
+                  for (int i = 1; i < sequences.size(); i++) {
+                        assertTrue(sequences.get(i - 1) < sequences.get(i), "Expected tasks of a trainer to run in order");
+                  }
+            });
+      }
+
+      /**
+       * Tests that a trainer is always mapped to the same lane.
+       */
+      @Test
+      public void laneOf_SameTrainer_ReturnsSameLane() {
+            dispatcher = new TrainingRequestDispatcher(8, 16, new SimpleMeterRegistry());
+
+            assertEquals(dispatcher.laneOf("trainer1"), dispatcher.laneOf("trainer1"));
+            assertTrue(dispatcher.laneOf("trainer1") >= 0 && dispatcher.laneOf("trainer1") < 8);
+            assertEquals(0, dispatcher.laneOf(null));
+      }
+
+      /**
+       * Tests that dispatching to a full lane blocks until there is room.
+       */
+      @Test
+      public void dispatch_FullLane_BlocksCaller() throws InterruptedException {
+            dispatcher = new TrainingRequestDispatcher(1, 1, new SimpleMeterRegistry());
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicBoolean thirdDispatched = new AtomicBoolean();
+
+            dispatcher.dispatch("trainer1", () -> awaitQuietly(release)); // running
+            dispatcher.dispatch("trainer1", () -> { });                    // queued, lane is now full
+            Thread producer = new Thread(() -> {
+                  dispatcher.dispatch("trainer1", () -> { });
+                  thirdDispatched.set(true);
+            });
+            producer.start();
+
+            producer.join(200);
+            assertFalse(thirdDispatched.get(), "Expected the caller to block while the lane is full");
+
+            release.countDown();
+            producer.join(TimeUnit.SECONDS.toMillis(5));
+            assertTrue(thirdDispatched.get(), "Expected the caller to resume once the lane has room");
+      }
+
+      private static void awaitQuietly(CountDownLatch latch) {
+            try {
+                  latch.await();
+            } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+            }
+      }
+}
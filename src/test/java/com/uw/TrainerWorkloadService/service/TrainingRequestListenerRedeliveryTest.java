@@ -0,0 +1,176 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.MessageListener;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQSession;
+import org.apache.activemq.RedeliveryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jms.connection.SingleConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the acknowledgement of training.queue messages by the TrainingRequestListener class
+ * against an embedded ActiveMQ broker, with a listener container configured like JmsConfig configures it.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainingRequestListenerRedeliveryTest {
+
+      private static final String QUEUE = "training.queue";
+      private static final int TRAINERS = 2;
+      private static final int EVENTS_PER_TRAINER = 50;
+
+      @Mock
+      private TrainerWorkloadManagementService trainerWorkloadManagementService;
+
+      private ActiveMQConnectionFactory connectionFactory;
+      private TrainingRequestDispatcher dispatcher;
+      private DefaultMessageListenerContainer container;
+
+      @BeforeEach
+      public void setUp() {
+            connectionFactory = new ActiveMQConnectionFactory("vm://redelivery?broker.persistent=false&broker.useJmx=false");
+            RedeliveryPolicy redeliveryPolicy = new RedeliveryPolicy();
+            redeliveryPolicy.setInitialRedeliveryDelay(0);
+            redeliveryPolicy.setRedeliveryDelay(0);
+            connectionFactory.setRedeliveryPolicy(redeliveryPolicy);
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            dispatcher = new TrainingRequestDispatcher(2, 16, meterRegistry);
+            TrainingRequestListener listener = new TrainingRequestListener(trainerWorkloadManagementService, dispatcher,
+                    new TrainingRequestReader(new ObjectMapper().findAndRegisterModules()), new TrainingPipelineMetrics(meterRegistry),
+                    0, Optional.empty());
+
+            container = new DefaultMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.setDestinationName(QUEUE);
+            container.setSessionTransacted(false);
+            container.setSessionAcknowledgeMode(ActiveMQSession.INDIVIDUAL_ACKNOWLEDGE);
+            container.setConcurrency("1");
+            container.setMessageListener((MessageListener) listener::receiveMessage);
+            container.afterPropertiesSet();
+      }
+
+      @AfterEach
+      public void tearDown() {
+            container.shutdown();
+            dispatcher.shutdown();
+      }
+
+      /**
+       * Tests that a message whose processing fails on the database is retried, applied on the next attempt
+       * and acknowledged, so nothing is left on the queue.
+       */
+      @Test
+      public void receiveMessage_ServiceFailure_RetriedAndAcknowledged() {
+            when(trainerWorkloadManagementService.addTraining(any(TrainingRequest.class)))
+                    .thenThrow(new DataAccessResourceFailureException("Mongo unavailable"))
+                    .thenReturn("Training added successfully");
+            container.start();
+
+            new JmsTemplate(connectionFactory).send(QUEUE, session -> session.createTextMessage(message("trainer1", "add", 5)));
+
+            verify(trainerWorkloadManagementService, timeout(10000).times(2)).addTraining(any(TrainingRequest.class));
+            assertEquals(0, queued());
+      }
+
+      /**
+       * Tests that an invalid request is acknowledged and not redelivered.
+       */
+      @Test
+      public void receiveMessage_RejectedRequest_IsNotRedelivered() throws Exception {
+            when(trainerWorkloadManagementService.deleteTraining(any(TrainingRequest.class)))
+                    .thenThrow(new IllegalArgumentException("Training not found"));
+            container.start();
+
+            new JmsTemplate(connectionFactory).send(QUEUE, session -> session.createTextMessage(
+                    "{\"trainerUsername\": \"trainer1\", \"trainingDate\": \"2024-03-01\", \"trainingDuration\": 5, \"actionType\": \"delete\"}"));
+
+            verify(trainerWorkloadManagementService, timeout(10000)).deleteTraining(any(TrainingRequest.class));
+            Thread.sleep(500);
+            verify(trainerWorkloadManagementService, times(1)).deleteTraining(any(TrainingRequest.class));
+            assertEquals(0, queued());
+      }
+
+      /**
+       * Tests that interleaved adds and deletes of the same trainers, which do not commute because a deletion stops
+       * at zero, are applied in the order they were sent while two lanes run different trainers at the same time.
+       */
+      @Test
+      public void receiveMessage_InterleavedAddsAndDeletes_AppliedInOrderPerTrainer() throws Exception {
+            Map<String, Integer> hours = new ConcurrentHashMap<>();
+            CountDownLatch applied = new CountDownLatch(TRAINERS * EVENTS_PER_TRAINER);
+            Random lanePauses = new Random(7);
+            when(trainerWorkloadManagementService.addTraining(any(TrainingRequest.class))).thenAnswer(invocation -> {
+                  TrainingRequest trainingRequest = invocation.getArgument(0);
+                  Thread.sleep(lanePauses.nextInt(3));
+                  hours.merge(trainingRequest.getTrainerUsername(), trainingRequest.getTrainingDuration(), Integer::sum);
+                  applied.countDown();
+                  return "Training added successfully";
+            });
+            when(trainerWorkloadManagementService.deleteTraining(any(TrainingRequest.class))).thenAnswer(invocation -> {
+                  TrainingRequest trainingRequest = invocation.getArgument(0);
+                  Thread.sleep(lanePauses.nextInt(3));
+                  hours.merge(trainingRequest.getTrainerUsername(), 0,
+                          (current, ignored) -> Math.max(0, current - trainingRequest.getTrainingDuration()));
+                  applied.countDown();
+                  return "Training deleted successfully";
+            });
+            Random random = new Random(42);
+            Map<String, Integer> expected = new HashMap<>();
+            // Keeps the embedded broker, and so the queued events, alive until the listener connects
+            SingleConnectionFactory sender = new SingleConnectionFactory(connectionFactory);
+            JmsTemplate jmsTemplate = new JmsTemplate(sender);
+            for (int event = 0; event < TRAINERS * EVENTS_PER_TRAINER; event++) {
+                  String username = "trainer" + event % TRAINERS;
+                  boolean add = random.nextBoolean();
+                  int duration = 1 + random.nextInt(8);
+                  expected.merge(username, add ? duration : 0, (current, ignored) -> add ? current + duration : Math.max(0, current - duration));
+                  jmsTemplate.send(QUEUE, session -> session.createTextMessage(message(username, add ? "add" : "delete", duration)));
+            }
+            // Queued before the listener starts, so the consumer receives consecutive events of a trainer back to back
+            container.start();
+
+            assertTrue(applied.await(20, TimeUnit.SECONDS));
+            sender.destroy();
+            assertEquals(expected, hours);
+            assertEquals(0, queued());
+      }
+
+      // Messages the broker would still deliver, including those left unacknowledged by the stopped container
+      private int queued() {
+            container.shutdown();
+            dispatcher.shutdown();
+            Integer queued = new JmsTemplate(connectionFactory).browse(QUEUE,
+                    (session, browser) -> Collections.list(browser.getEnumeration()).size());
+            return queued;
+      }
+
+      private static String message(String username, String actionType, int duration) {
+            return "{\"trainerUsername\": \"" + username + "\", \"firstName\": \"John\", \"lastName\": \"Doe\", \"active\": true, "
+                    + "\"trainingDate\": \"2024-03-01\", \"trainingDuration\": " + duration + ", \"actionType\": \"" + actionType + "\"}";
+      }
+}
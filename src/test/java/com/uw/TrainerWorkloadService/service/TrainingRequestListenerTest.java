@@ -0,0 +1,193 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Message;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the metrics recorded by the TrainingRequestListener class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainingRequestListenerTest {
+
+      @Mock
+      private TrainerWorkloadManagementService trainerWorkloadManagementService;
+
+      @Mock
+      private TrainingRequestDispatcher trainingRequestDispatcher;
+
+      private SimpleMeterRegistry meterRegistry;
+      private TrainingRequestListener trainingRequestListener;
+
+      @BeforeEach
+      public void setUp() {
+            meterRegistry = new SimpleMeterRegistry();
+            trainingRequestListener = new TrainingRequestListener(trainerWorkloadManagementService, trainingRequestDispatcher,
+                    new TrainingRequestReader(new ObjectMapper().findAndRegisterModules()), new TrainingPipelineMetrics(meterRegistry),
+                    0, Optional.empty());
+      }
+
+      /**
+       * Tests that an applied message records its age, its deserialization and a successful processing,
+       * and is no longer counted as in flight once processed.
+       */
+      @Test
+      public void receiveMessage_ValidMessage_RecordsSuccess() throws Exception {
+            doAnswer(invocation -> {
+                  assertEquals(1, meterRegistry.get("trainer.workload.inflight").gauge().value());
+                  return runInLane(invocation.getArgument(1));
+            }).when(trainingRequestDispatcher).dispatch(eq("trainer1"), any());
+
+            trainingRequestListener.receiveMessage(message(message("add"), System.currentTimeMillis() - 1000));
+
+            verify(trainerWorkloadManagementService).addTraining(any(TrainingRequest.class));
+            assertEquals(1, meterRegistry.get("trainer.workload.jms.message.age").timer().count());
+            assertTrue(meterRegistry.get("trainer.workload.jms.message.age").timer().max(TimeUnit.MILLISECONDS) >= 1000);
+            assertEquals(1, meterRegistry.get("trainer.workload.deserialization").tag("outcome", "success").timer().count());
+            assertEquals(1, processing("add", "success", "none").count());
+            assertEquals(1, meterRegistry.get("trainer.workload.jms.end.to.end").timer().count());
+            assertEquals(0, meterRegistry.get("trainer.workload.inflight").gauge().value());
+      }
+
+      /**
+       * Tests that a request rejected by the management service is recorded with its outcome and exception.
+       */
+      @Test
+      public void process_RejectedRequest_RecordsRejection() throws Exception {
+            doThrow(new IllegalArgumentException("Training not found"))
+                    .when(trainerWorkloadManagementService).deleteTraining(any(TrainingRequest.class));
+            doAnswer(invocation -> runInLane(invocation.getArgument(1))).when(trainingRequestDispatcher).dispatch(eq("trainer1"), any());
+
+            trainingRequestListener.receiveMessage(message(message("delete"), 0));
+
+            assertEquals(1, processing("delete", "rejected", "IllegalArgumentException").count());
+            assertEquals(0, meterRegistry.get("trainer.workload.jms.message.age").timer().count());
+      }
+
+      /**
+       * Tests that a request that fails for another reason than being invalid is retried in its lane
+       * and its message acknowledged once it is applied.
+       */
+      @Test
+      public void receiveMessage_ServiceFailure_RetriedBeforeAcknowledging() throws Exception {
+            doThrow(new DataAccessResourceFailureException("Mongo unavailable")).doReturn("Training added successfully")
+                    .when(trainerWorkloadManagementService).addTraining(any(TrainingRequest.class));
+            doAnswer(invocation -> runInLane(invocation.getArgument(1))).when(trainingRequestDispatcher).dispatch(eq("trainer1"), any());
+            AtomicInteger acknowledged = new AtomicInteger();
+
+            trainingRequestListener.receiveMessage(message(message("add"), 0, acknowledged));
+
+            verify(trainerWorkloadManagementService, times(2)).addTraining(any(TrainingRequest.class));
+            assertEquals(1, acknowledged.get());
+            assertEquals(1, processing("add", "failed", "DataAccessResourceFailureException").count());
+            assertEquals(1, processing("add", "success", "none").count());
+            assertEquals(0, meterRegistry.get("trainer.workload.inflight").gauge().value());
+      }
+
+      /**
+       * Tests that the listener returns as soon as the request is dispatched, and that the message is acknowledged
+       * by its lane once the request is applied.
+       */
+      @Test
+      public void receiveMessage_Dispatched_AcknowledgedByLane() throws Exception {
+            FutureTask<?>[] lane = new FutureTask<?>[1];
+            doAnswer(invocation -> {
+                  lane[0] = new FutureTask<>(invocation.getArgument(1), null);
+                  return lane[0];
+            }).when(trainingRequestDispatcher).dispatch(eq("trainer1"), any());
+            AtomicInteger acknowledged = new AtomicInteger();
+
+            trainingRequestListener.receiveMessage(message(message("add"), 0, acknowledged));
+
+            verifyNoInteractions(trainerWorkloadManagementService);
+            assertEquals(0, acknowledged.get());
+            assertEquals(1, meterRegistry.get("trainer.workload.inflight").gauge().value());
+
+            lane[0].run();
+
+            verify(trainerWorkloadManagementService).addTraining(any(TrainingRequest.class));
+            assertEquals(1, acknowledged.get());
+      }
+
+      /**
+       * Tests that a message that cannot be read is recorded as a failed deserialization, acknowledged and never dispatched.
+       */
+      @Test
+      public void receiveMessage_MalformedMessage_RecordsDeserializationFailure() throws Exception {
+            AtomicInteger acknowledged = new AtomicInteger();
+
+            trainingRequestListener.receiveMessage(message("{\"trainerUsername\": ", 0, acknowledged));
+
+            assertEquals(1, meterRegistry.get("trainer.workload.deserialization").tag("outcome", "failed").timer().count());
+            assertEquals(1, acknowledged.get());
+            verifyNoInteractions(trainingRequestDispatcher);
+            assertEquals(0, meterRegistry.get("trainer.workload.inflight").gauge().value());
+      }
+
+      /**
+       * Tests that requests are handed to the write-behind buffer instead of being applied when it is enabled.
+       */
+      @Test
+      public void process_WriteBehindEnabled_HandsRequestToBuffer() throws Exception {
+            TrainingRequestWriteBehindBuffer writeBehindBuffer = mock(TrainingRequestWriteBehindBuffer.class);
+            TrainingRequestListener listener = new TrainingRequestListener(trainerWorkloadManagementService, trainingRequestDispatcher,
+                    new TrainingRequestReader(new ObjectMapper().findAndRegisterModules()), new TrainingPipelineMetrics(meterRegistry), 0, Optional.of(writeBehindBuffer));
+            doAnswer(invocation -> runInLane(invocation.getArgument(1))).when(trainingRequestDispatcher).dispatch(eq("trainer1"), any());
+
+            listener.receiveMessage(message(message("add"), 0));
+
+            verify(writeBehindBuffer).accept(any(TrainingRequest.class));
+            verifyNoInteractions(trainerWorkloadManagementService);
+            assertEquals(1, processing("add", "success", "none").count());
+      }
+
+      // Runs the task like a dispatch lane does, keeping its exception in the returned future
+      private static Future<?> runInLane(Runnable task) {
+            FutureTask<?> future = new FutureTask<>(task, null);
+            future.run();
+            return future;
+      }
+
+      private Timer processing(String action, String outcome, String exception) {
+            return meterRegistry.get("trainer.workload.processing")
+                    .tag("source", "jms").tag("action", action).tag("outcome", outcome).tag("exception", exception)
+                    .timer();
+      }
+
+      private static Message message(String text, long timestamp) throws Exception {
+            return message(text, timestamp, new AtomicInteger());
+      }
+
+      private static Message message(String text, long timestamp, AtomicInteger acknowledged) throws Exception {
+            ActiveMQTextMessage message = new ActiveMQTextMessage();
+            message.setText(text);
+            message.setJMSTimestamp(timestamp);
+            message.setAcknowledgeCallback(acknowledged::incrementAndGet);
+            return message;
+      }
+
+      private static String message(String actionType) {
+            return "{\"trainerUsername\": \"trainer1\", \"firstName\": \"John\", \"lastName\": \"Doe\", \"active\": true, "
+                    + "\"trainingDate\": \"2024-03-01\", \"trainingDuration\": 5, \"actionType\": \"" + actionType + "\"}";
+      }
+}
@@ -0,0 +1,106 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQMapMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TrainingRequestReader class.
+ */
+public class TrainingRequestReaderTest {
+
+      private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+      private final TrainingRequestReader trainingRequestReader = new TrainingRequestReader(objectMapper);
+
+      /**
+       * Tests that a text message is read as JSON.
+       */
+      @Test
+      public void read_TextMessage_ReadsJson() throws Exception {
+            ActiveMQTextMessage message = new ActiveMQTextMessage();
+            message.setText(objectMapper.writeValueAsString(trainingRequest()));
+
+            assertTrainingRequest(trainingRequestReader.read(message));
+      }
+
+      /**
+       * Tests that a bytes message without a content type is read as JSON.
+       */
+      @Test
+      public void read_BytesMessageWithoutContentType_ReadsJson() throws Exception {
+            assertTrainingRequest(trainingRequestReader.read(bytesMessage(objectMapper.writeValueAsBytes(trainingRequest()), null)));
+      }
+
+      /**
+       * Tests that a Smile bytes message is read with the Smile format.
+       */
+      @Test
+      public void read_SmileBytesMessage_ReadsSmile() throws Exception {
+            byte[] payload = objectMapper.copyWith(new SmileFactory()).writeValueAsBytes(trainingRequest());
+
+            assertTrainingRequest(trainingRequestReader.read(bytesMessage(payload, TrainingRequestReader.SMILE)));
+      }
+
+      /**
+       * Tests that a CBOR bytes message is read with the CBOR format, ignoring content type parameters.
+       */
+      @Test
+      public void read_CborBytesMessage_ReadsCbor() throws Exception {
+            byte[] payload = objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(trainingRequest());
+
+            assertTrainingRequest(trainingRequestReader.read(bytesMessage(payload, TrainingRequestReader.CBOR + "; version=1")));
+      }
+
+      /**
+       * Tests that unsupported content types and message types are rejected.
+       */
+      @Test
+      public void read_UnsupportedContentType_ThrowsException() throws Exception {
+            assertThrows(IllegalArgumentException.class,
+                    () -> trainingRequestReader.read(bytesMessage(new byte[] {1}, "application/xml")));
+            assertThrows(IllegalArgumentException.class,
+                    () -> trainingRequestReader.read(bytesMessage(new byte[] {1}, "not a content type")));
+            assertThrows(IllegalArgumentException.class, () -> trainingRequestReader.read(new ActiveMQMapMessage()));
+      }
+
+      private static ActiveMQBytesMessage bytesMessage(byte[] payload, String contentType) throws Exception {
+            ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+            message.writeBytes(payload);
+            if (contentType != null) {
+                  message.setStringProperty(TrainingRequestReader.CONTENT_TYPE_PROPERTY, contentType);
+            }
+            // Makes the body readable, as it is on a received message
+            message.reset();
+            return message;
+      }
+
+      private static TrainingRequest trainingRequest() {
+            TrainingRequest trainingRequest = new TrainingRequest();
+            trainingRequest.setTrainerUsername("trainer1");
+            trainingRequest.setFirstName("John");
+            trainingRequest.setLastName("Doe");
+            trainingRequest.setActive(true);
+            trainingRequest.setTrainingDate(LocalDate.of(2024, 3, 1));
+            trainingRequest.setTrainingDuration(5);
+            trainingRequest.setActionType("add");
+            return trainingRequest;
+      }
+
+      private static void assertTrainingRequest(TrainingRequest trainingRequest) {
+            assertEquals("trainer1", trainingRequest.getTrainerUsername());
+            assertEquals("John", trainingRequest.getFirstName());
+            assertTrue(trainingRequest.isActive());
+            assertEquals(LocalDate.of(2024, 3, 1), trainingRequest.getTrainingDate());
+            assertEquals(5, trainingRequest.getTrainingDuration());
+            assertEquals("add", trainingRequest.getActionType());
+      }
+}
@@ -0,0 +1,121 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TrainingRequestWriteAheadLog class.
+ */
+public class TrainingRequestWriteAheadLogTest {
+
+      private static final int SEGMENT_SIZE = 256;
+
+      @TempDir
+      Path directory;
+
+      /**
+       * Tests that appended requests are replayed in order by a new instance, across segments.
+       */
+      @Test
+      public void replay_AppendedRequests_ReturnsThemInOrder() throws IOException {
+            try (TrainingRequestWriteAheadLog writeAheadLog = new TrainingRequestWriteAheadLog(directory, SEGMENT_SIZE, false)) {
+                  for (int i = 1; i <= 10; i++) {
+                        writeAheadLog.append(request("trainer" + i, i % 2 == 0 ? "delete" : "add", i));
+                  }
+            }
+            assertTrue(segmentCount() > 1);
+
+            List<TrainingRequest> replayed = new ArrayList<>();
+            int count = new TrainingRequestWriteAheadLog(directory, SEGMENT_SIZE, false).replay(replayed::add);
+
+            assertEquals(10, count);
+            for (int i = 1; i <= 10; i++) {
+                  TrainingRequest trainingRequest = replayed.get(i - 1);
+                  assertEquals("trainer" + i, trainingRequest.getTrainerUsername());
+                  assertEquals(i % 2 == 0 ? "delete" : "add", trainingRequest.getActionType());
+                  assertEquals(i, trainingRequest.getTrainingDuration());
+                  assertEquals(LocalDate.of(2024, 3, 1), trainingRequest.getTrainingDate());
+                  assertEquals("John", trainingRequest.getFirstName());
+                  assertNull(trainingRequest.getLastName());
+                  assertTrue(trainingRequest.isActive());
+            }
+      }
+
+      /**
+       * Tests that deleting up to the segment returned by roll removes everything appended before it
+       * and keeps what is appended after it.
+       */
+      @Test
+      public void deleteUpTo_RolledSegments_KeepsLaterRequests() throws IOException {
+            TrainingRequestWriteAheadLog writeAheadLog = new TrainingRequestWriteAheadLog(directory, SEGMENT_SIZE, false);
+            writeAheadLog.append(request("trainer1", "add", 1));
+            long lastSegment = writeAheadLog.roll();
+            writeAheadLog.append(request("trainer2", "add", 2));
+
+            writeAheadLog.deleteUpTo(lastSegment);
+            writeAheadLog.close();
+
+            List<TrainingRequest> replayed = new ArrayList<>();
+            new TrainingRequestWriteAheadLog(directory, SEGMENT_SIZE, false).replay(replayed::add);
+            assertEquals(List.of("trainer2"), replayed.stream().map(TrainingRequest::getTrainerUsername).toList());
+      }
+
+      /**
+       * Tests that a record whose body was not completely written is not replayed.
+       */
+      @Test
+      public void replay_TornRecord_StopsBeforeIt() throws IOException {
+            try (TrainingRequestWriteAheadLog writeAheadLog = new TrainingRequestWriteAheadLog(directory, SEGMENT_SIZE, false)) {
+                  writeAheadLog.append(request("trainer1", "add", 1));
+                  writeAheadLog.append(request("trainer2", "add", 2));
+            }
+            Path segment;
+            try (Stream<Path> files = Files.list(directory)) {
+                  segment = files.findFirst().orElseThrow();
+            }
+            // Corrupt the last byte of the second record
+            byte[] bytes = Files.readAllBytes(segment);
+            int firstLength = ByteBuffer.wrap(bytes).getInt(0);
+            int secondStart = 8 + firstLength;
+            int secondLength = ByteBuffer.wrap(bytes).getInt(secondStart);
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                  channel.write(ByteBuffer.wrap(new byte[]{(byte) ~bytes[secondStart + 8 + secondLength - 1]}), secondStart + 8 + secondLength - 1);
+            }
+
+            List<TrainingRequest> replayed = new ArrayList<>();
+            new TrainingRequestWriteAheadLog(directory, SEGMENT_SIZE, false).replay(replayed::add);
+
+            assertEquals(List.of("trainer1"), replayed.stream().map(TrainingRequest::getTrainerUsername).toList());
+      }
+
+      private long segmentCount() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                  return files.count();
+            }
+      }
+
+      private static TrainingRequest request(String username, String actionType, int duration) {
+            TrainingRequest trainingRequest = new TrainingRequest();
+            trainingRequest.setTrainerUsername(username);
+            trainingRequest.setFirstName("John");
+            trainingRequest.setActive(true);
+            trainingRequest.setTrainingDate(LocalDate.of(2024, 3, 15));
+            trainingRequest.setTrainingDuration(duration);
+            trainingRequest.setActionType(actionType);
+            return trainingRequest;
+      }
+}
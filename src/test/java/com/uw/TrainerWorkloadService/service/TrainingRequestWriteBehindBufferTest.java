@@ -0,0 +1,214 @@
+package com.uw.TrainerWorkloadService.service;
+
+import com.uw.TrainerWorkloadService.config.WorkerThreads;
+import com.uw.TrainerWorkloadService.dto.TrainingRequest;
+import com.uw.TrainerWorkloadService.model.MonthlyHoursDelta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TrainingRequestWriteBehindBuffer class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TrainingRequestWriteBehindBufferTest {
+
+      // Long enough that only explicit flushes happen during a test
+      private static final long FLUSH_INTERVAL_MILLIS = 60_000;
+
+      @Mock
+      private TrainerWorkloadService trainerWorkloadService;
+
+      @TempDir
+      Path directory;
+
+      /**
+       * Tests that requests of the same month are coalesced and written with one bulk write on flush.
+       */
+      @Test
+      @SuppressWarnings("unchecked")
+      public void flush_BufferedRequests_AppliesCoalescedDeltas() throws IOException {
+            TrainingRequestWriteBehindBuffer buffer = buffer();
+            buffer.start();
+            try {
+                  buffer.accept(request("trainer1", "add", 5));
+                  buffer.accept(request("trainer1", "add", 3));
+                  buffer.accept(request("trainer1", "delete", 2));
+                  assertEquals(1, buffer.getPendingDeltas());
+                  verifyNoInteractions(trainerWorkloadService);
+
+                  buffer.flush(false);
+
+                  ArgumentCaptor<Collection<MonthlyHoursDelta>> deltas = ArgumentCaptor.forClass(Collection.class);
+                  verify(trainerWorkloadService).applyMonthlyHoursDeltas(deltas.capture());
+                  assertEquals(6, deltas.getValue().iterator().next().getDelta());
+                  assertEquals(0, buffer.getPendingDeltas());
+            } finally {
+                  buffer.stop();
+            }
+            // Nothing left to write on stop
+            verify(trainerWorkloadService, times(1)).applyMonthlyHoursDeltas(anyCollection());
+      }
+
+      /**
+       * Tests that requests that were never flushed are replayed and written by the next instance.
+       */
+      @Test
+      @SuppressWarnings("unchecked")
+      public void start_UnflushedRequests_ReplaysThem() throws IOException {
+            TrainingRequestWriteBehindBuffer crashed = buffer();
+            crashed.start();
+            crashed.accept(request("trainer1", "add", 5));
+            crashed.accept(request("trainer2", "add", 1));
+            // The final flush fails, as if the process had died before writing
+            doThrow(new IllegalStateException("Mongo is down")).doNothing().when(trainerWorkloadService).applyMonthlyHoursDeltas(anyCollection());
+            crashed.stop();
+
+            TrainingRequestWriteBehindBuffer restarted = buffer();
+            restarted.start();
+            assertEquals(2, restarted.getPendingDeltas());
+            restarted.stop();
+
+            ArgumentCaptor<Collection<MonthlyHoursDelta>> deltas = ArgumentCaptor.forClass(Collection.class);
+            verify(trainerWorkloadService, times(2)).applyMonthlyHoursDeltas(deltas.capture());
+            assertEquals(List.of("trainer1", "trainer2"),
+                    deltas.getAllValues().get(1).stream().map(MonthlyHoursDelta::getTrainerUsername).toList());
+
+            // Written, so a third start has nothing to replay
+            TrainingRequestWriteBehindBuffer third = buffer();
+            third.start();
+            assertEquals(0, third.getPendingDeltas());
+            third.stop();
+      }
+
+      /**
+       * Tests that an invalid request is rejected before it is logged.
+       */
+      @Test
+      public void accept_InvalidRequest_ThrowsIllegalArgumentException() throws IOException {
+            TrainingRequestWriteBehindBuffer buffer = buffer();
+            buffer.start();
+            try {
+                  assertThrows(IllegalArgumentException.class, () -> buffer.accept(request("trainer1", "update", 5)));
+                  assertEquals(0, buffer.getPendingDeltas());
+            } finally {
+                  buffer.stop();
+            }
+      }
+
+      /**
+       * Tests that a request accepted after the buffer stopped is applied right away.
+       */
+      @Test
+      public void accept_Stopped_AppliesRightAway() throws IOException {
+            TrainingRequestWriteBehindBuffer buffer = buffer();
+            buffer.start();
+            buffer.stop();
+
+            buffer.accept(request("trainer1", "add", 5));
+
+            verify(trainerWorkloadService).applyMonthlyHoursDeltas(anyCollection());
+      }
+
+      /**
+       * Tests that a request accepted after a failed final flush is logged behind the unwritten ones instead of
+       * being applied before them, and that both are written in order by the next instance.
+       */
+      @Test
+      @SuppressWarnings("unchecked")
+      public void accept_AfterFailedFinalFlush_LogsBehindPendingRequests() throws IOException {
+            TrainingRequestWriteBehindBuffer stopped = buffer();
+            stopped.start();
+            stopped.accept(request("trainer1", "add", 5));
+            doThrow(new IllegalStateException("Mongo is down")).doNothing().when(trainerWorkloadService).applyMonthlyHoursDeltas(anyCollection());
+            stopped.stop();
+
+            stopped.accept(request("trainer1", "delete", 2));
+            verify(trainerWorkloadService, times(1)).applyMonthlyHoursDeltas(anyCollection());
+
+            TrainingRequestWriteBehindBuffer restarted = buffer();
+            restarted.start();
+            assertEquals(1, restarted.getPendingDeltas());
+            restarted.stop();
+
+            ArgumentCaptor<Collection<MonthlyHoursDelta>> deltas = ArgumentCaptor.forClass(Collection.class);
+            verify(trainerWorkloadService, times(2)).applyMonthlyHoursDeltas(deltas.capture());
+            assertEquals(3, deltas.getAllValues().get(1).iterator().next().getDelta());
+      }
+
+      /**
+       * Tests that a batch still failing when the buffer stops is not deleted from the write-ahead log by the flush
+       * of the requests accepted during its retries, and that the next instance writes both in order.
+       */
+      @Test
+      @SuppressWarnings("unchecked")
+      public void stop_DuringFailingRetry_KeepsEveryRequestInWriteAheadLog() throws IOException {
+            // The first attempt and the retry after stop fail
+            doThrow(new IllegalStateException("Mongo is down")).doThrow(new IllegalStateException("Mongo is down")).doNothing()
+                    .when(trainerWorkloadService).applyMonthlyHoursDeltas(anyCollection());
+            TrainingRequestWriteBehindBuffer stopped = buffer(1);
+            stopped.start();
+            stopped.accept(request("trainer1", "add", 5));
+            // The flusher is now waiting to retry the failed batch
+            verify(trainerWorkloadService, timeout(5000)).applyMonthlyHoursDeltas(anyCollection());
+            stopped.accept(request("trainer1", "delete", 2));
+            stopped.stop();
+
+            verify(trainerWorkloadService, times(2)).applyMonthlyHoursDeltas(anyCollection());
+            TrainingRequestWriteBehindBuffer restarted = buffer();
+            restarted.start();
+            assertEquals(1, restarted.getPendingDeltas());
+            restarted.stop();
+
+            ArgumentCaptor<Collection<MonthlyHoursDelta>> deltas = ArgumentCaptor.forClass(Collection.class);
+            verify(trainerWorkloadService, times(3)).applyMonthlyHoursDeltas(deltas.capture());
+            assertEquals(3, deltas.getAllValues().get(2).iterator().next().getDelta());
+      }
+
+      /**
+       * Tests that stopping a buffer that was never started does nothing.
+       */
+      @Test
+      public void stop_NotStarted_DoesNothing() throws IOException {
+            TrainingRequestWriteBehindBuffer buffer = buffer();
+
+            assertDoesNotThrow(() -> buffer.stop());
+            assertFalse(buffer.isRunning());
+      }
+
+      private TrainingRequestWriteBehindBuffer buffer() throws IOException {
+            return buffer(1000);
+      }
+
+      private TrainingRequestWriteBehindBuffer buffer(int maxPending) throws IOException {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            return new TrainingRequestWriteBehindBuffer(trainerWorkloadService, meterRegistry, directory,
+                    4096, false, FLUSH_INTERVAL_MILLIS, maxPending, WorkerThreads.platform(), new TrainingPipelineMetrics(meterRegistry));
+      }
+
+      private static TrainingRequest request(String username, String actionType, int duration) {
+            TrainingRequest trainingRequest = new TrainingRequest();
+            trainingRequest.setTrainerUsername(username);
+            trainingRequest.setFirstName("John");
+            trainingRequest.setLastName("Doe");
+            trainingRequest.setActive(true);
+            trainingRequest.setTrainingDate(LocalDate.of(2024, 3, 15));
+            trainingRequest.setTrainingDuration(duration);
+            trainingRequest.setActionType(actionType);
+            return trainingRequest;
+      }
+}
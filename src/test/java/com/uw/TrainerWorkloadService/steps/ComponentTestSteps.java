@@ -16,7 +16,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,7 +56,7 @@ public class ComponentTestSteps {
             repository.deleteAll();
             trainerWorkload = new TrainerWorkload();
             trainerWorkload.setTrainerUsername(username);
-            trainerWorkload.setYears( List.of(new YearSummary(2021)));
+            trainerWorkload.getOrCreateYearSummary(2021);
             repository.save(trainerWorkload);
             trainingRequest = createTrainingRequest(username, LocalDate.of(2021, 1, 1), 5, true, "add");
       }
@@ -102,10 +101,7 @@ public class ComponentTestSteps {
             assertNotNull(updatedTrainerWorkload, "Trainer workload should exist");
 
             // Buscar el resumen del año 2021
-            YearSummary yearSummary = updatedTrainerWorkload.getYears().stream()
-                    .filter(summary -> summary.getYear() == 2021)
-                    .findFirst()
-                    .orElse(null);
+            YearSummary yearSummary = updatedTrainerWorkload.getYearSummary(2021);
             assertNotNull(yearSummary, "Year summary for 2021 should exist");
 
             // Verificar las horas en enero